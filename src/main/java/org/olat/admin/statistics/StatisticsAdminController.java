@@ -36,11 +36,15 @@ import org.olat.core.gui.control.Controller;
 import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.control.controller.BasicController;
+import org.olat.core.gui.control.generic.closablewrapper.CloseableModalController;
 import org.olat.core.gui.control.generic.modal.DialogBoxController;
 import org.olat.core.gui.control.generic.modal.DialogBoxUIFactory;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
+import org.olat.course.CourseModule;
 import org.olat.course.statistic.StatisticUpdateManager;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.controllers.ReferencableEntriesSearchController;
 import org.quartz.CronTrigger;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
@@ -66,10 +70,13 @@ public class StatisticsAdminController extends BasicController {
 
 	private static final String STATISTICS_FULL_RECALCULATION_TRIGGER_BUTTON = "statistics.fullrecalculation.trigger.button";
 	private static final String STATISTICS_UPDATE_TRIGGER_BUTTON = "statistics.update.trigger.button";
+	private static final String STATISTICS_REBUILD_COURSE_BUTTON = "statistics.rebuild.course.button";
 
 	private VelocityContainer content;
 
 	private DialogBoxController dialogCtr_;
+	private CloseableModalController cmc;
+	private ReferencableEntriesSearchController courseSearchCtrl;
 	
 	@Autowired
 	private Scheduler scheduler;
@@ -79,6 +86,7 @@ public class StatisticsAdminController extends BasicController {
 		content = createVelocityContainer("index");
 		LinkFactory.createButton(STATISTICS_FULL_RECALCULATION_TRIGGER_BUTTON, content, this);
 		LinkFactory.createButton(STATISTICS_UPDATE_TRIGGER_BUTTON, content, this);
+		LinkFactory.createButton(STATISTICS_REBUILD_COURSE_BUTTON, content, this);
 
 		refreshUIState();
 		
@@ -171,6 +179,52 @@ public class StatisticsAdminController extends BasicController {
 					getInitialComponent().setDirty(true);
 				}
 			}
+		} else if (source == courseSearchCtrl) {
+			if (event == ReferencableEntriesSearchController.EVENT_REPOSITORY_ENTRY_SELECTED) {
+				RepositoryEntry courseEntry = courseSearchCtrl.getSelectedEntry();
+				cmc.deactivate();
+				cleanUp();
+				doRebuildStatistics(courseEntry);
+			} else {
+				cmc.deactivate();
+				cleanUp();
+			}
+		} else if (source == cmc) {
+			cleanUp();
+		}
+	}
+	
+	private void cleanUp() {
+		removeAsListenerAndDispose(courseSearchCtrl);
+		removeAsListenerAndDispose(cmc);
+		courseSearchCtrl = null;
+		cmc = null;
+	}
+	
+	private void doSelectCourse(UserRequest ureq) {
+		courseSearchCtrl = new ReferencableEntriesSearchController(getWindowControl(), ureq,
+				CourseModule.getCourseTypeName(), translate("statistics.rebuild.course.select"));
+		listenTo(courseSearchCtrl);
+		
+		cmc = new CloseableModalController(getWindowControl(), translate("close"),
+				courseSearchCtrl.getInitialComponent(), true, translate("statistics.rebuild.course.select"));
+		listenTo(cmc);
+		cmc.activate();
+	}
+	
+	/**
+	 * Recalculate the statistics of a single course from the logging table,
+	 * for example after the logging rows of the course were restored.
+	 */
+	private void doRebuildStatistics(RepositoryEntry courseEntry) {
+		StatisticUpdateManager statisticUpdateManager = getStatisticUpdateManager();
+		if (statisticUpdateManager==null) {
+			log_.info("event: UpdateStatisticsJob configured, but no StatisticManager available");
+		} else if (statisticUpdateManager.rebuildStatistics(courseEntry, getUpdateFinishedCallback())) {
+			refreshUIState();
+			getInitialComponent().setDirty(true);
+		} else {
+			showWarning("statistics.rebuild.course.notstarted");
 		}
 	}
 
@@ -189,6 +243,8 @@ public class StatisticsAdminController extends BasicController {
 				dialogCtr_.activate();
 				
 			}
+		} else if (STATISTICS_REBUILD_COURSE_BUTTON.equals(event.getCommand())) {
+			doSelectCourse(ureq);
 		} else if (STATISTICS_UPDATE_TRIGGER_BUTTON.equals(event.getCommand())) {
 			StatisticUpdateManager statisticUpdateManager = getStatisticUpdateManager();
 			if (statisticUpdateManager==null) {
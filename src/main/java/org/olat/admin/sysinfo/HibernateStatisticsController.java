@@ -29,6 +29,7 @@ import org.olat.core.gui.components.velocity.VelocityContainer;
 import org.olat.core.gui.control.Event;
 import org.olat.core.gui.control.WindowControl;
 import org.olat.core.gui.control.controller.BasicController;
+import org.olat.core.logging.activity.LoggingObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -44,6 +45,8 @@ public class HibernateStatisticsController extends BasicController {
 	private DB dbInstance;
 	@Autowired
 	private DatabaseStatsManager databaseStatsManager;
+	@Autowired
+	private LoggingObjectWriter loggingObjectWriter;
 
 	public HibernateStatisticsController(UserRequest ureq, WindowControl wControl) {
 		super(ureq, wControl);
@@ -61,6 +64,7 @@ public class HibernateStatisticsController extends BasicController {
 		
 		DatabaseConnectionVO connectionInfos = databaseStatsManager.getConnectionInfos();
 		mainVC.contextPut("connectionInfos", connectionInfos);
+		mainVC.contextPut("activityLogWriter", loggingObjectWriter);
 	}
 	
 	@Override
@@ -31,12 +31,14 @@ import org.olat.basesecurity.Grant;
 import org.olat.basesecurity.Group;
 import org.olat.basesecurity.GroupMembership;
 import org.olat.basesecurity.GroupMembershipInheritance;
+import org.olat.basesecurity.GroupRoles;
 import org.olat.basesecurity.IdentityRef;
 import org.olat.basesecurity.model.GrantImpl;
 import org.olat.basesecurity.model.GroupImpl;
 import org.olat.basesecurity.model.GroupMembershipImpl;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.id.Identity;
+import org.olat.repository.manager.RepositoryEntryMyCourseProjectionDAO;
 import org.olat.resource.OLATResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -52,6 +54,8 @@ public class GroupDAO {
 	
 	@Autowired
 	private DB dbInstance;
+	@Autowired
+	private RepositoryEntryMyCourseProjectionDAO myCourseProjectionDao;
 	
 	public Group createGroup() {
 		GroupImpl group = new GroupImpl();
@@ -97,6 +101,7 @@ public class GroupDAO {
 		membership.setRole(role);
 		membership.setInheritanceMode(inheritanceMode);
 		dbInstance.getCurrentEntityManager().persist(membership);
+		markMyCoursesStale(identity, role);
 		
 		Set<GroupMembership> members = ((GroupImpl)group).getMembers();
 		if(members == null) {
@@ -131,6 +136,7 @@ public class GroupDAO {
 		membership.setRole(role);
 		membership.setInheritanceMode(inheritanceMode);
 		dbInstance.getCurrentEntityManager().persist(membership);
+		markMyCoursesStale(identity, role);
 	}
 	
 	public GroupMembership updateInheritanceMode(GroupMembership membership, GroupMembershipInheritance inheritanceMode) {
@@ -139,6 +145,7 @@ public class GroupDAO {
 	}
 	
 	public int removeMemberships(Group group) {
+		myCourseProjectionDao.markStale(group);
 		EntityManager em = dbInstance.getCurrentEntityManager();
 		List<GroupMembership> memberships = em.createNamedQuery("membershipsByGroup", GroupMembership.class)
 			.setParameter("groupKey", group.getKey())
@@ -150,6 +157,9 @@ public class GroupDAO {
 	}
 	
 	public int removeMemberships(Group group, String role) {
+		if(isMyCoursesRole(role)) {
+			myCourseProjectionDao.markStale(group);
+		}
 		return dbInstance.getCurrentEntityManager().createNamedQuery("deleteMembershipsByGroupAndRole")
 				.setParameter("groupKey", group.getKey())
 				.setParameter("role", role)
@@ -165,6 +175,9 @@ public class GroupDAO {
 		for(GroupMembership membership:memberships) {
 			em.remove(membership);
 		}
+		if(!memberships.isEmpty()) {
+			myCourseProjectionDao.markStale(identity);
+		}
 		return memberships.size();
 	}
 	
@@ -178,10 +191,14 @@ public class GroupDAO {
 		for(GroupMembership membership:memberships) {
 			em.remove(membership);
 		}
+		if(!memberships.isEmpty()) {
+			markMyCoursesStale(identity, role);
+		}
 		return memberships.size();
 	}
 	
 	public int removeMemberships(IdentityRef identity) {
+		myCourseProjectionDao.markStale(identity);
 		String deleteQuery = "delete from bgroupmember as membership where membership.identity.key=:identityKey";
 		
 		return dbInstance.getCurrentEntityManager()
@@ -191,6 +208,19 @@ public class GroupDAO {
 	
 	public void removeMembership(GroupMembership membership) {
 		dbInstance.getCurrentEntityManager().remove(membership);
+		markMyCoursesStale(membership.getIdentity(), membership.getRole());
+	}
+	
+	private void markMyCoursesStale(IdentityRef identity, String role) {
+		if(isMyCoursesRole(role)) {
+			myCourseProjectionDao.markStale(identity);
+		}
+	}
+	
+	private boolean isMyCoursesRole(String role) {
+		return GroupRoles.owner.name().equals(role)
+				|| GroupRoles.coach.name().equals(role)
+				|| GroupRoles.participant.name().equals(role);
 	}
 	
 	public int countMembers(Group group) {
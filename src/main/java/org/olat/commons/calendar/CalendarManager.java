@@ -37,6 +37,7 @@ import org.olat.commons.calendar.model.CalendarUserConfiguration;
 import org.olat.commons.calendar.model.Kalendar;
 import org.olat.commons.calendar.model.KalendarEvent;
 import org.olat.commons.calendar.model.KalendarRecurEvent;
+import org.olat.commons.calendar.ui.components.KalendarEventRenderWrapper;
 import org.olat.commons.calendar.ui.components.KalendarRenderWrapper;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
@@ -360,6 +361,19 @@ public interface CalendarManager {
 	
 
 	public List<KalendarEvent> getEvents(Kalendar calendar, Date from, Date to, boolean privateEventsVisible);
+	
+	/**
+	 * Collect the events and the occurrences of the recurring events of several
+	 * calendars within the period in one call. The occurrences are shared between
+	 * the calls and are invalidated when a calendar is persisted.
+	 * 
+	 * @param calendars The calendars
+	 * @param from Begin of the period
+	 * @param to End of the period
+	 * @param privateEventsVisible If the private events are collected
+	 * @return The events wrapped with their calendar, not sorted
+	 */
+	public List<KalendarEventRenderWrapper> getEvents(List<KalendarRenderWrapper> calendars, Date from, Date to, boolean privateEventsVisible);
 
 	/**
 	 * Get the recurring event
@@ -0,0 +1,174 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.calendar.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.olat.commons.calendar.model.Kalendar;
+import org.olat.commons.calendar.model.KalendarEvent;
+import org.olat.core.util.StringHelper;
+
+/**
+ * A read-only snapshot of the events of a calendar, organized for period
+ * queries. The single events are sorted by their begin date, the recurring
+ * events and the modified occurrences (the events with a recurrence id) are
+ * held apart.<br>
+ * The snapshot is bound to the instance of the calendar it was built from,
+ * the manager drops it every time the calendar is persisted. Every snapshot
+ * has its own generation, the caches which use it in their keys are
+ * invalidated with it.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class CalendarEventIndex {
+	
+	/** events longer than this are not indexed by their begin date, they would widen every scan */
+	private static final long MAX_INDEXED_DURATION = 31l * 24l * 60l * 60l * 1000l;
+	private static final AtomicLong generationCounter = new AtomicLong();
+	
+	private final long generation;
+	private final Kalendar kalendar;
+	private final int size;
+	
+	private final KalendarEvent[] sortedEvents;
+	private final long[] sortedBegins;
+	private final long maxDuration;
+	private final List<KalendarEvent> unsortedEvents;
+	private final List<KalendarEvent> recurringEvents;
+	private final List<KalendarEvent> recurrenceIdEvents;
+	private final Map<KalendarEvent,net.fortuna.ical4j.model.Date> recurrenceDates = new HashMap<>();
+	
+	CalendarEventIndex(Kalendar kalendar) {
+		this.kalendar = kalendar;
+		generation = generationCounter.incrementAndGet();
+		
+		List<KalendarEvent> events = kalendar.getEvents();
+		size = events.size();
+		List<KalendarEvent> sorted = new ArrayList<>(events.size());
+		List<KalendarEvent> unsorted = new ArrayList<>();
+		List<KalendarEvent> recurring = new ArrayList<>();
+		List<KalendarEvent> recurrenceIds = new ArrayList<>();
+		long duration = 0l;
+		for(KalendarEvent event:events) {
+			if(StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
+				recurrenceIds.add(event);
+			} else if(StringHelper.containsNonWhitespace(event.getRecurrenceRule())) {
+				recurring.add(event);
+			} else if(event.getBegin() == null || event.getEnd() == null) {
+				unsorted.add(event);
+			} else {
+				long eventDuration = event.getEnd().getTime() - event.getBegin().getTime();
+				if(eventDuration < 0l || eventDuration > MAX_INDEXED_DURATION) {
+					unsorted.add(event);
+				} else {
+					sorted.add(event);
+					duration = Math.max(duration, eventDuration);
+				}
+			}
+		}
+		
+		Collections.sort(sorted, new BeginComparator());
+		sortedEvents = sorted.toArray(new KalendarEvent[sorted.size()]);
+		sortedBegins = new long[sortedEvents.length];
+		for(int i=sortedEvents.length; i-->0; ) {
+			sortedBegins[i] = sortedEvents[i].getBegin().getTime();
+		}
+		maxDuration = duration;
+		unsortedEvents = unsorted;
+		recurringEvents = recurring;
+		recurrenceIdEvents = recurrenceIds;
+	}
+	
+	long getGeneration() {
+		return generation;
+	}
+	
+	/**
+	 * @param cal The calendar
+	 * @return true if the snapshot was built from this instance of the calendar
+	 */
+	boolean isIndexOf(Kalendar cal) {
+		return kalendar == cal && size == cal.size();
+	}
+	
+	/**
+	 * Return the single events (not recurring, not a modified occurrence) which
+	 * can overlap the specified period. The list is a superset, the caller needs
+	 * to check the dates of the events.
+	 * 
+	 * @param from Begin of the period
+	 * @param to End of the period
+	 * @return A list of candidates
+	 */
+	List<KalendarEvent> getCandidateEvents(Date from, Date to) {
+		List<KalendarEvent> candidates = new ArrayList<>(unsortedEvents);
+		long lowerBound = from.getTime() - maxDuration;
+		long upperBound = to.getTime();
+		int index = Arrays.binarySearch(sortedBegins, lowerBound);
+		if(index < 0) {
+			index = -index - 1;
+		} else {
+			// binary search returns any of the equal begins
+			while(index > 0 && sortedBegins[index - 1] == lowerBound) {
+				index--;
+			}
+		}
+		for(int i=index; i<sortedBegins.length && sortedBegins[i] <= upperBound; i++) {
+			candidates.add(sortedEvents[i]);
+		}
+		return candidates;
+	}
+	
+	List<KalendarEvent> getRecurringEvents() {
+		return recurringEvents;
+	}
+	
+	List<KalendarEvent> getRecurrenceIdEvents() {
+		return recurrenceIdEvents;
+	}
+	
+	net.fortuna.ical4j.model.Date getRecurrenceDate(KalendarEvent event) {
+		synchronized(recurrenceDates) {
+			return recurrenceDates.get(event);
+		}
+	}
+	
+	void putRecurrenceDate(KalendarEvent event, net.fortuna.ical4j.model.Date date) {
+		synchronized(recurrenceDates) {
+			recurrenceDates.put(event, date);
+		}
+	}
+	
+	private static class BeginComparator implements Comparator<KalendarEvent> {
+		@Override
+		public int compare(KalendarEvent e1, KalendarEvent e2) {
+			return e1.getBegin().compareTo(e2.getBegin());
+		}
+	}
+}
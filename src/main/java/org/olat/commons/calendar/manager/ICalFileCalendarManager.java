@@ -32,10 +32,17 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -43,6 +50,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -61,6 +69,7 @@ import org.olat.commons.calendar.model.KalendarEvent;
 import org.olat.commons.calendar.model.KalendarEventKey;
 import org.olat.commons.calendar.model.KalendarEventLink;
 import org.olat.commons.calendar.model.KalendarRecurEvent;
+import org.olat.commons.calendar.ui.components.KalendarEventRenderWrapper;
 import org.olat.commons.calendar.ui.components.KalendarRenderWrapper;
 import org.olat.commons.calendar.ui.events.CalendarGUIModifiedEvent;
 import org.olat.core.id.Identity;
@@ -69,7 +78,6 @@ import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.CodeHelper;
-import org.olat.core.util.FileUtils;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.WebappHelper;
 import org.olat.core.util.cache.CacheWrapper;
@@ -84,7 +92,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import net.fortuna.ical4j.data.CalendarBuilder;
-import net.fortuna.ical4j.data.CalendarOutputter;
+import net.fortuna.ical4j.data.FoldingWriter;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.DateList;
 import net.fortuna.ical4j.model.DateTime;
@@ -135,7 +143,19 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	/** property to exclude events from recurrence */
 	private static final String ICAL_EXDATE = "EXDATE";
 	
+	/** number of calendars for which the period index is held in memory */
+	private static final int MAX_INDEXED_CALENDARS = 1024;
+	/** max. number of characters of the rendered events held in memory (about 32MB) */
+	private static final long MAX_RENDERED_EVENTS_CHARS = 16l * 1024l * 1024l;
+	/** number of expanded recurring events (event and period) held in memory */
+	private static final int MAX_CACHED_OCCURRENCES = 8192;
+	
 	private TimeZone tz;
+	private String calendarHeader;
+	private String calendarFooter;
+	private final WeightedLRUMap<String,Map<KalendarEventKey,RenderedEvent>> renderedEvents = new WeightedLRUMap<>(MAX_RENDERED_EVENTS_CHARS);
+	private final Map<String,CalendarEventIndex> calendarIndexes = new LRUMap<>(MAX_INDEXED_CALENDARS);
+	private final Map<OccurrencesKey,List<Date>> occurrencesCache = new LRUMap<>(MAX_CACHED_OCCURRENCES);
 	
 	@Autowired
 	private UserManager userManager;
@@ -166,6 +186,12 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		// initialize timezone
 		tz = calendarModule.getDefaultTimeZone();
 		calendarCache = CoordinatorManager.getInstance().getCoordinator().getCacher().getCache(CalendarManager.class.getSimpleName(), "calendar");
+		
+		// the envelope of the iCal files, the events are written between them
+		String emptyCalendar = buildCalendar(new Kalendar("envelope", "envelope")).toString();
+		int footerIndex = emptyCalendar.lastIndexOf("END:VCALENDAR");
+		calendarHeader = emptyCalendar.substring(0, footerIndex);
+		calendarFooter = emptyCalendar.substring(footerIndex);
 	}
 	
 	/**
@@ -360,33 +386,152 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 	// o_clusterOK by:cg only called by Junit-test  
 	@Override
 	public boolean persistCalendar(Kalendar kalendar) {
-		Calendar calendar = buildCalendar(kalendar);
-		boolean success = writeCalendarFile(calendar, kalendar.getType(), kalendar.getCalendarID());
-		calendarCache.update(getKeyFor(kalendar.getType(), kalendar.getCalendarID()), kalendar);
+		String key = getKeyFor(kalendar.getType(), kalendar.getCalendarID());
+		boolean success = writeCalendarFile(kalendar, key);
+		synchronized(calendarIndexes) {
+			calendarIndexes.remove(key);
+		}
+		calendarCache.update(key, kalendar);
 		return success;
 	}
 	
-	private boolean writeCalendarFile(Calendar calendar, String calType, String calId) {
-		File fKalendarFile = getCalendarFile(calType, calId);
-		OutputStream os = null;
-		try {
-			os = new BufferedOutputStream(new FileOutputStream(fKalendarFile, false));
-			CalendarOutputter calOut = new CalendarOutputter(false);
-			calOut.output(calendar, os);
+	/**
+	 * Write the calendar in its iCal file. The events are rendered with the same
+	 * ical4j model than the CalendarOutputter, but the rendered text is held per
+	 * event and only the new or changed events are rendered again. The file is
+	 * written beside the current one and moved in place at the end.
+	 * 
+	 * @param kalendar The calendar
+	 * @param key The key of the calendar in the cache
+	 * @return true if successful
+	 */
+	private boolean writeCalendarFile(Kalendar kalendar, String key) {
+		Map<KalendarEventKey,RenderedEvent> previousEvents;
+		synchronized(renderedEvents) {
+			previousEvents = renderedEvents.get(key);
+		}
+		
+		File fKalendarFile = getCalendarFile(kalendar.getType(), kalendar.getCalendarID());
+		File fTmpKalendarFile = new File(fKalendarFile.getParentFile(), fKalendarFile.getName() + ".tmp");
+		Map<KalendarEventKey,RenderedEvent> currentEvents = new HashMap<>();
+		long currentEventsWeight = 0l;
+		try(OutputStream os = new BufferedOutputStream(new FileOutputStream(fTmpKalendarFile, false));
+				Writer writer = new FoldingWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), FoldingWriter.REDUCED_FOLD_LENGTH)) {
+			writer.write(calendarHeader);
+			for(KalendarEvent kEvent:kalendar.getEvents()) {
+				KalendarEventKey eventKey = new KalendarEventKey(kEvent);
+				String fingerprint = getFingerprint(kEvent);
+				RenderedEvent renderedEvent = previousEvents == null ? null : previousEvents.get(eventKey);
+				if(renderedEvent == null || !renderedEvent.getFingerprint().equals(fingerprint)) {
+					renderedEvent = new RenderedEvent(fingerprint, getVEvent(kEvent).toString());
+				}
+				currentEvents.put(eventKey, renderedEvent);
+				currentEventsWeight += renderedEvent.getWeight();
+				writer.write(renderedEvent.getText());
+			}
+			writer.write(calendarFooter);
 		} catch (Exception e) {
+			log.error("Cannot write calendar: " + fKalendarFile, e);
+			fTmpKalendarFile.delete();
+			synchronized(renderedEvents) {
+				renderedEvents.remove(key);
+			}
+			return false;
+		}
+		
+		try {
+			try {
+				Files.move(fTmpKalendarFile.toPath(), fKalendarFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(fTmpKalendarFile.toPath(), fKalendarFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			log.error("Cannot move calendar in place: " + fKalendarFile, e);
+			fTmpKalendarFile.delete();
+			synchronized(renderedEvents) {
+				renderedEvents.remove(key);
+			}
 			return false;
-		} finally {
-			FileUtils.closeSafely(os);
+		}
+		
+		synchronized(renderedEvents) {
+			renderedEvents.put(key, currentEvents, currentEventsWeight);
 		}
 		return true;
 	}
+	
+	/**
+	 * The fingerprint contains every field written by getVEvent(), if it
+	 * doesn't change, the rendered event doesn't change.
+	 * 
+	 * @param kEvent The event
+	 * @return A string
+	 */
+	private String getFingerprint(KalendarEvent kEvent) {
+		StringBuilder sb = new StringBuilder(256);
+		appendFingerprint(sb, kEvent.getID());
+		appendFingerprint(sb, kEvent.getBegin() == null ? null : Long.toString(kEvent.getBegin().getTime()));
+		appendFingerprint(sb, kEvent.getEnd() == null ? null : Long.toString(kEvent.getEnd().getTime()));
+		appendFingerprint(sb, Boolean.toString(kEvent.isAllDayEvent()));
+		appendFingerprint(sb, kEvent.getSubject());
+		appendFingerprint(sb, Long.toString(kEvent.getCreated()));
+		appendFingerprint(sb, kEvent.getCreatedBy());
+		appendFingerprint(sb, Long.toString(kEvent.getLastModified()));
+		appendFingerprint(sb, Integer.toString(kEvent.getClassification()));
+		appendFingerprint(sb, kEvent.getLocation());
+		appendFingerprint(sb, kEvent.getDescription());
+		List<KalendarEventLink> links = kEvent.getKalendarEventLinks();
+		appendFingerprint(sb, links == null ? null : Integer.toString(links.size()));
+		if(links != null) {
+			for(KalendarEventLink link:links) {
+				appendFingerprint(sb, link.getProvider());
+				appendFingerprint(sb, link.getId());
+				appendFingerprint(sb, link.getDisplayName());
+				appendFingerprint(sb, link.getURI());
+				appendFingerprint(sb, link.getIconCssClass());
+			}
+		}
+		appendFingerprint(sb, kEvent.getComment());
+		appendFingerprint(sb, kEvent.getNumParticipants() == null ? null : kEvent.getNumParticipants().toString());
+		String[] participants = kEvent.getParticipants();
+		appendFingerprint(sb, participants == null ? null : Integer.toString(participants.length));
+		if(participants != null) {
+			for(String participant:participants) {
+				appendFingerprint(sb, participant);
+			}
+		}
+		appendFingerprint(sb, kEvent.getSourceNodeId());
+		appendFingerprint(sb, kEvent.getManagedFlags() == null ? null : CalendarManagedFlag.toString(kEvent.getManagedFlags()));
+		appendFingerprint(sb, kEvent.getExternalId());
+		appendFingerprint(sb, kEvent.getExternalSource());
+		appendFingerprint(sb, kEvent.getRecurrenceID());
+		appendFingerprint(sb, kEvent.getRecurrenceRule());
+		appendFingerprint(sb, kEvent.getRecurrenceExc());
+		return sb.toString();
+	}
+	
+	private void appendFingerprint(StringBuilder sb, String value) {
+		if(value == null) {
+			sb.append('\u0001');
+		} else {
+			sb.append(value);
+		}
+		sb.append('\u0000');
+	}
 
 	/**
 	 * Delete calendar by type and id.
 	 */
 	@Override
 	public boolean deleteCalendar(String type, String calendarID) {
-		calendarCache.remove( getKeyFor(type,calendarID) );
+		String key = getKeyFor(type,calendarID);
+		calendarCache.remove(key);
+		synchronized(renderedEvents) {
+			renderedEvents.remove(key);
+		}
+		synchronized(calendarIndexes) {
+			calendarIndexes.remove(key);
+		}
 		File fKalendarFile = getCalendarFile(type, calendarID);
 		return fKalendarFile.delete();
 	}
@@ -1281,45 +1426,67 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		}
 	}
 	
+	@Override
+	public List<KalendarEventRenderWrapper> getEvents(List<KalendarRenderWrapper> calendars, Date from, Date to, boolean privateEventsVisible) {
+		List<KalendarEventRenderWrapper> events = new ArrayList<>(256);
+		for(KalendarRenderWrapper calendar:calendars) {
+			Kalendar kalendar = calendar.getKalendar();
+			if(kalendar == null) {
+				continue;
+			}
+			
+			List<KalendarEvent> calendarEvents = getEvents(kalendar, from, to, privateEventsVisible);
+			for(KalendarEvent calendarEvent:calendarEvents) {
+				events.add(new KalendarEventRenderWrapper(calendarEvent, calendar));
+			}
+		}
+		return events;
+	}
+	
 	@Override
 	public List<KalendarEvent> getEvents(Kalendar calendar, Date from, Date to, boolean privateEventsVisible) {
-		List<KalendarEvent> allEvents = calendar.getEvents();
+		CalendarEventIndex index = getCalendarIndex(calendar);
 		List<KalendarEvent> events = new ArrayList<>(128);
 		
-		Map<String, List<KalendarRecurEvent>> idToRecurringEvents = new HashMap<>();
-		//first pass, ignore events with recurrenceId
-		for(KalendarEvent event:allEvents) {
+		//first pass, the single events
+		for(KalendarEvent event:index.getCandidateEvents(from, to)) {
 			if(!privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_PRIVATE) {
 				continue;
 			}
-			if(StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
+			if(isInRange(from, to, event)) {
+				events.add(event);
+			}
+		}
+		
+		//second pass, the recurring events
+		Map<String, List<KalendarRecurEvent>> idToRecurringEvents = new HashMap<>();
+		for(KalendarEvent event:index.getRecurringEvents()) {
+			if(!privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_PRIVATE) {
 				continue;
 			}
 
-			if (StringHelper.containsNonWhitespace(event.getRecurrenceRule())) {
-				List<KalendarRecurEvent> recurringEvents = getRecurringEventsInPeriod(event, from, to, tz);
-				if(recurringEvents.size() > 0) {
-					idToRecurringEvents.put(event.getID(), recurringEvents);
-					for (KalendarRecurEvent recurEvent:recurringEvents) {
-						events.add(recurEvent);
-					}
+			List<KalendarRecurEvent> recurringEvents = getRecurringEventsInPeriod(index, event, from, to);
+			if(recurringEvents.size() > 0) {
+				idToRecurringEvents.put(event.getID(), recurringEvents);
+				for (KalendarRecurEvent recurEvent:recurringEvents) {
+					events.add(recurEvent);
 				}
-			} else if(isInRange(from, to, event)) {
-				events.add(event);
 			}
 		}
 		
 		//process events with recurrenceId
-		for(KalendarEvent event:allEvents) {
-			if(!StringHelper.containsNonWhitespace(event.getRecurrenceID())) {
-				continue;
-			}
-
+		if(idToRecurringEvents.isEmpty()) {
+			return events;
+		}
+		for(KalendarEvent event:index.getRecurrenceIdEvents()) {
 			String id = event.getID();
 			if(idToRecurringEvents.containsKey(id)) {
-				VEvent vEvent = getVEvent(event);
-				RecurrenceId recurrenceId = vEvent.getRecurrenceId();
-				net.fortuna.ical4j.model.Date startDate = recurrenceId.getDate();
+				net.fortuna.ical4j.model.Date startDate = index.getRecurrenceDate(event);
+				if(startDate == null) {
+					VEvent vEvent = getVEvent(event);
+					startDate = vEvent.getRecurrenceId().getDate();
+					index.putRecurrenceDate(event, startDate);
+				}
 				if(startDate instanceof net.fortuna.ical4j.model.DateTime) {
 					List<KalendarRecurEvent> recurringEvents = idToRecurringEvents.get(id);
 					for(KalendarRecurEvent recurEvent:recurringEvents) {
@@ -1344,6 +1511,28 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		return events;
 	}
 	
+	/**
+	 * Return the period index of the calendar, build it if the calendar
+	 * was persisted or reloaded since the last query.
+	 * 
+	 * @param calendar The calendar
+	 * @return The index
+	 */
+	private CalendarEventIndex getCalendarIndex(Kalendar calendar) {
+		String key = getKeyFor(calendar.getType(), calendar.getCalendarID());
+		CalendarEventIndex index;
+		synchronized(calendarIndexes) {
+			index = calendarIndexes.get(key);
+		}
+		if(index == null || !index.isIndexOf(calendar)) {
+			index = new CalendarEventIndex(calendar);
+			synchronized(calendarIndexes) {
+				calendarIndexes.put(key, index);
+			}
+		}
+		return index;
+	}
+	
 	private final boolean isInRange(Date from, Date to, KalendarEvent event) {
 		Date end = event.getEnd();
 		Date begin = event.getBegin();
@@ -1370,7 +1559,43 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		return false;
 	}
 	
-	private final List<KalendarRecurEvent> getRecurringEventsInPeriod(KalendarEvent kEvent, Date periodStart, Date periodEnd, TimeZone userTz) {
+	private final List<KalendarRecurEvent> getRecurringEventsInPeriod(CalendarEventIndex index, KalendarEvent kEvent, Date periodStart, Date periodEnd) {
+		// the generation of the index is part of the key, persisting the calendar invalidates the occurrences
+		OccurrencesKey occurrencesKey = new OccurrencesKey(index.getGeneration(), kEvent.getID(), periodStart, periodEnd);
+		List<Date> beginDates;
+		synchronized(occurrencesCache) {
+			beginDates = occurrencesCache.get(occurrencesKey);
+		}
+		if(beginDates == null) {
+			beginDates = Collections.unmodifiableList(getRecurringDatesInPeriod(kEvent, periodStart, periodEnd, tz));
+			synchronized(occurrencesCache) {
+				occurrencesCache.put(occurrencesKey, beginDates);
+			}
+		}
+		if(beginDates.isEmpty()) {
+			return Collections.emptyList();
+		}
+		
+		long duration = kEvent.getEnd().getTime() - kEvent.getBegin().getTime();
+		List<KalendarRecurEvent> recurringEvents = new ArrayList<>(beginDates.size());
+		for(Date beginDate:beginDates) {
+			boolean original = kEvent.getBegin().compareTo(beginDate) == 0; //prevent doubled events
+			Date begin = new Date(beginDate.getTime());
+			Date end = new Date(beginDate.getTime() + duration);
+			KalendarRecurEvent recurEvent = new KalendarRecurEvent(kEvent.getID(), original, kEvent.getSubject(), begin, end);
+			recurEvent.setOccurenceDate(new Date(beginDate.getTime()));
+			recurEvent.setSourceEvent(kEvent);
+			recurringEvents.add(recurEvent);
+		}
+		return recurringEvents;
+	}
+	
+	/**
+	 * Expand the recurrence rule of the event in the specified period.
+	 * 
+	 * @return The begin dates of the occurrences
+	 */
+	private final List<Date> getRecurringDatesInPeriod(KalendarEvent kEvent, Date periodStart, Date periodEnd, TimeZone userTz) {
 		VEvent vEvent = getVEvent(kEvent);
 		if(vEvent.getEndDate() == null || vEvent.getStartDate().getDate().after(vEvent.getEndDate().getDate())) {
 			return Collections.emptyList();
@@ -1379,7 +1604,8 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		//calculate the events in the specified period
         Period recurringPeriod = new Period(new DateTime(periodStart), new DateTime(periodEnd));
 		PeriodList periodList = vEvent.calculateRecurrenceSet(recurringPeriod);
-		List<KalendarRecurEvent> recurringEvents = new ArrayList<>(periodList.size());
+		List<Date> recurringDates = new ArrayList<>(periodList.size());
+		Date recurrenceEnd = getRecurrenceEndDate(kEvent.getRecurrenceRule());
 		
 		for(Object obj : periodList) {
 			Period period = (Period)obj;
@@ -1389,10 +1615,6 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			eventStartCal.clear();
 			eventStartCal.setTime(kEvent.getBegin());
 			
-			java.util.Calendar eventEndCal = java.util.Calendar.getInstance();
-			eventEndCal.clear();
-			eventEndCal.setTime(kEvent.getEnd());
-			
 			java.util.Calendar recurStartCal = java.util.Calendar.getInstance();
 			recurStartCal.clear();
 			if(userTz == null) {
@@ -1400,33 +1622,18 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 			} else {
 				recurStartCal.setTimeInMillis(date.getTime() - userTz.getOffset(date.getTime()));
 			}
-			long duration = kEvent.getEnd().getTime() - kEvent.getBegin().getTime();
 
 			java.util.Calendar beginCal = java.util.Calendar.getInstance();
 			beginCal.clear();
 			beginCal.set(recurStartCal.get(java.util.Calendar.YEAR), recurStartCal.get(java.util.Calendar.MONTH), recurStartCal.get(java.util.Calendar.DATE), 
 				eventStartCal.get(java.util.Calendar.HOUR_OF_DAY), eventStartCal.get(java.util.Calendar.MINUTE), eventStartCal.get(java.util.Calendar.SECOND));
-			
-			java.util.Calendar endCal = java.util.Calendar.getInstance();
-			endCal.clear();
-			endCal.setTimeInMillis(beginCal.getTimeInMillis() + duration);
 
-			boolean original = false;
-			if(kEvent.getBegin().compareTo(beginCal.getTime()) == 0) {
-				original = true; //prevent doubled events
-			}
-
-			Date recurrenceEnd = getRecurrenceEndDate(kEvent.getRecurrenceRule());
 			if(kEvent.isAllDayEvent() && recurrenceEnd != null && recurStartCal.getTime().after(recurrenceEnd)) {
 				continue; //workaround for ical4j-bug in all day events
 			}
-		
-			KalendarRecurEvent recurEvent = new KalendarRecurEvent(kEvent.getID(), original, kEvent.getSubject(), beginCal.getTime(), endCal.getTime());
-			recurEvent.setOccurenceDate(beginCal.getTime());
-			recurEvent.setSourceEvent(kEvent);
-			recurringEvents.add(recurEvent);
+			recurringDates.add(beginCal.getTime());
 		}
-		return recurringEvents;
+		return recurringDates;
 	}
 	
 	private final DateList getRecurringsInPeriod(Date periodStart, Date periodEnd, KalendarEvent kEvent) {
@@ -1545,4 +1752,142 @@ public class ICalFileCalendarManager implements CalendarManager, InitializingBea
 		
 		return null;
 	}
+	
+	private static class RenderedEvent {
+		
+		private final String fingerprint;
+		private final String text;
+		
+		public RenderedEvent(String fingerprint, String text) {
+			this.fingerprint = fingerprint;
+			this.text = text;
+		}
+
+		public String getFingerprint() {
+			return fingerprint;
+		}
+
+		public String getText() {
+			return text;
+		}
+		
+		/**
+		 * @return The number of characters held by the rendered event
+		 */
+		public long getWeight() {
+			return 64l + fingerprint.length() + text.length();
+		}
+	}
+	
+	private static class OccurrencesKey {
+		
+		private final long generation;
+		private final String eventId;
+		private final long from;
+		private final long to;
+		
+		public OccurrencesKey(long generation, String eventId, Date from, Date to) {
+			this.generation = generation;
+			this.eventId = eventId;
+			this.from = from.getTime();
+			this.to = to.getTime();
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(generation) + (eventId == null ? 9783 : eventId.hashCode())
+					+ Long.hashCode(from) + 31 * Long.hashCode(to);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof OccurrencesKey) {
+				OccurrencesKey key = (OccurrencesKey)obj;
+				return generation == key.generation && from == key.from && to == key.to
+						&& ((eventId == null && key.eventId == null) || (eventId != null && eventId.equals(key.eventId)));
+			}
+			return false;
+		}
+	}
+	
+	/**
+	 * LRU map bounded by the sum of the weights of its values and not by
+	 * the number of entries. A value heavier than the max. weight is not
+	 * held at all. The map is not thread-safe.
+	 */
+	private static class WeightedLRUMap<K,V> {
+		
+		private final long maxWeight;
+		private long currentWeight = 0l;
+		private final LinkedHashMap<K,WeightedValue<V>> map = new LinkedHashMap<>(64, 0.75f, true);
+		
+		public WeightedLRUMap(long maxWeight) {
+			this.maxWeight = maxWeight;
+		}
+		
+		public V get(K key) {
+			WeightedValue<V> value = map.get(key);
+			return value == null ? null : value.getValue();
+		}
+		
+		public void put(K key, V value, long weight) {
+			remove(key);
+			if(weight > maxWeight) {
+				return;
+			}
+			
+			map.put(key, new WeightedValue<>(value, weight));
+			currentWeight += weight;
+			for(Iterator<WeightedValue<V>> it=map.values().iterator(); currentWeight > maxWeight && it.hasNext(); ) {
+				currentWeight -= it.next().getWeight();
+				it.remove();
+			}
+		}
+		
+		public void remove(K key) {
+			WeightedValue<V> value = map.remove(key);
+			if(value != null) {
+				currentWeight -= value.getWeight();
+			}
+		}
+	}
+	
+	private static class WeightedValue<V> {
+		
+		private final V value;
+		private final long weight;
+		
+		public WeightedValue(V value, long weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+
+		public V getValue() {
+			return value;
+		}
+
+		public long getWeight() {
+			return weight;
+		}
+	}
+	
+	private static class LRUMap<K,V> extends LinkedHashMap<K,V> {
+
+		private static final long serialVersionUID = 4893520347207627461L;
+		
+		private final int maxSize;
+		
+		public LRUMap(int maxSize) {
+			super(64, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<K,V> eldest) {
+			return size() > maxSize;
+		}
+	}
 }
@@ -116,15 +116,14 @@ public class CalendarPrintMapper implements Mapper {
 	}
 	
 	private void collectEvents(List<KalendarEventRenderWrapper> eventList, List<KalendarRenderWrapper> wrappers) {
+		List<KalendarRenderWrapper> visibleWrappers = new ArrayList<>(wrappers.size());
 		for (KalendarRenderWrapper calendarWrapper:wrappers) {
 			if (calendarWrapper.isVisible()) {
-				List<KalendarEvent> events = calendarManager.getEvents(calendarWrapper.getKalendar(), from, to, true);
-				for (KalendarEvent event : events) {
-					//private filter???
-					eventList.add(new KalendarEventRenderWrapper(event, calendarWrapper));
-				}
+				visibleWrappers.add(calendarWrapper);
 			}
 		}
+		//private filter???
+		eventList.addAll(calendarManager.getEvents(visibleWrappers, from, to, true));
 	}
 	
 	/*
@@ -33,7 +33,6 @@ import org.olat.core.gui.render.Renderer;
 import org.olat.core.gui.render.StringOutput;
 import org.olat.core.gui.render.URLBuilder;
 import org.olat.core.gui.translator.Translator;
-import org.olat.core.util.StringHelper;
 
 /**
  * 
@@ -115,20 +114,15 @@ public class FullCalendarComponentRenderer extends DefaultComponentRenderer {
 		  .append("   selectable: true,\n")
 		  .append("   selectHelper: true,\n")
 		  .append("	  eventSources:[");
-		int count = 0;
+		// one source for all the visible calendars, the events carry the color of their calendar
+		boolean visible = false;
 		for(KalendarRenderWrapper calWrapper: fcC.getCalendars()) {
-			if(fcC.isCalendarVisible(calWrapper)) {
-				String calId = calWrapper.getKalendar().getCalendarID();
-				String color = calWrapper.getCssClass();
-				if(StringHelper.containsNonWhitespace(color) && color.startsWith("o_cal_")) {
-					color = color.substring(6, color.length());
-				}
-				if(count++ != 0) sb.append(",");
-				sb.append("{\n")
-				  .append("   url:'").append(fcC.getMapperUrl()).append("/").append(calId).append(".json',\n")
-				  .append("   color:'").append(color).append("'\n")
-				  .append("}");
-			}
+			visible |= fcC.isCalendarVisible(calWrapper);
+		}
+		if(visible) {
+			sb.append("{\n")
+			  .append("   url:'").append(fcC.getMapperUrl()).append("/").append(FullCalendarMapper.ALL_CALENDARS_PATH).append("'\n")
+			  .append("}");
 		}
 		sb.append("   ],\n")
 		  .append("   eventAfterRender: function(event, element, view) {\n")
@@ -20,6 +20,7 @@
 package org.olat.commons.calendar.ui.components;
 
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -274,7 +275,6 @@ public class FullCalendarElement extends FormItemImpl {
 	}
 	
 	private KalendarRecurEvent getCurrenceKalendarEvent(KalendarRenderWrapper cal, String eventId) {
-		boolean privateEventsVisible = cal.isPrivateEventsVisible();
 		CalendarManager calendarManager = CoreSpringFactory.getImpl(CalendarManager.class);
 		Date currentDate = component.getCurrentDate();
 		Calendar calendar = Calendar.getInstance();
@@ -284,8 +284,9 @@ public class FullCalendarElement extends FormItemImpl {
 		calendar.add(Calendar.MONTH, +4);
 		Date to = calendar.getTime();
 		
-		List<KalendarEvent> events = calendarManager.getEvents(cal.getKalendar(), from, to, privateEventsVisible);
-		for(KalendarEvent event:events) {
+		List<KalendarEventRenderWrapper> events = calendarManager.getEvents(Collections.singletonList(cal), from, to, cal.isPrivateEventsVisible());
+		for(KalendarEventRenderWrapper eventWrapper:events) {
+			KalendarEvent event = eventWrapper.getEvent();
 			if(event instanceof KalendarRecurEvent) {
 				KalendarRecurEvent kEvent = (KalendarRecurEvent)event;
 				if(eventId.equals(FullCalendarComponent.normalizeId(event))) {
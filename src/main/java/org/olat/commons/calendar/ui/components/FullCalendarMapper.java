@@ -21,6 +21,8 @@ package org.olat.commons.calendar.ui.components;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -49,6 +51,8 @@ public class FullCalendarMapper implements Mapper {
 	
 	private static final OLog log = Tracing.createLoggerFor(FullCalendarMapper.class);
 	private static final DateFormat formatDateTime = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+	/** path of the event source with the events of all visible calendars */
+	public static final String ALL_CALENDARS_PATH = "all/calendars.json";
 	
 	private final FullCalendarComponent fcC;
 	private final CalendarManager calendarManager;
@@ -77,7 +81,6 @@ public class FullCalendarMapper implements Mapper {
 		try {
 			JSONArray ja = new JSONArray();
 			
-			String calendarId = getCalendarID(request);
 			String start = request.getParameter("start");
 			String end = request.getParameter("end");
 			
@@ -92,7 +95,14 @@ public class FullCalendarMapper implements Mapper {
 				endDate = new Date(time * 1000);
 			}
 			
-			collectKalendarEvents(ja, calendarId, startDate, endDate);
+			List<KalendarRenderWrapper> calendars;
+			if(relPath != null && relPath.endsWith(ALL_CALENDARS_PATH)) {
+				calendars = getVisibleCalendars();
+			} else {
+				KalendarRenderWrapper cal = fcC.getCalendar(getCalendarID(request));
+				calendars = cal == null ? Collections.emptyList() : Collections.singletonList(cal);
+			}
+			collectKalendarEvents(ja, calendars, startDate, endDate);
 			return new JSONMediaResource(ja, "UTF-8");
 		} catch (JSONException e) {
 			log.error("", e);
@@ -113,21 +123,32 @@ public class FullCalendarMapper implements Mapper {
 		return calendarId;
 	}
 	
-	private void collectKalendarEvents(JSONArray ja, String calendarId, Date from, Date to) throws JSONException {
-		KalendarRenderWrapper cal =  fcC.getCalendar(calendarId);
-		if(cal != null) {
+	private List<KalendarRenderWrapper> getVisibleCalendars() {
+		List<KalendarRenderWrapper> calendars = new ArrayList<>();
+		for(KalendarRenderWrapper cal:fcC.getCalendars()) {
+			if(fcC.isCalendarVisible(cal)) {
+				calendars.add(cal);
+			}
+		}
+		return calendars;
+	}
+	
+	private void collectKalendarEvents(JSONArray ja, List<KalendarRenderWrapper> calendars, Date from, Date to) throws JSONException {
+		if(calendars.isEmpty()) return;
+		
+		// the private events are filtered per calendar below
+		List<KalendarEventRenderWrapper> events = calendarManager.getEvents(calendars, from, to, true);
+		for(KalendarEventRenderWrapper eventWrapper:events) {
+			KalendarEvent event = eventWrapper.getEvent();
+			KalendarRenderWrapper cal = eventWrapper.getKalendarRenderWrapper();
 			boolean privateEventsVisible = cal.isPrivateEventsVisible();
-			List<KalendarEvent> events = calendarManager.getEvents(cal.getKalendar(), from, to, privateEventsVisible);
-
-			for(KalendarEvent event:events) {
-				if(!privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_PRIVATE) {
-					continue;
-				}
-				
-				boolean timeOnly = !privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_X_FREEBUSY;
-				JSONObject jsonEvent = getJSONEvent(event, cal, timeOnly);
-				ja.put(jsonEvent);
+			if(!privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_PRIVATE) {
+				continue;
 			}
+			
+			boolean timeOnly = !privateEventsVisible && event.getClassification() == KalendarEvent.CLASS_X_FREEBUSY;
+			JSONObject jsonEvent = getJSONEvent(event, cal, timeOnly);
+			ja.put(jsonEvent);
 		}
 	}
 	
@@ -213,6 +213,7 @@ public class ClusterAdminControllerCluster extends BasicController {
 		
 		boolean started = true;
 		perfInfoVc.contextPut("perfs", null);
+		perfInfoVc.contextPut("probes", clusBus.getProbes());
 		if (started) {
 			perfInfoVc.contextPut("started", "started");
 		} else {
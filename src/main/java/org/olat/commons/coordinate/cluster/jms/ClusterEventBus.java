@@ -24,13 +24,20 @@
 */
 package org.olat.commons.coordinate.cluster.jms;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import javax.jms.BytesMessage;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.JMSException;
@@ -59,6 +66,11 @@ import org.olat.core.util.resource.OresHelper;
 /**
  * This class realizes a clustered (multiple java vm) system event bus. it uses JMS 
  * (per default, apache activeMQ 4.1.4 is configured using spring) as an implementation.
+ * <p>
+ * The events are not sent one by one: the sender thread collects the events fired
+ * during a short window (batchWindow) and sends them together in one message encoded
+ * with the ClusterEventCodec. The receiver dispatches the whole batch and commits
+ * the database session once per message.
  * 
  * @author Felix Jost
  */
@@ -72,6 +84,8 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	// settings
 	long sendInterval = 1000; // 1000 miliseconds between each "ping/alive/info" message, can be set using spring
 	long jmsMsgDelayLimit = 5000;  // max duration of ClusterInfoEvent send-receive time in ms
+	long batchWindow = 10; // max. time in miliseconds an event waits for others to be sent together
+	int maxBatchSize = 200; // max. number of events in one message
 	
 	// counters
 	private long latestSentMsgId = -1;
@@ -90,7 +104,7 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	
 	// for bookkeeping how many resources have how many listeners
 	private final BusListenerInfos busInfos = new BusListenerInfos();
-	protected boolean isClusterInfoEventThreadRunning = true;
+	protected volatile boolean isClusterInfoEventThreadRunning = true;
 	private ConnectionFactory connectionFactory;
 	private Topic destination;
 	private Connection connection;
@@ -105,10 +119,15 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 	private final SimpleProbe mrtgProbeJMSProcessingTime_ = new SimpleProbe();
 	
 	private final SimpleProbe mrtgProbeJMSEnqueueTime_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSSentBatchSize_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSReceivedBatchSize_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSEncodeTime_ = new SimpleProbe();
+	private final SimpleProbe mrtgProbeJMSDecodeTime_ = new SimpleProbe();
 	//final LinkedList<Object> incomingMessagesQueue_ = new LinkedList<Object>();
 	//private final static int LIMIT_ON_INCOMING_MESSAGE_QUEUE = 200;
 	
 	private ExecutorService jmsExecutor;
+	private final BlockingQueue<JMSWrapper> outgoingQueue = new LinkedBlockingQueue<>();
 	
 	/**
 	 * [used by spring]
@@ -130,6 +149,7 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		producer = sessionProducer.createProducer(destination);
 
 		connection.start();
+		jmsExecutor.execute(new Sender());
 		log.info("ClusterEventBus JMS started");
 
 		final Integer nodeId = clusterConfig.getNodeId();
@@ -184,6 +204,34 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		return mrtgProbeJMSEnqueueTime_;
 	}
 	
+	/**
+	 * @return The number of events per sent message
+	 */
+	public SimpleProbe getMrtgProbeJMSSentBatchSize() {
+		return mrtgProbeJMSSentBatchSize_;
+	}
+	
+	/**
+	 * @return The number of events per received message
+	 */
+	public SimpleProbe getMrtgProbeJMSReceivedBatchSize() {
+		return mrtgProbeJMSReceivedBatchSize_;
+	}
+	
+	/**
+	 * @return The time to encode a message in microseconds
+	 */
+	public SimpleProbe getMrtgProbeJMSEncodeTime() {
+		return mrtgProbeJMSEncodeTime_;
+	}
+	
+	/**
+	 * @return The time to decode a message in microseconds
+	 */
+	public SimpleProbe getMrtgProbeJMSDecodeTime() {
+		return mrtgProbeJMSDecodeTime_;
+	}
+	
 	/* (non-Javadoc)
 	 * @see org.olat.core.util.event.GenericEventListener#event(org.olat.core.gui.control.Event)
 	 */
@@ -224,29 +272,8 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		final long msgId = ++latestSentMsgId;
 		final Integer nodeId = clusterConfig.getNodeId();
 		
-		jmsExecutor.execute(new Runnable() {
-			@Override
-			public void run() {
-				try {
-					ObjectMessage message = sessionProducer.createObjectMessage();
-					message.setObject(new JMSWrapper(nodeId, msgId, ores, event));
-					producer.send(message);
-				} catch (Exception e) {
-					log.error("Cannot send JMS message", e);
-					// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
-					// if we are the only node running, then we could continue.
-					// a) either throw an exception - meaning olat doesn't really run at all and produces redscreens all the time and logging in is not possible.
-					// b) or warn in the log/jmx - but surveillance is critical here!!
-					// -> do the more fail-fast option a) at the moment for correctness reasons.
-					System.err.println("###############################################################################################");
-					System.err.println("### ClusterEventBus: communication error with JMS - cannot send messages!!!" + e);
-					System.err.println("###############################################################################################");
-					
-					throw new OLATRuntimeException("communication error with JMS - cannot send messages!!!", e);
-				}
-				numOfSentMessages++;
-			}
-		});
+		// the sender thread packs it with the other events of the batch window
+		outgoingQueue.add(new JMSWrapper(nodeId, msgId, ores, event));
 
 		// store it for later access by the admin controller
 		String sentMsg = "sent msg: from node:" + nodeId + ", olat-id:" + msgId + ", ores:"	+ ores.getResourceableTypeName() + ":" + ores.getResourceableId()+", event:"+event;
@@ -254,6 +281,59 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		if (log.isDebug()) log.debug(sentMsg);
 	}
 
+	private void send(List<JMSWrapper> jmsWrappers) throws JMSException, IOException {
+		long start = System.nanoTime();
+		byte[] data = ClusterEventCodec.encode(clusterConfig.getNodeId(), jmsWrappers);
+		mrtgProbeJMSEncodeTime_.addMeasurement((System.nanoTime() - start) / 1000l);
+		
+		BytesMessage message = sessionProducer.createBytesMessage();
+		message.writeBytes(data);
+		producer.send(message);
+		mrtgProbeJMSSentBatchSize_.addMeasurement(jmsWrappers.size());
+		numOfSentMessages += jmsWrappers.size();
+	}
+	
+	/**
+	 * The only thread which sends messages, it waits at most batchWindow
+	 * miliseconds for other events before sending.
+	 */
+	private class Sender implements Runnable {
+		
+		@Override
+		public void run() {
+			List<JMSWrapper> batch = new ArrayList<>(maxBatchSize);
+			// at stop, send what is still queued
+			while(isClusterInfoEventThreadRunning || !outgoingQueue.isEmpty()) {
+				try {
+					JMSWrapper first = outgoingQueue.poll(1, TimeUnit.SECONDS);
+					if(first == null) {
+						continue;
+					}
+					
+					batch.add(first);
+					long deadline = System.currentTimeMillis() + batchWindow;
+					while(batch.size() < maxBatchSize) {
+						long wait = deadline - System.currentTimeMillis();
+						JMSWrapper next = wait > 0 ? outgoingQueue.poll(wait, TimeUnit.MILLISECONDS) : outgoingQueue.poll();
+						if(next == null) {
+							break;
+						}
+						batch.add(next);
+					}
+					send(batch);
+				} catch (InterruptedException e) {
+					break;
+				} catch (Exception e) {
+					// cluster:::: what shall we do here: the JMS bus is broken! and we thus cannot know if other nodes are alive.
+					// the events of the batch are lost, the sender goes on with the next ones.
+					log.error("ClusterEventBus: communication error with JMS - cannot send " + batch.size() + " events", e);
+				} finally {
+					batch.clear();
+				}
+			}
+		}
+	}
+
 	/**
 	 * called by springs org.springframework.jms.listener.DefaultMessageListenerContainer, see coredefaultconfig.xml
 	 * we receive a message here on the topic reserved for olat system bus messages. 
@@ -302,46 +382,32 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 			lastOnMessageFinishTime_ = -1;
 		}
 
-		ObjectMessage om = (ObjectMessage) message;
 		try {
 			// unpack
-			JMSWrapper jmsWrapper = (JMSWrapper) om.getObject();
-			Integer nodeId = jmsWrapper.getNodeId();			
-			MultiUserEvent event = jmsWrapper.getMultiUserEvent();
-			OLATResourceable ores = jmsWrapper.getOres();
-			boolean fromSameNode = clusterConfig.getNodeId().equals(nodeId);
-
-			String recMsg = "received msg: "+(fromSameNode? "[same node]":"")+" from node:" + 
-			nodeId + ", olat-id:" + jmsWrapper.getMsgId() + ", ores:" + ores.getResourceableTypeName() + ":" + ores.getResourceableId() +
-			", event:"+event+"}";
-
+			List<JMSWrapper> jmsWrappers = unpack(message);
+			mrtgProbeJMSReceivedBatchSize_.addMeasurement(jmsWrappers.size());
+			
 			// stats
-			final long jmsTimestamp = om.getJMSTimestamp();
+			final long jmsTimestamp = message.getJMSTimestamp();
 			if (jmsTimestamp!=0) {
 				final long deliveryTime = receiveTime - jmsTimestamp;
 				if (deliveryTime>1500) {
 					// then issue a log statement
-					log.warn("message received with long delivery time (longer than 1500ms: "+deliveryTime+"): "+recMsg);
+					log.warn("message received with long delivery time (longer than 1500ms: "+deliveryTime+"): "+jmsWrappers.size()+" events");
 				}
 				mrtgProbeJMSDeliveryTime_.addMeasurement(deliveryTime);
 			}
 			
-			addToReceivedScreen(recMsg);
-			if (log.isDebug()) log.debug(recMsg);
-			
-			// message with destination and source both having this vm are ignored here, since they were already 
-			// "inline routed" when having been sent (direct call within the vm).
-			//TODO jms if (!fromSameNode) {
-				// distribute the unmarshalled event to all JVM wide listeners for this channel.
-				doFire(event, ores);
-			//TODO jms } // else message already sent "in-vm"
+			for(JMSWrapper jmsWrapper:jmsWrappers) {
+				serveEvent(jmsWrapper);
+			}
 			
 			// stats
 			final long doneTime = System.currentTimeMillis();
 			final long processingTime = doneTime - receiveTime;
 			if (processingTime>500) {
 				// then issue a log statement
-				log.warn("message received with long processing time (longer than 500ms: "+processingTime+"): "+recMsg);
+				log.warn("message received with long processing time (longer than 500ms: "+processingTime+"): "+jmsWrappers.size()+" events");
 			}
 			mrtgProbeJMSProcessingTime_.addMeasurement(processingTime);
 		} catch (Error er) {
@@ -353,12 +419,54 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		} catch (JMSException e) {
 			log.warn("JMSException in ClusterEventBus.onMessage", e);
 			throw new OLATRuntimeException("error when receiving jms messages", e);
+		} catch (IOException e) {
+			log.error("Cannot decode the message in ClusterEventBus.onMessage", e);
 		} catch(Throwable th) {
 			log.error("Uncaught Throwable in ClusterEventBus.onMessage!", th);
 		} finally {
 			lastOnMessageFinishTime_ = System.currentTimeMillis();
 		}
 	}
+	
+	private List<JMSWrapper> unpack(Message message) throws JMSException, IOException {
+		if(message instanceof BytesMessage) {
+			long start = System.nanoTime();
+			BytesMessage bm = (BytesMessage)message;
+			byte[] data = new byte[(int)bm.getBodyLength()];
+			bm.readBytes(data);
+			List<JMSWrapper> jmsWrappers = ClusterEventCodec.decode(data);
+			mrtgProbeJMSDecodeTime_.addMeasurement((System.nanoTime() - start) / 1000l);
+			return jmsWrappers;
+		}
+		// single serialized event, sent by a node without batches
+		JMSWrapper jmsWrapper = (JMSWrapper)((ObjectMessage)message).getObject();
+		return Collections.singletonList(jmsWrapper);
+	}
+	
+	private void serveEvent(JMSWrapper jmsWrapper) {
+		Integer nodeId = jmsWrapper.getNodeId();			
+		MultiUserEvent event = jmsWrapper.getMultiUserEvent();
+		OLATResourceable ores = jmsWrapper.getOres();
+		boolean fromSameNode = clusterConfig.getNodeId().equals(nodeId);
+
+		String recMsg = "received msg: "+(fromSameNode? "[same node]":"")+" from node:" + 
+		nodeId + ", olat-id:" + jmsWrapper.getMsgId() + ", ores:" + ores.getResourceableTypeName() + ":" + ores.getResourceableId() +
+		", event:"+event+"}";
+		addToReceivedScreen(recMsg);
+		if (log.isDebug()) log.debug(recMsg);
+		
+		try {
+			// message with destination and source both having this vm are ignored here, since they were already 
+			// "inline routed" when having been sent (direct call within the vm).
+			//TODO jms if (!fromSameNode) {
+				// distribute the unmarshalled event to all JVM wide listeners for this channel.
+				doFire(event, ores);
+			//TODO jms } // else message already sent "in-vm"
+		} catch (RuntimeException re) {
+			// don't lose the other events of the batch
+			log.error("Uncaught RuntimeException in ClusterEventBus while serving: " + recMsg, re);
+		}
+	}
 
 	private NodeInfo getNodeInfoFor(Integer nodeId) {
 		synchronized (nodeInfos) {//cluster_ok node info is per vm only
@@ -408,9 +516,27 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		return l;
 	}
 	
+	/**
+	 * @return The probes of the JMS transport by name
+	 */
+	Map<String, SimpleProbe> getProbes() {
+		Map<String, SimpleProbe> probes = new LinkedHashMap<>();
+		probes.put("Load", mrtgProbeJMSLoad_);
+		probes.put("Delivery time (ms)", mrtgProbeJMSDeliveryTime_);
+		probes.put("Processing time (ms)", mrtgProbeJMSProcessingTime_);
+		probes.put("Events per sent message", mrtgProbeJMSSentBatchSize_);
+		probes.put("Events per received message", mrtgProbeJMSReceivedBatchSize_);
+		probes.put("Encode time (\u00B5s)", mrtgProbeJMSEncodeTime_);
+		probes.put("Decode time (\u00B5s)", mrtgProbeJMSDecodeTime_);
+		return probes;
+	}
+	
 	void resetStats() {
 		msgsSentCount = 0;
 		msgsReceivedCount = 0;
+		for(SimpleProbe probe:getProbes().values()) {
+			probe.reset();
+		}
 	}
 	
 	private void addToSentScreen(String msg) {
@@ -462,7 +588,18 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		log.info("ClusterEventBus: Set stop flag for ClusterInfoEvent-Thread.");
 		isClusterInfoEventThreadRunning = false;
 		try {
+			// let the sender drain the queue
+			jmsExecutor.shutdown();
+			if(!jmsExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+				log.warn("ClusterEventBus: sender not terminated, " + outgoingQueue.size() + " events not sent");
+				jmsExecutor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			log.warn("ClusterEventBus: interrupted while waiting on the sender", e);
 			jmsExecutor.shutdownNow();
+		}
+		
+		try {
 			sessionProducer.close();
 			sessionConsumer.close();
 			connection.close();
@@ -486,6 +623,20 @@ public class ClusterEventBus extends AbstractEventBus implements MessageListener
 		this.jmsMsgDelayLimit = jmsMsgDelayLimit;
 	}
 
+	/**
+	 * [used by spring]
+	 */
+	public void setBatchWindow(long batchWindow) {
+		this.batchWindow = batchWindow;
+	}
+
+	/**
+	 * [used by spring]
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		this.maxBatchSize = maxBatchSize;
+	}
+
 	/**
 	 * [used by spring]
 	 */
@@ -0,0 +1,233 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.course.assessment.AssessmentChangedEvent;
+import org.olat.group.ui.edit.BusinessGroupModifiedEvent;
+
+/**
+ * 
+ * Binary format of the messages of the cluster event bus. A message
+ * holds a batch of events of the same node:
+ * <pre>
+ * byte    version
+ * int     node id
+ * int     number of events
+ * per event:
+ *   int     length of the event
+ *   long    message id
+ *   string  type of the resource
+ *   long    key of the resource (nullable)
+ *   byte    type of event
+ *   ...     the event
+ * </pre>
+ * The most frequent events (plain MultiUserEvent, group modifications
+ * and assessment changes) are written field by field, all others use
+ * the Java serialization as fallback. Every event is prefixed with its
+ * length, an event which cannot be encoded or decoded is skipped alone
+ * and doesn't break the batch.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ClusterEventCodec {
+	
+	private static final OLog log = Tracing.createLoggerFor(ClusterEventCodec.class);
+	
+	public static final byte VERSION = 2;
+	
+	private static final byte SERIALIZED_EVENT = 0;
+	private static final byte MULTI_USER_EVENT = 1;
+	private static final byte GROUP_MODIFIED_EVENT = 2;
+	private static final byte ASSESSMENT_CHANGED_EVENT = 3;
+	
+	private ClusterEventCodec() {
+		//
+	}
+	
+	public static byte[] encode(Integer nodeId, List<JMSWrapper> wrappers) throws IOException {
+		List<byte[]> events = new ArrayList<>(wrappers.size());
+		for(JMSWrapper wrapper:wrappers) {
+			try {
+				events.add(encode(wrapper));
+			} catch(IOException | RuntimeException e) {
+				log.error("Cannot encode the event, it's not sent: " + wrapper.getMultiUserEvent(), e);
+			}
+		}
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + wrappers.size() * 96);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeByte(VERSION);
+		out.writeInt(nodeId.intValue());
+		out.writeInt(events.size());
+		for(byte[] event:events) {
+			out.writeInt(event.length);
+			out.write(event);
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+	
+	private static byte[] encode(JMSWrapper wrapper) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+		DataOutputStream out = new DataOutputStream(bytes);
+		OLATResourceable ores = wrapper.getOres();
+		out.writeLong(wrapper.getMsgId());
+		writeString(out, ores.getResourceableTypeName());
+		writeLong(out, ores.getResourceableId());
+		writeEvent(out, wrapper.getMultiUserEvent());
+		out.flush();
+		return bytes.toByteArray();
+	}
+	
+	public static List<JMSWrapper> decode(byte[] data) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		byte version = in.readByte();
+		if(version != VERSION) {
+			throw new IOException("Unsupported version of the cluster message: " + version);
+		}
+		Integer nodeId = Integer.valueOf(in.readInt());
+		int numOfEvents = in.readInt();
+		List<JMSWrapper> wrappers = new ArrayList<>(numOfEvents);
+		for(int i=0; i<numOfEvents; i++) {
+			byte[] event = new byte[in.readInt()];
+			in.readFully(event);
+			try {
+				wrappers.add(decode(nodeId, event));
+			} catch(IOException | RuntimeException e) {
+				log.error("Cannot decode an event of node " + nodeId + ", it's skipped", e);
+			}
+		}
+		return wrappers;
+	}
+	
+	private static JMSWrapper decode(Integer nodeId, byte[] data) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		long msgId = in.readLong();
+		String resType = readString(in);
+		Long resId = readLong(in);
+		MultiUserEvent event = readEvent(in);
+		return new JMSWrapper(nodeId, msgId, resType, resId, event);
+	}
+	
+	private static void writeEvent(DataOutputStream out, MultiUserEvent event) throws IOException {
+		Class<?> eventClass = event.getClass();
+		if(eventClass == MultiUserEvent.class) {
+			out.writeByte(MULTI_USER_EVENT);
+			writeString(out, event.getCommand());
+			out.writeInt(event.getOriginNodeId());
+		} else if(eventClass == BusinessGroupModifiedEvent.class) {
+			BusinessGroupModifiedEvent bgme = (BusinessGroupModifiedEvent)event;
+			out.writeByte(GROUP_MODIFIED_EVENT);
+			writeString(out, bgme.getCommand());
+			out.writeInt(bgme.getOriginNodeId());
+			writeLong(out, bgme.getModifiedGroupKey());
+			writeLong(out, bgme.getAffectedIdentityKey());
+			out.writeBoolean(bgme.isAffectedIdentityTutor());
+		} else if(eventClass == AssessmentChangedEvent.class) {
+			AssessmentChangedEvent ace = (AssessmentChangedEvent)event;
+			out.writeByte(ASSESSMENT_CHANGED_EVENT);
+			writeString(out, ace.getCommand());
+			out.writeInt(ace.getOriginNodeId());
+			writeLong(out, ace.getIdentityKey());
+			writeString(out, ace.getCourseNodeIdent());
+		} else {
+			ByteArrayOutputStream serialized = new ByteArrayOutputStream(512);
+			try(ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+				oos.writeObject(event);
+			}
+			out.writeByte(SERIALIZED_EVENT);
+			out.writeInt(serialized.size());
+			serialized.writeTo(out);
+		}
+	}
+	
+	private static MultiUserEvent readEvent(DataInputStream in) throws IOException {
+		byte type = in.readByte();
+		switch(type) {
+			case MULTI_USER_EVENT: {
+				String command = readString(in);
+				int originNodeId = in.readInt();
+				return new MultiUserEvent(command, originNodeId);
+			}
+			case GROUP_MODIFIED_EVENT: {
+				String command = readString(in);
+				int originNodeId = in.readInt();
+				Long groupKey = readLong(in);
+				Long identityKey = readLong(in);
+				boolean tutor = in.readBoolean();
+				return new BusinessGroupModifiedEvent(command, groupKey, identityKey, tutor, originNodeId);
+			}
+			case ASSESSMENT_CHANGED_EVENT: {
+				String command = readString(in);
+				int originNodeId = in.readInt();
+				Long identityKey = readLong(in);
+				String courseNodeIdent = readString(in);
+				return new AssessmentChangedEvent(command, identityKey, courseNodeIdent, originNodeId);
+			}
+			case SERIALIZED_EVENT: {
+				byte[] serialized = new byte[in.readInt()];
+				in.readFully(serialized);
+				try(ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+					return (MultiUserEvent)ois.readObject();
+				} catch (ClassNotFoundException e) {
+					throw new IOException("Cannot deserialize event", e);
+				}
+			}
+			default: throw new IOException("Unkown type of event: " + type);
+		}
+	}
+	
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if(value != null) {
+			out.writeUTF(value);
+		}
+	}
+	
+	private static String readString(DataInputStream in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+	
+	private static void writeLong(DataOutputStream out, Long value) throws IOException {
+		out.writeBoolean(value != null);
+		if(value != null) {
+			out.writeLong(value.longValue());
+		}
+	}
+	
+	private static Long readLong(DataInputStream in) throws IOException {
+		return in.readBoolean() ? Long.valueOf(in.readLong()) : null;
+	}
+}
@@ -23,7 +23,6 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.zip.ZipOutputStream;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -41,6 +40,7 @@ import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.ZipUtil;
+import org.olat.core.util.io.ParallelZipWriter;
 import org.olat.core.util.vfs.VFSContainer;
 import org.olat.core.util.vfs.VFSItem;
 
@@ -159,9 +159,7 @@ public class CmdDownloadZip implements FolderCommand {
 			hres.setHeader("Content-Disposition","attachment; filename*=UTF-8''" + urlEncodedLabel);			
 			hres.setHeader("Content-Description", urlEncodedLabel);
 			
-			try(ZipOutputStream zout = new ZipOutputStream(hres.getOutputStream())) {
-				zout.setLevel(9);
-				
+			try(ParallelZipWriter zout = ZipUtil.createZipWriter(hres.getOutputStream(), true)) {
 				List<VFSItem> vfsFiles = new ArrayList<>();
 				for (String fileName : selectedFiles) {
 					VFSItem item = currentContainer.resolve(fileName);
@@ -181,7 +179,6 @@ public class CmdDownloadZip implements FolderCommand {
 				for (Iterator<VFSItem> iter = vfsFiles.iterator(); success && iter.hasNext();) {
 					success = ZipUtil.addToZip(iter.next(), "", zout);
 				}
-				zout.flush();
 			} catch (Exception e) {
 				log.error("", e);
 			}
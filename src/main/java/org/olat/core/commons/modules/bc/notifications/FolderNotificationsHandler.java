@@ -36,9 +36,9 @@ import org.olat.core.commons.modules.bc.FileInfo;
 import org.olat.core.commons.modules.bc.FolderManager;
 import org.olat.core.commons.modules.bc.meta.MetaInfo;
 import org.olat.core.commons.services.notifications.NotificationHelper;
-import org.olat.core.commons.services.notifications.NotificationsHandler;
 import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.commons.services.notifications.Publisher;
+import org.olat.core.commons.services.notifications.SharedNewsNotificationsHandler;
 import org.olat.core.commons.services.notifications.Subscriber;
 import org.olat.core.commons.services.notifications.SubscriptionInfo;
 import org.olat.core.commons.services.notifications.manager.NotificationsUpgradeHelper;
@@ -67,7 +67,7 @@ import org.olat.repository.RepositoryManager;
  * 
  * @author Felix Jost
  */
-public class FolderNotificationsHandler implements NotificationsHandler {
+public class FolderNotificationsHandler implements SharedNewsNotificationsHandler {
 	private static final OLog log = Tracing.createLoggerFor(FolderNotificationsHandler.class);
 	
 	/**
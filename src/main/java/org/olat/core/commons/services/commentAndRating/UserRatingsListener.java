@@ -0,0 +1,49 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.commentAndRating;
+
+import org.olat.core.id.Identity;
+import org.olat.core.id.OLATResourceable;
+
+/**
+ * 
+ * To mirror the rating of every user after it is updated, the delegates only
+ * receive the average. The methods are called in the transaction of the change.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface UserRatingsListener {
+	
+	/**
+	 * @param creator The user who rated
+	 * @param ores The resource
+	 * @param resSubPath The sub path
+	 * @param rating The new rating or null if it was deleted
+	 */
+	public void ratingChanged(Identity creator, OLATResourceable ores, String resSubPath, Integer rating);
+	
+	/**
+	 * @param ores The resource
+	 * @param resSubPath The sub path or null if the ratings of the resource itself were deleted
+	 */
+	public void ratingsDeleted(OLATResourceable ores, String resSubPath);
+
+}
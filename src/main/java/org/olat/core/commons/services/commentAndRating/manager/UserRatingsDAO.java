@@ -22,12 +22,14 @@ package org.olat.core.commons.services.commentAndRating.manager;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.persistence.TypedQuery;
 
 import org.olat.basesecurity.IdentityRef;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.services.commentAndRating.UserRatingsDelegate;
+import org.olat.core.commons.services.commentAndRating.UserRatingsListener;
 import org.olat.core.commons.services.commentAndRating.model.OLATResourceableRating;
 import org.olat.core.commons.services.commentAndRating.model.UserRating;
 import org.olat.core.commons.services.commentAndRating.model.UserRatingImpl;
@@ -50,11 +52,16 @@ public class UserRatingsDAO {
 	private DB dbInstance;
 	
 	private List<UserRatingsDelegate> delegates = new ArrayList<>();
+	private final List<UserRatingsListener> listeners = new CopyOnWriteArrayList<>();
 	
 	public void addDegelate(UserRatingsDelegate delegate) {
 		delegates.add(delegate);
 	}
 	
+	public void addListener(UserRatingsListener listener) {
+		listeners.add(listener);
+	}
+	
 	public UserRating createRating(Identity creator, OLATResourceable ores, String resSubPath, int ratingValue) {
 		UserRatingImpl rating = new UserRatingImpl();
 		rating.setCreator(creator);
@@ -66,6 +73,7 @@ public class UserRatingsDAO {
 		rating.setRating(ratingValue);
 		updateDelegateRatings(rating);
 		dbInstance.getCurrentEntityManager().persist(rating);
+		updateListeners(rating, rating.getRating());
 		return rating;
 	}
 	
@@ -212,6 +220,7 @@ public class UserRatingsDAO {
 		rating.setLastModified(new Date());
 		updateDelegateRatings(rating);
 		rating = dbInstance.getCurrentEntityManager().merge(rating);
+		updateListeners(rating, rating.getRating());
 		return rating;
 	}
 
@@ -227,6 +236,7 @@ public class UserRatingsDAO {
 		rating.setLastModified(new Date());
 		updateDelegateRatings(rating);
 		rating = dbInstance.getCurrentEntityManager().merge(rating);
+		updateListeners(rating, rating.getRating());
 		return rating;
 	}
 
@@ -239,6 +249,21 @@ public class UserRatingsDAO {
 		return ratings != null && !ratings.isEmpty() ? ratings.get(0) : null;
 	}
 	
+	private void updateListeners(UserRating rating, Integer value) {
+		if(listeners.isEmpty()) return;
+		
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance(rating.getResName(), rating.getResId());
+		for(UserRatingsListener listener:listeners) {
+			listener.ratingChanged(rating.getCreator(), ores, rating.getResSubPath(), value);
+		}
+	}
+	
+	private void deleteListenersRatings(OLATResourceable ores, String resSubPath) {
+		for(UserRatingsListener listener:listeners) {
+			listener.ratingsDeleted(ores, resSubPath);
+		}
+	}
+	
 	private void updateDelegateRatings(UserRating rating) {
 		if(delegates == null || delegates.isEmpty()) return;
 
@@ -291,6 +316,7 @@ public class UserRatingsDAO {
 
 		for(UserRating rating:ratings) {
 			dbInstance.getCurrentEntityManager().remove(rating);
+			updateListeners(rating, null);
 			dbInstance.commit();
 			OLATResourceable ores = OresHelper.createOLATResourceableInstance(rating.getResName(), rating.getResId());
 			recalculateDelegateRatings(ores, rating.getResSubPath());
@@ -336,6 +362,7 @@ public class UserRatingsDAO {
 
 	public int deleteAllRatings(OLATResourceable ores, String resSubPath) {
 		// special query when sub path is null
+		deleteListenersRatings(ores, resSubPath);
 		if (resSubPath == null) {
 			String sb = "delete from userrating where resName=:resName and resId=:resId and resSubPath is null";
 			return dbInstance.getCurrentEntityManager().createQuery(sb.toString())
@@ -353,6 +380,7 @@ public class UserRatingsDAO {
 	}
 
 	public int deleteAllRatingsIgnoringSubPath(OLATResourceable ores) {
+		deleteListenersRatings(ores, null);
 		String sb = "delete from userrating where resName=:resName and resId=:resId";
 		return dbInstance.getCurrentEntityManager().createQuery(sb.toString())
 				.setParameter("resName", ores.getResourceableTypeName())
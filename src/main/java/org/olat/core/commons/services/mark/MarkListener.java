@@ -0,0 +1,43 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.mark;
+
+import org.olat.core.id.Identity;
+import org.olat.core.id.OLATResourceable;
+
+/**
+ * 
+ * To mirror the marks of the users after they are set or removed. The methods
+ * are called in the transaction of the change.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface MarkListener {
+	
+	public void markChanged(Identity identity, OLATResourceable ores, String resSubPath, boolean marked);
+	
+	/**
+	 * @param ores The resource
+	 * @param resSubPath The sub path or null if the marks of the resource itself were deleted
+	 */
+	public void marksDeleted(OLATResourceable ores, String resSubPath);
+
+}
@@ -38,6 +38,13 @@ import org.olat.core.id.OLATResourceable;
  */
 public interface MarkManager {
 	
+	/**
+	 * Register a listener which is informed of the marks set and removed.
+	 * 
+	 * @param listener The listener
+	 */
+	public void addListener(MarkListener listener);
+	
 	public List<Mark> getMarks(OLATResourceable ores, Identity identity, Collection<String> subPaths);
 	
 	public Set<Long> getMarkResourceIds(Identity identity, String resourceTypeName, Collection<String> subPaths);
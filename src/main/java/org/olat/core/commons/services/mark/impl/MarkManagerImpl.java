@@ -25,6 +25,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.Query;
@@ -32,6 +33,7 @@ import javax.persistence.TypedQuery;
 
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.commons.services.mark.Mark;
+import org.olat.core.commons.services.mark.MarkListener;
 import org.olat.core.commons.services.mark.MarkManager;
 import org.olat.core.commons.services.mark.MarkResourceStat;
 import org.olat.core.id.Identity;
@@ -52,6 +54,13 @@ public class MarkManagerImpl implements MarkManager {
 	
 	@Autowired
 	private DB dbInstance;
+	
+	private final List<MarkListener> listeners = new CopyOnWriteArrayList<>();
+	
+	@Override
+	public void addListener(MarkListener listener) {
+		listeners.add(listener);
+	}
 
 	@Override
 	public List<Mark> getMarks(OLATResourceable ores, Identity identity, Collection<String> subPath) {
@@ -177,6 +186,9 @@ public class MarkManagerImpl implements MarkManager {
 			mark.setBusinessPath(businessPath);
 			mark.setCreator(identity);
 			dbInstance.saveObject(mark);
+			for(MarkListener listener:listeners) {
+				listener.markChanged(identity, ores, subPath, true);
+			}
 		}
 		return mark;
 	}
@@ -203,6 +215,9 @@ public class MarkManagerImpl implements MarkManager {
 		MarkImpl mark = loadMark(ores, identity, subPath);
 		if(mark != null) {
 			dbInstance.deleteObject(mark);
+			for(MarkListener listener:listeners) {
+				listener.markChanged(identity, ores, subPath, false);
+			}
 		}
 	}
 	
@@ -246,6 +261,9 @@ public class MarkManagerImpl implements MarkManager {
 				.setParameter("resId", ores.getResourceableId())
 				.setFlushMode(FlushModeType.AUTO)
 				.executeUpdate();
+		for(MarkListener listener:listeners) {
+			listener.marksDeleted(ores, null);
+		}
 	}
 
 	/**
@@ -270,6 +288,9 @@ public class MarkManagerImpl implements MarkManager {
 			query.setParameter("resSubPath", subPath);
 		}
 		query.setFlushMode(FlushModeType.AUTO).executeUpdate();
+		for(MarkListener listener:listeners) {
+			listener.marksDeleted(ores, subPath);
+		}
 	}
 	
 	@Override
@@ -0,0 +1,34 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.notifications;
+
+/**
+ * A NotificationsHandler which news depend only on the publisher, the locale
+ * and the compare date, never on the subscriber. The date of every
+ * SubscriptionListItem is the one compared with the compare date (strictly
+ * after). The email notifications job computes the news once per publisher
+ * and locale and filters them for every subscriber.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface SharedNewsNotificationsHandler extends NotificationsHandler {
+	//
+}
@@ -93,6 +93,8 @@ import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.properties.Property;
 import org.olat.properties.PropertyManager;
+import org.olat.search.service.indexer.IncrementalIndexQueue;
+import org.olat.search.service.indexer.LifeFullIndexer;
 import org.olat.user.UserDataDeletable;
 import org.olat.user.UserDataExportable;
 import org.olat.user.manager.ManifestBuilder;
@@ -107,10 +109,10 @@ import org.olat.user.manager.ManifestBuilder;
 public class NotificationsManagerImpl extends NotificationsManager implements UserDataDeletable, UserDataExportable {
 	private static final OLog log = Tracing.createLoggerFor(NotificationsManagerImpl.class);
 
-	private static final int PUB_STATE_OK = 0;
+	static final int PUB_STATE_OK = 0;
 	private static final int PUB_STATE_NOT_OK = 1;
 	private static final int BATCH_SIZE = 500;
-	private static final String LATEST_EMAIL_USER_PROP = "noti_latest_email";
+	static final String LATEST_EMAIL_USER_PROP = "noti_latest_email";
 	private static final SubscriptionInfo NOSUBSINFO = new NoSubscriptionInfo();
 
 	private final OLATResourceable oresMyself = OresHelper.lookupType(NotificationsManagerImpl.class);
@@ -125,6 +127,9 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 	private DB dbInstance;
 	private BaseSecurity securityManager;
 	private PropertyManager propertyManager;
+	private LifeFullIndexer lifeIndexer;
+	private boolean publisherDigest;
+	private int publisherDigestWorkers = 4;
 	
 	/**
 	 * [used by spring]
@@ -158,6 +163,30 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 	public void setPropertyManager(PropertyManager propertyManager) {
 		this.propertyManager = propertyManager;
 	}
+	
+	/**
+	 * [used by Spring]
+	 * @param lifeIndexer
+	 */
+	public void setLifeIndexer(LifeFullIndexer lifeIndexer) {
+		this.lifeIndexer = lifeIndexer;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param publisherDigest true to compute the news per publisher
+	 */
+	public void setPublisherDigest(boolean publisherDigest) {
+		this.publisherDigest = publisherDigest;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param publisherDigestWorkers The number of threads which compute the news and send the emails
+	 */
+	public void setPublisherDigestWorkers(int publisherDigestWorkers) {
+		this.publisherDigestWorkers = publisherDigestWorkers;
+	}
 
 	/**
 	 * @param resName
@@ -348,6 +377,22 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 		logAudit("starting notification cronjob to send email", null);
 		WorkThreadInformations.setLongRunningTask("sendNotifications");
 		
+		if(publisherDigest) {
+			new PublisherNotificationsDigest(this, dbInstance, securityManager, propertyManager, publisherDigestWorkers)
+				.notifyAllSubscribersByEmail();
+		} else {
+			notifyAllIdentitiesByEmail();
+		}
+		
+		// done, purge last entry
+		WorkThreadInformations.unsetLongRunningTask("sendNotifications");
+		logAudit("end notification cronjob to send email", null);
+	}
+	
+	/**
+	 * Check the subscriptions of every visible identity.
+	 */
+	private void notifyAllIdentitiesByEmail() {
 		int counter = 0;
 		int closeConnection = 0;
 		List<Identity> identities;
@@ -368,10 +413,6 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 			counter += identities.size();
 			dbInstance.commitAndCloseSession();
 		} while(identities.size() == BATCH_SIZE);
-		
-		// done, purge last entry
-		WorkThreadInformations.unsetLongRunningTask("sendNotifications");
-		logAudit("end notification cronjob to send email", null);
 	}
 	
 	private void processSubscribersByEmail(Identity ident) {
@@ -438,7 +479,7 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 		notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, veto);
 	}
 	
-	private void notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
+	void notifySubscribersByEmail(Subscriber latestSub, List<SubscriptionItem> items, List<Subscriber> subsToUpdate, Translator translator, long start, boolean veto) {
 		if(veto) {
 			if(latestSub != null) {
 				logAudit(latestSub.getIdentity().getKey() + " already received notification email within prefs interval");
@@ -826,7 +867,17 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 	 */
 	@Override
 	public NotificationsHandler getNotificationsHandler(Publisher publisher) {
-		String type = publisher.getType();
+		return getNotificationsHandlersMap().get(publisher.getType());
+	}
+	
+	/**
+	 * @return All the handlers
+	 */
+	Collection<NotificationsHandler> getNotificationsHandlers() {
+		return getNotificationsHandlersMap().values();
+	}
+	
+	private Map<String, NotificationsHandler> getNotificationsHandlersMap() {
 		if (notificationHandlers == null) {
 			synchronized(lockObject) {
 				if (notificationHandlers == null) { // check again in synchronized-block, only one may create list
@@ -840,7 +891,7 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 				}
 			}	
 		}
-		return notificationHandlers.get(type);		
+		return notificationHandlers;
 	}
 
 	/**
@@ -947,6 +998,8 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 	public void markPublisherNews(final SubscriptionContext subscriptionContext, Identity ignoreNewsFor, boolean sendEvents) {
 		// to make sure: ignore if no subscriptionContext
 		if (subscriptionContext == null) return;
+		
+		markIndexOutdated(subscriptionContext.getResName(), subscriptionContext.getResId());
 
 		Publisher toUpdate = getPublisherForUpdate(subscriptionContext);
 		if(toUpdate == null) {
@@ -983,6 +1036,18 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 	
 	
 	
+	/**
+	 * The content of the resource changed, the search index need to be updated.
+	 * 
+	 * @param resName The type of resource
+	 * @param resId The id of the resource
+	 */
+	private void markIndexOutdated(String resName, Long resId) {
+		if(lifeIndexer != null && resId != null && IncrementalIndexQueue.isSupportedType(resName)) {
+			lifeIndexer.indexDocument(resName, resId);
+		}
+	}
+	
 	@Override
 	public void markPublisherNews(String publisherType, String data, Identity ignoreNewsFor, boolean sendEvents) {
 		// to make sure: ignore if no subscriptionContext
@@ -995,6 +1060,7 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 		
 		List<Publisher> updatedPublishers = new ArrayList<>(publisherToUpdates.size());
 		for(Publisher toUpdate:publisherToUpdates) {
+			markIndexOutdated(toUpdate.getResName(), toUpdate.getResId());
 			toUpdate = getPublisherForUpdate(toUpdate);
 			toUpdate.setLatestNewsDate(new Date());
 			Publisher publisher = dbInstance.getCurrentEntityManager().merge(toUpdate);
@@ -1195,7 +1261,7 @@ public class NotificationsManagerImpl extends NotificationsManager implements Us
 	 * maybe the latest user-login could also be used.
 	 * @return Date
 	 */
-	private Date getDefaultCompareDate() {
+	Date getDefaultCompareDate() {
 		Calendar calNow = Calendar.getInstance();
 		calNow.add(Calendar.DAY_OF_MONTH, -30);
 		return calNow.getTime();
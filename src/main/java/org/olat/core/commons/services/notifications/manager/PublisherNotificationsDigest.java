@@ -0,0 +1,549 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.notifications.manager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.olat.basesecurity.BaseSecurity;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.notifications.LatestNewsNotificationsHandler;
+import org.olat.core.commons.services.notifications.NotificationsHandler;
+import org.olat.core.commons.services.notifications.SharedNewsNotificationsHandler;
+import org.olat.core.commons.services.notifications.Subscriber;
+import org.olat.core.commons.services.notifications.SubscriptionInfo;
+import org.olat.core.commons.services.notifications.SubscriptionItem;
+import org.olat.core.commons.services.notifications.ui.NotificationSubscriptionController;
+import org.olat.core.gui.translator.Translator;
+import org.olat.core.id.Identity;
+import org.olat.core.id.Roles;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.Util;
+import org.olat.core.util.i18n.I18nManager;
+import org.olat.properties.Property;
+import org.olat.properties.PropertyManager;
+
+/**
+ * 
+ * One run of the notifications email job driven by the publishers. Only
+ * the publishers with news and their subscribers are loaded, identity by
+ * identity in pages. The latest news date is only trusted for the handlers
+ * which maintain it (LatestNewsNotificationsHandler), the publishers of the
+ * other handlers are always checked. The news of the handlers which don't
+ * depend on the subscriber (SharedNewsNotificationsHandler) are computed once
+ * per publisher and locale, then filtered by date for every subscriber. The
+ * other handlers are still called per subscriber. The news and the emails are
+ * processed by a bounded pool of workers which reload the subscribers.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+class PublisherNotificationsDigest {
+	
+	private static final OLog log = Tracing.createLoggerFor(PublisherNotificationsDigest.class);
+	
+	private static final int BATCH_SIZE = 500;
+	
+	private final DB dbInstance;
+	private final BaseSecurity securityManager;
+	private final PropertyManager propertyManager;
+	private final NotificationsManagerImpl notificationsManager;
+	private final int numOfWorkers;
+	
+	private final Map<String,HandlerStatistics> handlerStatistics = new ConcurrentHashMap<>();
+	private final Map<NewsKey,SharedNews> sharedNews = new ConcurrentHashMap<>();
+	private final AtomicInteger emailsSent = new AtomicInteger();
+	
+	private Date defaultCompareDate;
+	
+	PublisherNotificationsDigest(NotificationsManagerImpl notificationsManager, DB dbInstance,
+			BaseSecurity securityManager, PropertyManager propertyManager, int numOfWorkers) {
+		this.notificationsManager = notificationsManager;
+		this.dbInstance = dbInstance;
+		this.securityManager = securityManager;
+		this.propertyManager = propertyManager;
+		this.numOfWorkers = Math.max(1, numOfWorkers);
+	}
+	
+	public void notifyAllSubscribersByEmail() {
+		long start = System.currentTimeMillis();
+		
+		defaultCompareDate = notificationsManager.getDefaultCompareDate();
+		List<String> latestNewsTypes = getLatestNewsTypes();
+		
+		int numOfIdentities = 0;
+		int numOfDeliveries = 0;
+		ThreadPoolExecutor workers = createWorkers();
+		try {
+			Long lastIdentityKey = Long.valueOf(-1l);
+			List<Long> identityKeys;
+			do {
+				// identity by identity, the workers reload the subscribers
+				identityKeys = getSubscribedIdentityKeys(lastIdentityKey, latestNewsTypes);
+				if(!identityKeys.isEmpty()) {
+					lastIdentityKey = identityKeys.get(identityKeys.size() - 1);
+					List<Delivery> deliveries = prepareDeliveries(identityKeys, latestNewsTypes);
+					dbInstance.commitAndCloseSession();
+					
+					numOfIdentities += identityKeys.size();
+					numOfDeliveries += deliveries.size();
+					for(Delivery delivery:deliveries) {
+						workers.execute(new DeliveryTask(delivery));
+					}
+				}
+			} while(identityKeys.size() == BATCH_SIZE);
+		} catch (Exception e) {
+			log.error("Notifications job failed", e);
+		} finally {
+			dbInstance.commitAndCloseSession();
+			workers.shutdown();
+			awaitTermination(workers);
+		}
+		
+		log.info("Notifications: " + numOfIdentities + " identities with news, " + numOfDeliveries + " to notify, "
+				+ sharedNews.size() + " shared news, " + emailsSent.get() + " emails sent in " + (System.currentTimeMillis() - start) + "ms");
+		for(HandlerStatistics statistics:handlerStatistics.values()) {
+			log.info("Notifications handler " + statistics.getType() + ": " + statistics.getShared() + " shared news, "
+					+ statistics.getPerSubscriber() + " news per subscriber in " + statistics.getTime() + "ms");
+		}
+	}
+	
+	/**
+	 * @return The types of publishers with a reliable latest news date
+	 */
+	private List<String> getLatestNewsTypes() {
+		List<String> types = new ArrayList<>();
+		for(NotificationsHandler handler:notificationsManager.getNotificationsHandlers()) {
+			if(handler instanceof LatestNewsNotificationsHandler) {
+				types.add(handler.getType());
+			}
+		}
+		if(types.isEmpty()) {
+			types.add("-");// not an empty list in the query
+		}
+		return types;
+	}
+	
+	/**
+	 * The publishers with news since the date or which don't maintain their
+	 * latest news date.
+	 */
+	private void appendPublisherConditions(StringBuilder sb) {
+		sb.append(" pub.state=").append(NotificationsManagerImpl.PUB_STATE_OK)
+		  .append(" and (pub.latestNewsDate>:from or pub.type not in (:latestNewsTypes))");
+	}
+	
+	private List<Long> getSubscribedIdentityKeys(Long lastIdentityKey, List<String> latestNewsTypes) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select distinct sub.identity.key from notisub as sub")
+		  .append(" inner join sub.publisher as pub")
+		  .append(" where sub.identity.key>:lastIdentityKey and");
+		appendPublisherConditions(sb);
+		sb.append(" order by sub.identity.key asc");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("lastIdentityKey", lastIdentityKey)
+				.setParameter("from", defaultCompareDate)
+				.setParameter("latestNewsTypes", latestNewsTypes)
+				.setMaxResults(BATCH_SIZE)
+				.getResultList();
+	}
+	
+	private List<Delivery> prepareDeliveries(List<Long> identityKeys, List<String> latestNewsTypes) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select sub from notisub as sub")
+		  .append(" inner join fetch sub.publisher as pub")
+		  .append(" inner join fetch sub.identity as ident")
+		  .append(" inner join fetch ident.user as identUser")
+		  .append(" where ident.key in (:identityKeys) and");
+		appendPublisherConditions(sb);
+		List<Subscriber> subscribers = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Subscriber.class)
+				.setParameter("identityKeys", identityKeys)
+				.setParameter("from", defaultCompareDate)
+				.setParameter("latestNewsTypes", latestNewsTypes)
+				.getResultList();
+		
+		Map<Long,List<Subscriber>> subscribersMap = new LinkedHashMap<>();
+		for(Subscriber subscriber:subscribers) {
+			subscribersMap.computeIfAbsent(subscriber.getIdentity().getKey(), identityKey -> new ArrayList<>())
+				.add(subscriber);
+		}
+		
+		List<Delivery> deliveries = new ArrayList<>(subscribersMap.size());
+		for(List<Subscriber> identitySubscribers:subscribersMap.values()) {
+			Delivery delivery = prepareDelivery(identitySubscribers.get(0).getIdentity(), identitySubscribers);
+			if(delivery != null) {
+				deliveries.add(delivery);
+			}
+		}
+		return deliveries;
+	}
+	
+	/**
+	 * Apply the settings of the user as the job per identity does.
+	 * 
+	 * @return The subscribers to check or null if the identity doesn't want an email
+	 */
+	private Delivery prepareDelivery(Identity identity, List<Subscriber> subscribers) {
+		if(identity.getStatus().compareTo(Identity.STATUS_VISIBLE_LIMIT) >= 0) {
+			return null;//send only to active user
+		}
+		Roles roles = securityManager.getRoles(identity);
+		if(roles.isGuestOnly()) {
+			return null;
+		}
+		String userInterval = notificationsManager.getUserIntervalOrDefault(identity);
+		if("never".equals(userInterval)) {
+			return null;
+		}
+
+		Date compareDate = notificationsManager.getCompareDateFromInterval(userInterval);
+		Property p = propertyManager.findProperty(identity, null, null, null, NotificationsManagerImpl.LATEST_EMAIL_USER_PROP);
+		if(p != null) {
+			Date latestEmail = new Date(p.getLongValue());
+			if(latestEmail.after(compareDate)) {
+				return null;//nothing to do
+			}
+		}
+		
+		String langPrefs = null;
+		if(identity.getUser() != null && identity.getUser().getPreferences() != null) {
+			langPrefs = identity.getUser().getPreferences().getLanguage();
+		}
+		Locale locale = I18nManager.getInstance().getLocaleOrDefault(langPrefs);
+		
+		List<DeliveryItem> items = new ArrayList<>(subscribers.size());
+		for(Subscriber sub:subscribers) {
+			Date latestEmail = sub.getLatestEmailed();
+			if (latestEmail == null || compareDate.after(latestEmail)) {
+				if (latestEmail == null || latestEmail.before(defaultCompareDate)) {
+					//no notification older than a month
+					latestEmail = defaultCompareDate;
+				}
+				NotificationsHandler handler = notificationsManager.getNotificationsHandler(sub.getPublisher());
+				if(handler != null) {
+					items.add(new DeliveryItem(sub.getKey(), sub.getPublisher().getKey(), handler, latestEmail));
+				}
+			}
+		}
+		return items.isEmpty() ? null : new Delivery(identity.getKey(), locale, items);
+	}
+	
+	private ThreadPoolExecutor createWorkers() {
+		final AtomicInteger threadNumber = new AtomicInteger();
+		return new ThreadPoolExecutor(numOfWorkers, numOfWorkers, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(numOfWorkers * 16), r -> {
+					Thread thread = new Thread(r, "notifications-digest-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+	
+	private void awaitTermination(ThreadPoolExecutor workers) {
+		try {
+			if(!workers.awaitTermination(12, TimeUnit.HOURS)) {
+				log.error("Notifications job takes more than 12 hours");
+			}
+		} catch (InterruptedException e) {
+			log.error("", e);
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private HandlerStatistics getStatistics(NotificationsHandler handler) {
+		return handlerStatistics.computeIfAbsent(handler.getType(), type -> new HandlerStatistics(type));
+	}
+	
+	private SharedNews getSharedNews(NewsKey key) {
+		SharedNews news = sharedNews.get(key);
+		if(news == null) {
+			news = new SharedNews(key);
+			SharedNews currentNews = sharedNews.putIfAbsent(key, news);
+			if(currentNews != null) {
+				news = currentNews;
+			}
+		}
+		return news;
+	}
+	
+	/**
+	 * The news of a publisher and a locale, computed once by the first
+	 * worker which needs them from the oldest possible compare date.
+	 */
+	private class SharedNews {
+		
+		private final NewsKey key;
+		private boolean computed = false;
+		private SubscriptionInfo info;
+		
+		public SharedNews(NewsKey key) {
+			this.key = key;
+		}
+		
+		public synchronized SubscriptionInfo get(Subscriber subscriber, NotificationsHandler handler) {
+			if(!computed) {
+				long start = System.currentTimeMillis();
+				try {
+					info = handler.createSubscriptionInfo(subscriber, key.getLocale(), defaultCompareDate);
+				} catch (Exception e) {
+					log.error("Cannot generate the news of publisher: " + key.getPublisherKey(), e);
+				} finally {
+					computed = true;
+					getStatistics(handler).addShared(System.currentTimeMillis() - start);
+				}
+			}
+			return info;
+		}
+	}
+	
+	private class DeliveryTask implements Runnable {
+		
+		private final Delivery delivery;
+		
+		public DeliveryTask(Delivery delivery) {
+			this.delivery = delivery;
+		}
+		
+		@Override
+		public void run() {
+			long start = System.currentTimeMillis();
+			try {
+				Locale locale = delivery.getLocale();
+				Map<Long,Subscriber> subscribers = loadSubscribers();
+				List<SubscriptionItem> items = new ArrayList<>();
+				List<Subscriber> subsToUpdate = new ArrayList<>();
+				for(DeliveryItem item:delivery.getItems()) {
+					Subscriber subscriber = subscribers.get(item.getSubscriberKey());
+					if(subscriber == null) {
+						continue;// deleted in the meantime
+					}
+					SubscriptionItem subsItem = createSubscriptionItem(item, subscriber, locale);
+					if(subsItem != null) {
+						items.add(subsItem);
+						subsToUpdate.add(subscriber);
+					}
+				}
+				
+				if(!items.isEmpty()) {
+					Subscriber latestSub = subsToUpdate.get(subsToUpdate.size() - 1);
+					Translator translator = Util.createPackageTranslator(NotificationSubscriptionController.class, locale);
+					notificationsManager.notifySubscribersByEmail(latestSub, items, subsToUpdate, translator, start, false);
+					emailsSent.incrementAndGet();
+				}
+			} catch (Exception e) {
+				log.error("Cannot send notifications to identity: " + delivery.getIdentityKey(), e);
+			} finally {
+				dbInstance.commitAndCloseSession();
+			}
+		}
+		
+		private Map<Long,Subscriber> loadSubscribers() {
+			List<Long> subscriberKeys = new ArrayList<>(delivery.getItems().size());
+			for(DeliveryItem item:delivery.getItems()) {
+				subscriberKeys.add(item.getSubscriberKey());
+			}
+			
+			StringBuilder sb = new StringBuilder(256);
+			sb.append("select sub from notisub as sub")
+			  .append(" inner join fetch sub.publisher as pub")
+			  .append(" inner join fetch sub.identity as ident")
+			  .append(" inner join fetch ident.user as identUser")
+			  .append(" where sub.key in (:subscriberKeys)");
+			List<Subscriber> subscribers = dbInstance.getCurrentEntityManager()
+					.createQuery(sb.toString(), Subscriber.class)
+					.setParameter("subscriberKeys", subscriberKeys)
+					.getResultList();
+			
+			Map<Long,Subscriber> subscribersMap = new HashMap<>();
+			for(Subscriber subscriber:subscribers) {
+				subscribersMap.put(subscriber.getKey(), subscriber);
+			}
+			return subscribersMap;
+		}
+		
+		private SubscriptionItem createSubscriptionItem(DeliveryItem item, Subscriber subscriber, Locale locale) {
+			if(item.isShared()) {
+				// only filter the shared news
+				SharedNews news = getSharedNews(new NewsKey(item.getPublisherKey(), locale));
+				SubscriptionInfo info = news.get(subscriber, item.getHandler());
+				if(info != null && info.hasNews()) {
+					SubscriptionInfo subsInfo = info.filter(subscriber.getKey(), item.getCompareDate());
+					if(subsInfo.hasNews()) {
+						return notificationsManager.createSubscriptionItem(subsInfo, subscriber, locale, SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML);
+					}
+				}
+				return null;
+			}
+			
+			long startItem = System.currentTimeMillis();
+			SubscriptionItem subsItem = notificationsManager.createSubscriptionItem(subscriber, locale,
+					SubscriptionInfo.MIME_HTML, SubscriptionInfo.MIME_HTML, item.getCompareDate());
+			getStatistics(item.getHandler()).addPerSubscriber(System.currentTimeMillis() - startItem);
+			return subsItem;
+		}
+	}
+	
+	private static class Delivery {
+		
+		private final Long identityKey;
+		private final Locale locale;
+		private final List<DeliveryItem> items;
+		
+		public Delivery(Long identityKey, Locale locale, List<DeliveryItem> items) {
+			this.identityKey = identityKey;
+			this.locale = locale;
+			this.items = items;
+		}
+
+		public Long getIdentityKey() {
+			return identityKey;
+		}
+
+		public Locale getLocale() {
+			return locale;
+		}
+
+		public List<DeliveryItem> getItems() {
+			return items;
+		}
+	}
+	
+	private static class DeliveryItem {
+		
+		private final Long subscriberKey;
+		private final Long publisherKey;
+		private final NotificationsHandler handler;
+		private final Date compareDate;
+		
+		public DeliveryItem(Long subscriberKey, Long publisherKey, NotificationsHandler handler, Date compareDate) {
+			this.subscriberKey = subscriberKey;
+			this.publisherKey = publisherKey;
+			this.handler = handler;
+			this.compareDate = compareDate;
+		}
+
+		public Long getSubscriberKey() {
+			return subscriberKey;
+		}
+		
+		public Long getPublisherKey() {
+			return publisherKey;
+		}
+		
+		public NotificationsHandler getHandler() {
+			return handler;
+		}
+		
+		public boolean isShared() {
+			return handler instanceof SharedNewsNotificationsHandler;
+		}
+
+		public Date getCompareDate() {
+			return compareDate;
+		}
+	}
+	
+	private static class NewsKey {
+		
+		private final Long publisherKey;
+		private final Locale locale;
+		
+		public NewsKey(Long publisherKey, Locale locale) {
+			this.publisherKey = publisherKey;
+			this.locale = locale;
+		}
+		
+		public Long getPublisherKey() {
+			return publisherKey;
+		}
+		
+		public Locale getLocale() {
+			return locale;
+		}
+
+		@Override
+		public int hashCode() {
+			return publisherKey.hashCode() + locale.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof NewsKey) {
+				NewsKey key = (NewsKey)obj;
+				return publisherKey.equals(key.publisherKey) && locale.equals(key.locale);
+			}
+			return false;
+		}
+	}
+	
+	private static class HandlerStatistics {
+		
+		private final String type;
+		private final AtomicInteger shared = new AtomicInteger();
+		private final AtomicInteger perSubscriber = new AtomicInteger();
+		private final AtomicLong time = new AtomicLong();
+		
+		public HandlerStatistics(String type) {
+			this.type = type;
+		}
+		
+		public String getType() {
+			return type;
+		}
+		
+		public int getShared() {
+			return shared.get();
+		}
+		
+		public int getPerSubscriber() {
+			return perSubscriber.get();
+		}
+		
+		public long getTime() {
+			return time.get();
+		}
+		
+		public void addShared(long duration) {
+			shared.incrementAndGet();
+			time.addAndGet(duration);
+		}
+		
+		public void addPerSubscriber(long duration) {
+			perSubscriber.incrementAndGet();
+			time.addAndGet(duration);
+		}
+	}
+}
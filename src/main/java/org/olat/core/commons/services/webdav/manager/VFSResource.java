@@ -19,9 +19,11 @@
  */
 package org.olat.core.commons.services.webdav.manager;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Date;
 
@@ -29,19 +31,21 @@ import org.olat.core.commons.modules.bc.meta.MetaInfo;
 import org.olat.core.commons.modules.bc.meta.tagged.MetaTagged;
 import org.olat.core.commons.services.webdav.servlets.ConcurrentDateFormat;
 import org.olat.core.commons.services.webdav.servlets.WebResource;
+import org.olat.core.gui.media.FileBackedResource;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.vfs.JavaIOItem;
 import org.olat.core.util.vfs.VFSContainer;
 import org.olat.core.util.vfs.VFSItem;
 import org.olat.core.util.vfs.VFSLeaf;
+import org.olat.core.util.vfs.VFSManager;
 
 /**
  * 
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
-public class VFSResource implements WebResource {
+public class VFSResource implements WebResource, FileBackedResource {
 	
 	private static final OLog log = Tracing.createLoggerFor(VFSResource.class);
 	
@@ -131,6 +135,12 @@ public class VFSResource implements WebResource {
 		return (item instanceof VFSLeaf ? ((VFSLeaf)item).getInputStream() : null);
 	}
 
+	@Override
+	public Path getFilePath() {
+		File file = item instanceof VFSLeaf ? VFSManager.getRealFile((VFSLeaf)item) : null;
+		return file == null ? null : file.toPath();
+	}
+
 	@Override
 	public long getCreation() {
         try {
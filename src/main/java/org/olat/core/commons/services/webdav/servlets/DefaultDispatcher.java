@@ -24,6 +24,10 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.Serializable;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Enumeration;
@@ -38,6 +42,8 @@ import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.olat.core.gui.media.FileBackedResource;
+import org.olat.core.gui.media.ServletUtil;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.servlets.URLEncoder;
@@ -515,8 +521,15 @@ public abstract class DefaultDispatcher implements Serializable {
                     copy(resource, renderResult, writer, encoding);
                 } else {
                     // Output is via an InputStream
+                    Path path = getFilePath(resource);
                     if (resource.isDirectory()) {
                         renderResult = null;//render(getPathPrefix(request), resource);
+                    } else if (path != null) {
+                        // Output is via sendfile or the channel of the file
+                        if (!ServletUtil.sendFile(request, response, path, 0, contentLength)) {
+                            ServletUtil.transfer(path, 0, contentLength, ostream);
+                        }
+                        renderResult = null;
                     } else {
                         renderResult = resource.getInputStream();
                     }
@@ -563,7 +576,10 @@ public abstract class DefaultDispatcher implements Serializable {
                         // Silent catch
                     }
                     if (ostream != null) {
-                        copy(resource, ostream, range);
+                        Path path = getFilePath(resource);
+                        if (path == null || !ServletUtil.sendFile(request, response, path, range.start, length)) {
+                            copy(resource, ostream, range);
+                        }
                     } else {
                         // we should not get here
                         throw new IllegalStateException();
@@ -1062,6 +1078,12 @@ public abstract class DefaultDispatcher implements Serializable {
                       Range range)
         throws IOException {
 
+        Path path = getFilePath(resource);
+        if (path != null) {
+            ServletUtil.transfer(path, range.start, range.end - range.start + 1, ostream);
+            return;
+        }
+
         IOException exception = null;
 
         InputStream resourceInputStream = resource.getInputStream();
@@ -1095,6 +1117,22 @@ public abstract class DefaultDispatcher implements Serializable {
                       Iterator<Range> ranges, String contentType)
         throws IOException {
 
+        Path path = getFilePath(resource);
+        if (path != null) {
+            // All the ranges from the same channel
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                while (ranges.hasNext()) {
+                    Range currentRange = ranges.next();
+                    writeRangeHeader(ostream, currentRange, contentType);
+                    ServletUtil.transfer(channel, currentRange.start,
+                            currentRange.end - currentRange.start + 1, ostream);
+                }
+            }
+            ostream.println();
+            ostream.print("--" + mimeSeparation + "--");
+            return;
+        }
+
         IOException exception = null;
 
         while ( (exception == null) && (ranges.hasNext()) ) {
@@ -1105,14 +1143,7 @@ public abstract class DefaultDispatcher implements Serializable {
                 Range currentRange = ranges.next();
 
                 // Writing MIME header.
-                ostream.println();
-                ostream.println("--" + mimeSeparation);
-                if (contentType != null)
-                    ostream.println("Content-Type: " + contentType);
-                ostream.println("Content-Range: bytes " + currentRange.start
-                               + "-" + currentRange.end + "/"
-                               + currentRange.length);
-                ostream.println();
+                writeRangeHeader(ostream, currentRange, contentType);
 
                 // Printing content
                 exception = copyRange(istream, ostream, currentRange.start,
@@ -1130,6 +1161,37 @@ public abstract class DefaultDispatcher implements Serializable {
     }
 
 
+    private void writeRangeHeader(ServletOutputStream ostream, Range range, String contentType)
+        throws IOException {
+        ostream.println();
+        ostream.println("--" + mimeSeparation);
+        if (contentType != null)
+            ostream.println("Content-Type: " + contentType);
+        ostream.println("Content-Range: bytes " + range.start
+                       + "-" + range.end + "/"
+                       + range.length);
+        ostream.println();
+    }
+
+
+    /**
+     * Return the file behind the resource if it can be delivered as is
+     * with its channel or with sendfile.
+     *
+     * @param resource The resource
+     * @return The path of the file or null
+     */
+    private Path getFilePath(WebResource resource) {
+        if (resource instanceof FileBackedResource && resource.isFile()) {
+            Path path = ((FileBackedResource)resource).getFilePath();
+            if (path != null && Files.isReadable(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+
     /**
      * Copy the contents of the specified input stream to the specified
      * output stream, and ensure that both streams are closed before returning
@@ -22,6 +22,7 @@ package org.olat.core.dispatcher.mapper;
 import java.util.List;
 
 import org.olat.core.dispatcher.mapper.manager.MapperKey;
+import org.olat.core.dispatcher.mapper.model.MapperStatistics;
 import org.olat.core.util.UserSession;
 
 /**
@@ -100,6 +101,11 @@ public interface MapperService {
 	
 	public void slayZombies();
 	
+	/**
+	 * @return The number of reads and writes in the database by type of mapper
+	 */
+	public List<MapperStatistics> getStatistics();
+	
 	
 
 }
@@ -26,33 +26,66 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.olat.core.commons.persistence.DB;
 import org.olat.core.dispatcher.DispatcherModule;
 import org.olat.core.dispatcher.mapper.Mapper;
 import org.olat.core.dispatcher.mapper.MapperService;
+import org.olat.core.dispatcher.mapper.model.MapperStatistics;
 import org.olat.core.dispatcher.mapper.model.PersistedMapper;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
 import org.olat.core.util.Encoder;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.UserSession;
 import org.olat.core.util.WebappHelper;
 import org.olat.core.util.cache.CacheWrapper;
 import org.olat.core.util.coordinate.CoordinatorManager;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
+ * With the write-behind option, the serializable mappers bound to a session
+ * are not written in the database at registration but in batches by a background
+ * thread, and at the latest when the session is cleaned up or at shutdown.
+ * In cluster mode, the mappers are always written at registration because
+ * an other node can receive the next request.
  * 
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  */
 @Service("mapperService")
-public class MapperServiceImpl implements MapperService, InitializingBean {
+public class MapperServiceImpl implements MapperService, InitializingBean, DisposableBean {
+	
+	private static final OLog log = Tracing.createLoggerFor(MapperServiceImpl.class);
+	private static final String UNKNOWN_TYPE = "unknown";
 	
 	private Map<MapperKey,Mapper> mapperKeyToMapper = new ConcurrentHashMap<MapperKey,Mapper>();
 	private Map<String,List<MapperKey>> sessionIdToMapperKeys = new ConcurrentHashMap<String,List<MapperKey>>();
+	/** Serializable mappers not yet written in the database, by mapper id */
+	private final Map<String,PendingMapper> pendingMappers = new ConcurrentHashMap<>();
+	private final Map<String,MapperStatistics> statistics = new ConcurrentHashMap<>();
+	private final Object writeLock = new Object();
 
 	private CacheWrapper<String, Serializable> mapperCache;
+	private ScheduledExecutorService writeBehindScheduler;
+	
+	@Value("${mapper.persist.writebehind:false}")
+	private boolean writeBehind;
+	@Value("${mapper.persist.writebehind.interval:5}")
+	private int writeBehindInterval;
+	@Value("${mapper.persist.writebehind.batchSize:100}")
+	private int writeBehindBatchSize;
+	@Value("${cluster.mode:SingleVM}")
+	private String clusterMode;
 	
+	@Autowired
+	private DB dbInstance;
 	@Autowired
 	private MapperDAO mapperDao;
 	@Autowired
@@ -61,6 +94,41 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 	@Override
 	public void afterPropertiesSet() throws Exception {
 		mapperCache = coordinatorManager.getCoordinator().getCacher().getCache(MapperService.class.getSimpleName(), "mapper");
+		if(writeBehind && "Cluster".equals(clusterMode)) {
+			log.info("Write-behind of the mappers is not available in cluster mode, the mappers are written at registration");
+			writeBehind = false;
+		}
+		if(writeBehind) {
+			long interval = Math.max(1, writeBehindInterval);
+			writeBehindScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "mapper-write-behind");
+				thread.setDaemon(true);
+				return thread;
+			});
+			writeBehindScheduler.scheduleWithFixedDelay(new WriteBehind(), interval, interval, TimeUnit.SECONDS);
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception {
+		if(writeBehindScheduler != null) {
+			writeBehindScheduler.shutdown();
+			try {
+				writeBehindScheduler.awaitTermination(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				log.warn("Interrupted while waiting the mapper write-behind thread", e);
+				Thread.currentThread().interrupt();
+			}
+			writeBehindScheduler = null;
+		}
+		
+		try {
+			while(writePendingMappers() > 0) {
+				// write all mappers before shutdown
+			}
+		} catch (Exception e) {
+			log.error("Cannot write the pending mappers at shutdown", e);
+		}
 	}
 	
 	@Override
@@ -90,7 +158,11 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		}
 		
 		if(mapper instanceof Serializable) {
-			mapperDao.persistMapper(sessionId, mapid, (Serializable)mapper, -1);
+			if(writeBehind) {
+				pendingMappers.put(mapid, new PendingMapper(sessionId, mapid, (Serializable)mapper));
+			} else {
+				persistMapper(sessionId, mapid, (Serializable)mapper, -1);
+			}
 		}
 		mapperKey.setUrl(WebappHelper.getServletContextPath() + DispatcherModule.PATH_MAPPED + mapid);
 		return mapperKey;
@@ -111,15 +183,16 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		boolean alreadyLoaded = mapperKeyToMapper.containsKey(mapperKey);
 		if(mapper instanceof Serializable) {
 			if(alreadyLoaded) {
-				if(!mapperDao.updateConfiguration(encryptedMapId, (Serializable)mapper, expirationTime)) {
-					mapperDao.persistMapper(null, encryptedMapId, (Serializable)mapper, expirationTime);
+				if(!updateConfiguration(encryptedMapId, (Serializable)mapper, expirationTime)) {
+					persistMapper(null, encryptedMapId, (Serializable)mapper, expirationTime);
 				}
 			} else {
 				PersistedMapper persistedMapper = mapperDao.loadByMapperId(encryptedMapId);
+				getStatistics(mapper).incrementDbReads();
 				if(persistedMapper == null) {
-					mapperDao.persistMapper(null, encryptedMapId, (Serializable)mapper, expirationTime);
+					persistMapper(null, encryptedMapId, (Serializable)mapper, expirationTime);
 				} else {
-					mapperDao.updateConfiguration(encryptedMapId, (Serializable)mapper, expirationTime);
+					updateConfiguration(encryptedMapId, (Serializable)mapper, expirationTime);
 				}
 			}
 		}
@@ -142,10 +215,18 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		
 		MapperKey mapperKey = new MapperKey(session, id);
 		Mapper mapper = mapperKeyToMapper.get(mapperKey);
+		if(mapper == null) {
+			// registered on this node but not yet written in the database
+			PendingMapper pending = pendingMappers.get(id);
+			if(pending != null) {
+				mapper = (Mapper)pending.getMapper();
+			}
+		}
 		if(mapper == null) {
 			mapper = (Mapper)mapperCache.get(id);
 			if(mapper == null) {
 				mapper = mapperDao.retrieveMapperById(id);
+				getStatistics(mapper).incrementDbReads();
 				if(mapper != null) {
 					mapperCache.put(id, (Serializable)mapper);
 				}
@@ -159,6 +240,23 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		Calendar cal = Calendar.getInstance();
 		cal.add(Calendar.HOUR_OF_DAY, -6);
 		mapperDao.deleteMapperByDate(cal.getTime());
+		if(!statistics.isEmpty()) {
+			log.info("Mapper statistics: " + statistics.values());
+		}
+	}
+
+	@Override
+	public List<MapperStatistics> getStatistics() {
+		return new ArrayList<>(statistics.values());
+	}
+	
+	private MapperStatistics getStatistics(Object mapper) {
+		String type = mapper == null ? UNKNOWN_TYPE : mapper.getClass().getName();
+		MapperStatistics stats = statistics.get(type);
+		if(stats == null) {
+			stats = statistics.computeIfAbsent(type, MapperStatistics::new);
+		}
+		return stats;
 	}
 
 	@Override
@@ -167,10 +265,8 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		if(mapKeys != null && !mapKeys.isEmpty()) {
 			for(MapperKey mapKey:mapKeys) {
 				Mapper mapper = mapperKeyToMapper.remove(mapKey);
-				if(mapper != null) {
-					if(mapper instanceof Serializable) {
-						mapperDao.updateConfiguration(mapKey.getMapperId(), (Serializable)mapper, -1);
-					}
+				if(mapper instanceof Serializable) {
+					saveMapper(mapKey.getMapperId(), (Serializable)mapper);
 				}
 			}
 		}
@@ -182,8 +278,132 @@ public class MapperServiceImpl implements MapperService, InitializingBean {
 		for(MapperKey mapperKey:mapperKeys) {
 			Mapper mapper = mapperKeyToMapper.remove(mapperKey);
 			if(mapper instanceof Serializable) {
-				mapperDao.updateConfiguration(mapperKey.getMapperId(), (Serializable)mapper, -1);
+				saveMapper(mapperKey.getMapperId(), (Serializable)mapper);
+			}
+		}
+	}
+	
+	/**
+	 * Write the last state of the mapper in the database. A mapper which
+	 * waits for the write-behind thread is directly inserted.
+	 * 
+	 * @param mapperId The mapper id
+	 * @param mapper The mapper
+	 */
+	private void saveMapper(String mapperId, Serializable mapper) {
+		PendingMapper pending;
+		synchronized(writeLock) {// wait until a running batch is committed
+			pending = pendingMappers.remove(mapperId);
+		}
+		
+		if(pending == null) {
+			if(!updateConfiguration(mapperId, mapper, -1)) {
+				// the write-behind thread failed to insert it
+				persistMapper(null, mapperId, mapper, -1);
+				dbInstance.commit();
+			}
+		} else {
+			persistMapper(pending.getSessionId(), mapperId, mapper, -1);
+			dbInstance.commit();
+		}
+	}
+	
+	private void persistMapper(String sessionId, String mapperId, Serializable mapper, int expirationTime) {
+		mapperDao.persistMapper(sessionId, mapperId, mapper, expirationTime);
+		getStatistics(mapper).incrementDbWrites();
+	}
+	
+	private boolean updateConfiguration(String mapperId, Serializable mapper, int expirationTime) {
+		getStatistics(mapper).incrementDbWrites();
+		return mapperDao.updateConfiguration(mapperId, mapper, expirationTime);
+	}
+	
+	/**
+	 * Write a batch of pending mappers in the database. The mappers stay
+	 * visible in the pending list until the transaction is committed.
+	 * 
+	 * @return The number of mappers written
+	 */
+	private int writePendingMappers() {
+		if(pendingMappers.isEmpty()) return 0;
+		
+		int batchSize = Math.max(1, writeBehindBatchSize);
+		synchronized(writeLock) {
+			List<PendingMapper> batch = new ArrayList<>(Math.min(batchSize, pendingMappers.size()));
+			for(PendingMapper pending:pendingMappers.values()) {
+				if(batch.size() >= batchSize) {
+					break;
+				}
+				batch.add(pending);
 			}
+			
+			try {
+				for(PendingMapper pending:batch) {
+					persistMapper(pending.getSessionId(), pending.getMapperId(), pending.getMapper(), -1);
+				}
+				dbInstance.commitAndCloseSession();
+				for(PendingMapper pending:batch) {
+					pendingMappers.remove(pending.getMapperId(), pending);
+				}
+			} catch (Exception e) {
+				dbInstance.rollbackAndCloseSession();
+				log.warn("Cannot write a batch of " + batch.size() + " mappers, write them one by one", e);
+				for(PendingMapper pending:batch) {
+					writePendingMapper(pending);
+				}
+			}
+			return batch.size();
+		}
+	}
+	
+	private void writePendingMapper(PendingMapper pending) {
+		try {
+			persistMapper(pending.getSessionId(), pending.getMapperId(), pending.getMapper(), -1);
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.error("Cannot write the mapper " + pending.getMapperId() + ", it is only available in memory", e);
+		} finally {
+			// the session clean up inserts it if it is still missing
+			pendingMappers.remove(pending.getMapperId(), pending);
+		}
+	}
+	
+	private class WriteBehind implements Runnable {
+		@Override
+		public void run() {
+			try {
+				while(writePendingMappers() > 0) {
+					// write until the list is empty
+				}
+			} catch (Exception e) {
+				log.error("Error while writing the mappers", e);
+			}
+		}
+	}
+	
+	private static class PendingMapper {
+		
+		private final String sessionId;
+		private final String mapperId;
+		private final Serializable mapper;
+		
+		public PendingMapper(String sessionId, String mapperId, Serializable mapper) {
+			this.sessionId = sessionId;
+			this.mapperId = mapperId;
+			this.mapper = mapper;
+		}
+
+		public String getSessionId() {
+			return sessionId;
+		}
+
+		public String getMapperId() {
+			return mapperId;
+		}
+
+		public Serializable getMapper() {
+			return mapper;
 		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.dispatcher.mapper.model;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of reads and writes in the database for a type
+ * of mapper.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class MapperStatistics {
+	
+	private final String mapperType;
+	private final LongAdder dbReads = new LongAdder();
+	private final LongAdder dbWrites = new LongAdder();
+	
+	public MapperStatistics(String mapperType) {
+		this.mapperType = mapperType;
+	}
+	
+	public String getMapperType() {
+		return mapperType;
+	}
+	
+	public long getDbReads() {
+		return dbReads.sum();
+	}
+	
+	public void incrementDbReads() {
+		dbReads.increment();
+	}
+	
+	public long getDbWrites() {
+		return dbWrites.sum();
+	}
+	
+	public void incrementDbWrites() {
+		dbWrites.increment();
+	}
+
+	@Override
+	public String toString() {
+		return mapperType + "[reads=" + getDbReads() + ", writes=" + getDbWrites() + "]";
+	}
+}
@@ -842,7 +842,7 @@ public class Window extends AbstractComponent implements CustomCSSDelegate {
 					}
 					
 					wbackofficeImpl.fireCycleEvent(AFTER_INLINE_RENDERING);
-					ServletUtil.serveStringResource(response, result);
+					ServletUtil.serveStringResource(request, response, result);
 					StringOutputPool.free(result);
 					if (isDebugLog) {
 						long diff = System.currentTimeMillis() - debug_start;
@@ -26,7 +26,6 @@
 package org.olat.core.gui.control.winmgr;
 
 import java.io.IOException;
-import java.io.Writer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -53,7 +52,11 @@ import org.olat.core.gui.control.pushpoll.WindowCommand;
 import org.olat.core.gui.control.util.ZIndexWrapper;
 import org.olat.core.gui.dev.controller.DevelopmentController;
 import org.olat.core.gui.media.MediaResource;
+import org.olat.core.gui.media.ResponseEncoder;
+import org.olat.core.gui.media.ResponseEncoder.RequestType;
 import org.olat.core.gui.media.ServletUtil;
+import org.olat.core.gui.render.StringOutput;
+import org.olat.core.gui.render.StringOutputPool;
 import org.olat.core.gui.render.intercept.InterceptHandler;
 import org.olat.core.gui.render.intercept.InterceptHandlerInstance;
 import org.olat.core.gui.render.intercept.debug.GuiDebugDispatcherController;
@@ -184,22 +187,24 @@ public class WindowBackOfficeImpl implements WindowBackOffice {
 	
 	public void pushCommands(UserRequest ureq, HttpServletRequest request, HttpServletResponse response) {
 
+		// most ajax responses are a lot smaller than 16k
+		StringOutput output = StringOutputPool.allocStringBuilder(16384);
 		try {
 			boolean acceptJson = ServletUtil.acceptJson(request);
-			//first set the headers with the content-type
-			//and after get the writer with the encoding
-			//fixed by the content-type
+			//first set the headers with the content-type,
+			//the response is always encoded in utf-8
 			if(acceptJson) {
 				ServletUtil.setJSONResourceHeaders(response);
-				Writer w = response.getWriter();
-				ajaxC.pushJSONAndClear(ureq, w);
+				ajaxC.pushJSONAndClear(ureq, output);
 			} else {
 				ServletUtil.setStringResourceHeaders(response);
-				Writer w = response.getWriter();
-				ajaxC.pushResource(ureq, w, true);
+				ajaxC.pushResource(ureq, output, true);
 			}
+			ResponseEncoder.serve(request, response, output, RequestType.ajax);
 		} catch (IOException e) {
 			log.error("Error pushing commans to the AJAX canal.", e);
+		} finally {
+			StringOutputPool.free(output);
 		}
 	}
 
@@ -51,6 +51,15 @@ public class CleanupAfterDeliveryFileMediaResource extends FileMediaResource {
 		return false;
 	}
 
+	/**
+	 * The file is deleted at release, before the servlet container
+	 * could send it.
+	 */
+	@Override
+	public boolean isSendFileAllowed() {
+		return false;
+	}
+
 	/**
 	 * @see org.olat.core.gui.media.MediaResource#release()
 	 */
@@ -0,0 +1,50 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.nio.file.Path;
+
+/**
+ * A resource which content is a file of the local file system delivered
+ * as is. The file can be transferred with its channel or sent by the servlet
+ * container instead of being copied through an input stream.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface FileBackedResource {
+	
+	/**
+	 * @return The path of the file or null if the content is not available
+	 * 		as a local file
+	 */
+	public Path getFilePath();
+	
+	/**
+	 * The servlet container sends the file after the request is processed
+	 * and the resource released.
+	 * 
+	 * @return false if the file is not available after the release of the resource
+	 */
+	public default boolean isSendFileAllowed() {
+		return true;
+	}
+
+}
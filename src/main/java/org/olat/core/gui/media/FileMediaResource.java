@@ -31,6 +31,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -54,7 +55,7 @@ import org.olat.core.util.WebappHelper;
  * 
  * @author Felix Jost
  */
-public class FileMediaResource implements MediaResource {
+public class FileMediaResource implements MediaResource, FileBackedResource {
 	protected File file;
 	private long cacheDuration = ServletUtil.CACHE_ONE_HOUR;
 	private boolean unknownMimeType = false;
@@ -131,6 +132,11 @@ public class FileMediaResource implements MediaResource {
 		return bis;
 	}
 
+	@Override
+	public Path getFilePath() {
+		return file == null ? null : file.toPath();
+	}
+
 	@Override
 	public Long getLastModified() {
 		return Long.valueOf(file.lastModified());
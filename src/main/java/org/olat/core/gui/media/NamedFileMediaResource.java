@@ -88,6 +88,13 @@ public class NamedFileMediaResource extends FileMediaResource {
 		hres.setHeader("Content-Description", StringHelper.urlEncodeUTF8(fileDescription));
 	}
 
+	/**
+	 * A file deleted at release cannot be sent by the servlet container.
+	 */
+	@Override
+	public boolean isSendFileAllowed() {
+		return !deleteAfterDelivery;
+	}
 
 	/**
 	 * @see org.olat.core.gui.media.MediaResource#release()
@@ -0,0 +1,460 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.olat.core.gui.render.StringOutput;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+
+/**
+ * Encodes the rendered pages and AJAX responses in UTF-8 directly into
+ * byte buffers which are reused by the request threads, compresses them
+ * with gzip above a threshold if the browser accepts it, and sends them
+ * with a Content-Length.<br>
+ * The statistics are available per JMX under org.olat.core.gui.media:type=ResponseEncoder
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ResponseEncoder {
+	
+	private static final OLog log = Tracing.createLoggerFor(ResponseEncoder.class);
+	
+	private static final int CHUNK_SIZE = 8192;
+	private static final int INITIAL_BUFFER_SIZE = 32 * 1024;
+	/** Buffers bigger than this are not kept by the thread after the response */
+	private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+	private static final byte[] GZIP_HEADER = new byte[] {
+			(byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+	
+	private static boolean compressionEnabled = true;
+	private static int compressionThreshold = 2048;
+	private static int compressionLevel = 5;
+	
+	private static final Statistics pageStatistics = new Statistics();
+	private static final Statistics ajaxStatistics = new Statistics();
+	private static final ThreadLocal<EncodingBuffers> buffers = ThreadLocal.withInitial(EncodingBuffers::new);
+	
+	static {
+		registerMBean();
+	}
+	
+	/**
+	 * [used by spring]
+	 */
+	ResponseEncoder() {
+		//
+	}
+	
+	/**
+	 * [spring]
+	 * @param enabled true to compress the responses with gzip
+	 */
+	public void setCompressionEnabled(boolean enabled) {
+		ResponseEncoder.compressionEnabled = enabled;
+	}
+	
+	public static boolean isCompressionEnabled() {
+		return compressionEnabled;
+	}
+
+	/**
+	 * [spring]
+	 * @param threshold The min. size in bytes of a response to be compressed
+	 */
+	public void setCompressionThreshold(int threshold) {
+		ResponseEncoder.compressionThreshold = threshold;
+	}
+	
+	public static int getCompressionThreshold() {
+		return compressionThreshold;
+	}
+	
+	/**
+	 * [spring]
+	 * @param level The deflate level between 1 (fastest) and 9 (smallest)
+	 */
+	public void setCompressionLevel(int level) {
+		if(level >= Deflater.BEST_SPEED && level <= Deflater.BEST_COMPRESSION) {
+			ResponseEncoder.compressionLevel = level;
+		}
+	}
+	
+	public static int getCompressionLevel() {
+		return compressionLevel;
+	}
+	
+	/**
+	 * Encode the output and write it in the response. The headers with the
+	 * content type must already be set.
+	 * 
+	 * @param httpReq The request (optional), without it the response is never compressed
+	 * @param httpResp The response
+	 * @param output The rendered page or AJAX response
+	 * @param type The type of request for the statistics
+	 * @throws IOException
+	 */
+	public static void serve(HttpServletRequest httpReq, HttpServletResponse httpResp, StringOutput output, RequestType type)
+	throws IOException {
+		long start = System.nanoTime();
+		
+		EncodingBuffers encodingBuffers = buffers.get();
+		try {
+			ByteOutput plain = encodingBuffers.encode(output);
+			ByteOutput content = plain;
+			if(compressionEnabled) {
+				httpResp.addHeader("Vary", "Accept-Encoding");
+				if(plain.count >= compressionThreshold && acceptGzip(httpReq)) {
+					ByteOutput compressed = encodingBuffers.gzip(plain, compressionLevel);
+					if(compressed.count < plain.count) {
+						httpResp.setHeader("Content-Encoding", "gzip");
+						content = compressed;
+					}
+				}
+			}
+
+			long encodeTime = System.nanoTime() - start;
+			getStatistics(type).add(plain.count, content.count, content != plain, encodeTime);
+			if(log.isDebug()) {
+				log.debug("Encode " + type + " response " + output.length() + " chars / " + plain.count + " bytes / "
+						+ content.count + " bytes sent in (ms): " + TimeUnit.NANOSECONDS.toMillis(encodeTime));
+			}
+			
+			httpResp.setContentLength(content.count);
+			OutputStream out = httpReq == null ? httpResp.getOutputStream() : ServletUtil.getOutputStream(httpReq, httpResp);
+			out.write(content.buf, 0, content.count);
+			out.close();
+		} finally {
+			encodingBuffers.release();
+		}
+	}
+	
+	/**
+	 * @param httpReq The request
+	 * @return true if the Accept-Encoding header allows gzip
+	 */
+	public static boolean acceptGzip(HttpServletRequest httpReq) {
+		if(httpReq == null) return false;
+		
+		for(Enumeration<String> headers=httpReq.getHeaders("Accept-Encoding"); headers != null && headers.hasMoreElements(); ) {
+			String header = headers.nextElement();
+			if(header == null) continue;
+			
+			for(String coding:header.split(",")) {
+				String[] params = coding.split(";");
+				String name = params[0].trim();
+				if("gzip".equalsIgnoreCase(name) || "*".equals(name)) {
+					return !isZeroQuality(params);
+				}
+			}
+		}
+		return false;
+	}
+	
+	private static boolean isZeroQuality(String[] params) {
+		for(int i=1; i<params.length; i++) {
+			String param = params[i].trim();
+			if(param.startsWith("q=")) {
+				try {
+					return Double.parseDouble(param.substring(2).trim()) <= 0.0d;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+	
+	public static Statistics getStatistics(RequestType type) {
+		return type == RequestType.ajax ? ajaxStatistics : pageStatistics;
+	}
+	
+	private static void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("org.olat.core.gui.media:type=ResponseEncoder");
+			if(!server.isRegistered(name)) {
+				server.registerMBean(new StandardMBean(new StatisticsBean(), ResponseEncoderMBean.class), name);
+			}
+		} catch (Exception e) {
+			log.warn("Cannot register the statistics of the ResponseEncoder", e);
+		}
+	}
+	
+	public enum RequestType {
+		page,
+		ajax
+	}
+	
+	public static class Statistics {
+		
+		private final LongAdder responses = new LongAdder();
+		private final LongAdder compressedResponses = new LongAdder();
+		private final LongAdder bytes = new LongAdder();
+		private final LongAdder bytesSent = new LongAdder();
+		private final LongAdder encodeTime = new LongAdder();
+		
+		private void add(int encodedBytes, int sentBytes, boolean compressed, long nanos) {
+			responses.increment();
+			if(compressed) {
+				compressedResponses.increment();
+			}
+			bytes.add(encodedBytes);
+			bytesSent.add(sentBytes);
+			encodeTime.add(nanos);
+		}
+		
+		public long getResponses() {
+			return responses.sum();
+		}
+		
+		public long getCompressedResponses() {
+			return compressedResponses.sum();
+		}
+		
+		/**
+		 * @return The number of bytes of the UTF-8 encoded responses
+		 */
+		public long getBytes() {
+			return bytes.sum();
+		}
+		
+		public long getBytesSent() {
+			return bytesSent.sum();
+		}
+		
+		public long getBytesSaved() {
+			return bytes.sum() - bytesSent.sum();
+		}
+		
+		public long getEncodeTimeMillis() {
+			return TimeUnit.NANOSECONDS.toMillis(encodeTime.sum());
+		}
+	}
+	
+	/**
+	 * The buffers of a thread: the encoder, a chunk of characters, the
+	 * encoded bytes, the compressed bytes and the deflater.
+	 * 
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	private static class EncodingBuffers {
+		
+		private final char[] chars = new char[CHUNK_SIZE];
+		private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		private final ByteOutput plain = new ByteOutput();
+		private final ByteOutput compressed = new ByteOutput();
+		private final CRC32 crc = new CRC32();
+		private Deflater deflater;
+		
+		public ByteOutput encode(StringOutput output) {
+			int length = output.length();
+			// most of the HTML is ASCII
+			plain.ensureCapacity(length + (length >> 3) + 16);
+			encoder.reset();
+
+			for(int start=0; start<length; ) {
+				int end = Math.min(length, start + chars.length);
+				output.getChars(start, end, chars, 0);
+				CharBuffer in = CharBuffer.wrap(chars, 0, end - start);
+				encode(in, end == length);
+				// a surrogate pair split by the chunk stays in the buffer
+				start = end - in.remaining();
+			}
+			
+			for(;;) {
+				ByteBuffer out = ByteBuffer.wrap(plain.buf, plain.count, plain.buf.length - plain.count);
+				CoderResult result = encoder.flush(out);
+				plain.count = out.position();
+				if(result.isOverflow()) {
+					plain.ensureCapacity(plain.count + 16);
+				} else {
+					break;
+				}
+			}
+			return plain;
+		}
+		
+		private void encode(CharBuffer in, boolean endOfInput) {
+			for(;;) {
+				ByteBuffer out = ByteBuffer.wrap(plain.buf, plain.count, plain.buf.length - plain.count);
+				CoderResult result = encoder.encode(in, out, endOfInput);
+				plain.count = out.position();
+				if(result.isOverflow()) {
+					plain.ensureCapacity(plain.count + 3 * in.remaining() + 16);
+				} else {
+					break;
+				}
+			}
+		}
+		
+		public ByteOutput gzip(ByteOutput input, int level) {
+			if(deflater == null) {
+				deflater = new Deflater(level, true);
+			} else {
+				deflater.reset();
+				deflater.setLevel(level);
+			}
+			
+			compressed.ensureCapacity((input.count >> 2) + GZIP_HEADER.length + 8);
+			compressed.write(GZIP_HEADER, GZIP_HEADER.length);
+			deflater.setInput(input.buf, 0, input.count);
+			deflater.finish();
+			while(!deflater.finished()) {
+				if(compressed.count == compressed.buf.length) {
+					compressed.ensureCapacity(compressed.count + CHUNK_SIZE);
+				}
+				compressed.count += deflater.deflate(compressed.buf, compressed.count, compressed.buf.length - compressed.count);
+			}
+
+			crc.reset();
+			crc.update(input.buf, 0, input.count);
+			compressed.writeIntLE((int)crc.getValue());
+			compressed.writeIntLE(input.count);
+			return compressed;
+		}
+		
+		public void release() {
+			plain.release();
+			compressed.release();
+		}
+	}
+	
+	private static class ByteOutput {
+		
+		private byte[] buf = new byte[INITIAL_BUFFER_SIZE];
+		private int count;
+		
+		public void ensureCapacity(int capacity) {
+			if(capacity > buf.length) {
+				byte[] newBuf = new byte[Math.max(capacity, buf.length << 1)];
+				System.arraycopy(buf, 0, newBuf, 0, count);
+				buf = newBuf;
+			}
+		}
+		
+		public void write(byte[] bytes, int length) {
+			ensureCapacity(count + length);
+			System.arraycopy(bytes, 0, buf, count, length);
+			count += length;
+		}
+		
+		public void writeIntLE(int val) {
+			ensureCapacity(count + 4);
+			buf[count++] = (byte)val;
+			buf[count++] = (byte)(val >> 8);
+			buf[count++] = (byte)(val >> 16);
+			buf[count++] = (byte)(val >> 24);
+		}
+		
+		public void release() {
+			count = 0;
+			if(buf.length > MAX_RETAINED_BUFFER_SIZE) {
+				buf = new byte[INITIAL_BUFFER_SIZE];
+			}
+		}
+	}
+	
+	public interface ResponseEncoderMBean {
+		
+		public long getPageResponses();
+		
+		public long getPageCompressedResponses();
+		
+		public long getPageBytesSaved();
+		
+		public long getPageEncodeTimeMillis();
+		
+		public long getAjaxResponses();
+		
+		public long getAjaxCompressedResponses();
+		
+		public long getAjaxBytesSaved();
+		
+		public long getAjaxEncodeTimeMillis();
+	}
+	
+	private static class StatisticsBean implements ResponseEncoderMBean {
+
+		@Override
+		public long getPageResponses() {
+			return pageStatistics.getResponses();
+		}
+
+		@Override
+		public long getPageCompressedResponses() {
+			return pageStatistics.getCompressedResponses();
+		}
+
+		@Override
+		public long getPageBytesSaved() {
+			return pageStatistics.getBytesSaved();
+		}
+
+		@Override
+		public long getPageEncodeTimeMillis() {
+			return pageStatistics.getEncodeTimeMillis();
+		}
+
+		@Override
+		public long getAjaxResponses() {
+			return ajaxStatistics.getResponses();
+		}
+
+		@Override
+		public long getAjaxCompressedResponses() {
+			return ajaxStatistics.getCompressedResponses();
+		}
+
+		@Override
+		public long getAjaxBytesSaved() {
+			return ajaxStatistics.getBytesSaved();
+		}
+
+		@Override
+		public long getAjaxEncodeTimeMillis() {
+			return ajaxStatistics.getEncodeTimeMillis();
+		}
+	}
+}
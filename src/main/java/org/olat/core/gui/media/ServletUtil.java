@@ -32,9 +32,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -43,6 +48,7 @@ import java.util.StringTokenizer;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.apache.commons.io.IOUtils;
 import org.olat.core.CoreSpringFactory;
@@ -67,6 +73,15 @@ public class ServletUtil {
 	public static final long CACHE_ONE_HOUR = 60l * 60l;
 	public static final long CACHE_ONE_DAY = 24l * 60l * 60l;
 	
+	private static final String MIME_BOUNDARY = "OPENOLAT_MIME_BOUNDARY";
+	// request attributes of the sendfile support of Tomcat
+	private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+	private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+	private static final String SENDFILE_FILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+	private static final String SENDFILE_FILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+	// under this size, the file is copied in the buffer of the response (same as Tomcat)
+	private static final long SENDFILE_MIN_SIZE = 48l * 1024l;
+	
 	
 	public static void printOutRequestParameters(HttpServletRequest request) {
 		for(Enumeration<String> names=request.getParameterNames(); names.hasMoreElements(); ) {
@@ -179,6 +194,17 @@ public class ServletUtil {
 			// maybe some more preparations
 			mr.prepare(httpResp);
 			
+			Path path = mr instanceof FileBackedResource ? ((FileBackedResource)mr).getFilePath() : null;
+			if(path != null && Files.isReadable(path)) {
+				long rstart = debug ? System.currentTimeMillis() : 0;
+				serveFile(httpReq, httpResp, (FileBackedResource)mr, path, ranges);
+				if (debug) {
+					long rstop = System.currentTimeMillis();
+					log.debug("time to serve file (mr="+mr.getClass().getName()+") "+ (size == null ? "n/a" : "" + size) + " bytes: " + (rstop - rstart));
+				}
+				return;
+			}
+			
 			in = mr.getInputStream();
 
 			// serve the Resource
@@ -188,12 +214,7 @@ public class ServletUtil {
 					rstart = System.currentTimeMillis();
 				}
 				
-				if (Settings.isDebuging()) {
-					SlowBandWidthSimulator sbs = Windows.getWindows(CoreSpringFactory.getImpl(UserSessionManager.class).getUserSession(httpReq)).getSlowBandWidthSimulator();
-					out = sbs.wrapOutputStream(httpResp.getOutputStream());
-				} else {
-					out = httpResp.getOutputStream();
-				}
+				out = getOutputStream(httpReq, httpResp);
 
 				if (ranges != null && ranges.size() == 1) {
 					
@@ -244,6 +265,112 @@ public class ServletUtil {
 		}
 	}
 	
+	static OutputStream getOutputStream(HttpServletRequest httpReq, HttpServletResponse httpResp) throws IOException {
+		if (Settings.isDebuging()) {
+			SlowBandWidthSimulator sbs = Windows.getWindows(CoreSpringFactory.getImpl(UserSessionManager.class).getUserSession(httpReq)).getSlowBandWidthSimulator();
+			return sbs.wrapOutputStream(httpResp.getOutputStream());
+		}
+		return httpResp.getOutputStream();
+	}
+	
+	/**
+	 * Serve the file without input stream: the servlet container sends it if it
+	 * supports it, else the file channel is transferred to the response. Multiple
+	 * ranges are delivered as multipart/byteranges.
+	 */
+	private static void serveFile(HttpServletRequest httpReq, HttpServletResponse httpResp, FileBackedResource resource,
+			Path path, List<Range> ranges) throws IOException {
+		long fileLength = Files.size(path);
+		if (ranges == null || ranges.isEmpty()) {
+			httpResp.setContentLengthLong(fileLength);
+			if (!(resource.isSendFileAllowed() && sendFile(httpReq, httpResp, path, 0, fileLength))) {
+				transfer(path, 0, fileLength, getOutputStream(httpReq, httpResp));
+			}
+		} else if (ranges.size() == 1) {
+			Range range = ranges.get(0);
+			long length = range.end - range.start + 1;
+			httpResp.addHeader("Content-Range", "bytes " + range.start + "-" + range.end + "/" + range.length);
+			httpResp.setContentLengthLong(length);
+			httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			if (!(resource.isSendFileAllowed() && sendFile(httpReq, httpResp, path, range.start, length))) {
+				transfer(path, range.start, length, getOutputStream(httpReq, httpResp));
+			}
+		} else {
+			String contentType = httpResp.getContentType();
+			httpResp.setContentType("multipart/byteranges; boundary=" + MIME_BOUNDARY);
+			httpResp.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			
+			OutputStream out = getOutputStream(httpReq, httpResp);
+			try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				for(Range range:ranges) {
+					StringBuilder part = new StringBuilder(128);
+					part.append("\r\n--").append(MIME_BOUNDARY).append("\r\n");
+					if (contentType != null) {
+						part.append("Content-Type: ").append(contentType).append("\r\n");
+					}
+					part.append("Content-Range: bytes ").append(range.start).append("-").append(range.end)
+					    .append("/").append(range.length).append("\r\n\r\n");
+					out.write(part.toString().getBytes(StandardCharsets.ISO_8859_1));
+					transfer(channel, range.start, range.end - range.start + 1, out);
+				}
+				out.write(("\r\n--" + MIME_BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+			}
+		}
+	}
+	
+	/**
+	 * Ask the servlet container to send the file itself after the request
+	 * is processed (sendfile support of Tomcat), without copying the content
+	 * through the JVM. The content length must be set by the caller.
+	 * 
+	 * @param request The request
+	 * @param response The response
+	 * @param path The file to send
+	 * @param start The position of the first byte to send
+	 * @param length The number of bytes to send
+	 * @return true if the container will send the file, false if the caller must write the content
+	 */
+	public static boolean sendFile(HttpServletRequest request, HttpServletResponse response, Path path, long start, long length) {
+		if (length < SENDFILE_MIN_SIZE
+				|| Settings.isDebuging()
+				|| response instanceof HttpServletResponseWrapper
+				|| !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+			return false;
+		}
+		request.setAttribute(SENDFILE_FILENAME_ATTR, path.toAbsolutePath().toString());
+		request.setAttribute(SENDFILE_FILE_START_ATTR, Long.valueOf(start));
+		request.setAttribute(SENDFILE_FILE_END_ATTR, Long.valueOf(start + length));
+		return true;
+	}
+	
+	/**
+	 * Transfer a part of the file to the output stream using its channel.
+	 * 
+	 * @param path The file
+	 * @param start The position of the first byte
+	 * @param length The number of bytes to transfer
+	 * @param out The output stream
+	 * @throws IOException
+	 */
+	public static void transfer(Path path, long start, long length, OutputStream out) throws IOException {
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			transfer(channel, start, length, out);
+		}
+	}
+	
+	public static void transfer(FileChannel channel, long start, long length, OutputStream out) throws IOException {
+		WritableByteChannel target = Channels.newChannel(out);
+		long position = start;
+		long end = start + length;
+		while (position < end) {
+			long transferred = channel.transferTo(position, end - position, target);
+			if (transferred <= 0) {
+				break;// the file is shorter than expected
+			}
+			position += transferred;
+		}
+	}
+	
 	//fxdiff FXOLAT-118: accept range to deliver videos for iPad
 	protected static void copy(OutputStream ostream, InputStream resourceInputStream, Range range) throws IOException {
 		IOException exception = null;
@@ -519,6 +646,18 @@ public class ServletUtil {
 	}
 
 	public static void serveStringResource(HttpServletResponse response, StringOutput result) {
+		serveStringResource(null, response, result);
+	}
+
+	/**
+	 * Serve the rendered page encoded in UTF-8 with its length, compressed
+	 * if the browser accepts it.
+	 * 
+	 * @param httpReq The request (optional)
+	 * @param response The response
+	 * @param result The rendered page
+	 */
+	public static void serveStringResource(HttpServletRequest httpReq, HttpServletResponse response, StringOutput result) {
 		setStringResourceHeaders(response);
 
 		// log the response headers prior to sending the output
@@ -529,24 +668,7 @@ public class ServletUtil {
 		}
 
 		try {
-			long rstart = 0;
-			if (isDebug || true) {
-				rstart = System.currentTimeMillis();
-			}
-			// make a ByteArrayOutputStream to be able to determine the length.
-			// buffer size: assume average length of a char in bytes is max 2
-			int encLen = result.length();
-			Reader reader = result.getReader();
-			//response.setContentLength(encLen); set the number of characters, must be number of bytes
-			
-			PrintWriter os = response.getWriter();
-			IOUtils.copy(reader, os);
-			os.close();
-			
-			if (isDebug) {
-				log.debug("time to serve inline-resource " + result.length() + " chars / " + encLen + " bytes: " 
-					+ (System.currentTimeMillis() - rstart));
-			}
+			ResponseEncoder.serve(httpReq, response, result, ResponseEncoder.RequestType.page);
 		} catch (IOException e) {
 			if (isDebug) {
 				log.warn("client browser abort when serving inline", e);
@@ -207,6 +207,16 @@ public class StringOutput extends Writer {
 		return sb.length();
 	}
 	
+	/**
+	 * Copy the characters in the destination array, without creating
+	 * an intermediate string.
+	 * 
+	 * @see java.lang.StringBuilder#getChars(int, int, char[], int)
+	 */
+	public void getChars(int srcBegin, int srcEnd, char[] dst, int dstBegin) {
+		sb.getChars(srcBegin, srcEnd, dst, dstBegin);
+	}
+	
 	public boolean contains(String str) {
 		return sb.indexOf(str) >= 0;
 	}
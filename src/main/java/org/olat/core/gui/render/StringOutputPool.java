@@ -19,118 +19,282 @@
  */
 package org.olat.core.gui.render;
 
-import java.lang.ref.Reference;
-import java.lang.ref.SoftReference;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
 
 /**
- * the pool is based on the implementation of Slobodan Celenkovic:<br/>
- * http://www.jroller.com/slobodan/date/20050309<br/>
+ * Pool of StringOutput without global lock. The buffers are sorted in size
+ * classes (powers of two from 1K to 512K characters), every class is an
+ * array of slots divided in stripes. A thread first looks in its own stripe,
+ * allocation and release are O(1) with a compare and set. The pool doesn't
+ * retain more than a configured number of bytes, buffers which are too big
+ * are never pooled to prevent memory leaks.<br>
+ * The statistics are available per JMX under org.olat.core.gui.render:type=StringOutputPool
  * 
  * Initial date: 10.01.2013<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
 public class StringOutputPool {
+	
+	private static final OLog log = Tracing.createLoggerFor(StringOutputPool.class);
 
-	/** Max pool size */
-  protected final static int MAX_STR_BUILDER_POOL_SIZE = 50;
-
-  /** General purpose pool for StringBuilder instances. */
-  private static List<Reference<StringOutput>> stringBuilders = new ArrayList<Reference<StringOutput>>(MAX_STR_BUILDER_POOL_SIZE+1);
-
-  /** Auxiliary pool for small size builders. It is a simple sparse array with
-      elements not sorted. Buffers are simply placed in and taken out. In
-      general, when storing buffers preference is given to large buffers. */
-  private static final StringOutput auxStringBuilders[] =
-    new StringOutput[ 10 ];
-
-
-  /** Allocates a string builder instance using recycling. Doesn't guarantee
-      that the returned object will have the requested size!
-      @param size (optional) builder size
-      @return builder instance */
-  public static StringOutput allocStringBuilder(final int size)  {
-    assert size > 0;
-    if ( size < 4096 ) {        // Smaller buffer? -> use auxiliary pool
-      synchronized ( auxStringBuilders ) {
-        for(int index=0; index < auxStringBuilders.length; index++)
-          if ((auxStringBuilders[index] != null) &&
-              (auxStringBuilders[index].capacity() >= size)) {
-          	StringOutput res = auxStringBuilders[ index ];
-            auxStringBuilders[ index ] = null;
-            return res;
-          }
-      }
-      return new StringOutput(size);
-    } else {// Bigger buffers? -> use primary pool
-      synchronized ( stringBuilders ) { // pool lookup
-        if ( stringBuilders.isEmpty())  {
-        	return new StringOutput(size);
-        }
-
-        StringOutput res =null;
-        for (Iterator<Reference<StringOutput>> seq=stringBuilders.iterator(); seq.hasNext(); ) {
-          res = seq.next().get();
-          if ( res == null ) {
-          	seq.remove(); // no longer available, cleanup
-          }  else if ( res.capacity() >= size ) {
-            seq.remove();
-            return res;
-          }
-        } // for
-      } // sync
-    } // else
+	private static final int MIN_CLASS_SHIFT = 10;// 1K characters
+	private static final int NUM_OF_CLASSES = 10;// up to 512K characters
+	/** Buffers with this capacity or more are never pooled */
+	protected static final int MAX_POOLED_CAPACITY = 1 << (MIN_CLASS_SHIFT + NUM_OF_CLASSES);
+	/** Max. number of bytes retained by the pool */
+	protected static final long MAX_RETAINED_BYTES = 32l * 1024l * 1024l;
+	private static final int SLOTS_PER_STRIPE = 2;
+	private static final int MAX_PROBES = 2 * SLOTS_PER_STRIPE;
+	
+	private static final int stripeMask;
+	private static final SizeClass[] sizeClasses = new SizeClass[NUM_OF_CLASSES];
+	
+	private static final AtomicLong retainedBytes = new AtomicLong();
+	private static final AtomicLong hits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+	private static final AtomicLong releases = new AtomicLong();
+	private static final AtomicLong drops = new AtomicLong();
+	
+	static {
+		int stripes = 1;
+		int cores = Runtime.getRuntime().availableProcessors();
+		while(stripes < 2 * cores && stripes < 64) {
+			stripes <<= 1;
+		}
+		stripeMask = stripes - 1;
+		for(int i=0; i<NUM_OF_CLASSES; i++) {
+			sizeClasses[i] = new SizeClass(1 << (MIN_CLASS_SHIFT + i), stripes * SLOTS_PER_STRIPE);
+		}
+		registerMBean();
+	}
 
-    return new StringOutput(size);
-  } // allocStringBuilder
+	/**
+	 * Allocates a string builder instance using recycling. The returned object
+	 * has at least the requested capacity.
+	 * 
+	 * @param size (optional) builder size
+	 * @return builder instance
+	 */
+	public static StringOutput allocStringBuilder(final int size) {
+		int index = allocClassIndex(size);
+		if(index < 0) {
+			misses.incrementAndGet();
+			return new StringOutput(size);
+		}
+		
+		StringOutput res = sizeClasses[index].poll();
+		if(res == null && index + 1 < NUM_OF_CLASSES) {
+			res = sizeClasses[index + 1].poll();
+		}
+		if(res == null) {
+			misses.incrementAndGet();
+			// round up to the size class to be reusable by the next allocation
+			return new StringOutput(sizeClasses[index].capacity);
+		}
+		hits.incrementAndGet();
+		retainedBytes.addAndGet(-2l * res.capacity());
+		return res;
+	}
   
-  /** Supplies object instance for recycling. The object could have been
-  allocated using any means. Caller must not continue using it after this
-  method call.
-  @param obj discarded builder instance */
+	/**
+	 * Supplies object instance for recycling. The object could have been
+	 * allocated using any means. Caller must not continue using it after this
+	 * method call.
+	 * 
+	 * @param obj discarded builder instance
+	 */
 	public static void free(final StringOutput obj) {
-		if ( obj.capacity() < 4096 ) { // Smaller buffer? -> use auxiliary pool
-		  synchronized ( auxStringBuilders ) {
-		    int minIndex =-1, minSize = Integer.MAX_VALUE, size =0;
-		    for(int index=0; index < auxStringBuilders.length; index++) {
-		      if ( auxStringBuilders[index] == null ) {
-		        obj.setLength(0);
-		        auxStringBuilders[ index ] = obj;
-		        return;
-		      }
+		if(obj == null) return;
 		
-		      if ((size= auxStringBuilders[index].capacity()) < minSize) {
-		        minIndex = index;
-		        minSize = size;
-		      }
-		    }
-		
-		    if ( minSize < obj.capacity() ) {
-		      obj.setLength(0);
-		      auxStringBuilders[minIndex] = obj;
-		    }
-		  }
-		} else if(obj.capacity() < 250000) {
-			// Bigger buffers? -> use primary pool, too big, don't return it to prevent memory leak
-		  synchronized ( stringBuilders ) {
-	      obj.setLength(0);
-		    stringBuilders.add(0, new SoftReference<StringOutput>(obj));
-		    if ( stringBuilders.size() > MAX_STR_BUILDER_POOL_SIZE ) {
-		      stringBuilders.remove(MAX_STR_BUILDER_POOL_SIZE);
-		    }
-		  }
-		}
-	} // free
-	
-	/** Frees the string builder and returns its contents before cleanup.
-	  @param obj buffer to free
-	  @return buffer's contents before cleanup */
+		int capacity = obj.capacity();
+		int index = freeClassIndex(capacity);
+		long bytes = 2l * capacity;
+		if(index < 0 || retainedBytes.get() + bytes > MAX_RETAINED_BYTES) {
+			drops.incrementAndGet();
+			return;
+		}
+
+		obj.setLength(0);
+		retainedBytes.addAndGet(bytes);
+		if(sizeClasses[index].offer(obj)) {
+			releases.incrementAndGet();
+		} else {
+			retainedBytes.addAndGet(-bytes);
+			drops.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Frees the string builder and returns its contents before cleanup.
+	 * 
+	 * @param obj buffer to free
+	 * @return buffer's contents before cleanup
+	 */
 	public static String freePop(final StringOutput obj) {
 		String res = obj.toString();
 		free( obj );
 		return res;
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * @param size The requested size
+	 * @return The smallest class with buffers of at least this size, or -1 if too big
+	 */
+	private static int allocClassIndex(int size) {
+		if(size <= (1 << MIN_CLASS_SHIFT)) {
+			return 0;
+		}
+		int index = 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_CLASS_SHIFT;
+		return index < NUM_OF_CLASSES ? index : -1;
+	}
+	
+	/**
+	 * @param capacity The capacity of the released buffer
+	 * @return The largest class the buffer fits in, or -1 if too small or too big
+	 */
+	private static int freeClassIndex(int capacity) {
+		if(capacity < (1 << MIN_CLASS_SHIFT) || capacity >= MAX_POOLED_CAPACITY) {
+			return -1;
+		}
+		return 31 - Integer.numberOfLeadingZeros(capacity) - MIN_CLASS_SHIFT;
+	}
+	
+	private static int stripeOffset() {
+		return ((int)Thread.currentThread().getId() & stripeMask) * SLOTS_PER_STRIPE;
+	}
+	
+	private static void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName("org.olat.core.gui.render:type=StringOutputPool");
+			if(!server.isRegistered(name)) {
+				server.registerMBean(new StandardMBean(new Statistics(), StringOutputPoolMBean.class), name);
+			}
+		} catch (Exception e) {
+			log.warn("Cannot register the statistics of the StringOutputPool", e);
+		}
+	}
+	
+	public static long getHits() {
+		return hits.get();
+	}
+	
+	public static long getMisses() {
+		return misses.get();
+	}
+	
+	public static long getReleases() {
+		return releases.get();
+	}
+	
+	public static long getDrops() {
+		return drops.get();
+	}
+	
+	public static long getRetainedBytes() {
+		return retainedBytes.get();
+	}
+	
+	private static class SizeClass {
+		
+		private final int capacity;
+		private final AtomicReferenceArray<StringOutput> slots;
+		
+		public SizeClass(int capacity, int numOfSlots) {
+			this.capacity = capacity;
+			slots = new AtomicReferenceArray<>(numOfSlots);
+		}
+		
+		public StringOutput poll() {
+			int length = slots.length();
+			int offset = stripeOffset();
+			// own stripe first, then steal from the next one
+			for(int i=0; i<MAX_PROBES && i<length; i++) {
+				int index = (offset + i) % length;
+				StringOutput output = slots.get(index);
+				if(output != null && slots.compareAndSet(index, output, null)) {
+					return output;
+				}
+			}
+			return null;
+		}
+		
+		public boolean offer(StringOutput output) {
+			int length = slots.length();
+			int offset = stripeOffset();
+			for(int i=0; i<MAX_PROBES && i<length; i++) {
+				int index = (offset + i) % length;
+				if(slots.get(index) == null && slots.compareAndSet(index, null, output)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+	
+	public interface StringOutputPoolMBean {
+		
+		public long getHits();
+		
+		public long getMisses();
+		
+		public long getReleases();
+		
+		public long getDrops();
+		
+		public long getRetainedBytes();
+		
+		public int getPooledBuffers();
+	}
+	
+	private static class Statistics implements StringOutputPoolMBean {
+
+		@Override
+		public long getHits() {
+			return hits.get();
+		}
+
+		@Override
+		public long getMisses() {
+			return misses.get();
+		}
+
+		@Override
+		public long getReleases() {
+			return releases.get();
+		}
+
+		@Override
+		public long getDrops() {
+			return drops.get();
+		}
+
+		@Override
+		public long getRetainedBytes() {
+			return retainedBytes.get();
+		}
+
+		@Override
+		public int getPooledBuffers() {
+			int count = 0;
+			for(SizeClass sizeClass:sizeClasses) {
+				for(int i=sizeClass.slots.length(); i-->0; ) {
+					if(sizeClass.slots.get(i) != null) {
+						count++;
+					}
+				}
+			}
+			return count;
+		}
+	}
+}
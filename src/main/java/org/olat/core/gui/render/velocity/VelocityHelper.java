@@ -171,6 +171,26 @@ public class VelocityHelper extends LogDelegator {
 		merge(path, c, writer, theme);
 	}
 
+	/**
+	 * Load and parse the template in the resource cache of velocity,
+	 * without merging it.
+	 *
+	 * @param path e.g. org/olat/demo/_content/index.html
+	 * @return true if the template exists and is loaded
+	 */
+	public boolean preloadTemplate(String path) {
+		if (path == null) throw new AssertException("velocity path was null");
+		try {
+			if(ve.resourceExists(path)) {
+				ve.getTemplate(path, VelocityModule.getInputEncoding());
+				return true;
+			}
+		} catch (Exception e) {
+			logWarn("Cannot preload template: " + path, e);
+		}
+		return false;
+	}
+
 	/**
 	 * @param vtlInput
 	 * @param c
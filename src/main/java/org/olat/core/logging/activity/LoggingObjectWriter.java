@@ -0,0 +1,238 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.logging.activity;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+
+/**
+ * Optional asynchronous writer for the user activity log. The logging objects
+ * are collected in a bounded queue and a background thread drains it and
+ * writes them with JDBC batch inserts, in its own transaction, outside of the
+ * request thread.<br>
+ * If the queue is full, the caller is asked to write the logging object itself
+ * (back-pressure). If a batch cannot be written, the logging objects are
+ * written one by one and only the ones which fail are dropped (and logged).
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LoggingObjectWriter implements Runnable {
+	
+	private static final OLog log = Tracing.createLoggerFor(LoggingObjectWriter.class);
+	
+	private final DB dbInstance;
+	private final boolean enabled;
+	private final int batchSize;
+	private final long flushInterval;
+	private final BlockingQueue<LoggingObject> queue;
+	
+	private Thread writerThread;
+	private volatile boolean running;
+	
+	private final AtomicLong written = new AtomicLong();
+	private final AtomicLong batches = new AtomicLong();
+	private final AtomicLong overflows = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	
+	/**
+	 * 
+	 * @param dbInstance The database
+	 * @param enabled Enable the asynchronous writer
+	 * @param queueSize The max. number of logging objects waiting in memory
+	 * @param batchSize The max. number of logging objects written in one transaction
+	 * @param flushInterval The max. time in milliseconds a logging object waits in the queue
+	 */
+	public LoggingObjectWriter(DB dbInstance, boolean enabled, int queueSize, int batchSize, long flushInterval) {
+		this.dbInstance = dbInstance;
+		this.enabled = enabled;
+		this.batchSize = Math.max(1, batchSize);
+		this.flushInterval = Math.max(10l, flushInterval);
+		queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+	}
+	
+	public void init() {
+		if(enabled) {
+			running = true;
+			writerThread = new Thread(this, "UserActivityLogWriter");
+			writerThread.setDaemon(true);
+			writerThread.start();
+			log.info("Asynchronous user activity logging started with batch size: " + batchSize + " and flush interval: " + flushInterval + "ms");
+		}
+	}
+	
+	public void destroy() {
+		running = false;
+		if(writerThread != null) {
+			try {
+				// let the thread write its current batch, it stops at the next poll
+				writerThread.join(flushInterval + 10000l);
+				if(writerThread.isAlive()) {
+					writerThread.interrupt();
+					writerThread.join(10000l);
+				}
+			} catch (InterruptedException e) {
+				log.error("", e);
+			}
+		}
+		
+		if(writerThread != null && writerThread.isAlive()) {
+			log.warn("The user activity log writer doesn't stop, " + getQueueSize() + " logging objects are not written");
+		} else {
+			// write what the thread has not written
+			flush();
+		}
+		log.info("Asynchronous user activity logging stopped: " + getStatistics());
+	}
+	
+	public boolean isEnabled() {
+		return enabled && running;
+	}
+	
+	/**
+	 * Queue the logging object.
+	 * 
+	 * @param logObj The logging object to write
+	 * @return true if the logging object will be written asynchronously, false
+	 * 		if the queue is full and the caller must write it itself
+	 */
+	public boolean offer(LoggingObject logObj) {
+		if(!isEnabled()) {
+			return false;
+		}
+		if(logObj.getCreationDate() == null) {
+			// the date of the action, not the date of the insert
+			logObj.setCreationDate(new Date());
+		}
+		boolean accepted = queue.offer(logObj);
+		if(!accepted) {
+			overflows.incrementAndGet();
+		}
+		return accepted;
+	}
+	
+	public int getQueueSize() {
+		return queue.size();
+	}
+	
+	public long getWritten() {
+		return written.get();
+	}
+	
+	public long getBatches() {
+		return batches.get();
+	}
+	
+	public long getOverflows() {
+		return overflows.get();
+	}
+	
+	public long getFailures() {
+		return failures.get();
+	}
+	
+	public String getStatistics() {
+		return "written=" + getWritten() + ", batches=" + getBatches() + ", overflows=" + getOverflows()
+			+ ", failures=" + getFailures() + ", queued=" + getQueueSize();
+	}
+
+	@Override
+	public void run() {
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		long lastFlush = System.currentTimeMillis();
+		while(running) {
+			try {
+				long wait = flushInterval - (System.currentTimeMillis() - lastFlush);
+				LoggingObject next = wait > 0l ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+				if(next != null) {
+					batch.add(next);
+					queue.drainTo(batch, batchSize - batch.size());
+				}
+				// write a full batch or what waits since the flush interval
+				if(batch.size() >= batchSize || System.currentTimeMillis() - lastFlush >= flushInterval) {
+					write(batch);
+					batch.clear();
+					lastFlush = System.currentTimeMillis();
+				}
+			} catch (InterruptedException e) {
+				// destroy() flushes the rest of the queue
+				break;
+			} catch (Exception e) {
+				log.error("", e);
+			}
+		}
+		write(batch);
+	}
+	
+	private void flush() {
+		List<LoggingObject> batch = new ArrayList<>(batchSize);
+		while(queue.drainTo(batch, batchSize) > 0) {
+			write(batch);
+			batch.clear();
+		}
+	}
+	
+	private void write(List<LoggingObject> batch) {
+		if(batch.isEmpty()) return;
+		
+		try {
+			EntityManager em = dbInstance.getCurrentEntityManager();
+			em.unwrap(Session.class).setJdbcBatchSize(batchSize);
+			for(LoggingObject logObj:batch) {
+				em.persist(logObj);
+			}
+			dbInstance.commitAndCloseSession();
+			written.addAndGet(batch.size());
+			batches.incrementAndGet();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.warn("Cannot write a batch of " + batch.size() + " user activity logs, write them one by one", e);
+			for(LoggingObject logObj:batch) {
+				writeSingle(logObj);
+			}
+		}
+	}
+	
+	private void writeSingle(LoggingObject logObj) {
+		try {
+			// the key was generated by the batch which was rolled back
+			logObj.setKey(null);
+			dbInstance.getCurrentEntityManager().persist(logObj);
+			dbInstance.commitAndCloseSession();
+			written.incrementAndGet();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			failures.incrementAndGet();
+			log.error("Cannot write user activity log, dropped: " + logObj, e);
+		}
+	}
+}
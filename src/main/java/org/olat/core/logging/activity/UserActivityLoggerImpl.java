@@ -737,7 +737,7 @@ public class UserActivityLoggerImpl implements IUserActivityLogger {
 			// hence we just issue a log.info here with the details
 			//@TODO: lower to log_.info once we checked that it doesn't occur very often (best for 6.4)
 			log_.warn("log: DB is in Error state therefore the UserActivityLoggerImpl cannot store the following logging action into the loggingtable: "+logObj);
-		} else {
+		} else if(!CoreSpringFactory.getImpl(LoggingObjectWriter.class).offer(logObj)) {
 			DBFactory.getInstance().saveObject(logObj);
 		}
 		if (log_.isDebug()) {
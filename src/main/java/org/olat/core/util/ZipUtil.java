@@ -37,20 +37,34 @@ import java.io.OutputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.Stack;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
-import org.apache.commons.io.IOUtils;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.modules.bc.meta.MetaInfo;
 import org.olat.core.commons.modules.bc.meta.tagged.MetaTagged;
@@ -59,6 +73,7 @@ import org.olat.core.id.Roles;
 import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.io.ParallelZipWriter;
 import org.olat.core.util.vfs.LocalFileImpl;
 import org.olat.core.util.vfs.LocalFolderImpl;
 import org.olat.core.util.vfs.LocalImpl;
@@ -82,6 +97,9 @@ public class ZipUtil {
 	
 	private static final OLog log = Tracing.createLoggerFor(ZipUtil.class);
 	
+	private static final int numOfWorkers = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+	private static ExecutorService workers;
+	
 	/**
 	 * Constructor for ZipUtil.
 	 */
@@ -90,6 +108,30 @@ public class ZipUtil {
 	}
 
 
+	private static int getNumOfWorkers() {
+		return numOfWorkers;
+	}
+	
+	/**
+	 * The workers are shared by all the archives which are zipped or unzipped,
+	 * the number of tasks of every archive is limited.
+	 * 
+	 * @return The workers to compress and extract the entries
+	 */
+	private static synchronized ExecutorService getWorkers() {
+		if(workers == null) {
+			final AtomicInteger threadNumber = new AtomicInteger();
+			workers = new ThreadPoolExecutor(numOfWorkers, numOfWorkers, 60l, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, "zip-" + threadNumber.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			((ThreadPoolExecutor)workers).allowCoreThreadTimeOut(true);
+		}
+		return workers;
+	}
+
 	/**
 	 * Unzip a file to a directory
 	 * @param zipFile		The zip file to unzip
@@ -100,7 +142,7 @@ public class ZipUtil {
 		
 		try {
 			long s = System.currentTimeMillis();
-			xxunzip (new FileInputStream(zipFile), targetDir.getAbsolutePath());
+			xxunzip (zipFile, targetDir.getAbsolutePath());
 			log.info("unzip file="+zipFile.getName()+" to="+targetDir.getAbsolutePath() +" t="+Long.toString(System.currentTimeMillis()-s));
 			return true;
 		} catch (IOException e) {
@@ -121,7 +163,7 @@ public class ZipUtil {
 			String outdir = ((LocalFolderImpl) targetDir).getBasefile().getAbsolutePath();
 			try {
 				long s = System.currentTimeMillis();
-				xxunzip (zipLeaf.getInputStream(), outdir);
+				xxunzip (zipLeaf, outdir);
 				log.info("unzip file="+zipLeaf.getName()+" to="+outdir +" t="+Long.toString(System.currentTimeMillis()-s));
 				return true;
 			} catch (IOException e) {
@@ -142,18 +184,14 @@ public class ZipUtil {
 	public static boolean unzipStrict(File zipFile, VFSContainer targetDir) {
 		if (targetDir instanceof LocalFolderImpl) {
 			String outdir = ((LocalFolderImpl) targetDir).getBasefile().getAbsolutePath();
-			InputStream in = null;
 			try {
 				long s = System.currentTimeMillis();
-				in = new FileInputStream(zipFile);
-				xxunzip (in, outdir);
+				xxunzip (zipFile, outdir);
 				log.info("unzip file="+zipFile.getName()+" to="+outdir +" t="+Long.toString(System.currentTimeMillis()-s));
 				return true;
 			} catch (IOException e) {
 				log.error("I/O failure while unzipping "+zipFile.getName()+" to "+outdir);
 				return false;
-			} finally {
-				IOUtils.closeQuietly(in);
 			}
 		}
 		return false;
@@ -607,33 +645,75 @@ public class ZipUtil {
 		
 		long s = System.currentTimeMillis();
 		
-		ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(out, FileUtils.BSIZE));
-		
-		if (vfsFiles.size() == 0) {
-			try {
-				zipOut.close();
-			} catch (IOException e) {
-				//
-			}
-			return true;
-		}
-
-		zipOut.setLevel(compress?9:0);
+		ParallelZipWriter zipOut = createZipWriter(new BufferedOutputStream(out, FileUtils.BSIZE), compress);
 		for (Iterator<VFSItem> iter = vfsFiles.iterator(); success && iter.hasNext();) {
 			success = addToZip(iter.next(), "", zipOut);
 		}
 		
 		try {
-			zipOut.flush();
 			zipOut.close();
 			log.info("zipped ("+(compress?"compress":"store")+") "+zname+" t="+Long.toString(System.currentTimeMillis()-s));
 		} catch (IOException e) {
-			throw new OLATRuntimeException(ZipUtil.class, "I/O error closing file: " + zname, null);
+			if(success) {
+				throw new OLATRuntimeException(ZipUtil.class, "I/O error closing file: " + zname, e);
+			}
 		}
 		
 		return success;
 	}
 	
+	/**
+	 * Create a writer which compresses the entries in parallel. Files which are
+	 * already compressed (images, videos, PDF...) are only stored. Close the
+	 * writer to complete the archive.
+	 * 
+	 * @param out The stream to write the archive, a file or directly the HTTP response
+	 * @param compress true to compress the entries, false to only store them
+	 * @return The writer
+	 */
+	public static ParallelZipWriter createZipWriter(OutputStream out, boolean compress) {
+		return new ParallelZipWriter(out, getWorkers(), compress ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION,
+				2 * getNumOfWorkers() + 2);
+	}
+	
+	/**
+	 * Add recursively the item to the archive.
+	 * 
+	 * @param vfsItem The file or directory
+	 * @param currentPath The path of the item in the archive
+	 * @param out The archive
+	 * @return true if successful
+	 */
+	public static boolean addToZip(VFSItem vfsItem, String currentPath, ParallelZipWriter out) {
+		// The separator / is the separator defined by the ZIP standard
+		String itemName = currentPath.length() == 0 ?
+				vfsItem.getName() : currentPath + "/" + vfsItem.getName();
+		
+		try {
+			if (vfsItem instanceof VFSContainer) {
+				out.addDirectory(itemName, vfsItem.getLastModified());
+				
+				List<VFSItem> items = ((VFSContainer)vfsItem).getItems();
+				for (Iterator<VFSItem> iter = items.iterator(); iter.hasNext();) {
+					if (!addToZip(iter.next(), itemName, out)) {
+						return false;
+					}
+				}
+			} else if(vfsItem instanceof VFSLeaf) {
+				VFSLeaf leaf = (VFSLeaf)vfsItem;
+				out.addEntry(itemName, leaf.getLastModified(), leaf.getSize(), () -> leaf.getInputStream());
+			}
+		} catch (IOException ioe) {
+			String name = vfsItem.getName();
+			if (vfsItem instanceof LocalImpl) {
+				name = ((LocalImpl)vfsItem).getBasefile().getAbsolutePath();
+			}
+			log.error("I/O error while adding "+name+" to zip:"+ioe);
+			return false;
+		}
+		return true;
+	}
+	
 	public static boolean addToZip(VFSItem vfsItem, String currentPath, ZipOutputStream out) {
 
 		boolean success = true;
@@ -816,7 +896,7 @@ public class ZipUtil {
 	public static boolean xxunzip (VFSLeaf src, VFSContainer dst) {
 		if (dst instanceof LocalImpl) {
 			try {
-				xxunzip (src.getInputStream(), ((LocalImpl)dst).getBasefile().getAbsolutePath());
+				xxunzip (src, ((LocalImpl)dst).getBasefile().getAbsolutePath());
 				return true;				
 			} catch (IOException e) {
 				String s = ((LocalImpl)src).getBasefile().getAbsolutePath();
@@ -827,6 +907,92 @@ public class ZipUtil {
 		} 
 		return false;
 	}
+	private static void xxunzip(VFSLeaf zipLeaf, String outdir) throws IOException {
+		if(zipLeaf instanceof LocalFileImpl) {
+			xxunzip(((LocalFileImpl)zipLeaf).getBasefile(), outdir);
+		} else {
+			xxunzip(zipLeaf.getInputStream(), outdir);
+		}
+	}
+	
+	/**
+	 * Unzip the files of the archive into target dir and do NOTHING ELSE!!!
+	 * The files are extracted in parallel, the central directory of the archive
+	 * allows to read the entries independently. The archives which cannot be
+	 * read this way are extracted sequentially from the stream.
+	 * 
+	 * @param zipFile The archive
+	 * @param outdir The path of the output directory
+	 */
+	private static void xxunzip(File zipFile, String outdir) throws IOException {
+		ZipFile zip;
+		try {
+			zip = new ZipFile(zipFile);
+		} catch (ZipException e) {
+			log.warn("Cannot read the central directory of " + zipFile + ", unzip sequentially: " + e.getMessage());
+			xxunzip(new FileInputStream(zipFile), outdir);
+			return;
+		}
+		
+		Path outPath = Paths.get(outdir).toAbsolutePath().normalize();
+		Deque<Future<?>> tasks = new ArrayDeque<>();
+		try {
+			for(Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements(); ) {
+				ZipEntry entry = entries.nextElement();
+				Path of = outPath.resolve(entry.getName()).normalize();
+				if(!of.startsWith(outPath)) {
+					log.warn("Skip zip entry outside the target directory: " + entry.getName());
+				} else if (entry.isDirectory()) {
+					Files.createDirectories(of);
+				} else {
+					tasks.add(getWorkers().submit(() -> {
+						Files.createDirectories(of.getParent());
+						try(InputStream in = zip.getInputStream(entry)) {
+							Files.copy(in, of, StandardCopyOption.REPLACE_EXISTING);
+						}
+						return null;
+					}));
+					// limit the number of tasks of this archive
+					while(tasks.size() > 4 * getNumOfWorkers()) {
+						await(tasks.pollFirst());
+					}
+				}
+			}
+			while(!tasks.isEmpty()) {
+				await(tasks.pollFirst());
+			}
+		} catch (IllegalArgumentException e) {
+			//problem with chars in entry name likely
+		} finally {
+			for(Future<?> task; (task = tasks.pollFirst()) != null; ) {
+				task.cancel(false);
+				try {
+					task.get();
+				} catch (Exception e) {
+					// the first error is already thrown
+				}
+			}
+			zip.close();
+		}
+	}
+	
+	private static void await(Future<?> task) throws IOException {
+		try {
+			task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while unzipping", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException)cause;
+			} else if(cause instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException)cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+	
 	/**
 	 * Unzip files from stream into target dir and do NOTHING ELSE!!!
 	 * See OLAT-6213
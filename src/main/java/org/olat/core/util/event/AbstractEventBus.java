@@ -24,11 +24,11 @@
 */
 package org.olat.core.util.event;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.olat.core.gui.control.Controller;
 import org.olat.core.id.Identity;
@@ -41,43 +41,48 @@ import org.olat.core.util.event.businfo.BusListenerInfo;
 
 /**
  * abstract class for common services of the system bus
+ * <p>
+ * The event agencies are hold in concurrent maps, every agency synchronizes
+ * the registration of its own listeners and publishes them as an immutable
+ * array (copy on write). Firing an event doesn't hold any lock.
+ * 
  * @author Felix Jost
  */
 public abstract class AbstractEventBus implements EventBus {
 
-	private final Map<String, EventAgency> infocenter;
-	private final Map<String, EventAgency> typeInfocenter;
+	private final ConcurrentHashMap<String, EventAgency> infocenter;
+	private final ConcurrentHashMap<String, EventAgency> typeInfocenter;
 	private final OLog log = Tracing.createLoggerFor(this.getClass());
 
 	public AbstractEventBus() {
-		infocenter = new HashMap<String, EventAgency>();
-		typeInfocenter = new HashMap<String, EventAgency>();
+		infocenter = new ConcurrentHashMap<String, EventAgency>();
+		typeInfocenter = new ConcurrentHashMap<String, EventAgency>();
 	}
 
 	@Override
 	public void registerFor(GenericEventListener gel, Identity identity, OLATResourceable ores) {
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
-		synchronized (infocenter) {
-			EventAgency ea = null;
-			if (oresId == null) {
-				// return the eventagency which listens to all events with the type of
-				// the ores
-				ea = typeInfocenter.get(typeName);
-				if (ea == null) { // we are the first listener -> create an agency
-					ea = new EventAgency();
-					typeInfocenter.put(typeName, ea);
-				}
-			} else {
-				// type and id
-				String oresStr = typeName + "::" + oresId;
-				ea = infocenter.get(oresStr);
-				if (ea == null) { // we are the first listener
-					ea = new EventAgency();
-					infocenter.put(oresStr, ea);
-				}
+		if (oresId == null) {
+			// the eventagency which listens to all events with the type of the ores
+			register(typeInfocenter, typeName, gel);
+		} else {
+			// type and id
+			register(infocenter, typeName + "::" + oresId, gel);
+		}
+	}
+	
+	private void register(ConcurrentHashMap<String, EventAgency> center, String key, GenericEventListener gel) {
+		for(;;) {
+			EventAgency ea = center.get(key);
+			if (ea == null) { // we are the first listener -> create an agency
+				ea = center.computeIfAbsent(key, k -> new EventAgency());
+			}
+			if (ea.addListener(gel)) {
+				return;
 			}
-			ea.addListener(gel, identity);
+			// the agency was retired by a concurrent deregistration, replace it
+			center.remove(key, ea);
 		}
 	}
 
@@ -85,26 +90,18 @@ public abstract class AbstractEventBus implements EventBus {
 	public void deregisterFor(GenericEventListener gel, OLATResourceable ores) {
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
-		synchronized (infocenter) {
-			if (oresId == null) {
-				EventAgency ea = typeInfocenter.get(typeName);
-				if (ea != null) {
-					ea.removeListener(gel);
-					if(ea.getListenerCount() == 0) {
-						typeInfocenter.remove(typeName);
-					}
-				}
-			} else {
-				// type and id
-				String oresStr = typeName + "::" + oresId;
-				EventAgency ea = infocenter.get(oresStr);
-				if (ea != null) {
-					ea.removeListener(gel);
-					if(ea.getListenerCount() == 0) {
-						typeInfocenter.remove(typeName);
-					}
-				}
-			}
+		if (oresId == null) {
+			deregister(typeInfocenter, typeName, gel);
+		} else {
+			// type and id
+			deregister(infocenter, typeName + "::" + oresId, gel);
+		}
+	}
+	
+	private void deregister(ConcurrentHashMap<String, EventAgency> center, String key, GenericEventListener gel) {
+		EventAgency ea = center.get(key);
+		if (ea != null && ea.removeListener(gel)) {
+			center.remove(key, ea);
 		}
 	}
 
@@ -123,20 +120,18 @@ public abstract class AbstractEventBus implements EventBus {
 		final String typeName = ores.getResourceableTypeName();
 
 		GenericEventListener[] listenersArr = null;
-		GenericEventListener[] listenersTypeArr = null;
-		synchronized (infocenter) {  
-			if (oresId != null) {
-				String oresStr = typeName + "::" + oresId;
-				EventAgency ea = infocenter.get(oresStr);
-				if (ea != null) {
-					listenersArr = ea.getListeners();
-				}
-			}
-			EventAgency ea = typeInfocenter.get(typeName);
+		if (oresId != null) {
+			EventAgency ea = infocenter.get(typeName + "::" + oresId);
 			if (ea != null) {
-				listenersTypeArr = ea.getListeners();
+				listenersArr = ea.getListeners();
 			}
 		}
+		
+		GenericEventListener[] listenersTypeArr = null;
+		EventAgency typeEa = typeInfocenter.get(typeName);
+		if (typeEa != null) {
+			listenersTypeArr = typeEa.getListeners();
+		}
 
 		doFire(event, listenersArr);
 		doFire(event, listenersTypeArr);
@@ -180,97 +175,128 @@ public abstract class AbstractEventBus implements EventBus {
 	
 	protected final BusListenerInfo createBusListenerInfo() {
 		BusListenerInfo bii = new BusListenerInfo();
-		synchronized(infocenter) { // o_clusterOK by:fj: extract quickly so that we can later serialize and send across the wire. data affects only one vm.
-			// for all types: the name of the type + "::"+ the id (integer) is used as key
-			List<String> infocenterKeys = new ArrayList<>(infocenter.keySet());
-			for (String derivedOres: infocenterKeys) {
-				EventAgency ea = infocenter.get(derivedOres);
-				int cnt = ea.getListenerCount();
-				// only add those with at least one current listener. Telling that a resource has no listeners is unneeded since we update 
-				// the whole table on each clusterInfoEvent (cluster:: could be improved by only sending the delta of listeners)
-				if (cnt > 0) {
-					bii.addEntry(derivedOres, cnt);
-				} else {
-					infocenter.remove(derivedOres);
-				}
-			}
-			infocenterKeys = null;
-			
-			// for all types: the name of the type is used as key
-			List<String> typeInfocenterKeys = new ArrayList<>(typeInfocenter.keySet());
-			for (String derivedOres: typeInfocenterKeys) {
-				EventAgency ea = typeInfocenter.get(derivedOres);
-				int cnt = ea.getListenerCount();
-				if (cnt > 0) {
-					bii.addEntry(derivedOres, cnt);
-				} else {
-					typeInfocenter.remove(derivedOres);
-				}
+		// for all types: the name of the type + "::"+ the id (integer) is used as key
+		addListenerInfos(infocenter, bii);
+		// for all types: the name of the type is used as key
+		addListenerInfos(typeInfocenter, bii);
+		return bii;
+	}
+	
+	private void addListenerInfos(ConcurrentHashMap<String, EventAgency> center, BusListenerInfo bii) {
+		// the iterator of the concurrent map is weakly consistent, the infos
+		// are sent periodically and don't need to be a strict snapshot
+		for (Map.Entry<String, EventAgency> entry: center.entrySet()) {
+			EventAgency ea = entry.getValue();
+			int cnt = ea.getListenerCount();
+			// only add those with at least one current listener. Telling that a resource has no listeners is unneeded since we update 
+			// the whole table on each clusterInfoEvent (cluster:: could be improved by only sending the delta of listeners)
+			if (cnt > 0) {
+				bii.addEntry(entry.getKey(), cnt);
+			} else if(ea.retireIfEmpty()) {
+				center.remove(entry.getKey(), ea);
 			}
 		}
-		return bii;
 	}
 	
 	protected final int getLocalListeningIdentityCntFor(OLATResourceable ores) {
-		int cnt = 0;
 		final Long oresId = ores.getResourceableId();
 		final String typeName = ores.getResourceableTypeName();
-		synchronized (infocenter) { 
-			EventAgency ea = null;
-			if (oresId == null) {
-				ea = typeInfocenter.get(typeName);	
-			} else {
-				// type and id
-				String oresStr = typeName + "::" + oresId;
-				ea = infocenter.get(oresStr);
-			}
-			if (ea != null) {
-				cnt = ea.getListenerCount();
-			}
+		EventAgency ea;
+		if (oresId == null) {
+			ea = typeInfocenter.get(typeName);	
+		} else {
+			// type and id
+			ea = infocenter.get(typeName + "::" + oresId);
 		}
-		return cnt;
+		return ea == null ? 0 : ea.getListenerCount();
 	}
 	
 	/**
 	 * Description: <br>
-	 * The listeners map is not synchronized, but need to be. The synchronization
-	 * is done by the infocenter map. Make sure that you always access instances of
-	 * this class in a synchronized(infocenter).
+	 * The listeners are hold with weak references, so listeners which are not
+	 * used anymore are cleared. The modifications are synchronized on the agency,
+	 * they replace the array of listeners which is read without lock.<br>
+	 * An agency without listeners is retired: it doesn't accept new listeners and
+	 * must be removed from the infocenter, the next registration creates a new one.
 	 * 
 	 * @author Felix Jost
 	 * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
 	 */
 	private static class EventAgency {
-		private WeakHashMap<GenericEventListener, Long> listeners = new WeakHashMap<>();
+		
+		private static final ListenerRef[] EMPTY = new ListenerRef[0];
+		
+		private volatile ListenerRef[] listeners = EMPTY;
+		private boolean retired = false;
 		
 		/**
-		 * @param event
+		 * @return the listeners still referenced
 		 */
 		GenericEventListener[] getListeners() {
-			return listeners.keySet().toArray(new GenericEventListener[listeners.size()]);
+			ListenerRef[] refs = listeners;
+			List<GenericEventListener> liveListeners = new ArrayList<>(refs.length);
+			for (ListenerRef ref:refs) {
+				GenericEventListener gel = ref.get();
+				if (gel != null) {
+					liveListeners.add(gel);
+				}
+			}
+			return liveListeners.toArray(new GenericEventListener[liveListeners.size()]);
 		}
 
 		/**
-		 * impl note: the underlying impl takes a weakHashMap, so unused entries are
-		 * cleared. an instance may not be added twice (make no sense anyway), since we
-		 * are using a map, not a list.
+		 * impl note: the listeners are weakly referenced, so unused entries are
+		 * cleared. an instance may not be added twice (make no sense anyway).
 		 * 
 		 * @param gel the instance which wants to listen to events.
-		 * @param identity the identity belonging to the listener, or null if there is
-		 *          none (e.g. the LockManager = the 'System')
+		 * @return false if the agency is retired and the listener not added
 		 */
-		void addListener(GenericEventListener gel, Identity identity) {
-			if (!listeners.containsKey(gel)) {
-				Long identityKey = (identity != null? identity.getKey() : null);
-				listeners.put(gel, identityKey);
+		synchronized boolean addListener(GenericEventListener gel) {
+			if (retired) {
+				return false;
+			}
+			
+			ListenerRef[] refs = listeners;
+			List<ListenerRef> newRefs = new ArrayList<>(refs.length + 1);
+			for (ListenerRef ref:refs) {
+				GenericEventListener current = ref.get();
+				if (current != null) {
+					if (current.equals(gel)) {
+						return true;
+					}
+					newRefs.add(ref);
+				}
 			}
+			newRefs.add(new ListenerRef(gel));
+			listeners = newRefs.toArray(new ListenerRef[newRefs.size()]);
+			return true;
 		}
 
 		/**
 		 * @param gel
+		 * @return true if the agency is empty and retired
 		 */
-		void removeListener(GenericEventListener gel) {
-			listeners.remove(gel);
+		synchronized boolean removeListener(GenericEventListener gel) {
+			ListenerRef[] refs = listeners;
+			List<ListenerRef> newRefs = new ArrayList<>(refs.length);
+			for (ListenerRef ref:refs) {
+				GenericEventListener current = ref.get();
+				if (current != null && !current.equals(gel)) {
+					newRefs.add(ref);
+				}
+			}
+			listeners = newRefs.isEmpty() ? EMPTY : newRefs.toArray(new ListenerRef[newRefs.size()]);
+			return retireIfEmpty();
+		}
+		
+		/**
+		 * @return true if the agency is empty and retired
+		 */
+		synchronized boolean retireIfEmpty() {
+			if (getListenerCount() == 0) {
+				retired = true;
+			}
+			return retired;
 		}
 		
 		/**
@@ -278,7 +304,20 @@ public abstract class AbstractEventBus implements EventBus {
 		 * @return the current number of listeners listening to this channel/eventagency 
 		 */
 		int getListenerCount() {
-			return listeners.size();	
+			int count = 0;
+			for (ListenerRef ref:listeners) {
+				if (ref.get() != null) {
+					count++;
+				}
+			}
+			return count;
+		}
+	}
+	
+	private static class ListenerRef extends WeakReference<GenericEventListener> {
+		
+		public ListenerRef(GenericEventListener gel) {
+			super(gel);
 		}
 	}
-}
\ No newline at end of file
+}
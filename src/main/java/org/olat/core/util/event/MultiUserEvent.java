@@ -61,6 +61,24 @@ public class MultiUserEvent extends Event {
 		vm_marker = WebappHelper.getNodeId();
 	}
 	
+	/**
+	 * Rebuild an event received from an other node of the cluster.
+	 * 
+	 * @param command
+	 * @param originNodeId The id of the node which has fired the event
+	 */
+	public MultiUserEvent(String command, int originNodeId) {
+		super(command);
+		vm_marker = originNodeId;
+	}
+	
+	/**
+	 * @return The id of the node which has fired the event
+	 */
+	public int getOriginNodeId() {
+		return vm_marker;
+	}
+	
 	/**
 	 * should be overridden by subclasses for debug info
 	 */
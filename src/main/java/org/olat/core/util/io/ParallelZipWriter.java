@@ -0,0 +1,604 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.io;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.WebappHelper;
+
+/**
+ * Write a ZIP archive and compress its entries in parallel. The entries are
+ * compressed by the workers in memory or, if they are big, in a temporary
+ * file and written in the order they were added. The number of entries waiting
+ * to be written is limited, the archive can be streamed directly to a slow client.<br>
+ * Files which are already compressed (images, videos, PDF, ZIP...) are
+ * stored without deflating them again. The archive is written in ZIP64 format
+ * only if an entry or the archive itself needs it.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ParallelZipWriter implements Closeable {
+	
+	private static final OLog log = Tracing.createLoggerFor(ParallelZipWriter.class);
+	
+	/** Compressed entries bigger than this are written in a temporary file */
+	public static final int MAX_BUFFERED_SIZE = 1024 * 1024;
+	
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+	private static final int VERSION = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final int UTF8_FLAG = 0x0800;
+	private static final int LOCSIG = 0x04034b50;
+	private static final int CENSIG = 0x02014b50;
+	private static final int ENDSIG = 0x06054b50;
+	private static final int ZIP64_ENDSIG = 0x06064b50;
+	private static final int ZIP64_LOCSIG = 0x07064b50;
+	private static final int ZIP64_EXTID = 0x0001;
+	
+	private static final Set<String> COMPRESSED_SUFFIXES = new HashSet<>(Arrays.asList(
+			"zip", "jar", "gz", "tgz", "bz2", "xz", "7z", "rar",
+			"jpg", "jpeg", "png", "gif", "webp",
+			"mp4", "m4v", "mov", "webm", "mkv", "avi", "flv", "ogv",
+			"mp3", "m4a", "aac", "oga", "ogg", "opus",
+			"pdf", "docx", "xlsx", "pptx", "odt", "ods", "odp", "epub"));
+	
+	private final OutputStream out;
+	private final ExecutorService workers;
+	private final int level;
+	private final int maxPendingEntries;
+	
+	private final Set<String> names = new HashSet<>();
+	private final Deque<Future<Entry>> pendingEntries = new ArrayDeque<>();
+	private final List<Entry> writtenEntries = new ArrayList<>();
+	private final byte[] buffer = new byte[FileUtils.BSIZE];
+	private final Set<Path> tempFiles = new HashSet<>();
+	private long offset;
+	private boolean finished;
+	private boolean aborted;
+	
+	/**
+	 * @param out The stream to write the archive
+	 * @param workers The workers which compress the entries
+	 * @param level The deflate level, 0 to only store the entries
+	 * @param maxPendingEntries The max. number of entries compressed but not
+	 * 		written to the stream
+	 */
+	public ParallelZipWriter(OutputStream out, ExecutorService workers, int level, int maxPendingEntries) {
+		this.out = out;
+		this.workers = workers;
+		this.level = level;
+		this.maxPendingEntries = Math.max(1, maxPendingEntries);
+	}
+	
+	/**
+	 * @param filename The name of a file
+	 * @return true if the file format is already compressed
+	 */
+	public static boolean isCompressed(String filename) {
+		int index = filename.lastIndexOf('.');
+		if(index < 0 || index == filename.length() - 1) {
+			return false;
+		}
+		return COMPRESSED_SUFFIXES.contains(filename.substring(index + 1).toLowerCase(Locale.ENGLISH));
+	}
+	
+	public void addDirectory(String name, long lastModified) throws IOException {
+		if(!name.endsWith("/")) {
+			name += "/";
+		}
+		checkName(name);
+		Entry entry = new Entry(name, lastModified, ZipEntry.STORED);
+		entry.crc = 0l;
+		entry.size = 0l;
+		entry.compressedSize = 0l;
+		pendingEntries.add(CompletableFuture.completedFuture(entry));
+		writeCompletedEntries();
+	}
+	
+	public void addFile(String name, Path file) throws IOException {
+		addEntry(name, Files.getLastModifiedTime(file).toMillis(), Files.size(file), () -> Files.newInputStream(file));
+	}
+	
+	/**
+	 * Add an entry which is compressed by the workers.
+	 * 
+	 * @param name The name of the entry
+	 * @param lastModified The last modification date
+	 * @param size The size of the content if known, or -1
+	 * @param source The content, it can be opened twice for big files which are only stored
+	 * @throws IOException
+	 */
+	public void addEntry(String name, long lastModified, long size, EntrySource source) throws IOException {
+		checkName(name);
+		boolean store = level == Deflater.NO_COMPRESSION || isCompressed(name);
+		Entry entry = new Entry(name, lastModified, store ? ZipEntry.STORED : ZipEntry.DEFLATED);
+		pendingEntries.add(workers.submit(() -> encode(entry, size, source)));
+		writeCompletedEntries();
+	}
+	
+	private void checkName(String name) throws IOException {
+		if(finished) {
+			throw new IOException("Archive already finished");
+		}
+		if(!names.add(name)) {
+			throw new ZipException("duplicate entry: " + name);
+		}
+	}
+	
+	/**
+	 * Write all the entries and the central directory but don't close
+	 * the underlying stream.
+	 * 
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		if(finished) return;
+		
+		try {
+			while(!pendingEntries.isEmpty()) {
+				write(next());
+			}
+			writeCentralDirectory();
+			out.flush();
+		} finally {
+			finished = true;
+			discardPendingEntries();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			finish();
+		} finally {
+			out.close();
+		}
+	}
+	
+	private void writeCompletedEntries() throws IOException {
+		try {
+			while(!pendingEntries.isEmpty()
+					&& (pendingEntries.peekFirst().isDone() || pendingEntries.size() > maxPendingEntries)) {
+				write(next());
+			}
+		} catch(IOException | RuntimeException e) {
+			finished = true;
+			discardPendingEntries();
+			throw e;
+		}
+	}
+	
+	private Entry next() throws IOException {
+		Future<Entry> future = pendingEntries.pollFirst();
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the compression of an entry", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException)cause;
+			}
+			throw new IOException(cause);
+		}
+	}
+	
+	private void discardPendingEntries() {
+		for(Future<Entry> future; (future = pendingEntries.pollFirst()) != null; ) {
+			future.cancel(false);
+		}
+		// the workers still running cannot create new temporary files
+		synchronized(tempFiles) {
+			aborted = true;
+			for(Path tempFile:tempFiles) {
+				deleteTempFile(tempFile);
+			}
+			tempFiles.clear();
+		}
+	}
+	
+	private Path createTempFile() throws IOException {
+		synchronized(tempFiles) {
+			if(aborted) {
+				throw new IOException("Archive aborted");
+			}
+			Path file = Files.createTempFile(Paths.get(WebappHelper.getTmpDir()), "zip", ".tmp");
+			tempFiles.add(file);
+			return file;
+		}
+	}
+	
+	private void deleteTempFile(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			log.warn("Cannot delete temporary file: " + file, e);
+		}
+	}
+	
+	/**
+	 * Compress the entry, executed by the workers.
+	 */
+	private Entry encode(Entry entry, long size, EntrySource source) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buf = new byte[FileUtils.BSIZE];
+		long count = 0l;
+		
+		if(entry.method == ZipEntry.STORED && size > MAX_BUFFERED_SIZE) {
+			// the writer copies the content from the source, only the check sum is computed here
+			try(InputStream in = open(source, entry)) {
+				for(int read; (read = in.read(buf)) != -1; ) {
+					crc.update(buf, 0, read);
+					count += read;
+				}
+			}
+			entry.source = source;
+			entry.compressedSize = count;
+		} else {
+			SpillOutputStream data = new SpillOutputStream(MAX_BUFFERED_SIZE);
+			try(InputStream in = open(source, entry)) {
+				if(entry.method == ZipEntry.STORED) {
+					for(int read; (read = in.read(buf)) != -1; ) {
+						crc.update(buf, 0, read);
+						data.write(buf, 0, read);
+						count += read;
+					}
+				} else {
+					Deflater deflater = new Deflater(level, true);
+					try {
+						DeflaterOutputStream dout = new DeflaterOutputStream(data, deflater, FileUtils.BSIZE);
+						for(int read; (read = in.read(buf)) != -1; ) {
+							crc.update(buf, 0, read);
+							dout.write(buf, 0, read);
+							count += read;
+						}
+						dout.finish();
+					} finally {
+						deflater.end();
+					}
+				}
+				data.close();
+			} catch(IOException | RuntimeException e) {
+				data.discard();
+				throw e;
+			}
+			entry.data = data;
+			entry.compressedSize = data.size();
+		}
+		entry.size = count;
+		entry.crc = crc.getValue();
+		return entry;
+	}
+	
+	private InputStream open(EntrySource source, Entry entry) throws IOException {
+		InputStream in = source.open();
+		if(in == null) {
+			throw new IOException("Cannot read the content of the entry: " + entry.name);
+		}
+		return in;
+	}
+	
+	private void write(Entry entry) throws IOException {
+		try {
+			entry.offset = offset;
+			writeLocalHeader(entry);
+			if(entry.data != null) {
+				entry.data.writeTo(out);
+				offset += entry.data.size();
+			} else if(entry.source != null) {
+				long count = 0l;
+				try(InputStream in = open(entry.source, entry)) {
+					for(int read; (read = in.read(buffer)) != -1 && count < entry.size; ) {
+						int len = (int)Math.min(read, entry.size - count);
+						out.write(buffer, 0, len);
+						count += len;
+					}
+				}
+				if(count != entry.size) {
+					throw new IOException("The file was modified while zipping: " + entry.name);
+				}
+				offset += count;
+			}
+			writtenEntries.add(entry);
+		} finally {
+			entry.discard();
+		}
+	}
+	
+	private void writeLocalHeader(Entry entry) throws IOException {
+		boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+		ByteBuffer header = allocate(30 + entry.name.length + (zip64 ? 20 : 0));
+		header.putInt(LOCSIG);
+		header.putShort((short)(zip64 ? VERSION_ZIP64 : VERSION));
+		header.putShort((short)UTF8_FLAG);
+		header.putShort((short)entry.method);
+		header.putInt((int)entry.dosTime);
+		header.putInt((int)entry.crc);
+		header.putInt((int)(zip64 ? ZIP64_MAGIC : entry.compressedSize));
+		header.putInt((int)(zip64 ? ZIP64_MAGIC : entry.size));
+		header.putShort((short)entry.name.length);
+		header.putShort((short)(zip64 ? 20 : 0));
+		header.put(entry.name);
+		if(zip64) {
+			header.putShort((short)ZIP64_EXTID);
+			header.putShort((short)16);
+			header.putLong(entry.size);
+			header.putLong(entry.compressedSize);
+		}
+		writeBuffer(header);
+	}
+	
+	private void writeCentralDirectory() throws IOException {
+		long centralOffset = offset;
+		for(Entry entry:writtenEntries) {
+			boolean sizeZip64 = entry.size >= ZIP64_MAGIC;
+			boolean compressedSizeZip64 = entry.compressedSize >= ZIP64_MAGIC;
+			boolean offsetZip64 = entry.offset >= ZIP64_MAGIC;
+			int extraLength = (sizeZip64 ? 8 : 0) + (compressedSizeZip64 ? 8 : 0) + (offsetZip64 ? 8 : 0);
+			if(extraLength > 0) {
+				extraLength += 4;
+			}
+			
+			ByteBuffer header = allocate(46 + entry.name.length + extraLength);
+			header.putInt(CENSIG);
+			header.putShort((short)VERSION_ZIP64);
+			header.putShort((short)(extraLength > 0 ? VERSION_ZIP64 : VERSION));
+			header.putShort((short)UTF8_FLAG);
+			header.putShort((short)entry.method);
+			header.putInt((int)entry.dosTime);
+			header.putInt((int)entry.crc);
+			header.putInt((int)(compressedSizeZip64 ? ZIP64_MAGIC : entry.compressedSize));
+			header.putInt((int)(sizeZip64 ? ZIP64_MAGIC : entry.size));
+			header.putShort((short)entry.name.length);
+			header.putShort((short)extraLength);
+			header.putShort((short)0);// comment
+			header.putShort((short)0);// disk
+			header.putShort((short)0);// internal attributes
+			header.putInt(entry.isDirectory() ? 0x10 : 0);// external attributes
+			header.putInt((int)(offsetZip64 ? ZIP64_MAGIC : entry.offset));
+			header.put(entry.name);
+			if(extraLength > 0) {
+				header.putShort((short)ZIP64_EXTID);
+				header.putShort((short)(extraLength - 4));
+				if(sizeZip64) {
+					header.putLong(entry.size);
+				}
+				if(compressedSizeZip64) {
+					header.putLong(entry.compressedSize);
+				}
+				if(offsetZip64) {
+					header.putLong(entry.offset);
+				}
+			}
+			writeBuffer(header);
+		}
+		
+		long centralSize = offset - centralOffset;
+		int numOfEntries = writtenEntries.size();
+		if(numOfEntries >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+			long zip64EndOffset = offset;
+			ByteBuffer end = allocate(56 + 20);
+			end.putInt(ZIP64_ENDSIG);
+			end.putLong(44l);
+			end.putShort((short)VERSION_ZIP64);
+			end.putShort((short)VERSION_ZIP64);
+			end.putInt(0);
+			end.putInt(0);
+			end.putLong(numOfEntries);
+			end.putLong(numOfEntries);
+			end.putLong(centralSize);
+			end.putLong(centralOffset);
+			// locator
+			end.putInt(ZIP64_LOCSIG);
+			end.putInt(0);
+			end.putLong(zip64EndOffset);
+			end.putInt(1);
+			writeBuffer(end);
+		}
+		
+		ByteBuffer end = allocate(22);
+		end.putInt(ENDSIG);
+		end.putShort((short)0);
+		end.putShort((short)0);
+		end.putShort((short)Math.min(numOfEntries, ZIP64_MAGIC_COUNT));
+		end.putShort((short)Math.min(numOfEntries, ZIP64_MAGIC_COUNT));
+		end.putInt((int)Math.min(centralSize, ZIP64_MAGIC));
+		end.putInt((int)Math.min(centralOffset, ZIP64_MAGIC));
+		end.putShort((short)0);
+		writeBuffer(end);
+	}
+	
+	private ByteBuffer allocate(int length) {
+		return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+	}
+	
+	private void writeBuffer(ByteBuffer buf) throws IOException {
+		out.write(buf.array(), 0, buf.position());
+		offset += buf.position();
+	}
+	
+	/**
+	 * Convert the time in the MS-DOS format, date in the high 16 bits
+	 * and time in the low 16 bits.
+	 */
+	private static long toDosTime(long time) {
+		LocalDateTime ldt = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+		int year = ldt.getYear();
+		if(year < 1980) {
+			return (1 << 21) | (1 << 16);
+		}
+		return (year - 1980) << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16
+				| ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1;
+	}
+	
+	@FunctionalInterface
+	public interface EntrySource {
+		
+		public InputStream open() throws IOException;
+		
+	}
+	
+	private static class Entry {
+		
+		private final byte[] name;
+		private final long dosTime;
+		private final int method;
+		
+		private long crc;
+		private long size;
+		private long compressedSize;
+		private long offset;
+		
+		private SpillOutputStream data;
+		private EntrySource source;
+		
+		public Entry(String name, long lastModified, int method) {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.method = method;
+			dosTime = toDosTime(lastModified <= 0l ? System.currentTimeMillis() : lastModified);
+		}
+		
+		public boolean isDirectory() {
+			return name.length > 0 && name[name.length - 1] == '/';
+		}
+		
+		public void discard() {
+			if(data != null) {
+				data.discard();
+				data = null;
+			}
+			source = null;
+		}
+	}
+	
+	/**
+	 * Buffer in memory which is written in a temporary file if it
+	 * exceeds a threshold.
+	 * 
+	 * Initial date: 18 oct. 2026<br>
+	 *
+	 */
+	private class SpillOutputStream extends OutputStream {
+		
+		private final int threshold;
+		private byte[] buf = new byte[FileUtils.BSIZE];
+		private int count;
+		private long size;
+		private Path file;
+		private OutputStream fileOut;
+		
+		public SpillOutputStream(int threshold) {
+			this.threshold = threshold;
+		}
+		
+		public long size() {
+			return size;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte)b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if(fileOut == null && count + len > threshold) {
+				file = createTempFile();
+				fileOut = new BufferedOutputStream(Files.newOutputStream(file), FileUtils.BSIZE);
+				fileOut.write(buf, 0, count);
+				buf = null;
+			}
+			
+			if(fileOut != null) {
+				fileOut.write(b, off, len);
+			} else {
+				if(count + len > buf.length) {
+					buf = Arrays.copyOf(buf, Math.max(count + len, Math.min(threshold, buf.length << 1)));
+				}
+				System.arraycopy(b, off, buf, count, len);
+				count += len;
+			}
+			size += len;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(fileOut != null) {
+				fileOut.close();
+			}
+		}
+		
+		public void writeTo(OutputStream out) throws IOException {
+			if(file != null) {
+				Files.copy(file, out);
+			} else {
+				out.write(buf, 0, count);
+			}
+		}
+		
+		public void discard() {
+			buf = null;
+			if(file != null) {
+				FileUtils.closeSafely(fileOut);
+				synchronized(tempFiles) {
+					tempFiles.remove(file);
+				}
+				deleteTempFile(file);
+				file = null;
+			}
+		}
+	}
+}
@@ -21,7 +21,6 @@ package org.olat.core.util.io;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.zip.ZipOutputStream;
 
 /**
  * 
@@ -31,9 +30,9 @@ import java.util.zip.ZipOutputStream;
  */
 public class ShieldOutputStream extends OutputStream {
 	
-	private final ZipOutputStream out;
+	private final OutputStream out;
 	
-	public ShieldOutputStream(ZipOutputStream out) {
+	public ShieldOutputStream(OutputStream out) {
 		this.out = out;
 	}
 
@@ -28,5 +28,6 @@ package org.olat.core.util.openxml;
 public enum OpenXMLCellType {
 	number,
 	sharedString,
+	inlineString,
 	date
 }
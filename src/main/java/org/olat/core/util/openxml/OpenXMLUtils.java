@@ -19,11 +19,11 @@
  */
 package org.olat.core.util.openxml;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.StringReader;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -130,9 +130,17 @@ public class OpenXMLUtils {
 		return found;
 	}
 	
-	public static final XMLStreamWriter createStreamWriter(ZipOutputStream out) {
+	/**
+	 * The writer is buffered, don't forget to flush it.
+	 * 
+	 * @param out The output stream (not closed by the writer)
+	 * @return An XML stream writer
+	 */
+	public static final XMLStreamWriter createStreamWriter(OutputStream out) {
 		try {
-			return XMLOutputFactory.newInstance().createXMLStreamWriter(new ShieldOutputStream(out), "UTF-8");
+			// the writer write the characters one by one, the deflater of the zip doesn't like it
+			OutputStream bufferedOut = new BufferedOutputStream(new ShieldOutputStream(out), 32768);
+			return XMLOutputFactory.newInstance().createXMLStreamWriter(bufferedOut, "UTF-8");
 		} catch (XMLStreamException | FactoryConfigurationError e) {
 			log.error("", e);
 			return null;
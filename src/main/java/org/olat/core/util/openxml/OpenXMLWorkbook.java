@@ -20,11 +20,14 @@
 package org.olat.core.util.openxml;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -32,17 +35,21 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.commons.io.IOUtils;
+import org.olat.core.logging.AssertException;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.StringHelper;
-import org.olat.core.util.filter.Filter;
-import org.olat.core.util.filter.FilterFactory;
 import org.olat.core.util.openxml.workbookstyle.Border;
 import org.olat.core.util.openxml.workbookstyle.CellStyle;
 import org.olat.core.util.openxml.workbookstyle.Fill;
 import org.olat.core.util.openxml.workbookstyle.Font;
 
 /**
+ * The workbook is streamed. The worksheets are written one after the other
+ * with nextWorksheet(), or in any order and in parallel with
+ * getBufferedWorksheet(int) which writes them in temporary files. The
+ * strings are saved in the shared strings table, or inline in the cells if
+ * they are longer than the inline string length.
  * 
  * Initial date: 21.04.2016<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
@@ -69,10 +76,11 @@ public class OpenXMLWorkbook implements Closeable {
 	private List<OpenXMLWorksheet> worksheets = new ArrayList<>(10);
 	private final OpenXMLWorkbookStyles styles = new OpenXMLWorkbookStyles();
 	private OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings();
-	private final Filter xmlCharactersFilter = FilterFactory.getXMLValidCharacterFilter();
 	
 	private int currentId = 4;
 	private boolean opened;
+	private boolean buffered;
+	private int inlineStringLength = -1;
 	
 	private final ZipOutputStream zout;
 	private final int numberOfWorksheet;
@@ -80,7 +88,7 @@ public class OpenXMLWorkbook implements Closeable {
 	
 	public OpenXMLWorkbook(OutputStream outputStream, int numberOfWorksheet) {
 		zout = new ZipOutputStream(outputStream);
-		zout.setLevel(9);
+		zout.setLevel(Deflater.DEFAULT_COMPRESSION);
 		this.numberOfWorksheet = numberOfWorksheet;
 		for(int i=0; i<numberOfWorksheet; i++) {
 			worksheets.add(new OpenXMLWorksheet(generateId(), this, zout));
@@ -89,9 +97,60 @@ public class OpenXMLWorkbook implements Closeable {
 	
 	public int getNumberOfWorksheets() {
 		return numberOfWorksheet;
-	} 
+	}
+	
+	public int getInlineStringLength() {
+		return inlineStringLength;
+	}
+
+	/**
+	 * The strings with at least this length are written inline in the cells
+	 * and not in the shared strings table. Long texts (free text answers,
+	 * comments) are seldom repeated and only fill the table.
+	 * 
+	 * @param inlineStringLength The minimal length, 0 to write all strings inline
+	 * 		and -1 (default) to share all strings
+	 */
+	public void setInlineStringLength(int inlineStringLength) {
+		this.inlineStringLength = inlineStringLength;
+	}
+	
+	protected boolean isInlineString(String string) {
+		return inlineStringLength >= 0 && string.length() >= inlineStringLength;
+	}
+	
+	/**
+	 * Return the worksheet at the specified position. The worksheet is
+	 * written in a temporary file, the worksheets can be filled in parallel
+	 * (one thread per worksheet) and are copied in the workbook by close().
+	 * Don't mix this method with nextWorksheet().
+	 * 
+	 * @param index The position of the worksheet, start with 0
+	 * @return The worksheet
+	 */
+	public synchronized OpenXMLWorksheet getBufferedWorksheet(int index) {
+		if(opened) {
+			throw new AssertException("The workbook is already streamed by nextWorksheet()");
+		}
+		
+		buffered = true;
+		OpenXMLWorksheet worksheet = worksheets.get(index);
+		if(worksheet.getBufferFile() == null) {
+			try {
+				worksheet.bufferTo(File.createTempFile("worksheet", ".xml"));
+			} catch (IOException e) {
+				log.error("", e);
+				return null;
+			}
+		}
+		return worksheet;
+	}
 	
 	public OpenXMLWorksheet nextWorksheet() {
+		if(buffered) {
+			throw new AssertException("The workbook is already buffered by getBufferedWorksheet()");
+		}
+		
 		try {
 			if(!opened) {
 				appendPrologue();
@@ -119,13 +178,37 @@ public class OpenXMLWorkbook implements Closeable {
 	
 	@Override
 	public void close() throws IOException {
-		if(opened) {
-			currentWorkSheet.close();
+		try {
+			if(buffered) {
+				appendBufferedWorksheets();
+			} else if(opened) {
+				currentWorkSheet.close();
+				zout.closeEntry();
+				appendEpilogue();
+				zout.flush();
+				zout.close();
+			}
+		} finally {
+			for(OpenXMLWorksheet worksheet:worksheets) {
+				worksheet.delete();
+			}
+			sharedStrings.delete();
+		}
+	}
+	
+	private void appendBufferedWorksheets() throws IOException {
+		appendPrologue();
+		for(int i=0; i<numberOfWorksheet; i++) {
+			OpenXMLWorksheet worksheet = getBufferedWorksheet(i);
+			worksheet.close();
+			zout.putNextEntry(new ZipEntry("xl/worksheets/sheet" + (i + 1) + ".xml"));
+			Files.copy(worksheet.getBufferFile().toPath(), zout);
 			zout.closeEntry();
-			appendEpilogue();
-			zout.flush();
-			zout.close();
+			worksheet.delete();
 		}
+		appendEpilogue();
+		zout.flush();
+		zout.close();
 	}
 	
 	public OpenXMLWorkbookStyles getStyles() {
@@ -819,30 +902,8 @@ public class OpenXMLWorkbook implements Closeable {
 	*/
 	private void appendSharedString() {
 		try {
-			XMLStreamWriter writer = OpenXMLUtils.createStreamWriter(zout);
-			writer.writeStartDocument("UTF-8", "1.0");
-			writer.writeStartElement("sst");
-			writer.writeNamespace("", "http://schemas.openxmlformats.org/spreadsheetml/2006/main");
-			writer.writeAttribute("count", Integer.toString(sharedStrings.size()));
-			writer.writeAttribute("uniqueCount", Integer.toString(sharedStrings.size()));
-			
-			for (String sharedString: sharedStrings) {
-				writer.writeStartElement("si");
-				writer.writeStartElement("t");
-				String cleanedSharedString = xmlCharactersFilter.filter(sharedString);
-				if(cleanedSharedString.contains("<") || cleanedSharedString.contains(">")) {
-					writer.writeCData(cleanedSharedString);
-				} else {
-					writer.writeCharacters(cleanedSharedString);
-				}
-				writer.writeEndElement();
-				writer.writeEndElement();
-			}
-			
-			writer.writeEndElement();// end sst
-			writer.flush();
-			writer.close();
-		} catch (XMLStreamException e) {
+			sharedStrings.writeTo(zout);
+		} catch (IOException e) {
 			log.error("", e);
 		}
 	}
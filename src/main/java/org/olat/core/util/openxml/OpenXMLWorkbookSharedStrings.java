@@ -19,22 +19,84 @@
  */
 package org.olat.core.util.openxml;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.filter.Filter;
+import org.olat.core.util.filter.FilterFactory;
+import org.olat.core.util.io.ShieldOutputStream;
 
 /**
+ * The table of the shared strings of a workbook. The strings are interned
+ * with a hash map, the map is limited to the most recently used strings to
+ * bound the memory of huge exports: a string evicted from the map is added
+ * a second time to the table if it comes again, which is allowed by the
+ * format. When the table is bigger than the spill threshold, the strings are
+ * written in a temporary file and only copied in the workbook at the end.
  * 
  * Initial date: 25.04.2016<br>
  * @author srosse, stephane.rosse@frentix.com, http://www.frentix.com
  *
  */
-public class OpenXMLWorkbookSharedStrings implements Iterable<String> {
-
+public class OpenXMLWorkbookSharedStrings {
+	
+	private static final OLog log = Tracing.createLoggerFor(OpenXMLWorkbookSharedStrings.class);
+	
+	public static final int DEFAULT_MAX_INTERNED_STRINGS = 250000;
+	public static final int DEFAULT_SPILL_THRESHOLD = 100000;
+	
+	private final int spillThreshold;
+	private final Map<String,Integer> internedStrings;
 	private final List<String> sharedStrings = new ArrayList<>();
+	private final Filter xmlCharactersFilter = FilterFactory.getXMLValidCharacterFilter();
+	
+	/** number of strings in the table, spilled included */
+	private int size = 0;
+	/** number of references to the strings */
+	private int count = 0;
+	private File spillFile;
+	private Writer spillWriter;
 	
 	public OpenXMLWorkbookSharedStrings() {
-		sharedStrings.add("OpenOLAT");//prevent empty list
+		this(DEFAULT_MAX_INTERNED_STRINGS, DEFAULT_SPILL_THRESHOLD);
+	}
+	
+	/**
+	 * @param maxInternedStrings The maximum number of strings held in the hash map
+	 * @param spillThreshold The number of strings in memory before they are written
+	 * 		to a temporary file
+	 */
+	public OpenXMLWorkbookSharedStrings(final int maxInternedStrings, int spillThreshold) {
+		this.spillThreshold = spillThreshold;
+		if(maxInternedStrings > 0) {
+			internedStrings = new LinkedHashMap<String,Integer>(1024, 0.75f, true) {
+				private static final long serialVersionUID = 3391406276592532519L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String,Integer> eldest) {
+					return size() > maxInternedStrings;
+				}
+			};
+		} else {
+			internedStrings = new HashMap<>(1024);
+		}
+		add("OpenOLAT");//prevent empty list
 	}
 	
 	/**
@@ -42,21 +104,117 @@ public class OpenXMLWorkbookSharedStrings implements Iterable<String> {
 	 * @param string
 	 * @return
 	 */
-	public int add(String string) {
-		int index = sharedStrings.indexOf(string);
-		if(index < 0) {
+	public synchronized int add(String string) {
+		count++;
+		Integer index = internedStrings.get(string);
+		if(index == null) {
+			index = Integer.valueOf(size++);
+			internedStrings.put(string, index);
 			sharedStrings.add(string);
-			index = sharedStrings.size() - 1;
+			if(spillThreshold > 0 && sharedStrings.size() >= spillThreshold) {
+				spill();
+			}
 		}
-		return index;
+		return index.intValue();
 	}
-
-	@Override
-	public Iterator<String> iterator() {
-		return sharedStrings.iterator();
+	
+	public synchronized int size() {
+		return size;
+	}
+	
+	public synchronized int count() {
+		return count;
+	}
+	
+	/**
+	 * @return true if some strings are buffered in a temporary file
+	 */
+	public synchronized boolean isSpilled() {
+		return spillFile != null;
+	}
+	
+	private void spill() {
+		try {
+			if(spillWriter == null) {
+				spillFile = File.createTempFile("sharedStrings", ".xml");
+				spillWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile), StandardCharsets.UTF_8), 65536);
+			}
+			writeStrings(spillWriter);
+			sharedStrings.clear();
+		} catch (IOException e) {
+			log.error("Cannot spill the shared strings to the disk, keep them in memory", e);
+		}
+	}
+	
+	/**
+	 * Write the complete sharedStrings.xml document. The output stream
+	 * is not closed.
+	 * 
+	 * @param out The output stream
+	 * @throws IOException
+	 */
+	public synchronized void writeTo(OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new ShieldOutputStream(out), StandardCharsets.UTF_8), 65536);
+		writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+		writer.write("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"");
+		writer.write(Integer.toString(count));
+		writer.write("\" uniqueCount=\"");
+		writer.write(Integer.toString(size));
+		writer.write("\">");
+		if(spillWriter != null) {
+			spillWriter.flush();
+			writer.flush();
+			try(InputStream in = new FileInputStream(spillFile)) {
+				IOUtils.copyLarge(in, out);
+			}
+		}
+		writeStrings(writer);
+		writer.write("</sst>");
+		writer.flush();
 	}
 	
-	public int size() {
-		return sharedStrings.size();
+	private void writeStrings(Writer writer) throws IOException {
+		for(String sharedString:sharedStrings) {
+			writer.write("<si><t>");
+			writeEscaped(xmlCharactersFilter.filter(sharedString), writer);
+			writer.write("</t></si>");
+		}
+	}
+	
+	protected static void writeEscaped(String text, Writer writer) throws IOException {
+		int start = 0;
+		int length = text.length();
+		for(int i=0; i<length; i++) {
+			String entity;
+			switch(text.charAt(i)) {
+				case '&': entity = "&amp;"; break;
+				case '<': entity = "&lt;"; break;
+				case '>': entity = "&gt;"; break;
+				case '\r': entity = "&#13;"; break;
+				default: entity = null; break;
+			}
+			if(entity != null) {
+				writer.write(text, start, i - start);
+				writer.write(entity);
+				start = i + 1;
+			}
+		}
+		writer.write(text, start, length - start);
+	}
+	
+	/**
+	 * Release the temporary file.
+	 */
+	public synchronized void delete() {
+		if(spillWriter != null) {
+			IOUtils.closeQuietly(spillWriter);
+			spillWriter = null;
+		}
+		if(spillFile != null) {
+			if(!spillFile.delete()) {
+				log.warn("Cannot delete temporary file: " + spillFile);
+			}
+			spillFile = null;
+		}
 	}
 }
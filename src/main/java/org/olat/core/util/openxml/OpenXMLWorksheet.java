@@ -19,19 +19,26 @@
  */
 package org.olat.core.util.openxml;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipOutputStream;
 
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.apache.commons.io.IOUtils;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.filter.Filter;
+import org.olat.core.util.filter.FilterFactory;
 import org.olat.core.util.openxml.workbookstyle.CellStyle;
 
 /**
@@ -44,30 +51,32 @@ public class OpenXMLWorksheet {
 	
 	private static final OLog log = Tracing.createLoggerFor(OpenXMLWorksheet.class);
 	
-	static private char[] COLUMNS;
+	private static final String[] COLUMNS = new String[1024];
 	static {
-		COLUMNS = new char[26];
 		for (int i = 0; i < COLUMNS.length; i++) {
-			COLUMNS[i] = (char) (i + 'A');
+			COLUMNS[i] = calculateColumn(i);
 		}
 	}
 	
 	private String id;
 	private final OpenXMLWorkbook workbook;
-	private final ZipOutputStream zout;
+	private OutputStream out;
+	private File bufferFile;
 	private XMLStreamWriter writer;
 	
 	private int headerRows = 0;
 	private boolean opened = false;
+	private boolean closed = false;
 	private final Calendar cal = Calendar.getInstance();
+	private final Filter xmlCharactersFilter = FilterFactory.getXMLValidCharacterFilter();
 	
 	private Row row;
 	private int rowPosition = 0;
 	private Map<Integer,Integer> columnsWidth = new HashMap<>();
 	
-	public OpenXMLWorksheet(String id, OpenXMLWorkbook workbook, ZipOutputStream zout) {
+	public OpenXMLWorksheet(String id, OpenXMLWorkbook workbook, OutputStream out) {
 		this.id = id;
-		this.zout = zout;
+		this.out = out;
 		this.workbook = workbook;
 	}
 	
@@ -102,7 +111,28 @@ public class OpenXMLWorksheet {
 	}
 	
 	
+	/**
+	 * Write the worksheet in a temporary file instead of the workbook.
+	 * 
+	 * @param file The temporary file
+	 * @throws IOException
+	 */
+	protected void bufferTo(File file) throws IOException {
+		bufferFile = file;
+		out = new BufferedOutputStream(new FileOutputStream(file), 65536);
+	}
+	
+	protected File getBufferFile() {
+		return bufferFile;
+	}
+	
+	protected boolean isClosed() {
+		return closed;
+	}
+	
 	protected void close() {
+		if(closed) return;
+		
 		if(!opened) {
 			appendProlog();
 		}
@@ -111,6 +141,23 @@ public class OpenXMLWorksheet {
 			row = null;
 		}
 		appendAfterlog();
+		closed = true;
+		if(bufferFile != null) {
+			IOUtils.closeQuietly(out);
+		}
+	}
+	
+	/**
+	 * Release the temporary file if the worksheet was buffered.
+	 */
+	protected void delete() {
+		if(bufferFile != null) {
+			IOUtils.closeQuietly(out);
+			if(!bufferFile.delete()) {
+				log.warn("Cannot delete temporary file: " + bufferFile);
+			}
+			bufferFile = null;
+		}
 	}
 	
 	private void appendRow() {
@@ -134,18 +181,27 @@ public class OpenXMLWorksheet {
 					}
 					if(cell.getType() == OpenXMLCellType.sharedString) {
 						writer.writeAttribute("t", "s");
+					} else if(cell.getType() == OpenXMLCellType.inlineString) {
+						writer.writeAttribute("t", "inlineStr");
 					}
 					
-					writer.writeStartElement("v");
-					if(cell.getType() == OpenXMLCellType.date) {
-						cal.setTime((Date)cell.getValue());
-						double val = internalGetExcelDate(cal, false);
-						writer.writeCharacters(Double.toString(val));
+					if(cell.getType() == OpenXMLCellType.inlineString) {
+						writer.writeStartElement("is");
+						writer.writeStartElement("t");
+						writer.writeCharacters(xmlCharactersFilter.filter(cell.getValue().toString()));
+						writer.writeEndElement();// end t
+						writer.writeEndElement();// end is
 					} else {
-						writer.writeCharacters(cell.getValue().toString());
+						writer.writeStartElement("v");
+						if(cell.getType() == OpenXMLCellType.date) {
+							cal.setTime((Date)cell.getValue());
+							double val = internalGetExcelDate(cal, false);
+							writer.writeCharacters(Double.toString(val));
+						} else {
+							writer.writeCharacters(cell.getValue().toString());
+						}
+						writer.writeEndElement();// end v
 					}
-					
-					writer.writeEndElement();// end v
 					writer.writeEndElement();// end c
 				}
 			}
@@ -182,7 +238,7 @@ public class OpenXMLWorksheet {
 */
 	private void appendProlog() {
 		try {
-			writer = OpenXMLUtils.createStreamWriter(zout);
+			writer = OpenXMLUtils.createStreamWriter(out);
 			writer.writeStartDocument("UTF-8", "1.0");
 			writer.writeStartElement("worksheet");
 			writer.writeNamespace("", "http://schemas.openxmlformats.org/spreadsheetml/2006/main");
@@ -331,6 +387,13 @@ public class OpenXMLWorksheet {
 	 * @return
 	 */
 	protected static final String getColumn(int c) {
+		if(c < COLUMNS.length) {
+			return COLUMNS[c];
+		}
+		return calculateColumn(c);
+	}
+	
+	private static final String calculateColumn(int c) {
 		int excelColNum = c + 1;
 
         StringBuilder colRef = new StringBuilder(3);
@@ -373,11 +436,16 @@ public class OpenXMLWorksheet {
 		public Cell addCell(int column, String value, CellStyle style) {
 			Cell cell = getOrCreateCell(column);
 			cell.setStyle(style);
-			cell.setType(OpenXMLCellType.sharedString);
-			if(value != null) {
-				int sharedIndex = workbook.getSharedStrings().add(value);
-				if(sharedIndex >= 0) {
-					cell.setValue(sharedIndex);
+			if(value != null && workbook.isInlineString(value)) {
+				cell.setType(OpenXMLCellType.inlineString);
+				cell.setValue(value);
+			} else {
+				cell.setType(OpenXMLCellType.sharedString);
+				if(value != null) {
+					int sharedIndex = workbook.getSharedStrings().add(value);
+					if(sharedIndex >= 0) {
+						cell.setValue(sharedIndex);
+					}
 				}
 			}
 			return cell;
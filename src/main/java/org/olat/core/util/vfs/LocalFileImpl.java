@@ -31,6 +31,8 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
@@ -101,7 +103,9 @@ public class LocalFileImpl extends LocalImpl implements VFSLeaf, Versionable {
 	public OutputStream getOutputStream(boolean append) {
 		OutputStream os = null;
 		try {
-			os = new FileOutputStream(getBasefile(), append);
+			File file = getBasefile();
+			long initialSize = file.length();
+			os = new UsageOutputStream(new FileOutputStream(file, append), file, initialSize);
 		} catch (FileNotFoundException e) {
 			log.warn("Could not create output stream for file::" + getBasefile().getAbsolutePath(), e);
 		}
@@ -152,12 +156,22 @@ public class LocalFileImpl extends LocalImpl implements VFSLeaf, Versionable {
 		if(getVersions().isVersioned()) {
 			VersionsManager.getInstance().delete(this, false);
 		}
-		return getBasefile().delete() ? VFSConstants.YES : VFSConstants.NO;
+		return deleteBasefile();
 	}
 	
 	@Override
 	public VFSStatus deleteSilently() {
-		return getBasefile().delete() ? VFSConstants.YES : VFSConstants.NO;
+		return deleteBasefile();
+	}
+	
+	private VFSStatus deleteBasefile() {
+		File file = getBasefile();
+		long size = file.length();
+		if(file.delete()) {
+			QuotaUsageLedger.notifyUsage(file, -size);
+			return VFSConstants.YES;
+		}
+		return VFSConstants.NO;
 	}
 
 	/**
@@ -181,6 +195,40 @@ public class LocalFileImpl extends LocalImpl implements VFSLeaf, Versionable {
 		return "LFile [file="+getBasefile()+"] ";
 	}
 	
+	/**
+	 * Report the change of size of the file to the quota
+	 * usage ledger when the stream is closed.
+	 */
+	private static class UsageOutputStream extends FilterOutputStream {
+		
+		private final File file;
+		private final long initialSize;
+		private boolean closed = false;
+		
+		public UsageOutputStream(OutputStream out, File file, long initialSize) {
+			super(out);
+			this.file = file;
+			this.initialSize = initialSize;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			} finally {
+				if(!closed) {
+					closed = true;
+					QuotaUsageLedger.notifyUsage(file, file.length() - initialSize);
+				}
+			}
+		}
+	}
+	
 
 }
 
@@ -194,11 +194,13 @@ public class LocalFolderImpl extends LocalImpl implements VFSContainer {
 					return VFSConstants.ERROR_QUOTA_EXCEEDED;
 			}
 			
+			File target = new File(basefile, sourcename);
 			try {
-				FileUtils.bcopy(s.getInputStream(), new File(basefile, sourcename), "VFScopyFrom");
+				FileUtils.bcopy(s.getInputStream(), target, "VFScopyFrom");
 			} catch (Exception e) {
 				return VFSConstants.ERROR_FAILED;
 			}
+			QuotaUsageLedger.notifyUsage(target, target.length());
 			
 			if(s instanceof Versionable && ((Versionable)s).getVersions().isVersioned()) {
 				((Versionable)s).getVersions().move(this);
@@ -233,6 +235,7 @@ public class LocalFolderImpl extends LocalImpl implements VFSContainer {
 			// http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=4094022
 			// We need to manually reload the new basefile and set it in our parent
 			super.setBasefile(new File(nf.getAbsolutePath()));
+			QuotaUsageLedger.notifyRenamed(f, nf);
 			return VFSConstants.YES; 
 		} else {
 			return VFSConstants.NO;
@@ -256,6 +259,9 @@ public class LocalFolderImpl extends LocalImpl implements VFSContainer {
 
 		// now delete the directory itself
 		boolean del = getBasefile().delete();
+		if(del) {
+			QuotaUsageLedger.notifyDeleted(getBasefile());
+		}
 		return del ? VFSConstants.YES : VFSConstants.NO;
 	}
 	
@@ -275,6 +281,9 @@ public class LocalFolderImpl extends LocalImpl implements VFSContainer {
 
 		// now delete the directory itself
 		boolean del = getBasefile().delete();
+		if(del) {
+			QuotaUsageLedger.notifyDeleted(getBasefile());
+		}
 		return del ? VFSConstants.YES : VFSConstants.NO;
 	}
 
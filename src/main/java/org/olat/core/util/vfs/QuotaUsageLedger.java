@@ -0,0 +1,388 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.vfs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.WebappHelper;
+
+/**
+ * The ledger holds the disk usage of the folders used to check the quotas,
+ * the quota checks don't need to walk the whole directory tree. The usage of
+ * a folder is computed with a scan of the disk the first time it's asked, after
+ * it's updated by the writes, deletes and renames made through the
+ * LocalFileImpl and LocalFolderImpl.<br>
+ * The writes which bypass the VFS (or made by an other node of the cluster)
+ * are corrected by the reconciliation, which scans again the folders which
+ * were not checked since a configurable number of hours. The ledger is saved
+ * in the user data directory after every reconciliation and at shutdown.<br>
+ * Every node of a cluster holds its own ledger and doesn't see the writes of
+ * the other nodes, the ledger is therefore disabled in cluster mode unless
+ * explicitly enabled.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class QuotaUsageLedger {
+	
+	private static final OLog log = Tracing.createLoggerFor(QuotaUsageLedger.class);
+	private static final String CLEAN_SHUTDOWN = "clean.shutdown";
+	
+	private static QuotaUsageLedger INSTANCE;
+	
+	private final ConcurrentMap<Path,Usage> usages = new ConcurrentHashMap<>();
+	
+	private boolean enabled = true;
+	private boolean clusterEnabled = false;
+	private String clusterMode;
+	private int reconcileAgeHours = 1;
+	private int maxRoots = 10000;
+	private File storage;
+	
+	/**
+	 * @return The ledger or null if it's disabled
+	 */
+	public static QuotaUsageLedger getInstance() {
+		return INSTANCE;
+	}
+	
+	/**
+	 * [used by Spring]
+	 * @param enabled
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param clusterEnabled Use the ledger in cluster mode too
+	 */
+	public void setClusterEnabled(boolean clusterEnabled) {
+		this.clusterEnabled = clusterEnabled;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param clusterMode
+	 */
+	public void setClusterMode(String clusterMode) {
+		this.clusterMode = clusterMode;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param reconcileAgeHours
+	 */
+	public void setReconcileAgeHours(int reconcileAgeHours) {
+		this.reconcileAgeHours = reconcileAgeHours;
+	}
+
+	/**
+	 * [used by Spring]
+	 * @param maxRoots
+	 */
+	public void setMaxRoots(int maxRoots) {
+		this.maxRoots = maxRoots;
+	}
+
+	public void setStorage(File storage) {
+		this.storage = storage;
+	}
+
+	public void init() {
+		if(enabled && "Cluster".equals(clusterMode) && !clusterEnabled) {
+			log.info("Quota usage ledger disabled in cluster mode, the folders are scanned at every check");
+			enabled = false;
+		}
+		if(enabled) {
+			if(storage == null) {
+				File dir = new File(WebappHelper.getUserDataRoot(), "system/quota");
+				storage = new File(dir, "usage_" + WebappHelper.getNodeId() + ".properties");
+			}
+			load();
+			INSTANCE = this;
+		}
+	}
+	
+	public void destroy() {
+		if(INSTANCE == this) {
+			INSTANCE = null;
+			save(true);
+		}
+	}
+	
+	/**
+	 * @return The number of folders in the ledger
+	 */
+	public int size() {
+		return usages.size();
+	}
+	
+	/**
+	 * Return the usage of the specified directory. If the directory is
+	 * not already in the ledger, its usage is computed from the disk
+	 * and the directory is added to the ledger.
+	 * 
+	 * @param directory The directory
+	 * @return The usage in bytes
+	 */
+	public long getUsage(File directory) {
+		Path key = toKey(directory);
+		Usage usage = usages.get(key);
+		if(usage == null) {
+			long size = FileUtils.getDirSize(directory);
+			if(usages.size() >= maxRoots) {
+				return size;
+			}
+			usage = new Usage(size, System.currentTimeMillis());
+			Usage currentUsage = usages.putIfAbsent(key, usage);
+			if(currentUsage != null) {
+				usage = currentUsage;
+			}
+		}
+		return Math.max(0l, usage.getBytes());
+	}
+	
+	/**
+	 * Update the usage of all the directories in the ledger which contains
+	 * the specified file.
+	 * 
+	 * @param file The file which was written or deleted
+	 * @param delta The difference of size in bytes
+	 */
+	public void addUsage(File file, long delta) {
+		if(delta == 0l || usages.isEmpty()) return;
+		
+		for(Path dir=toKey(file).getParent(); dir != null; dir=dir.getParent()) {
+			Usage usage = usages.get(dir);
+			if(usage != null) {
+				usage.add(delta);
+			}
+		}
+	}
+	
+	/**
+	 * The directories of the ledger within the renamed directory are
+	 * moved to the new path.
+	 * 
+	 * @param source The directory before the rename
+	 * @param target The directory after the rename
+	 */
+	public void renamed(File source, File target) {
+		if(usages.isEmpty()) return;
+		
+		Path sourceKey = toKey(source);
+		Path targetKey = toKey(target);
+		for(Iterator<Map.Entry<Path,Usage>> it=usages.entrySet().iterator(); it.hasNext(); ) {
+			Map.Entry<Path,Usage> entry = it.next();
+			Path key = entry.getKey();
+			if(key.startsWith(sourceKey)) {
+				it.remove();
+				usages.put(targetKey.resolve(sourceKey.relativize(key)), entry.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Remove the deleted directory and its sub-directories from the ledger.
+	 * 
+	 * @param directory The deleted directory
+	 */
+	public void deleted(File directory) {
+		if(usages.isEmpty()) return;
+		
+		Path dirKey = toKey(directory);
+		usages.keySet().removeIf(key -> key.startsWith(dirKey));
+	}
+	
+	/**
+	 * Scan again the directories which were not checked since the configured
+	 * age and save the ledger. Directories which doesn't exist anymore are
+	 * removed.
+	 * 
+	 * @return The number of directories checked
+	 */
+	public int reconcile() {
+		long limit = System.currentTimeMillis() - (reconcileAgeHours * 3600l * 1000l);
+		
+		int count = 0;
+		long drifts = 0;
+		for(Map.Entry<Path,Usage> entry:usages.entrySet()) {
+			Usage usage = entry.getValue();
+			if(usage.getReconciled() <= limit) {
+				File directory = entry.getKey().toFile();
+				if(directory.isDirectory()) {
+					long size = FileUtils.getDirSize(directory);
+					if(usage.reconcile(size) != 0l) {
+						drifts++;
+					}
+				} else {
+					usages.remove(entry.getKey(), usage);
+				}
+				count++;
+			}
+		}
+		
+		if(count > 0) {
+			log.info("Quota usage reconciled " + count + " folders, " + drifts + " have drifted");
+		}
+		save(false);
+		return count;
+	}
+	
+	private Path toKey(File file) {
+		return file.getAbsoluteFile().toPath().normalize();
+	}
+	
+	protected synchronized void load() {
+		if(storage == null || !storage.exists()) return;
+		
+		Properties props = new Properties();
+		try(InputStream in = new FileInputStream(storage)) {
+			props.load(in);
+		} catch(IOException e) {
+			log.error("Cannot load the quota usage ledger: " + storage, e);
+			return;
+		}
+		
+		// after a crash, the usages must be checked as soon as possible
+		boolean clean = "true".equals(props.getProperty(CLEAN_SHUTDOWN));
+		for(String path:props.stringPropertyNames()) {
+			if(CLEAN_SHUTDOWN.equals(path)) continue;
+			
+			String value = props.getProperty(path);
+			int index = value.indexOf(';');
+			try {
+				long bytes = Long.parseLong(value.substring(0, index));
+				long reconciled = clean ? Long.parseLong(value.substring(index + 1)) : 0l;
+				usages.put(toKey(new File(path)), new Usage(bytes, reconciled));
+			} catch (NumberFormatException | IndexOutOfBoundsException e) {
+				log.warn("Invalid entry in quota usage ledger: " + path + "=" + value);
+			}
+		}
+		// a crash after this point is not a clean shutdown
+		save(false);
+	}
+	
+	protected synchronized void save(boolean clean) {
+		if(storage == null) return;
+		
+		Properties props = new Properties();
+		for(Map.Entry<Path,Usage> entry:usages.entrySet()) {
+			Usage usage = entry.getValue();
+			props.setProperty(entry.getKey().toString(), usage.getBytes() + ";" + usage.getReconciled());
+		}
+		props.setProperty(CLEAN_SHUTDOWN, Boolean.toString(clean));
+		
+		File tmp = new File(storage.getParentFile(), storage.getName() + ".tmp");
+		try {
+			storage.getParentFile().mkdirs();
+			try(OutputStream out = new FileOutputStream(tmp)) {
+				props.store(out, "Quota usage ledger");
+			}
+			Files.move(tmp.toPath(), storage.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch(IOException e) {
+			log.error("Cannot save the quota usage ledger: " + storage, e);
+		}
+	}
+	
+	/**
+	 * Update the usage if the ledger is enabled.
+	 * 
+	 * @see #addUsage(File, long)
+	 */
+	static void notifyUsage(File file, long delta) {
+		QuotaUsageLedger ledger = INSTANCE;
+		if(ledger != null) {
+			ledger.addUsage(file, delta);
+		}
+	}
+	
+	/**
+	 * @see #renamed(File, File)
+	 */
+	static void notifyRenamed(File source, File target) {
+		QuotaUsageLedger ledger = INSTANCE;
+		if(ledger != null) {
+			ledger.renamed(source, target);
+		}
+	}
+	
+	/**
+	 * @see #deleted(File)
+	 */
+	static void notifyDeleted(File directory) {
+		QuotaUsageLedger ledger = INSTANCE;
+		if(ledger != null) {
+			ledger.deleted(directory);
+		}
+	}
+	
+	private static class Usage {
+		
+		private final AtomicLong bytes;
+		private volatile long reconciled;
+		
+		public Usage(long bytes, long reconciled) {
+			this.bytes = new AtomicLong(bytes);
+			this.reconciled = reconciled;
+		}
+		
+		public long getBytes() {
+			return bytes.get();
+		}
+		
+		public void add(long delta) {
+			bytes.addAndGet(delta);
+		}
+		
+		public long getReconciled() {
+			return reconciled;
+		}
+		
+		/**
+		 * @param size The size on the disk
+		 * @return The drift between the ledger and the disk
+		 */
+		public long reconcile(long size) {
+			long drift = bytes.getAndSet(size) - size;
+			reconciled = System.currentTimeMillis();
+			return drift;
+		}
+	}
+}
@@ -374,7 +374,8 @@ public class VFSManager {
 	 * is provided, this returns -1 (meaning no quota on this folder).
 	 * Similarly, if no quota is defined, VFSSecurityCallback.NO_QUOTA_DEFINED
 	 * will be returned to signal no quota
-	 * on this container.
+	 * on this container. For local folders, the usage comes from the
+	 * quota usage ledger and the check doesn't walk the folder.
 	 * 
 	 * @param securityCallback
 	 * @param container
@@ -389,7 +390,8 @@ public class VFSManager {
 	}
 	
 	/**
-	 * Recursively traverse the container and sum up all leafs' sizes.
+	 * Recursively traverse the container and sum up all leafs' sizes. The
+	 * usage of local folders is read from the quota usage ledger if enabled.
 	 * 
 	 * @param container
 	 * @return
@@ -397,8 +399,12 @@ public class VFSManager {
 	public static long getUsageKB(VFSItem vfsItem) {
 		if (vfsItem instanceof VFSContainer) {
 			// VFSContainer
-			if (vfsItem instanceof LocalFolderImpl)
-				return FileUtils.getDirSize(((LocalFolderImpl)vfsItem).getBasefile()) / 1024;
+			if (vfsItem instanceof LocalFolderImpl) {
+				File basefile = ((LocalFolderImpl)vfsItem).getBasefile();
+				QuotaUsageLedger ledger = QuotaUsageLedger.getInstance();
+				long usage = ledger == null ? FileUtils.getDirSize(basefile) : ledger.getUsage(basefile);
+				return usage / 1024;
+			}
 			long usageKB = 0;
 			List<VFSItem> children = ((VFSContainer)vfsItem).getItems();
 			for (VFSItem child:children) {
@@ -444,6 +450,23 @@ public class VFSManager {
 		return realFile;
 	}
 	
+	/**
+	 * Returns the file of the local file system behind the leaf, if the leaf
+	 * is a named leaf, the delegate is used.
+	 * 
+	 * @param leaf The leaf
+	 * @return The file or null if the leaf is not a local file
+	 */
+	public static File getRealFile(VFSLeaf leaf) {
+		if (leaf instanceof NamedLeaf) {
+			leaf = ((NamedLeaf)leaf).getDelegate();
+		}
+		if (leaf instanceof JavaIOItem) {
+			return ((JavaIOItem)leaf).getBasefile();
+		}
+		return null;
+	}
+	
 	/**
 	 * Get the path as string of the given item relative to the root
 	 * container and the relative base path
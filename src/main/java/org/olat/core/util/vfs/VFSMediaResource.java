@@ -26,16 +26,19 @@
 
 package org.olat.core.util.vfs;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 import javax.servlet.http.HttpServletResponse;
 
+import org.olat.core.gui.media.FileBackedResource;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.gui.media.ServletUtil;
 import org.olat.core.util.StringHelper;
 import org.olat.core.util.WebappHelper;
 
-public class VFSMediaResource implements MediaResource {
+public class VFSMediaResource implements MediaResource, FileBackedResource {
 
 	private static final String MIME_TYPE_OCTET_STREAM = "application/octet-stream";
 	//use this pseudo mime-type to force download on ie 6
@@ -101,6 +104,12 @@ public class VFSMediaResource implements MediaResource {
 		return vfsLeaf.getInputStream();
 	}
 
+	@Override
+	public Path getFilePath() {
+		File file = VFSManager.getRealFile(vfsLeaf);
+		return file == null ? null : file.toPath();
+	}
+
 	@Override
 	public Long getLastModified() {
 		long lastModified = vfsLeaf.getLastModified();
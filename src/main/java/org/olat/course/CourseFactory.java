@@ -97,7 +97,6 @@ import org.olat.core.util.vfs.VFSConstants;
 import org.olat.core.util.vfs.VFSContainer;
 import org.olat.core.util.vfs.VFSManager;
 import org.olat.core.util.vfs.VFSStatus;
-import org.olat.core.util.xml.XStreamHelper;
 import org.olat.course.archiver.ScoreAccountingHelper;
 import org.olat.course.config.CourseConfig;
 import org.olat.course.config.CourseConfigManagerImpl;
@@ -456,9 +455,9 @@ public class CourseFactory {
 			CourseConfig courseConf = CourseConfigManagerImpl.getInstance().copyConfigOf(sourceCourse);
 			targetCourse.setCourseConfig(courseConf);
 			// save structures
-			targetCourse.setRunStructure((Structure) XStreamHelper.xstreamClone(sourceCourse.getRunStructure()));
+			targetCourse.setRunStructure(CourseStructureSnapshot.copy(sourceCourse.getRunStructure()));
 			targetCourse.saveRunStructure();
-			targetCourse.setEditorTreeModel((CourseEditorTreeModel) XStreamHelper.xstreamClone(sourceCourse.getEditorTreeModel()));
+			targetCourse.setEditorTreeModel(CourseStructureSnapshot.copy(sourceCourse.getEditorTreeModel()));
 			targetCourse.saveEditorTreeModel();
 
 			// copy course folder
@@ -542,6 +541,8 @@ public class CourseFactory {
 		// Unzip course strucure in new course
 		File fCanonicalCourseBasePath = newCourse.getCourseBaseContainer().getBasefile();
 		if (ZipUtil.unzip(zipFile, fCanonicalCourseBasePath)) {
+			// never load snapshots from an archive
+			newCourse.deleteStructureSnapshots();
 			// Load course strucure now
 			try {
 				newCourse.load();
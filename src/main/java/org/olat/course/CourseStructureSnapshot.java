@@ -0,0 +1,287 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.olat.core.helpers.Settings;
+import org.olat.core.logging.OLATRuntimeException;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.WebappHelper;
+import org.olat.core.util.xml.XStreamHelper;
+
+/**
+ * Binary snapshot of the course structures (run structure and editor tree model)
+ * written alongside the XML files. The XML stays the reference format for import,
+ * export and interchange, the snapshot is only a fast path to load the course.
+ * It's only used if it was written by the same build from the current version of
+ * the XML file, in any other case the caller must read the XML and write a new
+ * snapshot.<br>
+ * The snapshots are signed with a secret key of the installation (shared by the
+ * nodes of a cluster in the user data directory) and a snapshot with a wrong
+ * signature, uploaded within a course archive for example, is never deserialized.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+final class CourseStructureSnapshot {
+	
+	private static final OLog log = Tracing.createLoggerFor(CourseStructureSnapshot.class);
+	
+	private static final int MAGIC = 0x4F4C4353;// OLCS
+	private static final int FORMAT_VERSION = 2;
+	private static final String MAC_ALGORITHM = "HmacSHA256";
+	private static final int MAC_LENGTH = 32;
+	private static final String KEY_FILENAME = "course_snapshot.key";
+	
+	private static volatile byte[] secretKey;
+	
+	private CourseStructureSnapshot() {
+		//
+	}
+	
+	/**
+	 * @param xmlFile The XML file from which the structure was loaded
+	 * @param snapshotFile The snapshot file
+	 * @return The structure or null if the snapshot is missing, outdated, unreadable
+	 * 		or not written by this installation
+	 */
+	static Object read(File xmlFile, File snapshotFile) {
+		if(!snapshotFile.exists() || !xmlFile.exists()) {
+			return null;
+		}
+		
+		try {
+			byte[] content = Files.readAllBytes(snapshotFile.toPath());
+			if(content.length <= MAC_LENGTH) {
+				return null;
+			}
+			int dataLength = content.length - MAC_LENGTH;
+			byte[] signature = Arrays.copyOfRange(content, dataLength, content.length);
+			if(!MessageDigest.isEqual(signature, sign(content, dataLength))) {
+				log.warn("Course structure snapshot with a wrong signature, use the XML file: " + snapshotFile);
+				return null;
+			}
+			
+			DataInputStream dataIn = new DataInputStream(new ByteArrayInputStream(content, 0, dataLength));
+			if(dataIn.readInt() != MAGIC || dataIn.readInt() != FORMAT_VERSION
+					|| !buildIdentifier().equals(dataIn.readUTF())
+					|| dataIn.readLong() != xmlFile.length()
+					|| dataIn.readLong() != xmlFile.lastModified()) {
+				return null;
+			}
+			try(ObjectInputStream objectIn = new ObjectInputStream(new InflaterInputStream(dataIn))) {
+				return objectIn.readObject();
+			}
+		} catch (IOException | ClassNotFoundException | GeneralSecurityException | RuntimeException e) {
+			log.warn("Cannot read course structure snapshot, use the XML file: " + snapshotFile, e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Write the snapshot of a structure just written to its XML file.
+	 * 
+	 * @param xmlFile The XML file of the structure
+	 * @param snapshotFile The snapshot file
+	 * @param obj The structure
+	 */
+	static void write(File xmlFile, File snapshotFile, Object obj) {
+		write(xmlFile.length(), xmlFile.lastModified(), xmlFile, snapshotFile, obj);
+	}
+	
+	/**
+	 * Write the snapshot of a structure read from its XML file. The length and the
+	 * last modification of the XML file must be taken before reading it, a change
+	 * of the file while it's read makes the snapshot outdated and not the contrary.
+	 * 
+	 * @param xmlLength The length of the XML file before it was read
+	 * @param xmlLastModified The last modification of the XML file before it was read
+	 * @param xmlFile The XML file of the structure
+	 * @param snapshotFile The snapshot file
+	 * @param obj The structure
+	 */
+	static void write(long xmlLength, long xmlLastModified, File xmlFile, File snapshotFile, Object obj) {
+		if(!xmlFile.exists() || xmlLastModified == 0l) {
+			return;
+		}
+		
+		File tmpFile = null;
+		try {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(65536);
+			DataOutputStream dataOut = new DataOutputStream(buffer);
+			dataOut.writeInt(MAGIC);
+			dataOut.writeInt(FORMAT_VERSION);
+			dataOut.writeUTF(buildIdentifier());
+			dataOut.writeLong(xmlLength);
+			dataOut.writeLong(xmlLastModified);
+			dataOut.flush();
+			
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try(ObjectOutputStream objectOut = new ObjectOutputStream(new DeflaterOutputStream(buffer, deflater, 16384))) {
+				objectOut.writeObject(obj);
+			} finally {
+				deflater.end();
+			}
+			byte[] content = buffer.toByteArray();
+			byte[] signature = sign(content, content.length);
+			
+			// unique temporary file, the nodes of a cluster share the course folder
+			tmpFile = File.createTempFile(snapshotFile.getName(), ".tmp", snapshotFile.getParentFile());
+			try(OutputStream out = Files.newOutputStream(tmpFile.toPath())) {
+				out.write(content);
+				out.write(signature);
+			}
+			Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | GeneralSecurityException | RuntimeException e) {
+			log.warn("Cannot write course structure snapshot: " + snapshotFile, e);
+			if(tmpFile != null) {
+				delete(tmpFile);
+			}
+			delete(snapshotFile);
+		}
+	}
+	
+	/**
+	 * Make a deep copy of the structure without XML serialization. If some
+	 * objects of the structure are not serializable, the copy falls back
+	 * to XStream.
+	 * 
+	 * @param obj The structure to copy
+	 * @return A deep copy of the structure
+	 */
+	@SuppressWarnings("unchecked")
+	static <T extends Serializable> T copy(T obj) {
+		try {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(65536);
+			try(ObjectOutputStream objectOut = new ObjectOutputStream(buffer)) {
+				objectOut.writeObject(obj);
+			}
+			try(ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+				return (T)objectIn.readObject();
+			}
+		} catch (NotSerializableException e) {
+			log.warn("Course structure not serializable, copy it with XStream", e);
+			return (T)XStreamHelper.xstreamClone(obj);
+		} catch (IOException | ClassNotFoundException e) {
+			throw new OLATRuntimeException("Cannot copy the course structure", e);
+		}
+	}
+	
+	static void delete(File file) {
+		try {
+			Files.deleteIfExists(file.toPath());
+		} catch (IOException e) {
+			log.error("Cannot delete: " + file, e);
+		}
+	}
+	
+	private static byte[] sign(byte[] content, int length) throws GeneralSecurityException {
+		Mac mac = Mac.getInstance(MAC_ALGORITHM);
+		mac.init(new SecretKeySpec(getSecretKey(), MAC_ALGORITHM));
+		mac.update(content, 0, length);
+		return mac.doFinal();
+	}
+	
+	/**
+	 * The key is saved in the user data directory to be shared by all nodes of
+	 * a cluster. Without user data directory, the key lives only in memory and
+	 * the snapshots are only valid until the next restart.
+	 * 
+	 * @return The secret key of the installation
+	 */
+	private static byte[] getSecretKey() {
+		byte[] key = secretKey;
+		if(key == null) {
+			synchronized(CourseStructureSnapshot.class) {
+				key = secretKey;
+				if(key == null) {
+					key = loadOrCreateSecretKey();
+					secretKey = key;
+				}
+			}
+		}
+		return key;
+	}
+	
+	private static byte[] loadOrCreateSecretKey() {
+		byte[] newKey = new byte[32];
+		new SecureRandom().nextBytes(newKey);
+		
+		String userDataRoot = WebappHelper.getUserDataRoot();
+		if(userDataRoot == null) {
+			return newKey;
+		}
+		
+		File keyFile = new File(new File(userDataRoot, "system"), KEY_FILENAME);
+		try {
+			if(!keyFile.exists()) {
+				keyFile.getParentFile().mkdirs();
+				File tmpFile = File.createTempFile(KEY_FILENAME, ".tmp", keyFile.getParentFile());
+				Files.write(tmpFile.toPath(), newKey);
+				try {
+					// a link never replaces an existing file, the first node which creates the key wins
+					Files.createLink(keyFile.toPath(), tmpFile.toPath());
+				} catch (FileAlreadyExistsException e) {
+					log.debug("Course snapshot key already created");
+				} finally {
+					delete(tmpFile);
+				}
+			}
+			byte[] key = Files.readAllBytes(keyFile.toPath());
+			if(key.length >= 16) {
+				return key;
+			}
+			log.error("Course snapshot key too short: " + keyFile);
+		} catch (IOException e) {
+			log.error("Cannot load course snapshot key: " + keyFile, e);
+		}
+		return newKey;
+	}
+	
+	private static String buildIdentifier() {
+		String identifier = Settings.getBuildIdentifier();
+		return identifier == null ? "" : identifier;
+	}
+}
@@ -90,6 +90,8 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	
 	private static final String EDITORTREEMODEL_XML = "editortreemodel.xml";
 	private static final String RUNSTRUCTURE_XML = "runstructure.xml";
+	private static final String EDITORTREEMODEL_SNAPSHOT = "editortreemodel.bin";
+	private static final String RUNSTRUCTURE_SNAPSHOT = "runstructure.bin";
 	private static final String ORES_TYPE_NAME = CourseModule.getCourseTypeName();
 	private static final String COURSEFOLDER = "coursefolder";
 
@@ -263,7 +265,7 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	 * Save the run structure to disk, persist to the xml file
 	 */
 	void saveRunStructure() {
-		writeObject(RUNSTRUCTURE_XML, getRunStructure());
+		writeObject(RUNSTRUCTURE_XML, RUNSTRUCTURE_SNAPSHOT, getRunStructure());
 		log.debug("saveRunStructure");
 	}
 
@@ -271,7 +273,7 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 	 * Save the editor tree model to disk, persist to the xml file
 	 */
 	void saveEditorTreeModel() {
-		writeObject(EDITORTREEMODEL_XML, getEditorTreeModel());
+		writeObject(EDITORTREEMODEL_XML, EDITORTREEMODEL_SNAPSHOT, getEditorTreeModel());
 		log.debug("saveEditorTreeModel");
 	}
 
@@ -443,23 +445,35 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 		 * the constructor !
 		 */
 		Object obj;
-		obj = readObject(RUNSTRUCTURE_XML);
+		obj = readObject(RUNSTRUCTURE_XML, RUNSTRUCTURE_SNAPSHOT);
 		if (!(obj instanceof Structure)) throw new AssertException("Error reading course run structure.");
 		runStructure = (Structure) obj;
 		initHasAssessableNodes();
 		
-		obj = readObject(EDITORTREEMODEL_XML);
+		obj = readObject(EDITORTREEMODEL_XML, EDITORTREEMODEL_SNAPSHOT);
 		if (!(obj instanceof CourseEditorTreeModel)) throw new AssertException("Error reading course editor tree model.");
 		editorTreeModel = (CourseEditorTreeModel) obj;	
 	}
 
 	/**
-	 * Write a structure to an XML file in the course base path folder.
+	 * Delete the binary snapshots of the structures, the snapshots are
+	 * never imported and only the XML files are used.
+	 */
+	void deleteStructureSnapshots() {
+		File courseBase = getCourseBaseContainer().getBasefile();
+		CourseStructureSnapshot.delete(new File(courseBase, RUNSTRUCTURE_SNAPSHOT));
+		CourseStructureSnapshot.delete(new File(courseBase, EDITORTREEMODEL_SNAPSHOT));
+	}
+
+	/**
+	 * Write a structure to an XML file in the course base path folder and
+	 * its binary snapshot alongside.
 	 * 
 	 * @param fileName
+	 * @param snapshotName
 	 * @param obj
 	 */
-	private void writeObject(String fileName, Object obj) {
+	private void writeObject(String fileName, String snapshotName, Object obj) {
 		VFSItem vfsItem = getCourseBaseContainer().resolve(fileName);
 		if (vfsItem == null) {
 			vfsItem = getCourseBaseContainer().createChildLeaf(fileName);
@@ -472,23 +486,42 @@ public class PersistingCourseImpl implements ICourse, OLATResourceable, Serializ
 		}
 		XStream xstream = CourseXStreamAliases.getWriteCourseXStream();
 		XStreamHelper.writeObject(xstream, (VFSLeaf)vfsItem, obj);
+		
+		File courseBase = getCourseBaseContainer().getBasefile();
+		CourseStructureSnapshot.write(new File(courseBase, fileName), new File(courseBase, snapshotName), obj);
 	}
 
 	/**
-	 * Read a structure from XML file within the course base path folder.
+	 * Read a structure from its binary snapshot if it's up-to-date, or from
+	 * the XML file within the course base path folder. In the later case,
+	 * the snapshot is written for the next time.
 	 * 
 	 * @param fileName
+	 * @param snapshotName
 	 * @return de-serialized object
 	 * @throws OLATRuntimeException if de-serialization fails.
 	 */
-	private Object readObject(String fileName) {
+	private Object readObject(String fileName, String snapshotName) {
+		File courseBase = getCourseBaseContainer().getBasefile();
+		File xmlFile = new File(courseBase, fileName);
+		File snapshotFile = new File(courseBase, snapshotName);
+		Object snapshot = CourseStructureSnapshot.read(xmlFile, snapshotFile);
+		if(snapshot != null) {
+			return snapshot;
+		}
+		
 		VFSItem vfsItem = getCourseBaseContainer().resolve(fileName);
 		if (vfsItem == null || !(vfsItem instanceof VFSLeaf)) {
 			throw new CorruptedCourseException("Cannot resolve file: " + fileName + " course=" + toString());
 		}
 		try {
+			// before reading, a change while reading must make the snapshot outdated
+			long xmlLength = xmlFile.length();
+			long xmlLastModified = xmlFile.lastModified();
 			XStream xstream = CourseXStreamAliases.getReadCourseXStream();
-			return XStreamHelper.readObject(xstream, ((VFSLeaf)vfsItem).getInputStream());
+			Object obj = XStreamHelper.readObject(xstream, ((VFSLeaf)vfsItem).getInputStream());
+			CourseStructureSnapshot.write(xmlLength, xmlLastModified, xmlFile, snapshotFile, obj);
+			return obj;
 		} catch (Exception e) {
 			log.error("Cannot read course tree file: " + fileName, e);
 			throw new CorruptedCourseException("Cannot resolve file: " + fileName + " course=" + toString(), e);
@@ -64,16 +64,41 @@ public class AssessmentChangedEvent extends MultiUserEvent {
 	}
 	
 	private Long identityKey;
+	private String courseNodeIdent;
 	
 	/**
 	 * @param changedAssessmentType On of the static types from this class
 	 * @param identity The identity that is target of the change
 	 */
 	public AssessmentChangedEvent(String changedAssessmentType, Identity identity) {
+		this(changedAssessmentType, identity, null);
+	}
+	
+	/**
+	 * @param changedAssessmentType On of the static types from this class
+	 * @param identity The identity that is target of the change
+	 * @param courseNodeIdent The identifier of the changed course node (optional)
+	 */
+	public AssessmentChangedEvent(String changedAssessmentType, Identity identity, String courseNodeIdent) {
 		super(changedAssessmentType);
 		if (!assessmentTypes.contains(changedAssessmentType)) 
 			throw new AssertException("Wrong changed assessment type::" + changedAssessmentType + " not supported");
 		identityKey = identity.getKey();
+		this.courseNodeIdent = courseNodeIdent;
+	}
+	
+	/**
+	 * Rebuild an event received from an other node of the cluster.
+	 * 
+	 * @param changedAssessmentType On of the static types from this class
+	 * @param identityKey The key of the identity that is target of the change
+	 * @param courseNodeIdent The identifier of the changed course node (optional)
+	 * @param originNodeId The id of the node which has fired the event
+	 */
+	public AssessmentChangedEvent(String changedAssessmentType, Long identityKey, String courseNodeIdent, int originNodeId) {
+		super(changedAssessmentType, originNodeId);
+		this.identityKey = identityKey;
+		this.courseNodeIdent = courseNodeIdent;
 	}
 
 	/**
@@ -83,7 +108,14 @@ public class AssessmentChangedEvent extends MultiUserEvent {
 		return identityKey;
 	}
 	
+	/**
+	 * @return The identifier of the changed course node or null if unknown
+	 */
+	public String getCourseNodeIdent() {
+		return courseNodeIdent;
+	}
+	
 	public String toString() {
-		return "assesstype:"+getCommand()+", for identity with key:"+identityKey;
+		return "assesstype:"+getCommand()+", for identity with key:"+identityKey+", course node:"+courseNodeIdent;
 	}
 }
@@ -115,6 +115,16 @@ public interface AssessmentModeManager {
 	 */
 	public List<AssessmentMode> getAssessmentModes(Date now);
 	
+	/**
+	 * This return the modes not started which begin (minus lead time)
+	 * in the specified period.
+	 * 
+	 * @param from The begin of the period (exclusive)
+	 * @param until The end of the period (inclusive)
+	 * @return The list of modes
+	 */
+	public List<AssessmentMode> getUpcomingAssessmentModes(Date from, Date until);
+	
 	/**
 	 * Return true if the course is in assessment mode at the specified time.
 	 * @param entry
@@ -20,8 +20,10 @@
 package org.olat.course.assessment.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -29,12 +31,17 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.olat.basesecurity.model.IdentityRefImpl;
 import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.taskexecutor.TaskExecutorManager;
 import org.olat.core.gui.control.Event;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
+import org.olat.core.util.StringHelper;
 import org.olat.core.util.coordinate.CoordinatorManager;
 import org.olat.core.util.event.GenericEventListener;
+import org.olat.core.util.tree.TreeVisitor;
 import org.olat.course.CourseFactory;
+import org.olat.course.ICourse;
 import org.olat.course.assessment.AssessmentMode;
 import org.olat.course.assessment.AssessmentMode.Status;
 import org.olat.course.assessment.AssessmentModeCoordinationService;
@@ -43,10 +50,14 @@ import org.olat.course.assessment.AssessmentModule;
 import org.olat.course.assessment.model.AssessmentModeImpl;
 import org.olat.course.assessment.model.CoordinatedAssessmentMode;
 import org.olat.course.assessment.model.TransientAssessmentMode;
+import org.olat.course.nodes.IQTESTCourseNode;
+import org.olat.fileresource.types.ImsQTI21Resource;
 import org.olat.group.ui.edit.BusinessGroupModifiedEvent;
+import org.olat.ims.qti21.QTI21Service;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -70,8 +81,17 @@ public class AssessmentModeCoordinationServiceImpl implements AssessmentModeCoor
 	private CoordinatorManager coordinatorManager;
 	@Autowired
 	private AssessmentModeManagerImpl assessmentModeManager;
+	@Autowired
+	private QTI21Service qtiService;
+	@Autowired
+	private TaskExecutorManager taskExecutorManager;
+	
+	/** minutes before the begin (lead time included) to warm up the tests */
+	@Value("${assessment.mode.warmup:10}")
+	private int warmUpMinutes;
 	
 	private Map<Long,CoordinatedAssessmentMode> coordinatedModes = new ConcurrentHashMap<>();
+	private Set<Long> warmedUpModes = ConcurrentHashMap.newKeySet();
 	
 	protected synchronized void beat() {
 		if(assessmentModule.isAssessmentModeEnabled()) {
@@ -102,7 +122,36 @@ public class AssessmentModeCoordinationServiceImpl implements AssessmentModeCoor
 			if(coordinatedModes.size() > 250) {
 				log.error("Seem to be a leak of coordinated modes");
 			}
+			
+			warmUpUpcomingAssessments(now, currentModeKeys);
+		}
+	}
+	
+	/**
+	 * Warm up the assessments which begin in the next minutes and forget
+	 * the modes which are neither upcoming nor current.
+	 * 
+	 * @param now The current date
+	 * @param currentModeKeys The keys of the current modes
+	 */
+	private void warmUpUpcomingAssessments(Date now, List<Long> currentModeKeys) {
+		Set<Long> modeKeys = new HashSet<>(currentModeKeys);
+		if(warmUpMinutes > 0) {
+			Calendar cal = Calendar.getInstance();
+			cal.setTime(now);
+			cal.add(Calendar.MINUTE, warmUpMinutes);
+			List<AssessmentMode> upcomingModes = assessmentModeManager.getUpcomingAssessmentModes(now, cal.getTime());
+			for(AssessmentMode upcomingMode:upcomingModes) {
+				try {
+					modeKeys.add(upcomingMode.getKey());
+					warmUpAssessment(upcomingMode);
+				} catch (Exception e) {
+					log.error("", e);
+				}
+			}
+			dbInstance.commit();
 		}
+		warmedUpModes.retainAll(modeKeys);
 	}
 	
 	private Date now() {
@@ -341,8 +390,54 @@ public class AssessmentModeCoordinationServiceImpl implements AssessmentModeCoor
 		return mode;
 	}
 	
+	/**
+	 * Load the course and, only once per mode, start asynchronously the warm
+	 * up of the QTI 2.1 tests of the mode (resolve the test, load the templates
+	 * of the items, create the storage of the sessions).
+	 * 
+	 * @param mode The assessment mode
+	 */
 	private void warmUpAssessment(AssessmentMode mode) {
 		RepositoryEntry entry = repositoryService.loadByKey(mode.getRepositoryEntry().getKey());
-		CourseFactory.loadCourse(entry);
+		ICourse course = CourseFactory.loadCourse(entry);
+		if(warmedUpModes.add(mode.getKey())) {
+			final Set<String> elements = getRestrictedElements(mode);
+			final List<IQTESTCourseNode> testNodes = new ArrayList<>();
+			new TreeVisitor(node -> {
+				if(node instanceof IQTESTCourseNode && (elements == null || elements.contains(node.getIdent()))) {
+					testNodes.add((IQTESTCourseNode)node);
+				}
+			}, course.getRunStructure().getRootNode(), false).visitAll();
+			
+			if(!testNodes.isEmpty()) {
+				final String modeName = mode.getName();
+				taskExecutorManager.execute(() -> warmUpTests(entry, testNodes, modeName));
+			}
+		}
+	}
+	
+	private Set<String> getRestrictedElements(AssessmentMode mode) {
+		if(mode.isRestrictAccessElements() && StringHelper.containsNonWhitespace(mode.getElementList())) {
+			return new HashSet<>(Arrays.asList(mode.getElementList().split(",")));
+		}
+		return null;
+	}
+	
+	private void warmUpTests(RepositoryEntry entry, List<IQTESTCourseNode> testNodes, String modeName) {
+		try {
+			long start = System.nanoTime();
+			for(IQTESTCourseNode testNode:testNodes) {
+				RepositoryEntry testEntry = testNode.getReferencedRepositoryEntry();
+				if(testEntry != null && ImsQTI21Resource.TYPE_NAME.equals(testEntry.getOlatResource().getResourceableTypeName())) {
+					qtiService.warmUpAssessmentTest(testEntry, entry, testNode.getIdent());
+				}
+			}
+			log.info("Warm up assessment mode: " + modeName + " of course: " + entry.getKey()
+					+ " in (ms): " + CodeHelper.nanoToMilliTime(start));
+		} catch (Exception e) {
+			log.error("Cannot warm up the assessment mode: " + modeName + " of course: " + entry.getKey(), e);
+		} finally {
+			dbInstance.commitAndCloseSession();
+		}
 	}
 }
\ No newline at end of file
@@ -174,6 +174,28 @@ public class AssessmentModeDAO {
 				.getResultList();
 	}
 	
+	/**
+	 * Search the assessment modes which begin (lead time included) after
+	 * the specified "from" date and before the "until" date, and which
+	 * were not started manually.
+	 * 
+	 * @param from The lower limit (exclusive)
+	 * @param until The upper limit (inclusive)
+	 * @return A list of assessment modes
+	 */
+	public List<AssessmentMode> getUpcomingAssessmentModes(Date from, Date until) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("select mode from courseassessmentmode mode where ")
+		  .append(" mode.beginWithLeadTime>:from and mode.beginWithLeadTime<=:until")
+		  .append(" and (mode.statusString is null or mode.statusString='").append(Status.none.name()).append("')");
+
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), AssessmentMode.class)
+				.setParameter("from", from)
+				.setParameter("until", until)
+				.getResultList();
+	}
+	
 	public boolean isInAssessmentMode(RepositoryEntryRef entry, Date date) {
 		Calendar cal = Calendar.getInstance();
 		cal.setTime(date);
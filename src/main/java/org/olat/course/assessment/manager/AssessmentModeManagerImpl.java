@@ -247,6 +247,11 @@ public class AssessmentModeManagerImpl implements AssessmentModeManager {
 		return assessmentModeDao.getAssessmentModes(now);
 	}
 
+	@Override
+	public List<AssessmentMode> getUpcomingAssessmentModes(Date from, Date until) {
+		return assessmentModeDao.getUpcomingAssessmentModes(from, until);
+	}
+
 	@Override
 	public boolean isInAssessmentMode(RepositoryEntryRef entry, Date date) {
 		return assessmentModeDao.isInAssessmentMode(entry, date);
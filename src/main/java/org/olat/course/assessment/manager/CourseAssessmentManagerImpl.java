@@ -27,6 +27,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -182,7 +183,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		am.appendToUserNodeLog(courseNode, identity, assessedIdentity, "ATTEMPTS set to: " + String.valueOf(attempts));
 
 		// notify about changes
-		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED, assessedIdentity);
+		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED, assessedIdentity, courseNode.getIdent());
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(ace, course);
 
 		// user activity logging
@@ -334,7 +335,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		}
 		assessmentService.updateAssessmentEntry(nodeAssessment);
 		DBFactory.getInstance().commit();
-		userCourseEnv.getScoreAccounting().evaluateAll(true);
+		userCourseEnv.getScoreAccounting().evaluateChanged(Collections.singletonList(courseNode.getIdent()), true);
 		DBFactory.getInstance().commit();
 		if(courseNode instanceof AssessableCourseNode) {
 			// Update users efficiency statement
@@ -342,7 +343,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		}
 		
 		// notify about changes
-		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED, assessedIdentity);
+		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED, assessedIdentity, courseNode.getIdent());
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(ace, course);
 		
 		// user activity logging
@@ -366,7 +367,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		}
 		
 		// notify about changes
-		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED, assessedIdentity);
+		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED, assessedIdentity, courseNode.getIdent());
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(ace, course);
 	}
 	
@@ -380,7 +381,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		}
 		assessmentService.updateAssessmentEntry(nodeAssessment);
 		DBFactory.getInstance().commit();
-		userCourseEnv.getScoreAccounting().evaluateAll(true);
+		userCourseEnv.getScoreAccounting().evaluateChanged(Collections.singletonList(courseNode.getIdent()), true);
 		if(courseNode instanceof AssessableCourseNode) {
 			// Update users efficiency statement
 			efficiencyStatementManager.updateUserEfficiencyStatement(userCourseEnv);
@@ -456,7 +457,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		DBFactory.getInstance().commit();//commit before sending events
 		//reevalute the tree
 		ScoreAccounting scoreAccounting = userCourseEnv.getScoreAccounting();
-		scoreAccounting.evaluateAll(true);
+		scoreAccounting.evaluateChanged(Collections.singletonList(courseNode.getIdent()), true);
 		DBFactory.getInstance().commit();//commit before sending events
 		
 		// node log
@@ -472,7 +473,7 @@ public class CourseAssessmentManagerImpl implements AssessmentManager {
 		}
 		
 		// notify about changes
-		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_SCORE_EVAL_CHANGED, assessedIdentity);
+		AssessmentChangedEvent ace = new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_SCORE_EVAL_CHANGED, assessedIdentity, courseNode.getIdent());
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(ace, course);
 		
 		// user activity logging
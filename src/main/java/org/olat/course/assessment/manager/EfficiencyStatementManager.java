@@ -64,6 +64,7 @@ import org.olat.course.run.environment.CourseEnvironment;
 import org.olat.course.run.userview.UserCourseEnvironment;
 import org.olat.repository.RepositoryEntry;
 import org.olat.repository.RepositoryEntryRef;
+import org.olat.repository.manager.RepositoryEntryMyCourseProjectionDAO;
 import org.olat.repository.model.RepositoryEntryRefImpl;
 import org.olat.resource.OLATResource;
 import org.olat.user.UserDataDeletable;
@@ -97,6 +98,8 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 	private DB dbInstance;
 	@Autowired
 	private UserManager userManager;
+	@Autowired
+	private RepositoryEntryMyCourseProjectionDAO myCourseProjectionDao;
 	
 	private final XStream xstream = XStreamHelper.createXStreamInstance();
 
@@ -130,6 +133,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 		efficiencyProperty.setCourseRepoKey(course.getCourseEnvironment().getCourseGroupManager().getCourseEntry().getKey());
 
 		dbInstance.getCurrentEntityManager().persist(efficiencyProperty);
+		myCourseProjectionDao.updateStatement(identity, resource.getKey(), efficiencyProperty.getKey(), passed, score);
 
 		return efficiencyProperty;
 	}
@@ -213,6 +217,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 				efficiencyProperty.setTitle(courseEnv.getRunStructure().getRootNode().getLongTitle());
 				fillEfficiencyStatement(efficiencyStatement, lastModifications, efficiencyProperty);
 				dbInstance.getCurrentEntityManager().persist(efficiencyProperty);
+				updateMyCourses(assessedIdentity, efficiencyProperty);
 				if (debug) {
 					log.debug("creating new efficiency statement property::" + efficiencyProperty.getKey() + " for id::" + assessedIdentity.getKey() + " repoEntry::" + repoEntry.getKey());
 				}				
@@ -225,6 +230,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 				efficiencyProperty.setTitle(courseEnv.getRunStructure().getRootNode().getLongTitle());
 				fillEfficiencyStatement(efficiencyStatement, lastModifications, efficiencyProperty);
 				dbInstance.getCurrentEntityManager().merge(efficiencyProperty);
+				updateMyCourses(assessedIdentity, efficiencyProperty);
 			}
 		} else {
 			if (efficiencyProperty != null) {
@@ -233,6 +239,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 					log.debug("removing efficiency statement property::" + efficiencyProperty.getKey() + " for id::"	+ assessedIdentity.getKey() + " repoEntry::" + repoEntry.getKey() + " since empty");
 				}
 				dbInstance.getCurrentEntityManager().remove(efficiencyProperty);
+				myCourseProjectionDao.updateStatement(assessedIdentity, repoEntry.getOlatResource().getKey(), null, null, null);
 			}
 			// else nothing to create and nothing to delete
 		}					
@@ -243,6 +250,13 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 		CoordinatorManager.getInstance().getCoordinator().getEventBus().fireEventToListenersOf(ace, courseOres);
 	}
 	
+	private void updateMyCourses(Identity assessedIdentity, UserEfficiencyStatementImpl efficiencyProperty) {
+		if(efficiencyProperty.getResource() != null) {
+			myCourseProjectionDao.updateStatement(assessedIdentity, efficiencyProperty.getResource().getKey(),
+					efficiencyProperty.getKey(), efficiencyProperty.getPassed(), efficiencyProperty.getScore());
+		}
+	}
+	
 	public void fillEfficiencyStatement(EfficiencyStatement efficiencyStatement, AssessmentNodesLastModified lastModifications, UserEfficiencyStatementImpl efficiencyProperty) {
 		if(lastModifications != null) {
 			if(lastModifications.getLastUserModified() != null
@@ -752,6 +766,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 			for(UserEfficiencyStatementImpl statement:statements) {
 				dbInstance.deleteObject(statement);
 			}
+			myCourseProjectionDao.removeStatements(courseRepoEntryKey);
 		} catch (Exception e) {
 			log.error("deleteEfficiencyStatementsFromCourse: " + courseRepoEntryKey, e);
 		}
@@ -767,6 +782,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 		UserEfficiencyStatement s = getUserEfficiencyStatementLightByRepositoryEntry(ref, identity);
 		if(s != null) {
 			dbInstance.getCurrentEntityManager().remove(s);
+			myCourseProjectionDao.markStale(identity);
 		}
 	}
 	
@@ -776,6 +792,9 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 	 */
 	public void deleteEfficiencyStatement(UserEfficiencyStatementLight efficiencyStatement) {
 		dbInstance.getCurrentEntityManager().remove(efficiencyStatement);
+		if(efficiencyStatement.getResource() != null) {
+			myCourseProjectionDao.updateStatement(efficiencyStatement.getIdentity(), efficiencyStatement.getResource().getKey(), null, null, null);
+		}
 	}
 
 	/**
@@ -850,6 +869,7 @@ public class EfficiencyStatementManager implements UserDataDeletable, UserDataEx
 					.setParameter("identityKey", identity.getKey())
 					.executeUpdate();
 			
+			myCourseProjectionDao.markStale(identity);
 			if(log.isDebug()) log.debug(numOfDeletedStatements + " efficiency statements deleted for identity=" + identity);
 		} catch (Exception e) {
 			log.error("deleteUserData(EfficiencyStatements): " + identity, e);
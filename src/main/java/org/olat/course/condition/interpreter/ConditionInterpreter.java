@@ -28,6 +28,8 @@ package org.olat.course.condition.interpreter;
 import java.lang.reflect.Field;
 import java.text.ParseException;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.olat.core.gui.translator.Translator;
 import org.olat.core.logging.AssertException;
@@ -71,6 +73,13 @@ public class ConditionInterpreter {
 	protected Environment env;
 	protected Translator translator;
 	protected UserCourseEnvironment uce;
+	/**
+	 * The parsed expressions are bound to the functions of this environment,
+	 * they can be reused for every evaluation with the same user course environment.
+	 */
+	private final Map<String,Expression> expressionCache = new ConcurrentHashMap<>();
+	protected final InLearningGroupFunction inGroupFunction;
+	protected final InLearningGroupFunction inLearningGroupFunction;
 
 	/**
 	 * ConditionInterpreter interpretes course conditions.
@@ -99,8 +108,10 @@ public class ConditionInterpreter {
 
 		// functions
 		env.addFunction(DateFunction.name, new DateFunction(userCourseEnv));
-		env.addFunction("inGroup", new InLearningGroupFunction(userCourseEnv, "inGroup")); // legacy
-		env.addFunction("inLearningGroup", new InLearningGroupFunction(userCourseEnv, "inLearningGroup"));
+		inGroupFunction = new InLearningGroupFunction(userCourseEnv, "inGroup");
+		env.addFunction("inGroup", inGroupFunction); // legacy
+		inLearningGroupFunction = new InLearningGroupFunction(userCourseEnv, "inLearningGroup");
+		env.addFunction("inLearningGroup", inLearningGroupFunction);
 		env.addFunction("isLearningGroupFull", new IsLearningGroupFullFunction(userCourseEnv));
 		env.addFunction(InRightGroupFunction.name, new InRightGroupFunction(userCourseEnv));
 		env.addFunction(InLearningAreaFunction.name, new InLearningAreaFunction(userCourseEnv));
@@ -307,8 +318,6 @@ public class ConditionInterpreter {
 	public boolean evaluateCondition(String condition) {
 		boolean ok = false;
 		try {
-			// TODO: lookup in Map: key = c -> cached Expression
-			// if not null then: ok = evaluateCondition(Expression cachedExpression)
 			ok = doEvaluateCondition(condition);
 		} catch (ParseException e) {
 			log.error("ParseException in evaluateCondition:" + condition, e);
@@ -336,8 +345,7 @@ public class ConditionInterpreter {
 
 	private float doEvaluateCalculation(String calculation) throws ParseException {
 		try {
-			Expression exp = new Expression(calculation, env);
-			Object result = exp.evaluate();
+			Object result = evaluateCachedExpression(calculation);
 			if (result instanceof Double) {
 				return ((Double) result).floatValue();
 			} else if (result instanceof Integer) {
@@ -369,8 +377,7 @@ public class ConditionInterpreter {
 	 */
 	private boolean doEvaluateCondition(String condition) throws ParseException {
 		try {
-			Expression exp = new Expression(condition, env);
-			Object result = exp.evaluate();
+			Object result = evaluateCachedExpression(condition);
 			if (result instanceof Double) {
 				return (((Double) result).doubleValue() == 1.0) ? true : false;
 			} else if (result instanceof Integer) {
@@ -380,4 +387,35 @@ public class ConditionInterpreter {
 			throw new ParseException("Parse exception for condition: " + condition + ". " + xe.getMessage(), xe.getPosition());
 		}
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Parse the expression only once per environment and evaluate it. The
+	 * functions are called at every evaluation, the parsed tree is reused.
+	 * The editor environment is never cached because the functions push
+	 * their errors during the parsing. The group names resolved by the
+	 * functions are forgotten after the evaluation.
+	 * 
+	 * @param expression The expression
+	 * @return The result of the evaluation
+	 * @throws XExpression
+	 */
+	private Object evaluateCachedExpression(String expression) throws XExpression {
+		try {
+			if(uce.getCourseEditorEnv() != null || expression == null) {
+				return new Expression(expression, env).evaluate();
+			}
+	
+			Expression exp = expressionCache.get(expression);
+			if(exp == null) {
+				exp = new Expression(expression, env);
+				expressionCache.put(expression, exp);
+			}
+			synchronized(exp) {// the evaluation stack of the expression is not thread safe
+				return exp.evaluate();
+			}
+		} finally {
+			inGroupFunction.clearGroupKeys();
+			inLearningGroupFunction.clearGroupKeys();
+		}
+	}
+}
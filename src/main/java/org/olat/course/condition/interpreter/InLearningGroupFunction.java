@@ -26,6 +26,8 @@
 package org.olat.course.condition.interpreter;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.id.Identity;
@@ -46,6 +48,12 @@ public class InLearningGroupFunction extends AbstractFunction {
 	private static final OLog log = Tracing.createLoggerFor(InLearningGroupFunction.class);
 	
 	public final String name;
+	/**
+	 * Resolution of the group names to the group keys during one evaluation,
+	 * the memberships are always checked. The ConditionInterpreter clears it
+	 * after every evaluation, renamed or new groups are seen immediately.
+	 */
+	private final Map<String,List<Long>> groupNamesToKeys = new ConcurrentHashMap<>();
 
 	/**
 	 * @param userCourseEnv
@@ -98,7 +106,11 @@ public class InLearningGroupFunction extends AbstractFunction {
 		}
 
 		CourseGroupManager cgm = getUserCourseEnv().getCourseEnvironment().getCourseGroupManager();
-		List<Long> groupKeys = CoreSpringFactory.getImpl(BusinessGroupService.class).toGroupKeys(groupName, cgm.getCourseEntry());
+		List<Long> groupKeys = groupNamesToKeys.get(groupName);
+		if(groupKeys == null) {
+			groupKeys = CoreSpringFactory.getImpl(BusinessGroupService.class).toGroupKeys(groupName, cgm.getCourseEntry());
+			groupNamesToKeys.put(groupName, groupKeys);
+		}
 		if(!groupKeys.isEmpty()) {
 			Identity ident = getUserCourseEnv().getIdentityEnvironment().getIdentity();
 			return cgm.isIdentityInGroup(ident, groupKeys.get(0)) ? ConditionInterpreter.INT_TRUE: ConditionInterpreter.INT_FALSE;
@@ -106,6 +118,10 @@ public class InLearningGroupFunction extends AbstractFunction {
 		return ConditionInterpreter.INT_FALSE;
 	}
 
+	void clearGroupKeys() {
+		groupNamesToKeys.clear();
+	}
+
 	@Override
 	protected Object defaultValue() {
 		return ConditionInterpreter.INT_TRUE;
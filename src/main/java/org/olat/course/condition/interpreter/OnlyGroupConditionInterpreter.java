@@ -63,8 +63,8 @@ public class OnlyGroupConditionInterpreter extends ConditionInterpreter{
 
 		// functions
 		env.addFunction(DateFunction.name, new DummyDateFunction(userCourseEnv));
-		env.addFunction("inGroup", new InLearningGroupFunction(userCourseEnv, "inGroup")); // legacy
-		env.addFunction("inLearningGroup", new InLearningGroupFunction(userCourseEnv, "inLearningGroup"));
+		env.addFunction("inGroup", inGroupFunction); // legacy
+		env.addFunction("inLearningGroup", inLearningGroupFunction);
 		env.addFunction(InRightGroupFunction.name, new InRightGroupFunction(userCourseEnv));
 		env.addFunction(InLearningAreaFunction.name, new InLearningAreaFunction(userCourseEnv));
 		env.addFunction(IsUserFunction.name, new DummyBooleanFunction(userCourseEnv));
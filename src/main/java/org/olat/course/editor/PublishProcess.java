@@ -84,6 +84,8 @@ import org.olat.resource.accesscontrol.Offer;
 import org.olat.resource.accesscontrol.OfferAccess;
 import org.olat.resource.references.Reference;
 import org.olat.resource.references.ReferenceManager;
+import org.olat.search.service.document.RepositoryEntryDocument;
+import org.olat.search.service.indexer.LifeFullIndexer;
 import org.olat.user.UserManager;
 
 /**
@@ -521,6 +523,8 @@ public class PublishProcess {
 		// CourseFactory is one listener, which removes the course from the
 		// cache.
 		orec.fireEventToListenersOf(publishEvent, course);
+		// update the course in the search index
+		CoreSpringFactory.getImpl(LifeFullIndexer.class).indexDocument(RepositoryEntryDocument.TYPE, repositoryEntry.getKey());
 		/*
 		 * END NEW STYLE PUBLISH
 		 */
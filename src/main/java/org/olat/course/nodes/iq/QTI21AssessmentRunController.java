@@ -83,6 +83,8 @@ import org.olat.ims.qti21.QTI21AssessmentResultsOptions;
 import org.olat.ims.qti21.QTI21DeliveryOptions;
 import org.olat.ims.qti21.QTI21LoggingAction;
 import org.olat.ims.qti21.QTI21Service;
+import org.olat.ims.qti21.manager.AssessmentTestLaunchThrottle;
+import org.olat.ims.qti21.manager.AssessmentTestLaunchThrottle.Ticket;
 import org.olat.ims.qti21.model.DigitalSignatureOptions;
 import org.olat.ims.qti21.ui.AssessmentResultController;
 import org.olat.ims.qti21.ui.AssessmentTestDisplayController;
@@ -138,9 +140,13 @@ public class QTI21AssessmentRunController extends BasicController implements Gen
 	private AssessmentTestDisplayController displayCtrl;
 	private QTI21AssessmentMainLayoutController displayContainerController;
 	
+	private Ticket launchTicket;
+	
 	@Autowired
 	private QTI21Service qtiService;
 	@Autowired
+	private AssessmentTestLaunchThrottle launchThrottle;
+	@Autowired
 	private CourseModule courseModule;
 	@Autowired
 	private CoordinatorManager coordinatorManager;
@@ -468,6 +474,10 @@ public class QTI21AssessmentRunController extends BasicController implements Gen
 	
 	@Override
 	protected void doDispose() {
+		if(launchTicket != null) {
+			launchThrottle.cancel(launchTicket);
+			launchTicket = null;
+		}
 		if (assessmentType) {
 			singleUserEventCenter.deregisterFor(this, assessmentInstanceOres);
 			singleUserEventCenter.deregisterFor(this, InstantMessagingService.TOWER_EVENT_ORES);
@@ -491,8 +501,10 @@ public class QTI21AssessmentRunController extends BasicController implements Gen
 	@Override
 	protected void event(UserRequest ureq, Component source, Event event) {
 		if(startButton == source && startButton.isEnabled() && startButton.isVisible()) {
-			doStart(ureq);
-		}else if(source == showResultsButton) {			
+			doRequestStart(ureq);
+		} else if("launch".equals(event.getCommand()) && launchTicket != null) {
+			doRequestStart(ureq);
+		} else if(source == showResultsButton) {			
 			doShowResults(ureq);
 		} else if (source == hideResultsButton) {
 			doHideResults(ureq);
@@ -611,6 +623,31 @@ public class QTI21AssessmentRunController extends BasicController implements Gen
 		ureq.getDispatchResult().setResultingMediaResource(resource);
 	}
 
+	/**
+	 * The launches during an assessment mode are smoothed by the throttle,
+	 * the candidate sees a waiting message which polls until the ticket
+	 * is admitted.
+	 */
+	private void doRequestStart(UserRequest ureq) {
+		if(launchTicket == null && userSession.isInAssessmentModeProcess()) {
+			launchTicket = launchThrottle.reserveTicket();
+		}
+		
+		if(launchTicket == null) {
+			doStart(ureq);
+		} else if(launchThrottle.isAdmitted(launchTicket)) {
+			long launchStart = launchThrottle.admitted(launchTicket);
+			launchTicket = null;
+			mainVC.contextRemove("launchWaiting");
+			doStart(ureq);
+			launchThrottle.launched(launchStart);
+		} else {
+			long wait = launchThrottle.getRemainingWait(launchTicket);
+			mainVC.contextPut("launchWaiting", Boolean.TRUE);
+			mainVC.contextPut("launchPoll", Long.toString(Math.min(5000l, Math.max(500l, wait))));
+		}
+	}
+
 	private void doStart(UserRequest ureq) {
 		removeAsListenerAndDispose(displayCtrl);
 
@@ -27,6 +27,7 @@ package org.olat.course.run;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -133,6 +134,8 @@ public class RunMainController extends MainLayoutBasicController implements Gene
 	private boolean needsRebuildAfterPublish = false;
 	private boolean needsRebuildAfterRunDone = false;
 	private boolean assessmentChangedEventReceived = false;
+	/** The course nodes changed by the assessment events, null if unknown */
+	private Set<String> assessmentChangedNodeIdents = new HashSet<>();
 	
 	private String courseTitle;
 	private Link nextLink, previousLink;
@@ -652,8 +655,9 @@ public class RunMainController extends MainLayoutBasicController implements Gene
 	
 	private void doNodeClick(UserRequest ureq, TreeEvent tev) {
 		if(assessmentChangedEventReceived) {
-			uce.getScoreAccounting().evaluateAll();
+			uce.getScoreAccounting().evaluateChanged(assessmentChangedNodeIdents, false);
 			assessmentChangedEventReceived = false;
+			assessmentChangedNodeIdents = new HashSet<>();
 		}
 		
 		// goto node:
@@ -751,7 +755,13 @@ public class RunMainController extends MainLayoutBasicController implements Gene
 						|| assessmentChangeType.equals(AssessmentChangedEvent.TYPE_ATTEMPTS_CHANGED)) {
 					//LD: do not recalculate the score now, but at the next click, since the event comes before DB commit
 					//uce.getScoreAccounting().evaluateAll(); 
-					assessmentChangedEventReceived = true;										
+					assessmentChangedEventReceived = true;
+					if(ace.getCourseNodeIdent() == null) {
+						// unknown node, evaluate the whole course
+						assessmentChangedNodeIdents = null;
+					} else if(assessmentChangedNodeIdents != null) {
+						assessmentChangedNodeIdents.add(ace.getCourseNodeIdent());
+					}										
 				}
 				// raise a flag to indicate refresh
 				needsRebuildAfterRunDone = true;
@@ -26,10 +26,19 @@
 package org.olat.course.run.scoring;
 
 import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.hibernate.LazyInitializationException;
 import org.olat.core.CoreSpringFactory;
@@ -39,6 +48,8 @@ import org.olat.core.logging.Tracing;
 import org.olat.core.util.nodes.INode;
 import org.olat.core.util.tree.TreeVisitor;
 import org.olat.core.util.tree.Visitor;
+import org.olat.course.Structure;
+import org.olat.course.assessment.AssessmentManager;
 import org.olat.course.condition.interpreter.ConditionInterpreter;
 import org.olat.course.groupsandrights.CourseGroupManager;
 import org.olat.course.nodes.AssessableCourseNode;
@@ -64,10 +75,17 @@ import org.olat.repository.model.RepositoryEntryLifecycle;
 public class ScoreAccounting {
 	
 	private static final OLog log = Tracing.createLoggerFor(ScoreAccounting.class);
+	private static final Pattern QUOTED_IDENT_PATTERN = Pattern.compile("\"([^\"]+)\"");
 
 	private boolean error;
 	private final UserCourseEnvironment userCourseEnvironment;
 	private final Map<AssessableCourseNode, AssessmentEvaluation> cachedScoreEvals = new HashMap<>();
+	/**
+	 * Node ident to the calculated nodes which use the score, passed or dates
+	 * of this node. Lazy built, the run structure doesn't change during the
+	 * life of the user course environment.
+	 */
+	private Map<String,Set<CalculatedAssessableCourseNode>> dependentNodes;
 
 	/**
 	 * Constructor of the user score accounting object
@@ -114,6 +132,121 @@ public class ScoreAccounting {
 		return visitor.hasChanges();
 	}
 	
+	/**
+	 * Re-evaluate only the specified course nodes and the calculated nodes
+	 * which depend on them (parents for the last modifications, and every node
+	 * referencing them in its score or passed expression) instead of the whole
+	 * course. If the score accounting wasn't evaluated before, it falls back to
+	 * a full evaluation.
+	 * 
+	 * @param changedNodeIdents The identifiers of the course nodes whose assessment entry changed
+	 * @param update true to recalculate and persist the calculated nodes
+	 * @return true if some assessment entries were changed
+	 */
+	public boolean evaluateChanged(Collection<String> changedNodeIdents, boolean update) {
+		if(cachedScoreEvals.isEmpty() || changedNodeIdents == null || changedNodeIdents.isEmpty()) {
+			return evaluateAll(update);
+		}
+		
+		Structure runStructure = userCourseEnvironment.getCourseEnvironment().getRunStructure();
+		Set<AssessableCourseNode> affectedNodes = new HashSet<>();
+		Deque<String> identsToProcess = new ArrayDeque<>(changedNodeIdents);
+		Map<String,Set<CalculatedAssessableCourseNode>> dependencies = getDependentNodes();
+		while(!identsToProcess.isEmpty()) {
+			String ident = identsToProcess.poll();
+			CourseNode node = runStructure.getNode(ident);
+			if(node instanceof AssessableCourseNode && affectedNodes.add((AssessableCourseNode)node)) {
+				Set<CalculatedAssessableCourseNode> dependents = dependencies.get(ident);
+				if(dependents != null) {
+					for(CalculatedAssessableCourseNode dependent:dependents) {
+						identsToProcess.add(dependent.getIdent());
+					}
+				}
+			}
+		}
+		if(affectedNodes.isEmpty()) {
+			return false;
+		}
+		
+		Identity identity = userCourseEnvironment.getIdentityEnvironment().getIdentity();
+		AssessmentManager assessmentManager = userCourseEnvironment.getCourseEnvironment().getAssessmentManager();
+		List<AssessmentEntry> entries = new ArrayList<>(affectedNodes.size());
+		for(AssessableCourseNode affectedNode:affectedNodes) {
+			AssessmentEntry entry = assessmentManager.getAssessmentEntry(affectedNode, identity);
+			if(entry != null) {
+				entries.add(entry);
+			}
+			cachedScoreEvals.remove(affectedNode);
+		}
+
+		// same order as the full evaluation, depth first
+		AssessableTreeVisitor visitor = new AssessableTreeVisitor(entries, update);
+		List<AssessableCourseNode> orderedNodes = new ArrayList<>(affectedNodes.size());
+		new TreeVisitor(node -> {
+			if(affectedNodes.contains(node)) {
+				orderedNodes.add((AssessableCourseNode)node);
+			}
+		}, runStructure.getRootNode(), true).visitAll();
+		for(AssessableCourseNode orderedNode:orderedNodes) {
+			visitor.evalCourseNode(orderedNode);
+		}
+		return visitor.hasChanges();
+	}
+	
+	private Map<String,Set<CalculatedAssessableCourseNode>> getDependentNodes() {
+		if(dependentNodes == null) {
+			Map<String,Set<CalculatedAssessableCourseNode>> dependencies = new HashMap<>();
+			CourseNode root = userCourseEnvironment.getCourseEnvironment().getRunStructure().getRootNode();
+			new TreeVisitor(node -> {
+				if(node instanceof CalculatedAssessableCourseNode) {
+					CalculatedAssessableCourseNode calculatedNode = (CalculatedAssessableCourseNode)node;
+					// the last modifications are aggregated from the descendants
+					for(int i=node.getChildCount(); i-->0; ) {
+						collectDescendants((CourseNode)node.getChildAt(i), calculatedNode, dependencies);
+					}
+					ScoreCalculator scoreCalculator = calculatedNode.getScoreCalculator();
+					if(scoreCalculator != null) {
+						collectReferences(scoreCalculator.getScoreExpression(), calculatedNode, dependencies);
+						collectReferences(scoreCalculator.getPassedExpression(), calculatedNode, dependencies);
+					}
+				}
+			}, root, true).visitAll();
+			dependentNodes = dependencies;
+		}
+		return dependentNodes;
+	}
+	
+	private void collectDescendants(CourseNode node, CalculatedAssessableCourseNode calculatedNode,
+			Map<String,Set<CalculatedAssessableCourseNode>> dependencies) {
+		addDependency(node.getIdent(), calculatedNode, dependencies);
+		for(int i=node.getChildCount(); i-->0; ) {
+			collectDescendants((CourseNode)node.getChildAt(i), calculatedNode, dependencies);
+		}
+	}
+	
+	private void collectReferences(String expression, CalculatedAssessableCourseNode calculatedNode,
+			Map<String,Set<CalculatedAssessableCourseNode>> dependencies) {
+		if(expression == null) return;
+		
+		// getScore("ident"), getPassed("ident"), getAttempts("ident")...
+		Matcher matcher = QUOTED_IDENT_PATTERN.matcher(expression);
+		while(matcher.find()) {
+			addDependency(matcher.group(1), calculatedNode, dependencies);
+		}
+	}
+	
+	private void addDependency(String ident, CalculatedAssessableCourseNode calculatedNode,
+			Map<String,Set<CalculatedAssessableCourseNode>> dependencies) {
+		if(ident.equals(calculatedNode.getIdent())) return;
+		
+		Set<CalculatedAssessableCourseNode> dependents = dependencies.get(ident);
+		if(dependents == null) {
+			dependents = new LinkedHashSet<>();
+			dependencies.put(ident, dependents);
+		}
+		dependents.add(calculatedNode);
+	}
+	
 	private class AssessableTreeVisitor implements Visitor {
 		
 		private final boolean update;
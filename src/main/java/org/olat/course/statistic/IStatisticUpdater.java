@@ -55,5 +55,17 @@ public interface IStatisticUpdater {
 	 * callbacks and utility functions such as access to the lastUpdated property
 	 */
 	void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager);
+	
+	/**
+	 * Rebuild the statistics of a single course. The default implementation
+	 * does nothing.
+	 * 
+	 * @param repositoryEntryKey the primary key of the repository entry of the course
+	 * @param resourceableId the resourceable id of the course
+	 * @param statisticUpdateManager the StatisticUpdateManager
+	 */
+	default void rebuildStatistic(Long repositoryEntryKey, Long resourceableId, StatisticUpdateManager statisticUpdateManager) {
+		//
+	}
 
 }
@@ -0,0 +1,571 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course.statistic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Maintains the daily, weekly, day of week and hour of day rollups
+ * (o_stat_daily, o_stat_weekly, o_stat_dayofweek and o_stat_hourofday)
+ * incrementally. The "launch node" rows of the o_loggingtable are read
+ * in small batches ordered by creation date and log key, aggregated
+ * in memory and added to the rollups with an update, or an insert if
+ * the row doesn't exist yet. Every batch is committed together with
+ * its watermark (the creation date and the key of the last consumed
+ * logging row) in o_stat_lastupdated, an interrupted update resumes
+ * where it stopped.
+ * <p>
+ * The key of the logging table alone cannot be used as watermark, it's
+ * generated by a hilo generator and not monotonic in a cluster.
+ * <p>
+ * This implementation takes the following properties (via spring):
+ * <ul>
+ *  <li>jdbcTemplate: the JdbcTemplate used to access the o_loggingtable
+ *  and the o_stat_* tables</li>
+ *  <li>dbVendor: the database vendor, the format of the week differs between
+ *  the vendors</li>
+ *  <li>batchSize: the number of logging rows aggregated in one transaction</li>
+ *  <li>delay: the number of seconds the update stays behind the current time
+ *  to not miss the logging rows which are committed late</li>
+ * </ul>
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class IncrementalStatisticUpdater implements IStatisticUpdater {
+
+	/** the logging object used in this class **/
+	private static final OLog log = Tracing.createLoggerFor(IncrementalStatisticUpdater.class);
+	
+	private static final String LOGGING_QUERY = "select log_id, creationdate, businesspath from o_loggingtable"
+			+ " where actionverb='launch' and actionobject='node' and businesspath is not null";
+	
+	private static final String DAILY = "o_stat_daily";
+	private static final String WEEKLY = "o_stat_weekly";
+	private static final String DAY_OF_WEEK = "o_stat_dayofweek";
+	private static final String HOUR_OF_DAY = "o_stat_hourofday";
+	
+	private JdbcTemplate jdbcTemplate;
+	private String dbVendor;
+	private int batchSize = 5000;
+	private int delay = 300;
+	
+	/** set via spring **/
+	public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+	
+	/** set via spring **/
+	public void setDbVendor(String dbVendor) {
+		this.dbVendor = dbVendor;
+	}
+
+	/** set via spring **/
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/** set via spring **/
+	public void setDelay(int delay) {
+		this.delay = delay;
+	}
+
+	@Override
+	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
+		log.info("updateStatistic: START from " + from + " until " + until);
+		final long startTime = System.currentTimeMillis();
+		int numOfRows = 0;
+		try {
+			Date upperBound = until;
+			if(delay > 0 && upperBound.getTime() > startTime - (delay * 1000l)) {
+				upperBound = new Date(startTime - (delay * 1000l));
+			}
+			
+			Watermark watermark;
+			if(fullRecalculation) {
+				deleteStatistics();
+				watermark = null;
+			} else {
+				watermark = loadWatermark();
+			}
+			// resume an interrupted update, else start at the date given by the manager
+			if(watermark == null || watermark.getCreationDate().after(from)) {
+				watermark = new Watermark(from, Long.MAX_VALUE);
+			}
+			
+			List<LoggingRow> rows;
+			do {
+				rows = loadLoggingRows(watermark, upperBound);
+				if(!rows.isEmpty()) {
+					LoggingRow lastRow = rows.get(rows.size() - 1);
+					watermark = new Watermark(lastRow.getCreationDate(), lastRow.getKey());
+					saveStatistics(aggregate(rows, null), watermark);
+					numOfRows += rows.size();
+				}
+			} while(rows.size() >= batchSize);
+			
+			if(watermark.getCreationDate().before(upperBound)) {
+				saveStatistics(new Deltas(), new Watermark(upperBound, Long.MAX_VALUE));
+			}
+		} catch(RuntimeException e) {
+			log.error("updateStatistic: RuntimeException while updating the statistics: " + e, e);
+		} finally {
+			final long diff = System.currentTimeMillis() - startTime;
+			log.info("updateStatistic: END. logging rows=" + numOfRows + " duration=" + diff + " milliseconds");
+		}
+	}
+	
+	/**
+	 * Delete the statistics of the course and aggregate them again from the
+	 * logging table, up to the watermark of the incremental update. All is done
+	 * in one transaction to not show partial statistics.
+	 */
+	@Override
+	public void rebuildStatistic(Long repositoryEntryKey, Long resourceableId, StatisticUpdateManager statisticUpdateManager) {
+		log.info("rebuildStatistic: START repository entry " + repositoryEntryKey);
+		final long startTime = System.currentTimeMillis();
+		try {
+			Watermark watermark = loadWatermark();
+			if(watermark == null) {
+				long lastUpdated = statisticUpdateManager.getLastUpdated();
+				if(lastUpdated > 0) {
+					watermark = new Watermark(new Date(lastUpdated), Long.MAX_VALUE);
+				}
+			}
+			final Watermark upperBound = watermark;
+			int numOfRows = jdbcTemplate.execute((ConnectionCallback<Integer>)connection
+					-> rebuildStatistic(connection, repositoryEntryKey, resourceableId, upperBound));
+			log.info("rebuildStatistic: repository entry " + repositoryEntryKey + " logging rows=" + numOfRows);
+		} catch(RuntimeException e) {
+			log.error("rebuildStatistic: RuntimeException while rebuilding the statistics: " + e, e);
+		} finally {
+			final long diff = System.currentTimeMillis() - startTime;
+			log.info("rebuildStatistic: END. duration=" + diff + " milliseconds");
+		}
+	}
+	
+	private int rebuildStatistic(Connection connection, Long repositoryEntryKey, Long resourceableId, Watermark upperBound)
+	throws SQLException {
+		int numOfRows = 0;
+		boolean autoCommit = connection.getAutoCommit();
+		try {
+			connection.setAutoCommit(false);
+			for(String table:new String[]{ DAILY, WEEKLY, DAY_OF_WEEK, HOUR_OF_DAY }) {
+				try(PreparedStatement statement = connection.prepareStatement("delete from " + table + " where resid=?")) {
+					statement.setLong(1, repositoryEntryKey);
+					statement.executeUpdate();
+				}
+			}
+			
+			if(upperBound != null) {
+				// the logging rows of the course are found with the indexes on the resource ids
+				String query = LOGGING_QUERY
+						+ " and (parentresid=? or grandparentresid=? or greatgrandparentresid=?) and log_id>?"
+						+ " and (creationdate<? or (creationdate=? and log_id<=?))"
+						+ " order by log_id";
+				String resId = resourceableId.toString();
+				Timestamp upperDate = new Timestamp(upperBound.getCreationDate().getTime());
+				
+				long lastKey = -1l;
+				List<LoggingRow> rows;
+				do {
+					try(PreparedStatement statement = connection.prepareStatement(query)) {
+						statement.setMaxRows(batchSize);
+						statement.setFetchSize(batchSize);
+						statement.setString(1, resId);
+						statement.setString(2, resId);
+						statement.setString(3, resId);
+						statement.setLong(4, lastKey);
+						statement.setTimestamp(5, upperDate);
+						statement.setTimestamp(6, upperDate);
+						statement.setLong(7, upperBound.getKey());
+						rows = toLoggingRows(statement.executeQuery());
+					}
+					
+					if(!rows.isEmpty()) {
+						lastKey = rows.get(rows.size() - 1).getKey();
+						Deltas deltas = aggregate(rows, repositoryEntryKey);
+						upsert(connection, deltas);
+						numOfRows += rows.size();
+					}
+				} while(rows.size() >= batchSize);
+			}
+			connection.commit();
+		} catch(SQLException | RuntimeException e) {
+			connection.rollback();
+			throw e;
+		} finally {
+			connection.setAutoCommit(autoCommit);
+		}
+		return numOfRows;
+	}
+	
+	private void deleteStatistics() {
+		jdbcTemplate.execute((ConnectionCallback<Void>)connection -> {
+			boolean autoCommit = connection.getAutoCommit();
+			try {
+				connection.setAutoCommit(false);
+				for(String table:new String[]{ DAILY, WEEKLY, DAY_OF_WEEK, HOUR_OF_DAY }) {
+					try(PreparedStatement statement = connection.prepareStatement("delete from " + table)) {
+						statement.executeUpdate();
+					}
+				}
+				try(PreparedStatement statement = connection.prepareStatement("update o_stat_lastupdated set lastlogkey=null")) {
+					statement.executeUpdate();
+				}
+				connection.commit();
+			} catch(SQLException | RuntimeException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+			return null;
+		});
+	}
+	
+	private Watermark loadWatermark() {
+		List<Watermark> watermarks = jdbcTemplate.query("select lastupdated, lastlogkey from o_stat_lastupdated", (rs, rowNum) -> {
+			Timestamp lastUpdated = rs.getTimestamp(1);
+			long lastKey = rs.getLong(2);
+			return rs.wasNull() || lastUpdated == null ? null : new Watermark(lastUpdated, lastKey);
+		});
+		return watermarks.isEmpty() ? null : watermarks.get(0);
+	}
+	
+	private List<LoggingRow> loadLoggingRows(Watermark watermark, Date upperBound) {
+		final String query = LOGGING_QUERY
+				+ " and creationdate>=? and creationdate<=?"
+				+ " and (creationdate>? or (creationdate=? and log_id>?))"
+				+ " order by creationdate, log_id";
+		final Timestamp lowerDate = new Timestamp(watermark.getCreationDate().getTime());
+		final Timestamp upperDate = new Timestamp(upperBound.getTime());
+		return jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(query);
+			statement.setMaxRows(batchSize);
+			statement.setFetchSize(batchSize);
+			statement.setTimestamp(1, lowerDate);
+			statement.setTimestamp(2, upperDate);
+			statement.setTimestamp(3, lowerDate);
+			statement.setTimestamp(4, lowerDate);
+			statement.setLong(5, watermark.getKey());
+			return statement;
+		}, this::toLoggingRows);
+	}
+	
+	private List<LoggingRow> toLoggingRows(ResultSet rs) throws SQLException {
+		List<LoggingRow> rows = new ArrayList<>(batchSize);
+		try {
+			while(rs.next()) {
+				rows.add(new LoggingRow(rs.getLong(1), rs.getTimestamp(2), rs.getString(3)));
+			}
+		} finally {
+			rs.close();
+		}
+		return rows;
+	}
+	
+	/**
+	 * @param rows The logging rows
+	 * @param repositoryEntryKey If not null, only the rows of this repository entry are aggregated
+	 * @return The deltas to add to the statistics
+	 */
+	private Deltas aggregate(List<LoggingRow> rows, Long repositoryEntryKey) {
+		Deltas deltas = new Deltas();
+		for(LoggingRow row:rows) {
+			Long resId = getResId(row.getBusinessPath());
+			if(resId == null || row.getCreationDate() == null
+					|| (repositoryEntryKey != null && !repositoryEntryKey.equals(resId))) {
+				continue;
+			}
+
+			LocalDateTime date = row.getCreationDate().toLocalDateTime();
+			String businessPath = row.getBusinessPath();
+			deltas.add(DAILY, businessPath, resId, Timestamp.valueOf(date.toLocalDate().atStartOfDay()));
+			deltas.add(WEEKLY, businessPath, resId, getWeek(date));
+			// 1 = sunday, 7 = saturday as the dayofweek() function of MySQL
+			deltas.add(DAY_OF_WEEK, businessPath, resId, Integer.valueOf((date.getDayOfWeek().getValue() % 7) + 1));
+			deltas.add(HOUR_OF_DAY, businessPath, resId, Integer.valueOf(date.getHour()));
+		}
+		return deltas;
+	}
+	
+	/**
+	 * The resource id is the part of the business path between the
+	 * first ':' and the first ']'.
+	 * 
+	 * @param businessPath The business path
+	 * @return The resource id or null if the business path doesn't have one
+	 */
+	protected static Long getResId(String businessPath) {
+		if(businessPath == null) return null;
+		
+		int start = businessPath.indexOf(':');
+		int end = businessPath.indexOf(']');
+		if(start < 0 || end <= start + 1) return null;
+		
+		try {
+			return Long.valueOf(businessPath.substring(start + 1, end));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * The format of the week is the one of the SQL statements previously
+	 * used to calculate the statistics: the ISO week with the calendar year
+	 * padded for MySQL and not padded for PostgreSQL, the ISO week with the
+	 * ISO year for Oracle.
+	 * 
+	 * @param date The date
+	 * @return The week as saved in o_stat_weekly
+	 */
+	protected String getWeek(LocalDateTime date) {
+		int week = date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR);
+		String paddedWeek = week < 10 ? "0" + week : Integer.toString(week);
+		if("oracle".equals(dbVendor)) {
+			return date.get(IsoFields.WEEK_BASED_YEAR) + "-" + paddedWeek;
+		} else if("mysql".equals(dbVendor)) {
+			return date.getYear() + "-" + paddedWeek;
+		}
+		return date.getYear() + "-" + week;
+	}
+	
+	private void saveStatistics(Deltas deltas, Watermark watermark) {
+		jdbcTemplate.execute((ConnectionCallback<Void>)connection -> {
+			boolean autoCommit = connection.getAutoCommit();
+			try {
+				connection.setAutoCommit(false);
+				upsert(connection, deltas);
+				saveWatermark(connection, watermark);
+				connection.commit();
+			} catch(SQLException | RuntimeException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(autoCommit);
+			}
+			return null;
+		});
+	}
+	
+	/**
+	 * Update the watermark or insert it if the row is missing, the statistics
+	 * and the watermark are committed together.
+	 */
+	private void saveWatermark(Connection connection, Watermark watermark) throws SQLException {
+		Timestamp lastUpdated = new Timestamp(watermark.getCreationDate().getTime());
+		int updated;
+		try(PreparedStatement statement = connection.prepareStatement("update o_stat_lastupdated set lastupdated=?, lastlogkey=?")) {
+			statement.setTimestamp(1, lastUpdated);
+			statement.setLong(2, watermark.getKey());
+			updated = statement.executeUpdate();
+		}
+		
+		if(updated == 0) {
+			log.warn("The row of o_stat_lastupdated is missing, insert it");
+			String insert = "oracle".equals(dbVendor)
+					? "insert into o_stat_lastupdated (lastupdated, lastlogkey, from_datetime, until_datetime) values (?, ?, ?, ?)"
+					: "insert into o_stat_lastupdated (lastupdated, lastlogkey) values (?, ?)";
+			try(PreparedStatement statement = connection.prepareStatement(insert)) {
+				statement.setTimestamp(1, lastUpdated);
+				statement.setLong(2, watermark.getKey());
+				if("oracle".equals(dbVendor)) {
+					statement.setTimestamp(3, lastUpdated);
+					statement.setTimestamp(4, lastUpdated);
+				}
+				if(statement.executeUpdate() != 1) {
+					throw new SQLException("Cannot save the watermark of the statistics in o_stat_lastupdated");
+				}
+			}
+		}
+	}
+	
+	private void upsert(Connection connection, Deltas deltas) throws SQLException {
+		upsert(connection, DAILY, "day", Types.TIMESTAMP, deltas.get(DAILY));
+		upsert(connection, WEEKLY, "week", Types.VARCHAR, deltas.get(WEEKLY));
+		upsert(connection, DAY_OF_WEEK, "day", Types.INTEGER, deltas.get(DAY_OF_WEEK));
+		upsert(connection, HOUR_OF_DAY, "hour", Types.INTEGER, deltas.get(HOUR_OF_DAY));
+	}
+	
+	/**
+	 * Add the counts to the existing rows, insert the missing ones in batch. The
+	 * statistics are only written by the singleton StatisticUpdateManager, there
+	 * is no concurrent insert of the same row.
+	 */
+	private void upsert(Connection connection, String table, String column, int sqlType, Map<Delta,AtomicInteger> deltas)
+	throws SQLException {
+		if(deltas == null || deltas.isEmpty()) return;
+		
+		List<Map.Entry<Delta,AtomicInteger>> newDeltas = new ArrayList<>();
+		String update = "update " + table + " set value=value+? where resid=? and businesspath=? and " + column + "=?";
+		try(PreparedStatement statement = connection.prepareStatement(update)) {
+			for(Map.Entry<Delta,AtomicInteger> entry:deltas.entrySet()) {
+				Delta delta = entry.getKey();
+				statement.setInt(1, entry.getValue().get());
+				statement.setLong(2, delta.getResId());
+				statement.setString(3, delta.getBusinessPath());
+				statement.setObject(4, delta.getValue(), sqlType);
+				if(statement.executeUpdate() == 0) {
+					newDeltas.add(entry);
+				}
+			}
+		}
+		
+		if(newDeltas.isEmpty()) return;
+		
+		String insert = "insert into " + table + " (businesspath,resid," + column + ",value) values (?,?,?,?)";
+		try(PreparedStatement statement = connection.prepareStatement(insert)) {
+			for(Map.Entry<Delta,AtomicInteger> entry:newDeltas) {
+				Delta delta = entry.getKey();
+				statement.setString(1, delta.getBusinessPath());
+				statement.setLong(2, delta.getResId());
+				statement.setObject(3, delta.getValue(), sqlType);
+				statement.setInt(4, entry.getValue().get());
+				statement.addBatch();
+			}
+			statement.executeBatch();
+		}
+	}
+	
+	@Override
+	public String toString() {
+		return super.toString() + "[IncrementalStatisticUpdater]";
+	}
+	
+	private static class Watermark {
+		
+		private final Date creationDate;
+		private final long key;
+		
+		public Watermark(Date creationDate, long key) {
+			this.creationDate = creationDate;
+			this.key = key;
+		}
+
+		public Date getCreationDate() {
+			return creationDate;
+		}
+
+		public long getKey() {
+			return key;
+		}
+	}
+	
+	private static class LoggingRow {
+		
+		private final long key;
+		private final Timestamp creationDate;
+		private final String businessPath;
+		
+		public LoggingRow(long key, Timestamp creationDate, String businessPath) {
+			this.key = key;
+			this.creationDate = creationDate;
+			this.businessPath = businessPath;
+		}
+
+		public long getKey() {
+			return key;
+		}
+
+		public Timestamp getCreationDate() {
+			return creationDate;
+		}
+
+		public String getBusinessPath() {
+			return businessPath;
+		}
+	}
+	
+	private static class Deltas {
+		
+		private final Map<String,Map<Delta,AtomicInteger>> tables = new HashMap<>();
+		
+		public void add(String table, String businessPath, Long resId, Object value) {
+			tables.computeIfAbsent(table, t -> new HashMap<>())
+				.computeIfAbsent(new Delta(businessPath, resId, value), d -> new AtomicInteger(0))
+				.incrementAndGet();
+		}
+		
+		public Map<Delta,AtomicInteger> get(String table) {
+			return tables.get(table);
+		}
+	}
+	
+	private static class Delta {
+		
+		private final String businessPath;
+		private final Long resId;
+		private final Object value;
+		
+		public Delta(String businessPath, Long resId, Object value) {
+			this.businessPath = businessPath;
+			this.resId = resId;
+			this.value = value;
+		}
+
+		public String getBusinessPath() {
+			return businessPath;
+		}
+
+		public Long getResId() {
+			return resId;
+		}
+
+		public Object getValue() {
+			return value;
+		}
+
+		@Override
+		public int hashCode() {
+			return businessPath.hashCode() + (31 * value.hashCode());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof Delta) {
+				Delta delta = (Delta)obj;
+				return businessPath.equals(delta.businessPath) && value.equals(delta.value);
+			}
+			return false;
+		}
+	}
+}
@@ -1,74 +0,0 @@
-/**
-* OLAT - Online Learning and Training<br>
-* http://www.olat.org
-* <p>
-* Licensed under the Apache License, Version 2.0 (the "License"); <br>
-* you may not use this file except in compliance with the License.<br>
-* You may obtain a copy of the License at
-* <p>
-* http://www.apache.org/licenses/LICENSE-2.0
-* <p>
-* Unless required by applicable law or agreed to in writing,<br>
-* software distributed under the License is distributed on an "AS IS" BASIS, <br>
-* WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
-* See the License for the specific language governing permissions and <br>
-* limitations under the License.
-* <p>
-* Copyright (c) since 2004 at Multimedia- & E-Learning Services (MELS),<br>
-* University of Zurich, Switzerland.
-* <hr>
-* <a href="http://www.openolat.org">
-* OpenOLAT - Online Learning and Training</a><br>
-* This file has been modified by the OpenOLAT community. Changes are licensed
-* under the Apache 2.0 license as the original file.
-*/
-package org.olat.course.statistic;
-
-import java.util.Date;
-
-import org.olat.core.logging.OLog;
-import org.olat.core.logging.Tracing;
-import org.springframework.jdbc.core.JdbcTemplate;
-
-/**
- * MySQL specific class which drops the temporary table with the
- * result of 'o_loggingtable where actionverb=launch and actionobject=node'.
- * <P>
- * Initial Date:  16.02.2010 <br>
- * @author Stefan
- */
-public class MySQLTempStatTableDropper implements IStatisticUpdater {
-
-	/** the logging object used in this class **/
-	private static final OLog log = Tracing.createLoggerFor(MySQLTempStatTableDropper.class);
-
-	/** the jdbcTemplate is used to allow access to other than the default database and 
-	 * allow raw sql code
-	 */
-	private JdbcTemplate jdbcTemplate_;
-
-	/** set via spring **/
-	public void setJdbcTemplate(JdbcTemplate jdbcTemplate) {
-		jdbcTemplate_ = jdbcTemplate;
-	}
-	
-	@Override
-	public void updateStatistic(boolean fullRecalculation, Date from, Date until, StatisticUpdateManager statisticUpdateManager) {
-		// note: fullRecalculation has no affect to the dropper
-		
-		// create temp table
-		final long startTime = System.currentTimeMillis();
-		try{
-			jdbcTemplate_.execute("drop table o_stat_temptable;");
-
-		} catch(RuntimeException e) {
-			log.error("", e);
-		} catch(Error er) {
-			log.error("", er);
-		} finally {
-			final long diff = System.currentTimeMillis() - startTime;
-			log.info("updateStatistic: END. duration=" + diff);
-		}
-	}
-
-}
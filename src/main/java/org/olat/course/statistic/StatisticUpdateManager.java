@@ -24,6 +24,8 @@
 */
 package org.olat.course.statistic;
 
+import org.olat.repository.RepositoryEntry;
+
 /**
  * The StatisticUpdateManager is a pod for registering all IStatisticUpdaters
  * and all it does is going through each of the IStatisticUpdaters to 
@@ -64,6 +66,14 @@ public interface StatisticUpdateManager {
 	 */
 	public boolean updateStatistics(boolean fullRecalculation, Runnable finishedCallback);
 	
+	/**
+	 * Rebuild the statistics of the specified course from the logging table.
+	 * @param courseEntry the repository entry of the course
+	 * @return whether or not the rebuild could be started (returns false when this manager
+	 * is not enabled or when an update is already ongoing)
+	 */
+	public boolean rebuildStatistics(RepositoryEntry courseEntry, Runnable finishedCallback);
+	
 	/**
 	 * Returns whether this manager is enabled or not. It will be enabled on one node in a cluster only
 	 * @return whether this manager is enabled or not. It will be enabled on one node in a cluster only
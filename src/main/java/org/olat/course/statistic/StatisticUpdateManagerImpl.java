@@ -42,6 +42,7 @@ import org.olat.core.util.event.MultiUserEvent;
 import org.olat.core.util.resource.OresHelper;
 import org.olat.properties.Property;
 import org.olat.properties.PropertyManager;
+import org.olat.repository.RepositoryEntry;
 
 /**
  * Default implementation for IStatisticUpdateManager
@@ -189,6 +190,59 @@ class StatisticUpdateManagerImpl implements StatisticUpdateManager, GenericEvent
 		
 	}
 
+	@Override
+	public boolean rebuildStatistics(RepositoryEntry courseEntry, final Runnable finishedCallback) {
+		final Long repositoryEntryKey = courseEntry.getKey();
+		final Long resourceableId = courseEntry.getOlatResource().getResourceableId();
+		
+		synchronized(this) {
+			if (!enabled_) {
+				log_.warn("rebuildStatistics: cannot rebuild statistics, manager is not enabled!", new Exception("rebuildStatistics"));
+				return false;
+			}
+			if (updateOngoing_) {
+				log_.warn("rebuildStatistics: cannot rebuild statistics since an update is currently ongoing");
+				return false;
+			}
+			updateOngoing_ = true;
+		}
+		
+		Runnable r = new Runnable() {
+
+			@Override
+			public void run() {
+				final long start = System.currentTimeMillis();
+				try{
+					log_.info("rebuildStatistics: starting the rebuild of repository entry " + repositoryEntryKey);
+					for (IStatisticUpdater statisticUpdater:updaters_) {
+						statisticUpdater.rebuildStatistic(repositoryEntryKey, resourceableId, StatisticUpdateManagerImpl.this);
+						DBFactory.getInstance().intermediateCommit();
+					}
+				} finally {
+					synchronized(StatisticUpdateManagerImpl.this) {
+						updateOngoing_ = false;
+					}
+					final long diff = System.currentTimeMillis() - start;
+					log_.info("rebuildStatistics: total time for rebuilding the statistics of repository entry " + repositoryEntryKey + " was "+diff+" milliseconds");
+
+					if (finishedCallback!=null) {
+						finishedCallback.run();
+					}
+				}
+			}
+		};
+		try{
+			taskExecutorManager.execute(r);
+			return true;
+		} catch(AssertException ae) {
+			log_.info("rebuildStatistics: Could not start rebuild due to TaskExecutorManager not yet initialized.");
+			synchronized(StatisticUpdateManagerImpl.this) {
+				updateOngoing_ = false;
+			}
+			return false;
+		}
+	}
+
 	@Override
 	public long getLastUpdated() {
 		PropertyManager pm = PropertyManager.getInstance();
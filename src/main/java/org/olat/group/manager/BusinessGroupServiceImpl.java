@@ -118,6 +118,7 @@ import org.olat.repository.model.SearchRepositoryEntryParameters;
 import org.olat.resource.OLATResource;
 import org.olat.resource.accesscontrol.ResourceReservation;
 import org.olat.resource.accesscontrol.manager.ACReservationDAO;
+import org.olat.search.service.indexer.LifeFullIndexer;
 import org.olat.util.logging.activity.LoggingResourceable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -166,6 +167,8 @@ public class BusinessGroupServiceImpl implements BusinessGroupService {
 	@Autowired
 	private ACReservationDAO reservationDao;
 	@Autowired
+	private LifeFullIndexer lifeIndexer;
+	@Autowired
 	private DB dbInstance;
 
 	@Override
@@ -219,6 +222,7 @@ public class BusinessGroupServiceImpl implements BusinessGroupService {
 		BusinessGroup updatedGroup = businessGroupDAO.merge(bg);
 		dbInstance.commit();
 		BusinessGroupModifiedEvent.fireDeferredEvents(events);
+		lifeIndexer.indexDocument(updatedGroup.getResourceableTypeName(), updatedGroup.getKey());
 		return updatedGroup;
 	}
 
@@ -245,6 +249,7 @@ public class BusinessGroupServiceImpl implements BusinessGroupService {
 		mergedGroup.getBaseGroup().getKey();
 		dbInstance.commit();
 		BusinessGroupModifiedEvent.fireDeferredEvents(events);
+		lifeIndexer.indexDocument(mergedGroup.getResourceableTypeName(), mergedGroup.getKey());
 		return mergedGroup;
 	}
 	
@@ -749,6 +754,8 @@ public class BusinessGroupServiceImpl implements BusinessGroupService {
 			businessGroupDAO.delete(group);
 			
 			dbInstance.commit();
+			// remove the group from the search index
+			lifeIndexer.deleteDocument(group.getResourceableTypeName(), group.getKey());
 	
 			log.audit("Deleted Business Group", group.toString());
 		} catch(DBRuntimeException dbre) {
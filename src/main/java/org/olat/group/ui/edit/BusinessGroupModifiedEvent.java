@@ -85,6 +85,22 @@ public class BusinessGroupModifiedEvent extends MultiUserEvent {
 			}
 		} 
 	}
+	
+	/**
+	 * Rebuild an event received from an other node of the cluster.
+	 * 
+	 * @param command one of the class constants
+	 * @param groupKey The key of the group
+	 * @param identityKey The key of the affected identity (optional)
+	 * @param tutor If the affected identity is a coach of the group
+	 * @param originNodeId The id of the node which has fired the event
+	 */
+	public BusinessGroupModifiedEvent(String command, Long groupKey, Long identityKey, boolean tutor, int originNodeId) {
+		super(command, originNodeId);
+		this.groupKey = groupKey;
+		this.identityKey = identityKey;
+		this.isTutor = tutor;
+	}
 
 	/**
 	 * @return the key of the modified group
@@ -100,6 +116,13 @@ public class BusinessGroupModifiedEvent extends MultiUserEvent {
 		return this.identityKey;
 	}
 
+	/**
+	 * @return true if the affected identity is a coach of the group
+	 */
+	public boolean isAffectedIdentityTutor() {
+		return isTutor;
+	}
+
 	/**
 	 * @param identity
 	 * @return
@@ -172,6 +172,19 @@ public interface QTI21Service {
 	 */
 	public QTI21DeliveryOptions getDeliveryOptions(RepositoryEntry testEntry);
 	
+	/**
+	 * Prepare the launch of the test before a lot of candidates start
+	 * it at the same time (exam): unzip and resolve the test, load the
+	 * delivery options, load the templates used to render the items and
+	 * create the directories where the sessions will be stored.
+	 * 
+	 * @param testEntry The test
+	 * @param entry The course or the test itself
+	 * @param subIdent The course element identifier
+	 * @return true if the test could be resolved
+	 */
+	public boolean warmUpAssessmentTest(RepositoryEntry testEntry, RepositoryEntry entry, String subIdent);
+	
 	/**
 	 * Set some extra options for the QTI 2.1 which are not part
 	 * of the standard fomr IMS.
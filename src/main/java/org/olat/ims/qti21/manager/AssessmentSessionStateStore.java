@@ -0,0 +1,540 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.olat.core.logging.OLATRuntimeException;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.Encoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import uk.ac.ed.ph.jqtiplus.xmlutils.XmlFactories;
+import uk.ac.ed.ph.jqtiplus.xmlutils.xslt.XsltSerializationOptions;
+import uk.ac.ed.ph.jqtiplus.xmlutils.xslt.XsltStylesheetManager;
+
+/**
+ * Append only storage of the marshalled test and item session states.
+ * The children of the root element of the state document are compared to
+ * the last stored ones and only the changed children are appended, deflated,
+ * to the log file of the session. A snapshot with the complete state
+ * replaces the log every n records. Loading the state replays the snapshot
+ * and the deltas which follow it.
+ * <p>
+ * A record is: type (byte), length of the payload (int), CRC32 of the payload
+ * (long) and the deflated payload. A torn record at the end of the log (crash
+ * while writing) is ignored and the next write starts a new snapshot.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class AssessmentSessionStateStore {
+	
+	private static final OLog log = Tracing.createLoggerFor(AssessmentSessionStateStore.class);
+	
+	private static final byte SNAPSHOT = 1;
+	private static final byte DELTA = 2;
+	private static final int RECORD_HEADER_LENGTH = 1 + 4 + 8;
+	private static final int MAX_CACHED_LOGS = 5000;
+	
+	public enum FsyncPolicy {
+		/** let the operating system flush the files */
+		none,
+		/** force the snapshots to the disk */
+		snapshot,
+		/** force every record to the disk */
+		always
+	}
+	
+	@Value("${qti21.session.state.snapshot.interval:50}")
+	private int snapshotInterval;
+	@Value("${qti21.session.state.fsync:snapshot}")
+	private String fsync;
+	
+	/** last written state per log file, used to calculate the deltas */
+	private final Map<String,StateLog> stateLogs = Collections.synchronizedMap(new LinkedHashMap<String,StateLog>(256, 0.75f, true) {
+		private static final long serialVersionUID = -6123741285912834651L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String,StateLog> eldest) {
+			return size() > MAX_CACHED_LOGS;
+		}
+	});
+	
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	public void setSnapshotInterval(int snapshotInterval) {
+		this.snapshotInterval = snapshotInterval;
+	}
+
+	public FsyncPolicy getFsyncPolicy() {
+		try {
+			return fsync == null ? FsyncPolicy.snapshot : FsyncPolicy.valueOf(fsync);
+		} catch (IllegalArgumentException e) {
+			log.warn("Unknown fsync policy for the session states: " + fsync);
+			return FsyncPolicy.snapshot;
+		}
+	}
+
+	public void setFsyncPolicy(FsyncPolicy policy) {
+		fsync = policy.name();
+	}
+	
+	/**
+	 * Append the changes of the state to the log file.
+	 * 
+	 * @param logFile The log file of the session
+	 * @param stateDocument The marshalled state
+	 */
+	public void appendState(File logFile, Document stateDocument) {
+		String path = logFile.getAbsolutePath();
+		State state = toState(stateDocument);
+		StateLog stateLog = stateLogs.computeIfAbsent(path, p -> new StateLog());
+		synchronized(stateLog) {
+			try {
+				if(stateLog.isStale(logFile) || stateLog.getRecords() >= snapshotInterval) {
+					writeSnapshot(logFile, state, stateLog);
+				} else {
+					writeDelta(logFile, state, stateLog);
+				}
+			} catch(IOException e) {
+				stateLog.reset();
+				throw new OLATRuntimeException("Cannot write the session state: " + logFile, e);
+			}
+		}
+	}
+	
+	/**
+	 * Replay the log file.
+	 * 
+	 * @param logFile The log file of the session
+	 * @return The state document or null if the log file doesn't exist or is empty
+	 */
+	public Document loadState(File logFile) {
+		if(!logFile.exists()) {
+			return null;
+		}
+		
+		String path = logFile.getAbsolutePath();
+		StateLog stateLog = stateLogs.computeIfAbsent(path, p -> new StateLog());
+		synchronized(stateLog) {
+			try {
+				State state = new State();
+				byte[] data = Files.readAllBytes(logFile.toPath());
+				int records = replay(data, state);
+				if(records < 0) {
+					stateLog.reset();
+					return null;
+				}
+				// a torn tail forces a snapshot on the next write
+				long length = state.getLength() == data.length ? data.length : -1l;
+				stateLog.update(state, length, records);
+				return toDocument(state);
+			} catch(Exception e) {
+				stateLog.reset();
+				throw new OLATRuntimeException("Cannot read the session state: " + logFile, e);
+			}
+		}
+	}
+	
+	/**
+	 * Remove the log file from the cache.
+	 * 
+	 * @param logFile The log file of the session
+	 */
+	public void close(File logFile) {
+		stateLogs.remove(logFile.getAbsolutePath());
+	}
+	
+	private void writeSnapshot(File logFile, State state, StateLog stateLog) throws IOException {
+		Map<String,String> children = new HashMap<>();
+		for(String key:state.getKeys()) {
+			children.put(key, state.getChild(key));
+		}
+		byte[] record = toRecord(SNAPSHOT, state.getRoot(), state.getKeys(), children);
+		
+		File tmpFile = new File(logFile.getParentFile(), logFile.getName() + ".tmp");
+		try(FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			write(channel, record);
+			if(getFsyncPolicy() != FsyncPolicy.none) {
+				channel.force(false);
+			}
+		}
+		try {
+			Files.move(tmpFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		stateLog.update(state, record.length, 0);
+	}
+	
+	private void writeDelta(File logFile, State state, StateLog stateLog) throws IOException {
+		String root = stateLog.isRootChanged(state) ? state.getRoot() : null;
+		List<String> keys = stateLog.isOrderChanged(state) ? state.getKeys() : null;
+		Map<String,String> changedChildren = new HashMap<>();
+		for(String key:state.getKeys()) {
+			String child = state.getChild(key);
+			if(stateLog.isChildChanged(key, state)) {
+				changedChildren.put(key, child);
+			}
+		}
+		if(root == null && keys == null && changedChildren.isEmpty()) {
+			return;// nothing changed
+		}
+		
+		byte[] record = toRecord(DELTA, root, keys, changedChildren);
+		try(FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND, StandardOpenOption.WRITE)) {
+			write(channel, record);
+			if(getFsyncPolicy() == FsyncPolicy.always) {
+				channel.force(false);
+			}
+		}
+		stateLog.update(state, stateLog.getLength() + record.length, stateLog.getRecords() + 1);
+	}
+	
+	private void write(FileChannel channel, byte[] record) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(record);
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+	
+	private byte[] toRecord(byte type, String root, List<String> keys, Map<String,String> children) throws IOException {
+		ByteArrayOutputStream payloadStream = new ByteArrayOutputStream(4096);
+		try(DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(payloadStream))) {
+			out.writeBoolean(root != null);
+			if(root != null) {
+				writeString(out, root);
+			}
+			out.writeBoolean(keys != null);
+			if(keys != null) {
+				out.writeInt(keys.size());
+				for(String key:keys) {
+					writeString(out, key);
+				}
+			}
+			out.writeInt(children.size());
+			for(Map.Entry<String,String> child:children.entrySet()) {
+				writeString(out, child.getKey());
+				writeString(out, child.getValue());
+			}
+		}
+		
+		byte[] payload = payloadStream.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + payload.length);
+		record.put(type);
+		record.putInt(payload.length);
+		record.putLong(crc.getValue());
+		record.put(payload);
+		return record.array();
+	}
+	
+	/**
+	 * @param data The content of the log file
+	 * @param state The state to fill
+	 * @return The number of deltas after the snapshot or -1 if there is no snapshot
+	 * @throws IOException
+	 */
+	private int replay(byte[] data, State state) throws IOException {
+		int records = -1;
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		while(buffer.remaining() >= RECORD_HEADER_LENGTH) {
+			state.setLength(buffer.position());
+			byte type = buffer.get();
+			int length = buffer.getInt();
+			long checksum = buffer.getLong();
+			if(length < 0 || length > buffer.remaining()) {
+				log.warn("Truncated record in session state log");
+				break;
+			}
+			
+			byte[] payload = new byte[length];
+			buffer.get(payload);
+			CRC32 crc = new CRC32();
+			crc.update(payload);
+			if(crc.getValue() != checksum) {
+				log.warn("Corrupted record in session state log");
+				break;
+			}
+			
+			if(type == SNAPSHOT) {
+				state.clear();
+				records = 0;
+			} else if(records < 0) {
+				continue;// delta without snapshot
+			} else {
+				records++;
+			}
+			
+			try(DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)))) {
+				if(in.readBoolean()) {
+					state.setRoot(readString(in));
+				}
+				if(in.readBoolean()) {
+					int numOfKeys = in.readInt();
+					List<String> keys = new ArrayList<>(numOfKeys);
+					for(int i=0; i<numOfKeys; i++) {
+						keys.add(readString(in));
+					}
+					state.setKeys(keys);
+				}
+				int numOfChildren = in.readInt();
+				for(int i=0; i<numOfChildren; i++) {
+					String key = readString(in);
+					state.putChild(key, readString(in));
+				}
+			}
+			state.setLength(buffer.position());
+		}
+		return records;
+	}
+	
+	private void writeString(DataOutputStream out, String string) throws IOException {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Split the document in the serialized root element (without children)
+	 * and its serialized children. The children are identified by their
+	 * name, their key or identifier attribute and their position.
+	 */
+	private State toState(Document document) {
+		Transformer serializer = createSerializer();
+		Element rootElement = document.getDocumentElement();
+		
+		State state = new State();
+		state.setRoot(serialize(serializer, rootElement.cloneNode(false)));
+		
+		List<String> keys = new ArrayList<>();
+		Map<String,Integer> positions = new HashMap<>();
+		NodeList childNodes = rootElement.getChildNodes();
+		for(int i=0; i<childNodes.getLength(); i++) {
+			Node childNode = childNodes.item(i);
+			if(childNode.getNodeType() == Node.ELEMENT_NODE) {
+				Element child = (Element)childNode;
+				String key = child.getLocalName() + "|" + child.getAttribute("key") + "|" + child.getAttribute("identifier");
+				int position = positions.merge(key, 1, Integer::sum);
+				key = key + "|" + position;
+				keys.add(key);
+				state.putChild(key, serialize(serializer, child));
+			}
+		}
+		state.setKeys(keys);
+		return state;
+	}
+	
+	private Document toDocument(State state) throws Exception {
+		DocumentBuilder documentBuilder = XmlFactories.newDocumentBuilder();
+		Document document = documentBuilder.parse(new InputSource(new StringReader(state.getRoot())));
+		Element rootElement = document.getDocumentElement();
+		for(String key:state.getKeys()) {
+			Document childDocument = documentBuilder.parse(new InputSource(new StringReader(state.getChild(key))));
+			rootElement.appendChild(document.importNode(childDocument.getDocumentElement(), true));
+		}
+		return document;
+	}
+	
+	private Transformer createSerializer() {
+		XsltSerializationOptions xsltSerializationOptions = new XsltSerializationOptions();
+		xsltSerializationOptions.setIndenting(false);
+		xsltSerializationOptions.setIncludingXMLDeclaration(false);
+		return XsltStylesheetManager.createSerializer(xsltSerializationOptions);
+	}
+	
+	private String serialize(Transformer serializer, Node node) {
+		try {
+			StringWriter writer = new StringWriter(1024);
+			serializer.transform(new DOMSource(node), new StreamResult(writer));
+			return writer.toString();
+		} catch (TransformerException e) {
+			throw new OLATRuntimeException("Unexpected Exception serializing state DOM", e);
+		}
+	}
+	
+	private static class State {
+		
+		private String root;
+		private long length;
+		private List<String> keys = new ArrayList<>();
+		private final Map<String,String> children = new HashMap<>();
+		private final Map<String,String> hashes = new HashMap<>();
+		
+		public String getRoot() {
+			return root;
+		}
+		
+		public void setRoot(String root) {
+			this.root = root;
+		}
+		
+		/**
+		 * @return The length of the valid records read from the log
+		 */
+		public long getLength() {
+			return length;
+		}
+		
+		public void setLength(long length) {
+			this.length = length;
+		}
+		
+		public List<String> getKeys() {
+			return keys;
+		}
+		
+		public void setKeys(List<String> keys) {
+			this.keys = keys;
+			children.keySet().retainAll(keys);
+			hashes.keySet().retainAll(keys);
+		}
+		
+		public String getChild(String key) {
+			return children.get(key);
+		}
+		
+		public void putChild(String key, String child) {
+			children.put(key, child);
+			hashes.remove(key);
+		}
+		
+		public String getRootHash() {
+			return Encoder.md5hash(root);
+		}
+		
+		public String getChildHash(String key) {
+			return hashes.computeIfAbsent(key, k -> Encoder.md5hash(children.get(k)));
+		}
+		
+		public void clear() {
+			root = null;
+			keys = new ArrayList<>();
+			children.clear();
+			hashes.clear();
+		}
+	}
+	
+	/**
+	 * The hashes of the last written state and the length of the log file
+	 * after the last write, a different length means that the log was written
+	 * by an other node.
+	 */
+	private static class StateLog {
+		
+		private long length = -1l;
+		private int records;
+		private String rootHash;
+		private List<String> keys;
+		private final Map<String,String> childrenHashes = new HashMap<>();
+		
+		public long getLength() {
+			return length;
+		}
+		
+		public int getRecords() {
+			return records;
+		}
+		
+		public boolean isStale(File logFile) {
+			return length < 0 || !logFile.exists() || logFile.length() != length;
+		}
+		
+		public boolean isRootChanged(State state) {
+			return !state.getRootHash().equals(rootHash);
+		}
+		
+		public boolean isOrderChanged(State state) {
+			return !state.getKeys().equals(keys);
+		}
+		
+		public boolean isChildChanged(String key, State state) {
+			return !state.getChildHash(key).equals(childrenHashes.get(key));
+		}
+		
+		public void update(State state, long newLength, int newRecords) {
+			length = newLength;
+			records = newRecords;
+			rootHash = state.getRootHash();
+			keys = new ArrayList<>(state.getKeys());
+			childrenHashes.clear();
+			for(String key:keys) {
+				childrenHashes.put(key, state.getChildHash(key));
+			}
+		}
+		
+		public void reset() {
+			length = -1l;
+			records = 0;
+			rootHash = null;
+			keys = null;
+			childrenHashes.clear();
+		}
+	}
+}
@@ -0,0 +1,219 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.olat.ims.qti21.model.AssessmentTestLaunchStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admission control of the test launches. A token bucket smooths the
+ * launches when a lot of candidates start a test at the same time (exam):
+ * a burst of launches is admitted at once, the next ones get a ticket with
+ * a slot reserved at the configured rate. The throttle never blocks a thread,
+ * the caller shows a waiting page until the ticket is admitted. A launch
+ * which would wait longer than the maximum is admitted anyway, the throttle
+ * never rejects a candidate.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class AssessmentTestLaunchThrottle {
+	
+	/** launches per second, 0 disables the throttle */
+	@Value("${qti21.launch.rate:20}")
+	private double rate;
+	@Value("${qti21.launch.burst:40}")
+	private int burst;
+	/** in seconds */
+	@Value("${qti21.launch.max.wait:30}")
+	private int maxWait;
+	
+	private double storedTokens = -1.0d;
+	private long nextFreeTicket;
+	
+	private final AssessmentTestLaunchStatistics statistics = new AssessmentTestLaunchStatistics();
+	
+	public double getRate() {
+		return rate;
+	}
+	
+	public synchronized void setRate(double rate) {
+		this.rate = rate;
+	}
+	
+	public int getBurst() {
+		return burst;
+	}
+	
+	public synchronized void setBurst(int burst) {
+		this.burst = burst;
+		storedTokens = Math.min(storedTokens, burst);
+	}
+	
+	public int getMaxWait() {
+		return maxWait;
+	}
+	
+	public synchronized void setMaxWait(int maxWait) {
+		this.maxWait = maxWait;
+	}
+	
+	public AssessmentTestLaunchStatistics getStatistics() {
+		return statistics;
+	}
+	
+	/**
+	 * Reserve a slot for a launch, the method doesn't wait.
+	 * 
+	 * @return A ticket admitted now or later
+	 */
+	public Ticket reserveTicket() {
+		long now = System.nanoTime();
+		long waitNanos = reserve(now);
+		boolean queued = waitNanos > 0l;
+		if(queued) {
+			statistics.enterQueue();
+		}
+		return new Ticket(now, now + waitNanos, queued);
+	}
+	
+	/**
+	 * @param ticket The ticket
+	 * @return true if the launch can start
+	 */
+	public boolean isAdmitted(Ticket ticket) {
+		return System.nanoTime() >= ticket.getAdmission();
+	}
+	
+	/**
+	 * @param ticket The ticket
+	 * @return The time in milliseconds until the ticket is admitted
+	 */
+	public long getRemainingWait(Ticket ticket) {
+		return Math.max(0l, TimeUnit.NANOSECONDS.toMillis(ticket.getAdmission() - System.nanoTime()));
+	}
+	
+	/**
+	 * The launch of the ticket starts.
+	 * 
+	 * @param ticket The admitted ticket
+	 * @return The time of the reservation, to give back to
+	 * 		{@link #launched(long)}
+	 */
+	public long admitted(Ticket ticket) {
+		if(ticket.release()) {
+			statistics.leaveQueue();
+		}
+		statistics.admitted(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ticket.getStart()));
+		return ticket.getStart();
+	}
+	
+	/**
+	 * The candidate leaves before the launch, the reserved slot is not
+	 * given back.
+	 * 
+	 * @param ticket The ticket
+	 */
+	public void cancel(Ticket ticket) {
+		if(ticket.release()) {
+			statistics.leaveQueue();
+		}
+	}
+	
+	/**
+	 * Record the latency of a launch, from the admission request
+	 * until the session is ready.
+	 * 
+	 * @param start The value returned by {@link #admitted(Ticket)}
+	 */
+	public void launched(long start) {
+		statistics.launched(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+	}
+	
+	/**
+	 * Reserve the next token and return how long the caller needs to wait
+	 * for it.
+	 * 
+	 * @param now The current time in nanoseconds
+	 * @return The wait time in nanoseconds
+	 */
+	synchronized long reserve(long now) {
+		if(rate <= 0.0d) {
+			return 0l;
+		}
+		
+		double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+		if(storedTokens < 0.0d) {
+			// first launch, the bucket is full
+			storedTokens = burst;
+			nextFreeTicket = now;
+		} else if(now > nextFreeTicket) {
+			storedTokens = Math.min(burst, storedTokens + ((now - nextFreeTicket) / intervalNanos));
+			nextFreeTicket = now;
+		}
+		
+		double tokens = Math.min(1.0d, storedTokens);
+		long ticket = nextFreeTicket + (long)((1.0d - tokens) * intervalNanos);
+		long waitNanos = Math.max(0l, ticket - now);
+		if(waitNanos > TimeUnit.SECONDS.toNanos(maxWait)) {
+			// don't reserve, the candidate is admitted without token
+			statistics.incrementOverflow();
+			return 0l;
+		}
+		
+		storedTokens -= tokens;
+		nextFreeTicket = ticket;
+		return waitNanos;
+	}
+	
+	public static class Ticket {
+		
+		private final long start;
+		private final long admission;
+		private boolean queued;
+		
+		private Ticket(long start, long admission, boolean queued) {
+			this.start = start;
+			this.admission = admission;
+			this.queued = queued;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getAdmission() {
+			return admission;
+		}
+		
+		/**
+		 * @return true if the ticket was still in the queue
+		 */
+		private synchronized boolean release() {
+			boolean wasQueued = queued;
+			queued = false;
+			return wasQueued;
+		}
+	}
+}
@@ -211,20 +211,12 @@ public class AssessmentTestSessionDAO {
 			userPart = session.getAnonymousIdentifier();
 		}
 
-		File storage = rootDir;
 		if(session.getRepositoryEntry() != null
 				&& !session.getRepositoryEntry().equals(session.getTestEntry())) {
-			storage = new File(storage, session.getRepositoryEntry().getKey().toString());
-			if(StringHelper.containsNonWhitespace(session.getSubIdent())) {
-				storage = new File(storage, session.getSubIdent());
-			}
 			userPart += "-" + session.getTestEntry().getKey().toString();
-		} else if(session.getTestEntry() != null) {
-			storage = new File(storage, session.getTestEntry().getKey().toString());
-		} else {
-			storage = new File(storage, "tmp");
 		}
 		
+		File storage = getSessionStorageParent(rootDir, session.getTestEntry(), session.getRepositoryEntry(), session.getSubIdent());
 		storage = new File(storage, userPart);
 		storage.mkdirs();
 		
@@ -233,6 +225,40 @@ public class AssessmentTestSessionDAO {
 		return relativePathString;
 	}
 	
+	/**
+	 * Create the directories which will hold the storage of the sessions
+	 * of the specified test, course element. The storage of the session
+	 * itself depends on its creation date and cannot be created in advance.
+	 * 
+	 * @param testEntry The test
+	 * @param entry The course or the test (standalone)
+	 * @param subIdent The course element identifier
+	 * @return The directory
+	 */
+	public File createSessionStorageParent(RepositoryEntry testEntry, RepositoryEntry entry, String subIdent) {
+		File rootDir = getQtiSerializationPath().getBasefile();
+		File storage = getSessionStorageParent(rootDir, testEntry, entry, subIdent);
+		if(!storage.exists()) {
+			storage.mkdirs();
+		}
+		return storage;
+	}
+	
+	private File getSessionStorageParent(File rootDir, RepositoryEntry testEntry, RepositoryEntry entry, String subIdent) {
+		File storage = rootDir;
+		if(entry != null && !entry.equals(testEntry)) {
+			storage = new File(storage, entry.getKey().toString());
+			if(StringHelper.containsNonWhitespace(subIdent)) {
+				storage = new File(storage, subIdent);
+			}
+		} else if(testEntry != null) {
+			storage = new File(storage, testEntry.getKey().toString());
+		} else {
+			storage = new File(storage, "tmp");
+		}
+		return storage;
+	}
+	
     private OlatRootFolderImpl getQtiSerializationPath() {
     	return new OlatRootFolderImpl("/qtiassessment/", null);
 	}
@@ -53,6 +53,7 @@ import org.apache.commons.io.IOUtils;
 import org.olat.basesecurity.IdentityRef;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.gui.components.form.flexible.impl.MultipartFileInfos;
+import org.olat.core.gui.render.velocity.VelocityHelper;
 import org.olat.core.helpers.Settings;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
@@ -61,6 +62,7 @@ import org.olat.core.id.User;
 import org.olat.core.logging.OLATRuntimeException;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
+import org.olat.core.util.CodeHelper;
 import org.olat.core.util.FileUtils;
 import org.olat.core.util.Formatter;
 import org.olat.core.util.StringHelper;
@@ -103,6 +105,7 @@ import org.olat.ims.qti21.model.audit.CandidateEvent;
 import org.olat.ims.qti21.model.audit.CandidateItemEventType;
 import org.olat.ims.qti21.model.audit.CandidateTestEventType;
 import org.olat.ims.qti21.model.jpa.AssessmentTestSessionStatistics;
+import org.olat.ims.qti21.ui.components.AssessmentObjectComponentRenderer;
 import org.olat.ims.qti21.ui.event.RetrieveAssessmentTestSessionEvent;
 import org.olat.modules.assessment.AssessmentEntry;
 import org.olat.modules.assessment.manager.AssessmentEntryDAO;
@@ -124,11 +127,13 @@ import uk.ac.ed.ph.jqtiplus.JqtiExtensionPackage;
 import uk.ac.ed.ph.jqtiplus.QtiConstants;
 import uk.ac.ed.ph.jqtiplus.node.AssessmentObject;
 import uk.ac.ed.ph.jqtiplus.node.QtiNode;
+import uk.ac.ed.ph.jqtiplus.node.item.AssessmentItem;
 import uk.ac.ed.ph.jqtiplus.node.result.AbstractResult;
 import uk.ac.ed.ph.jqtiplus.node.result.AssessmentResult;
 import uk.ac.ed.ph.jqtiplus.node.result.ItemResult;
 import uk.ac.ed.ph.jqtiplus.node.result.ItemVariable;
 import uk.ac.ed.ph.jqtiplus.node.result.OutcomeVariable;
+import uk.ac.ed.ph.jqtiplus.node.test.AssessmentItemRef;
 import uk.ac.ed.ph.jqtiplus.notification.NotificationRecorder;
 import uk.ac.ed.ph.jqtiplus.reading.AssessmentObjectXmlLoader;
 import uk.ac.ed.ph.jqtiplus.reading.QtiObjectReadResult;
@@ -203,6 +208,8 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	private CoordinatorManager coordinatorManager;
 	@Autowired
 	private MailManager mailManager;
+	@Autowired
+	private AssessmentSessionStateStore sessionStateStore;
 	
 
 	private JqtiExtensionManager jqtiExtensionManager;
@@ -287,6 +294,38 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 		return config;
 	}
 
+	@Override
+	public boolean warmUpAssessmentTest(RepositoryEntry testEntry, RepositoryEntry entry, String subIdent) {
+		long start = System.nanoTime();
+		FileResourceManager frm = FileResourceManager.getInstance();
+		File fUnzippedDirRoot = frm.unzipFileResource(testEntry.getOlatResource());
+		ResolvedAssessmentTest resolvedAssessmentTest = loadAndResolveAssessmentTest(fUnzippedDirRoot, false, false);
+		if(resolvedAssessmentTest == null || resolvedAssessmentTest.getRootNodeLookup().extractIfSuccessful() == null) {
+			log.warn("Cannot warm up the test: " + testEntry.getKey());
+			return false;
+		}
+		getDeliveryOptions(testEntry);
+		
+		Set<String> templates = new HashSet<>();
+		for(AssessmentItemRef itemRef:resolvedAssessmentTest.getAssessmentItemRefs()) {
+			ResolvedAssessmentItem resolvedAssessmentItem = resolvedAssessmentTest.getResolvedAssessmentItem(itemRef);
+			if(resolvedAssessmentItem != null) {
+				AssessmentItem assessmentItem = resolvedAssessmentItem.getRootNodeLookup().extractIfSuccessful();
+				templates.addAll(AssessmentObjectComponentRenderer.getInteractionTemplates(assessmentItem));
+			}
+		}
+		VelocityHelper velocityHelper = VelocityHelper.getInstance();
+		for(String template:templates) {
+			velocityHelper.preloadTemplate(template);
+		}
+		AssessmentObjectComponentRenderer.compileStylesheets(xsltStylesheetManager);
+		
+		testSessionDao.createSessionStorageParent(testEntry, entry, subIdent);
+		log.audit("Warm up test: " + testEntry.getKey() + " with " + templates.size()
+				+ " templates in (ms): " + CodeHelper.nanoToMilliTime(start));
+		return true;
+	}
+
 	@Override
 	public void setDeliveryOptions(RepositoryEntry testEntry, QTI21DeliveryOptions options) {
 		FileResourceManager frm = FileResourceManager.getInstance();
@@ -515,8 +554,9 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 		if(session == null || session.isExploded() || session.getFinishTime() != null || session.getTerminationTime() != null) {
 			session = null;
 		} else {
+			File sessionLogFile = getTestSessionStateLogFile(session);
 			File sessionFile = getTestSessionStateFile(session);
-			if(sessionFile == null || !sessionFile.exists()) {
+			if(!sessionLogFile.exists() && !sessionFile.exists()) {
 				session = null;
 			}
 		}
@@ -600,6 +640,15 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
     }
 	
     private Document loadStateDocument(AssessmentTestSession candidateSession) {
+        File sessionLogFile = getTestSessionStateLogFile(candidateSession);
+        if(sessionLogFile.exists()) {
+        	Document document = sessionStateStore.loadState(sessionLogFile);
+        	if(document != null) {
+        		return document;
+        	}
+        }
+        
+        // sessions started before the append only log and exported states
         File sessionFile = getTestSessionStateFile(candidateSession);
         if(sessionFile.exists()) {
 	        try {
@@ -1118,6 +1167,7 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 		}
 		
 		storeAssessmentResultFile(candidateSession, assessmentResult);
+		exportTestSessionState(candidateSession, testSessionState);
 		if(qtiModule.isDigitalSignatureEnabled() && digitalSignature.isDigitalSignature()) {
     		signAssessmentResult(candidateSession, digitalSignature, assessedIdentity);
     	}
@@ -1136,12 +1186,17 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	public void cancelTestSession(AssessmentTestSession candidateSession, TestSessionState testSessionState) {
 		final File myStore = testSessionDao.getSessionStorage(candidateSession);
         final File sessionState = new File(myStore, "testSessionState.xml");
+        final File sessionStateLog = new File(myStore, "testSessionState.log");
         final File resultFile = getAssessmentResultFile(candidateSession);
 
 		testSessionDao.deleteTestSession(candidateSession);
 		if(sessionState != null && sessionState.exists()) {
 			sessionState.delete();
 		}
+		sessionStateStore.close(sessionStateLog);
+		if(sessionStateLog.exists()) {
+			sessionStateLog.delete();
+		}
 		if(resultFile != null && resultFile.exists()) {
 			resultFile.delete();
 		}
@@ -1156,6 +1211,10 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 				signAssessmentResult(session, signatureOptions, session.getIdentity());
 			}
 			session.setFinishTime(new Date());
+			TestSessionState testSessionState = loadTestSessionState(session);
+			if(testSessionState != null) {
+				exportTestSessionState(session, testSessionState);
+			}
 		}
 		session.setTerminationTime(new Date());
 		session = updateAssessmentTestSession(session);
@@ -1265,20 +1324,24 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 	}
 	
 	private void storeTestSessionState(CandidateEvent candidateEvent, TestSessionState testSessionState) {
-		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
-		File sessionFile = getTestSessionStateFile(candidateEvent);
-		storeStateDocument(stateDocument, sessionFile);
+		storeTestSessionState(candidateEvent.getCandidateSession(), testSessionState);
 	}
 	
 	private void storeTestSessionState(AssessmentTestSession candidateSession, TestSessionState testSessionState) {
+		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
+		File sessionLogFile = getTestSessionStateLogFile(candidateSession);
+		sessionStateStore.appendState(sessionLogFile, stateDocument);
+	}
+	
+	/**
+	 * Write the state as XML for the archives of the results. During the test, the
+	 * state is only appended to the log.
+	 */
+	private void exportTestSessionState(AssessmentTestSession candidateSession, TestSessionState testSessionState) {
 		Document stateDocument = TestSessionStateXmlMarshaller.marshal(testSessionState);
 		File sessionFile = getTestSessionStateFile(candidateSession);
 		storeStateDocument(stateDocument, sessionFile);
-	}
-
-	private File getTestSessionStateFile(CandidateEvent candidateEvent) {
-		AssessmentTestSession candidateSession = candidateEvent.getCandidateSession();
-		return getTestSessionStateFile(candidateSession);
+		sessionStateStore.close(getTestSessionStateLogFile(candidateSession));
 	}
     
 	private File getTestSessionStateFile(AssessmentTestSession candidateSession) {
@@ -1286,6 +1349,11 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 		return new File(myStore, "testSessionState.xml");
 	}
 	
+	private File getTestSessionStateLogFile(AssessmentTestSession candidateSession) {
+		File myStore = testSessionDao.getSessionStorage(candidateSession);
+		return new File(myStore, "testSessionState.log");
+	}
+	
     @Override
 	public CandidateEvent recordCandidateItemEvent(AssessmentTestSession candidateSession, RepositoryEntryRef testEntry, RepositoryEntryRef entry,
 			CandidateItemEventType itemEventType, ItemSessionState itemSessionState) {
@@ -1321,14 +1389,14 @@ public class QTI21ServiceImpl implements QTI21Service, UserDataDeletable, Initia
 
 	public void storeItemSessionState(CandidateEvent candidateEvent, ItemSessionState itemSessionState) {
         Document stateDocument = ItemSessionStateXmlMarshaller.marshal(itemSessionState);
-        File sessionFile = getItemSessionStateFile(candidateEvent);
-        storeStateDocument(stateDocument, sessionFile);
+        File sessionLogFile = getItemSessionStateLogFile(candidateEvent);
+        sessionStateStore.appendState(sessionLogFile, stateDocument);
     }
     
-	private File getItemSessionStateFile(CandidateEvent candidateEvent) {
+	private File getItemSessionStateLogFile(CandidateEvent candidateEvent) {
 		AssessmentTestSession candidateSession = candidateEvent.getCandidateSession();
 		File myStore = testSessionDao.getSessionStorage(candidateSession);
-		return new File(myStore, "itemSessionState.xml");
+		return new File(myStore, "itemSessionState.log");
 	}
     
 	private void storeStateDocument(Document stateXml, File sessionFile) {
@@ -136,6 +136,9 @@ public class QTI21ArchiveFormat {
 	
 	private static final OLog log = Tracing.createLoggerFor(QTI21ArchiveFormat.class);
 	
+	/** free text answers are seldom repeated, don't fill the shared strings with them */
+	private static final int INLINE_STRING_LENGTH = 256;
+	
 	private Translator translator;
 	
 	private ResolvedAssessmentTest resolvedAssessmentTest;
@@ -255,6 +258,7 @@ public class QTI21ArchiveFormat {
 		final List<AssessmentTestSession> sessions = testSessionDao.getTestSessionsOfResponse(searchParams);
 		final List<AssessmentResponse> responses = responseDao.getResponse(searchParams);
 		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(exportStream, 1)) {
+			workbook.setInlineStringLength(INLINE_STRING_LENGTH);
 			//headers
 			OpenXMLWorksheet exportSheet = workbook.nextWorksheet();
 			exportSheet.setHeaderRows(2);
@@ -289,6 +293,7 @@ public class QTI21ArchiveFormat {
 			@Override
 			protected void generate(OutputStream out) {
 				try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(out, 1)) {
+					workbook.setInlineStringLength(INLINE_STRING_LENGTH);
 					//headers
 					OpenXMLWorksheet exportSheet = workbook.nextWorksheet();
 					exportSheet.setHeaderRows(2);
@@ -0,0 +1,157 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the admission control of the test launches. The
+ * counters are updated concurrently by the requests launching
+ * a test.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class AssessmentTestLaunchStatistics {
+	
+	private final AtomicInteger queueLength = new AtomicInteger();
+	private final AtomicInteger maxQueueLength = new AtomicInteger();
+	
+	private final LongAdder admitted = new LongAdder();
+	private final LongAdder delayed = new LongAdder();
+	private final LongAdder overflow = new LongAdder();
+	private final LongAdder waitTime = new LongAdder();
+	private final AtomicLong maxWaitTime = new AtomicLong();
+
+	private final LongAdder launches = new LongAdder();
+	private final LongAdder launchTime = new LongAdder();
+	private final AtomicLong maxLaunchTime = new AtomicLong();
+	
+	/**
+	 * @return The number of launches waiting for a token
+	 */
+	public int getQueueLength() {
+		return queueLength.get();
+	}
+	
+	public int getMaxQueueLength() {
+		return maxQueueLength.get();
+	}
+	
+	public void enterQueue() {
+		int length = queueLength.incrementAndGet();
+		maxQueueLength.accumulateAndGet(length, Math::max);
+	}
+	
+	public void leaveQueue() {
+		queueLength.decrementAndGet();
+	}
+	
+	public long getAdmitted() {
+		return admitted.sum();
+	}
+	
+	/**
+	 * @return The number of launches which waited for a token
+	 */
+	public long getDelayed() {
+		return delayed.sum();
+	}
+	
+	/**
+	 * @return The number of launches admitted without a token because
+	 * 		the wait would be longer than the allowed maximum
+	 */
+	public long getOverflow() {
+		return overflow.sum();
+	}
+	
+	public void incrementOverflow() {
+		overflow.increment();
+	}
+	
+	/**
+	 * @param wait The time waited for a token in milliseconds
+	 */
+	public void admitted(long wait) {
+		admitted.increment();
+		if(wait > 0) {
+			delayed.increment();
+			waitTime.add(wait);
+			maxWaitTime.accumulateAndGet(wait, Math::max);
+		}
+	}
+	
+	/**
+	 * @return The average wait of the delayed launches in milliseconds
+	 */
+	public long getAverageWaitTime() {
+		long count = delayed.sum();
+		return count == 0 ? 0l : waitTime.sum() / count;
+	}
+	
+	public long getMaxWaitTime() {
+		return maxWaitTime.get();
+	}
+	
+	public long getLaunches() {
+		return launches.sum();
+	}
+	
+	/**
+	 * @param time The time between the admission request and the
+	 * 		ready session in milliseconds
+	 */
+	public void launched(long time) {
+		launches.increment();
+		launchTime.add(time);
+		maxLaunchTime.accumulateAndGet(time, Math::max);
+	}
+	
+	/**
+	 * @return The average launch latency in milliseconds, wait included
+	 */
+	public long getAverageLaunchTime() {
+		long count = launches.sum();
+		return count == 0 ? 0l : launchTime.sum() / count;
+	}
+	
+	public long getMaxLaunchTime() {
+		return maxLaunchTime.get();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("testLaunch[queue=").append(getQueueLength())
+		  .append(":maxQueue=").append(getMaxQueueLength())
+		  .append(":admitted=").append(getAdmitted())
+		  .append(":delayed=").append(getDelayed())
+		  .append(":overflow=").append(getOverflow())
+		  .append(":avgWait=").append(getAverageWaitTime()).append("ms")
+		  .append(":maxWait=").append(getMaxWaitTime()).append("ms")
+		  .append(":launches=").append(getLaunches())
+		  .append(":avgLaunch=").append(getAverageLaunchTime()).append("ms")
+		  .append(":maxLaunch=").append(getMaxLaunchTime()).append("ms]");
+		return sb.toString();
+	}
+}
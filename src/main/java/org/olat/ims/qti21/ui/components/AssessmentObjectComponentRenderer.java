@@ -56,7 +56,9 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
@@ -1025,7 +1027,47 @@ public abstract class AssessmentObjectComponentRenderer extends DefaultComponent
 		}
 	}
 	
-	private String getInteractionTemplate(QtiNode interaction) {
+	/**
+	 * Collect the velocity templates needed to render the interactions
+	 * of the specified item.
+	 * 
+	 * @param assessmentItem The item
+	 * @return A set of template paths
+	 */
+	public static Set<String> getInteractionTemplates(AssessmentItem assessmentItem) {
+		Set<String> templates = new HashSet<>();
+		if(assessmentItem == null || assessmentItem.getItemBody() == null) {
+			return templates;
+		}
+		
+		List<Interaction> interactions = QueryUtils.search(Interaction.class, assessmentItem.getItemBody());
+		for(Interaction interaction:interactions) {
+			if(interaction instanceof MathEntryInteraction) {
+				templates.add(velocity_root.concat("/mathEntryInteraction.html"));
+			} else if(interaction instanceof CustomInteraction) {
+				templates.add(velocity_root.concat("/unsupportedCustomInteraction.html"));
+			} else {
+				templates.add(getInteractionTemplate(interaction));
+			}
+		}
+		List<PositionObjectStage> stages = QueryUtils.search(PositionObjectStage.class, assessmentItem.getItemBody());
+		for(PositionObjectStage stage:stages) {
+			templates.add(getInteractionTemplate(stage));
+		}
+		return templates;
+	}
+	
+	/**
+	 * Compile the stylesheets used by the renderer to transform
+	 * content MathML.
+	 * 
+	 * @param stylesheetManager The stylesheet manager with its cache
+	 */
+	public static void compileStylesheets(XsltStylesheetManager stylesheetManager) {
+		stylesheetManager.getCompiledStylesheetHandler(ctopXsltUri, null);
+	}
+	
+	private static String getInteractionTemplate(QtiNode interaction) {
 		String interactionName;
 		switch(interaction.getQtiClassName()) {
 			case "matchInteraction": {
@@ -1055,7 +1097,7 @@ public abstract class AssessmentObjectComponentRenderer extends DefaultComponent
 		return velocity_root + "/" + templateName + ".html";
 	}
 	
-	private final boolean hasClass(Interaction interaction, String cssClass) {
+	private static boolean hasClass(Interaction interaction, String cssClass) {
 		if(interaction == null || cssClass == null) return false;
 		
 		List<String> cssClasses = interaction.getClassAttr();
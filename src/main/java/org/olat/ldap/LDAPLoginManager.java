@@ -31,6 +31,7 @@ import org.olat.basesecurity.IdentityRef;
 import org.olat.core.id.Identity;
 import org.olat.core.id.OLATResourceable;
 import org.olat.core.util.resource.OresHelper;
+import org.olat.ldap.model.LDAPSyncStatistics;
 
 public interface LDAPLoginManager {
 
@@ -65,6 +66,12 @@ public interface LDAPLoginManager {
 	
 	public Date getLastSyncDate();
 	
+	/**
+	 * @return The timings and counters of the last successful batch
+	 * 		synchronization on this node or null
+	 */
+	public LDAPSyncStatistics getLastSyncStatistics();
+	
 	public boolean acquireSyncLock();
 	
 	public void freeSyncLock();
@@ -144,6 +144,15 @@ public class LDAPLoginModule extends AbstractSpringModule {
 	private boolean ldapSyncCronSync;
 	@Value("${ldap.ldapSyncCronSyncExpression}")
 	private String ldapSyncCronSyncExpression;
+	// Workers and delta mode of the batch synchronization
+	@Value("${ldap.ldapSyncWorkers:4}")
+	private int ldapSyncWorkers;
+	@Value("${ldap.ldapSyncBatchSize:50}")
+	private int ldapSyncBatchSize;
+	@Value("${ldap.ldapSyncDelta:false}")
+	private boolean ldapSyncDelta;
+	@Value("${ldap.ldapSyncFullInterval:24}")
+	private int ldapSyncFullInterval;
 	// User LDAP attributes to be synced and a map with the mandatory attributes
 
 
@@ -486,6 +495,25 @@ public class LDAPLoginModule extends AbstractSpringModule {
 		return ldapSyncCronSyncExpression;
 	}
 	
+	public int getLdapSyncWorkers() {
+		return Math.max(1, ldapSyncWorkers);
+	}
+	
+	public int getLdapSyncBatchSize() {
+		return Math.max(1, ldapSyncBatchSize);
+	}
+	
+	public boolean isLdapSyncDelta() {
+		return ldapSyncDelta;
+	}
+	
+	/**
+	 * @return The number of synchronizations between two full synchronizations
+	 */
+	public int getLdapSyncFullInterval() {
+		return Math.max(1, ldapSyncFullInterval);
+	}
+	
 	public boolean isCreateUsersOnLogin() {
 		return createUsersOnLogin;
 	}
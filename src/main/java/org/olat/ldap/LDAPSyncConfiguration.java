@@ -57,6 +57,7 @@ public class LDAPSyncConfiguration {
 	
 	private String ldapUserCreatedTimestampAttribute;
 	private String ldapUserLastModifiedTimestampAttribute;
+	private String ldapUserChangedUSNAttribute;
 	private String ldapUserPasswordAttribute;
 	private String ldapUserLoginAttribute;
 	
@@ -393,6 +394,18 @@ public class LDAPSyncConfiguration {
 		this.ldapUserLastModifiedTimestampAttribute = attribute;
 	}
 	
+	/**
+	 * @return The attribute with the update sequence number of the last change
+	 * 		(uSNChanged on Active Directory), used by the delta synchronization
+	 */
+	public String getLdapUserChangedUSNAttribute() {
+		return ldapUserChangedUSNAttribute;
+	}
+	
+	public void setLdapUserChangedUSNAttribute(String attribute) {
+		this.ldapUserChangedUSNAttribute = attribute;
+	}
+	
 	public String getLdapUserPasswordAttribute() {
 		return ldapUserPasswordAttribute;
 	}
@@ -277,14 +277,56 @@ public class LDAPDAO {
 	 */
 
 	public List<LDAPUser> getUserAttributesModifiedSince(Date syncTime, LdapContext ctx) {
+		final boolean debug = log.isDebug();
+		String filter = buildModifiedSinceFilter(syncTime, null);
+		String[] userAttrs = getEnhancedUserAttributes();
+		LDAPUserVisitor userVisitor = new LDAPUserVisitor(syncConfiguration);
+		searchInLdap(userVisitor, filter, userAttrs, ctx);
+		List<LDAPUser> ldapUserList = userVisitor.getLdapUserList();
+		if(debug) {
+			log.debug("attrib search returned " + ldapUserList.size() + " results");
+		}
+		return ldapUserList;
+	}
+	
+	/**
+	 * Search the users modified since the specified time or update sequence
+	 * number. The visitor receives the users page by page while the search
+	 * is running.
+	 * 
+	 * @param userVisitor The visitor
+	 * @param syncTime The time of the last synchronization or null for a full synchronization
+	 * @param syncUSN The highest committed USN of the last synchronization, used instead
+	 * 		of the time if a USN attribute is configured
+	 * @param ctx The LDAP context
+	 */
+	public void searchUserAttributesModifiedSince(LDAPUserVisitor userVisitor, Date syncTime, Long syncUSN, LdapContext ctx) {
+		String filter = buildModifiedSinceFilter(syncTime, syncUSN);
+		String[] userAttrs = getEnhancedUserAttributes();
+		searchInLdap(userVisitor, filter, userAttrs, ctx);
+		userVisitor.flush();
+	}
+	
+	private String buildModifiedSinceFilter(Date syncTime, Long syncUSN) {
 		final boolean debug = log.isDebug();
 		String userFilter = syncConfiguration.getLdapUserFilter();
+		String usnAttribute = syncConfiguration.getLdapUserChangedUSNAttribute();
 		StringBuilder filter = new StringBuilder();
 		if (syncTime == null) {
 			if(debug)  log.debug("LDAP get user attribs since never -> full sync!");
 			if (filter != null) {
 				filter.append(userFilter);				
 			}
+		} else if(syncUSN != null && StringHelper.containsNonWhitespace(usnAttribute)) {
+			long nextUSN = syncUSN.longValue() + 1;
+			if(debug) log.debug("LDAP get user attribs since USN " + syncUSN + " -> means search with filter: " + usnAttribute + ">=" + nextUSN);
+			if (userFilter != null) {
+				filter.append("(&").append(userFilter);				
+			}
+			filter.append("(").append(usnAttribute).append(">=").append(nextUSN).append(")");
+			if (userFilter != null) {
+				filter.append(")");				
+			}
 		} else {
 			String dateFormat = ldapLoginModule.getLdapDateFormat();
 			SimpleDateFormat generalizedTimeFormatter = new SimpleDateFormat(dateFormat);
@@ -304,15 +346,27 @@ public class LDAPDAO {
 				filter.append(")");				
 			}
 		}
-
-		String[] userAttrs = getEnhancedUserAttributes();
-		LDAPUserVisitor userVisitor = new LDAPUserVisitor(syncConfiguration);
-		searchInLdap(userVisitor, filter.toString(), userAttrs, ctx);
-		List<LDAPUser> ldapUserList = userVisitor.getLdapUserList();
-		if(debug) {
-			log.debug("attrib search returned " + ldapUserList.size() + " results");
+		return filter.toString();
+	}
+	
+	/**
+	 * Read the highestCommittedUSN of the root DSE, available on Active Directory.
+	 * 
+	 * @param ctx The LDAP context
+	 * @return The highest committed update sequence number or null if the server
+	 * 		doesn't provide one
+	 */
+	public Long getHighestCommittedUSN(LdapContext ctx) {
+		try {
+			Attributes attrs = ctx.getAttributes("", new String[] { "highestCommittedUSN" });
+			Attribute usnAttr = attrs.get("highestCommittedUSN");
+			if(usnAttr != null && usnAttr.get() != null) {
+				return Long.valueOf(usnAttr.get().toString().trim());
+			}
+		} catch (NamingException | NumberFormatException e) {
+			log.warn("Cannot read the highestCommittedUSN of the LDAP server", e);
 		}
-		return ldapUserList;
+		return null;
 	}
 	
 	public String[] getEnhancedUserAttributes() {
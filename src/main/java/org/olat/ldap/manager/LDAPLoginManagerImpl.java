@@ -31,7 +31,17 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.naming.AuthenticationException;
 import javax.naming.Context;
@@ -91,7 +101,9 @@ import org.olat.ldap.LDAPEvent;
 import org.olat.ldap.LDAPLoginManager;
 import org.olat.ldap.LDAPLoginModule;
 import org.olat.ldap.LDAPSyncConfiguration;
+import org.olat.ldap.manager.LDAPSyncedUsers.SyncedUser;
 import org.olat.ldap.model.LDAPGroup;
+import org.olat.ldap.model.LDAPSyncStatistics;
 import org.olat.ldap.model.LDAPUser;
 import org.olat.ldap.ui.LDAPAuthenticationController;
 import org.olat.login.auth.OLATAuthManager;
@@ -116,6 +128,15 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	private static final String TIMEOUT_KEY = "com.sun.jndi.ldap.connect.timeout";
 	private static boolean batchSyncIsRunning = false;
 	private static Date lastSyncDate = null; // first sync is always a full sync
+	// the delta sync searches the users changed since the start of the last successful sync
+	private static Date deltaSyncDate = null;
+	private static Long deltaSyncUSN = null;
+	private static int syncCounter = 0;
+	private static LDAPSyncStatistics lastSyncStatistics;
+	// tolerate some clock differences between the LDAP server and OpenOLAT
+	private static final long DELTA_SYNC_OVERLAP = 5l * 60l * 1000l;
+	
+	private final LDAPSyncedUsers syncedUsers = new LDAPSyncedUsers();
 	
 	private Coordinator coordinator;
 	private TaskExecutorManager taskExecutorManager;
@@ -438,6 +459,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	 */
 	@Override
 	public void deleteIdentities(List<Identity> identityList, Identity doer) {
+		List<Long> deletedIdentityKeys = new ArrayList<>(identityList.size());
 		for (Identity identity:  identityList) {
 			if(Identity.STATUS_PERMANENT.equals(identity.getStatus())) {
 				log.audit(identity.getKey() + " was not deleted because is status is permanent.");
@@ -445,7 +467,9 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 			}
 			
 			userDeletionManager.deleteIdentity(identity, doer);
+			deletedIdentityKeys.add(identity.getKey());
 		}
+		syncedUsers.remove(deletedIdentityKeys);
 	}
 
 	/**
@@ -828,7 +852,10 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		// Find all LDAP Users
 		String userID = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
 		String userFilter = syncConfiguration.getLdapUserFilter();
-		final List<String> ldapList = new ArrayList<>();
+		// load the identities first, the users created in parallel by the batch sync
+		// after this point are not part of the list and cannot be deleted by mistake
+		List<Identity> olatListIdentity = authenticationDao.getIdentitiesWithAuthentication(LDAPAuthenticationController.PROVIDER_LDAP);
+		final Set<String> ldapList = new HashSet<>();
 		
 		ldapDao.searchInLdap(new LDAPVisitor() {
 			@Override
@@ -849,7 +876,6 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		}
 
 		List<Identity> identityListToDelete = new ArrayList<>();
-		List<Identity> olatListIdentity = authenticationDao.getIdentitiesWithAuthentication(LDAPAuthenticationController.PROVIDER_LDAP);
 		for (Identity ida:olatListIdentity) {
 			// compare usernames with lowercase
 			if (!ldapList.contains(ida.getName().toLowerCase())) {
@@ -898,6 +924,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		lastSyncDate = null;
 		
 		LdapContext ctx = null;
+		ExecutorService workers = null;
 		boolean success = false;
 		try {
 			acquireSyncLock();
@@ -911,29 +938,58 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 				return success;
 			}
 			Date timeBeforeSync = new Date();
-
+			
+			// every n-th sync is a full sync which compares all users with the database
+			boolean reconciliation = syncCounter % ldapLoginModule.getLdapSyncFullInterval() == 0;
+			boolean fullSync = reconciliation || !ldapLoginModule.isLdapSyncDelta() || deltaSyncDate == null;
+			if(reconciliation) {
+				syncedUsers.clear();
+			}
+			LDAPSyncStatistics statistics = new LDAPSyncStatistics(fullSync, reconciliation);
+			
 			//check server capabilities
-			// Get time before sync to have a save sync time when sync is successful
-			String sinceSentence = (lastSyncDate == null ? "" : " since last sync from " + lastSyncDate);
-			doBatchSyncDeletedUsers(ctx, sinceSentence);
+			// Get the highest USN before sync to have a save sync point when sync is successful
+			Long highestCommittedUSN = null;
+			if(ldapLoginModule.isLdapSyncDelta() && StringHelper.containsNonWhitespace(syncConfiguration.getLdapUserChangedUSNAttribute())) {
+				highestCommittedUSN = ldapDao.getHighestCommittedUSN(ctx);
+			}
+			Date modifiedSince = fullSync ? null : new Date(deltaSyncDate.getTime() - DELTA_SYNC_OVERLAP);
+			Long modifiedSinceUSN = fullSync ? null : deltaSyncUSN;
+			String sinceSentence = (modifiedSince == null ? "" : " since last sync from " + modifiedSince);
+			
+			workers = createSyncWorkers();
+			// deleted users are searched in parallel with their own context
+			Future<?> deletedUsers = workers.submit(() -> doBatchSyncDeletedUsers(sinceSentence, statistics));
 			// bind again to use an initial unmodified context. lookup of server-properties might fail otherwise!
 			ctx.close();
 			ctx = bindSystem();
-			Map<String,LDAPUser> dnToIdentityKeyMap = new HashMap<>();
-			List<LDAPUser> ldapUsers = doBatchSyncNewAndModifiedUsers(ctx, sinceSentence, dnToIdentityKeyMap, errors);
+			Map<String,LDAPUser> dnToIdentityKeyMap = new ConcurrentHashMap<>();
+			List<LDAPUser> ldapUsers = doBatchSyncNewAndModifiedUsers(ctx, workers, modifiedSince, modifiedSinceUSN,
+					sinceSentence, dnToIdentityKeyMap, statistics, errors);
+			waitFor(deletedUsers);
 			ctx.close();
+			//sync roles in parallel with their own context and errors
+			LDAPError roleErrors = new LDAPError();
+			Future<?> roles = workers.submit(() -> doBatchSyncRoles(ldapUsers, dnToIdentityKeyMap, statistics, roleErrors));
 			ctx = bindSystem();
 			//sync groups by LDAP groups or attributes
-			doBatchSyncGroups(ctx, ldapUsers, dnToIdentityKeyMap, errors);
-			//sync roles
-			doBatchSyncRoles(ctx, ldapUsers, dnToIdentityKeyMap, errors);
+			doBatchSyncGroups(ctx, ldapUsers, dnToIdentityKeyMap, fullSync, statistics, errors);
+			waitFor(roles);
+			while(!roleErrors.isEmpty()) {
+				errors.insert(roleErrors.get());
+			}
 			
 			// update sync time and set running flag
 			lastSyncDate = timeBeforeSync;
+			deltaSyncDate = timeBeforeSync;
+			deltaSyncUSN = highestCommittedUSN;
+			syncCounter++;
 			
 			ctx.close();
 			success = true;
-			log.audit("LDAP batch sync done: " + success + " in " + ((System.currentTimeMillis() - startTime) / 1000) + "s");
+			statistics.setTotalTime(System.currentTimeMillis() - startTime);
+			lastSyncStatistics = statistics;
+			log.audit("LDAP batch sync done: " + success + " in " + ((System.currentTimeMillis() - startTime) / 1000) + "s " + statistics);
 			return success;
 		} catch (Exception e) {
 
@@ -943,14 +999,10 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 			return success;
 		} finally {
 			WorkThreadInformations.unsetLongRunningTask("ldapSync");
+			// the lock is only released when no worker writes anymore
+			awaitTermination(workers);
 			freeSyncLock();
-			if(ctx != null) {
-				try {
-					ctx.close();
-				} catch (NamingException e) {
-					//try but failed silently
-				}
-			}
+			closeQuietly(ctx);
 			LDAPEvent endEvent = new LDAPEvent(LDAPEvent.SYNCHING_ENDED);
 			endEvent.setTimestamp(new Date());
 			endEvent.setSuccess(success);
@@ -959,11 +1011,86 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		}
 	}
 	
-	private void doBatchSyncRoles(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
-	throws NamingException {
-		ctx.close();
-		ctx = bindSystem();
+	/**
+	 * The workers of a batch sync. The queue is bounded, if it's full the thread
+	 * which searches the LDAP server processes the batch itself. One more thread
+	 * runs the phases which are executed in parallel of the users synchronization.
+	 * 
+	 * @return A new pool of workers
+	 */
+	private ExecutorService createSyncWorkers() {
+		int numOfWorkers = ldapLoginModule.getLdapSyncWorkers();
+		final AtomicInteger threadNumber = new AtomicInteger();
+		return new ThreadPoolExecutor(numOfWorkers + 1, numOfWorkers + 1, 60l, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(numOfWorkers * 2), r -> {
+					Thread thread = new Thread(r, "ldap-sync-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+	
+	private void awaitTermination(ExecutorService workers) {
+		if(workers == null) return;
 		
+		workers.shutdown();
+		try {
+			if(!workers.awaitTermination(30, TimeUnit.MINUTES)) {
+				log.error("LDAP batch sync workers still running after 30 minutes, interrupt them");
+				workers.shutdownNow();
+				if(!workers.awaitTermination(1, TimeUnit.MINUTES)) {
+					log.error("LDAP batch sync workers don't stop");
+				}
+			}
+		} catch (InterruptedException e) {
+			log.error("Interrupted while waiting the LDAP batch sync workers", e);
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private void waitFor(Future<?> future) throws Exception {
+		try {
+			future.get();
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Exception) {
+				throw (Exception)cause;
+			}
+			throw e;
+		}
+	}
+	
+	private void closeQuietly(LdapContext ctx) {
+		if(ctx != null) {
+			try {
+				ctx.close();
+			} catch (NamingException e) {
+				//try but failed silently
+			}
+		}
+	}
+	
+	@Override
+	public LDAPSyncStatistics getLastSyncStatistics() {
+		return lastSyncStatistics;
+	}
+	
+	private void doBatchSyncRoles(List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap,
+			LDAPSyncStatistics statistics, LDAPError errors) {
+		long start = System.currentTimeMillis();
+		LdapContext ctx = bindSystem();
+		try {
+			doBatchSyncRoles(ctx, ldapUsers, dnToIdentityKeyMap, errors);
+		} catch(RuntimeException e) {
+			dbInstance.rollbackAndCloseSession();
+			throw e;
+		} finally {
+			closeQuietly(ctx);
+			statistics.setRolesTime(System.currentTimeMillis() - start);
+		}
+	}
+	
+	private void doBatchSyncRoles(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
 		List<Organisation> organisations = organisationDao.loadByIdentifier(OrganisationService.DEFAULT_ORGANISATION_IDENTIFIER);
 		Organisation organisation = organisations.get(0);
 		
@@ -1013,6 +1140,10 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 				&& StringHelper.containsNonWhitespace(syncConfiguration.getLearningResourceManagerRoleValue());
 
 		for(LDAPUser ldapUser:ldapUsers) {
+			if(ldapUser.isUnchanged()) {
+				// the roles were already synchronized with the same attributes
+				continue;
+			}
 			if(syncAuthor && ldapUser.isAuthor()) {
 				syncRole(ldapUser, organisation, OrganisationRoles.author);
 				count++;
@@ -1121,7 +1252,21 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		}
 	}
 	
-	private void doBatchSyncDeletedUsers(LdapContext ctx, String sinceSentence) {
+	private void doBatchSyncDeletedUsers(String sinceSentence, LDAPSyncStatistics statistics) {
+		long start = System.currentTimeMillis();
+		LdapContext ctx = bindSystem();
+		try {
+			doBatchSyncDeletedUsers(ctx, sinceSentence, statistics);
+		} catch(RuntimeException e) {
+			dbInstance.rollbackAndCloseSession();
+			throw e;
+		} finally {
+			closeQuietly(ctx);
+			statistics.setDeletedUsersTime(System.currentTimeMillis() - start);
+		}
+	}
+	
+	private void doBatchSyncDeletedUsers(LdapContext ctx, String sinceSentence, LDAPSyncStatistics statistics) {
 		// create User to Delete List
 		List<Identity> deletedUserList = getIdentitysDeletedInLdap(ctx);
 		// delete old users
@@ -1147,6 +1292,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 					} else {
 						// delete users
 						deleteIdentities(deletedUserList, null);
+						statistics.setDeletedUsers(deletedUserList.size());
 						log.info("LDAP batch sync: " + deletedUserList.size() + " users deleted" + sinceSentence);
 					}
 				}
@@ -1167,99 +1313,55 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		dbInstance.commitAndCloseSession();
 	}
 	
-	private List<LDAPUser> doBatchSyncNewAndModifiedUsers(LdapContext ctx, String sinceSentence, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
-		// Get new and modified users from LDAP
-		int count = 0;
-		List<LDAPUser> ldapUserList = ldapDao.getUserAttributesModifiedSince(lastSyncDate, ctx);
+	/**
+	 * The users are searched page by page and handed in batches to the workers,
+	 * every batch is committed at once. The new users are created afterwards one
+	 * by one because the user name and the email must be unique.
+	 */
+	private List<LDAPUser> doBatchSyncNewAndModifiedUsers(LdapContext ctx, ExecutorService workers, Date modifiedSince, Long modifiedSinceUSN,
+			String sinceSentence, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPSyncStatistics statistics, LDAPError errors)
+	throws Exception {
+		long start = System.currentTimeMillis();
 		
-		// Check for new and modified users
-		List<LDAPUser> newLdapUserList = new ArrayList<>();
-		Map<IdentityRef, Map<String, String>> changedMapIdentityMap = new HashMap<>();
-		for (LDAPUser ldapUser: ldapUserList) {
-			String user = null;
-			try {
-				Attributes userAttrs = ldapUser.getAttributes();
-				String uidProp = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
-				user = getAttributeValue(userAttrs.get(uidProp));
-				Identity identity = findIdentityByLdapAuthentication(userAttrs, errors);
-				if (identity != null) {
-					Map<String, String> changedAttrMap = prepareUserPropertyForSync(userAttrs, identity);
-					if (changedAttrMap != null) {
-						changedMapIdentityMap.put(identity, changedAttrMap);
-					}
-					if(StringHelper.containsNonWhitespace(ldapUser.getDn())) {
-						dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
-						ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
-					}
-				} else if (errors.isEmpty()) {
-					String[] reqAttrs = syncConfiguration.checkRequestAttributes(userAttrs);
-					if (reqAttrs == null) {
-						newLdapUserList.add(ldapUser);
-					} else {
-						log.warn("LDAP batch sync: can't create user with username::" + user + " : missing required attributes::"
-							+ ArrayUtils.toString(reqAttrs), null);
-					}
-				} else {
-					log.warn(errors.get(), null);
-				}
-			} catch (Exception e) {
-				// catch here to go on with other users on exeptions!
-				log.error("some error occured in looping over set of changed user-attributes, actual user " + user + ". Will still continue with others.", e);
-				errors.insert("Cannot sync user: " + user);
-			} finally {
-				dbInstance.commit();
-				if(count % 10 == 0) {
-					dbInstance.closeSession();
-				}
-			}
-			if(count % 1000 == 0) {
-				log.info("Retrieve " + count + "/" + ldapUserList.size() + " users in LDAP server");
-			}
-			count++;
+		// Get new and modified users from LDAP
+		List<Future<?>> batchList = new ArrayList<>();
+		Queue<LDAPUser> newLdapUsers = new ConcurrentLinkedQueue<>();
+		LDAPUserVisitor userVisitor = new LDAPUserVisitor(syncConfiguration, ldapLoginModule.getLdapSyncBatchSize(), batch ->
+			batchList.add(workers.submit(() -> syncUserBatch(batch, dnToIdentityKeyMap, newLdapUsers, statistics, errors))));
+		ldapDao.searchUserAttributesModifiedSince(userVisitor, modifiedSince, modifiedSinceUSN, ctx);
+		for(Future<?> batch:batchList) {
+			waitFor(batch);
 		}
+		dbInstance.commitAndCloseSession();
+		statistics.setUsersTime(System.currentTimeMillis() - start);
 		
-		// sync existing users
-		if (changedMapIdentityMap == null || changedMapIdentityMap.isEmpty()) {
+		if(statistics.getUpdatedUsers() == 0) {
 			log.info("LDAP batch sync: no users to sync" + sinceSentence);
 		} else {
-			int syncCount = 0;
-			for (IdentityRef ident : changedMapIdentityMap.keySet()) {
-				// sync user is exception save, no try/catch needed
-				try {
-					syncCount++;
-					syncUser(changedMapIdentityMap.get(ident), ident);
-				} catch (Exception e) {
-					errors.insert("Cannot sync user: " + ident);
-				} finally {
-					dbInstance.commit();
-					if(syncCount % 20 == 0) {
-						dbInstance.closeSession();
-					}
-				}
-				if(syncCount % 1000 == 0) {
-					log.info("Update " + syncCount + "/" + changedMapIdentityMap.size() + " LDAP users");
-				}
-			}
-			log.info("LDAP batch sync: " + changedMapIdentityMap.size() + " users synced" + sinceSentence);
+			log.info("LDAP batch sync: " + statistics.getUpdatedUsers() + " users synced" + sinceSentence);
 		}
+		log.info("LDAP batch sync: " + statistics.getUnchangedUsers() + " users unchanged" + sinceSentence);
 		
 		// create new users
-		if (newLdapUserList.isEmpty()) {
+		long newStart = System.currentTimeMillis();
+		if (newLdapUsers.isEmpty()) {
 			log.info("LDAP batch sync: no users to create" + sinceSentence);
 		} else {			
 			int newCount = 0;
-			for (LDAPUser ldapUser: newLdapUserList) {
+			for (LDAPUser ldapUser: newLdapUsers) {
 				Attributes userAttrs = ldapUser.getAttributes();
 				try {
 					newCount++;
 					Identity identity = createAndPersistUser(userAttrs);
-					if(identity != null && StringHelper.containsNonWhitespace(ldapUser.getDn())) {
-						dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
+					if(identity != null) {
 						ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
+						cacheSyncedUser(ldapUser, LDAPSyncedUsers.hash(userAttrs), dnToIdentityKeyMap);
+						statistics.incrementNewUsers();
 					}
 				} catch (Exception e) {
 					// catch here to go on with other users on exeptions!
 					log.error("some error occured while creating new users, actual userAttribs " + userAttrs + ". Will still continue with others.", e);
+					statistics.incrementFailedUsers();
 				} finally {
 					dbInstance.commit();
 					if(newCount % 20 == 0) {
@@ -1268,23 +1370,141 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 				}
 				
 				if(newCount % 1000 == 0) {
-					log.info("Create " + count + "/" + newLdapUserList.size() + " LDAP users");
+					log.info("Create " + newCount + "/" + newLdapUsers.size() + " LDAP users");
 				}
 			}
-			log.info("LDAP batch sync: " + newLdapUserList.size() + " users created" + sinceSentence);
+			log.info("LDAP batch sync: " + statistics.getNewUsers() + " users created" + sinceSentence);
 		}
 
 		dbInstance.commitAndCloseSession();
-		return ldapUserList;
+		statistics.setNewUsersTime(System.currentTimeMillis() - newStart);
+		return userVisitor.getLdapUserList();
+	}
+	
+	/**
+	 * Synchronize a batch of users and commit them at once. If the batch fails,
+	 * it's rolled back and the users are synchronized one by one to isolate
+	 * the faulty ones.
+	 */
+	private void syncUserBatch(List<LDAPUser> batch, Map<String,LDAPUser> dnToIdentityKeyMap, Queue<LDAPUser> newLdapUsers,
+			LDAPSyncStatistics statistics, LDAPError errors) {
+		List<String> hashes = new ArrayList<>(batch.size());
+		for(LDAPUser ldapUser:batch) {
+			hashes.add(LDAPSyncedUsers.hash(ldapUser.getAttributes()));
+		}
+		
+		List<UserSyncStatus> statusList = new ArrayList<>(batch.size());
+		try {
+			for(int i=0; i<batch.size(); i++) {
+				statusList.add(syncLDAPUser(batch.get(i), hashes.get(i)));
+			}
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.warn("LDAP batch sync: a batch of " + batch.size() + " users failed, synchronize them one by one", e);
+			
+			statusList.clear();
+			for(int i=0; i<batch.size(); i++) {
+				LDAPUser ldapUser = batch.get(i);
+				UserSyncStatus status;
+				try {
+					status = syncLDAPUser(ldapUser, hashes.get(i));
+					dbInstance.commitAndCloseSession();
+				} catch (Exception ex) {
+					dbInstance.rollbackAndCloseSession();
+					// catch here to go on with other users on exeptions!
+					log.error("some error occured in looping over set of changed user-attributes, actual user " + ldapUser.getDn() + ". Will still continue with others.", ex);
+					synchronized(errors) {
+						errors.insert("Cannot sync user: " + ldapUser.getDn());
+					}
+					status = UserSyncStatus.failed;
+				}
+				statusList.add(status);
+			}
+		}
+		
+		for(int i=0; i<batch.size(); i++) {
+			LDAPUser ldapUser = batch.get(i);
+			switch(statusList.get(i)) {
+				case unchanged:
+					ldapUser.setUnchanged(true);
+					statistics.incrementUnchangedUsers();
+					cacheSyncedUser(ldapUser, hashes.get(i), dnToIdentityKeyMap);
+					break;
+				case updated:
+					statistics.incrementUpdatedUsers();
+					cacheSyncedUser(ldapUser, hashes.get(i), dnToIdentityKeyMap);
+					break;
+				case synced:
+					cacheSyncedUser(ldapUser, hashes.get(i), dnToIdentityKeyMap);
+					break;
+				case newUser:
+					newLdapUsers.add(ldapUser);
+					break;
+				case failed:
+					statistics.incrementFailedUsers();
+					break;
+				default:
+					break;
+			}
+		}
+		
+		int count = statistics.incrementUsers(batch.size());
+		if(count / 1000 != (count - batch.size()) / 1000) {
+			log.info("Retrieve " + count + " users in LDAP server");
+		}
 	}
 	
-	private void doBatchSyncGroups(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors)
-	throws NamingException {
-		ctx.close();
+	private UserSyncStatus syncLDAPUser(LDAPUser ldapUser, String hash) {
+		Long unchangedIdentityKey = syncedUsers.getUnchangedIdentityKey(ldapUser.getDn(), hash);
+		if(unchangedIdentityKey != null) {
+			ldapUser.setCachedIdentity(new IdentityRefImpl(unchangedIdentityKey));
+			return UserSyncStatus.unchanged;
+		}
 		
+		Attributes userAttrs = ldapUser.getAttributes();
+		LDAPError userErrors = new LDAPError();
+		Identity identity = findIdentityByLdapAuthentication(userAttrs, userErrors);
+		if (identity != null) {
+			ldapUser.setCachedIdentity(new IdentityRefImpl(identity.getKey()));
+			Map<String, String> changedAttrMap = prepareUserPropertyForSync(userAttrs, identity);
+			if (changedAttrMap != null) {
+				syncUser(changedAttrMap, identity);
+				return UserSyncStatus.updated;
+			}
+			return UserSyncStatus.synced;
+		}
+		
+		if (userErrors.isEmpty()) {
+			String[] reqAttrs = syncConfiguration.checkRequestAttributes(userAttrs);
+			if (reqAttrs == null) {
+				return UserSyncStatus.newUser;
+			}
+			String uidProp = syncConfiguration.getOlatPropertyToLdapAttribute(LDAPConstants.LDAP_USER_IDENTIFYER);
+			String user = getAttributeValue(userAttrs.get(uidProp));
+			log.warn("LDAP batch sync: can't create user with username::" + user + " : missing required attributes::"
+				+ ArrayUtils.toString(reqAttrs), null);
+		} else {
+			log.warn(userErrors.get(), null);
+		}
+		return UserSyncStatus.ignored;
+	}
+	
+	private void cacheSyncedUser(LDAPUser ldapUser, String hash, Map<String,LDAPUser> dnToIdentityKeyMap) {
+		IdentityRef identity = ldapUser.getCachedIdentity();
+		if(identity != null && StringHelper.containsNonWhitespace(ldapUser.getDn())) {
+			dnToIdentityKeyMap.put(ldapUser.getDn(), ldapUser);
+			syncedUsers.synced(ldapUser.getDn(), identity.getKey(), hash, ldapUser.isCoach());
+			// the groups and roles only need the DN, the flags and the identity
+			ldapUser.setAttributes(null);
+		}
+	}
+	
+	private void doBatchSyncGroups(LdapContext ctx, List<LDAPUser> ldapUsers, Map<String,LDAPUser> dnToIdentityKeyMap,
+			boolean fullSync, LDAPSyncStatistics statistics, LDAPError errors) {
+		long start = System.currentTimeMillis();
 		log.info("LDAP batch sync LDAP user to OO groups");
 		
-		ctx = bindSystem();
 		//sync groups by LDAP groups or attributes
 		Map<String,LDAPGroup> cnToGroupMap = new HashMap<>();
 		
@@ -1300,11 +1520,14 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 			doSyncGroupByAttribute(ldapUsers, cnToGroupMap);
 		}
 		
+		// a delta sync only knows the group attributes of the modified users,
+		// the members are only removed by a full sync
+		boolean removeMembers = fullSync || !syncConfiguration.syncGroupWithAttribute();
 		int syncGroupCount = 0;
 		for(LDAPGroup group:cnToGroupMap.values()) {
 			BusinessGroup managedGroup = getManagerBusinessGroup(group.getCommonName());
 			if(managedGroup != null) {
-				syncBusinessGroup(ctx, managedGroup, group, dnToIdentityKeyMap, errors);
+				syncBusinessGroup(ctx, managedGroup, group, dnToIdentityKeyMap, removeMembers, errors);
 			}
 			dbInstance.commitAndCloseSession();
 			if(syncGroupCount % 100 == 0) {
@@ -1312,6 +1535,7 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 			}
 			syncGroupCount++;
 		}
+		statistics.setGroupsTime(System.currentTimeMillis() - start);
 	}
 	
 	private void doSyncGroupByAttribute(List<LDAPUser> ldapUsers, Map<String,LDAPGroup> cnToGroupMap) {
@@ -1345,7 +1569,8 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 		}
 	}
 	
-	private void syncBusinessGroup(LdapContext ctx, BusinessGroup businessGroup, LDAPGroup ldapGroup, Map<String,LDAPUser> dnToIdentityKeyMap, LDAPError errors) {
+	private void syncBusinessGroup(LdapContext ctx, BusinessGroup businessGroup, LDAPGroup ldapGroup, Map<String,LDAPUser> dnToIdentityKeyMap,
+			boolean removeMembers, LDAPError errors) {
 		List<Identity> currentMembers = businessGroupRelationDao
 				.getMembers(businessGroup, GroupRoles.coach.name(), GroupRoles.participant.name());
 		Set<Long> currentMemberKeys = new HashSet<>();
@@ -1403,6 +1628,9 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 			count++;
 		}
 		
+		if(!removeMembers) {
+			currentMemberKeys.clear();
+		}
 		for(Long currentMemberKey:currentMemberKeys) {
 			Identity currentMember = securityManager.loadIdentityByKey(currentMemberKey);
 			List<String> roles = businessGroupRelationDao.getRoles(currentMember, businessGroup);
@@ -1476,6 +1704,18 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 
 		IdentityRef identity = ldapUser == null ? null : ldapUser.getCachedIdentity();
 		if(identity == null) {
+			// users synchronized by a previous sync don't need to be searched again
+			SyncedUser syncedUser = syncedUsers.getSyncedUser(member);
+			if(syncedUser != null) {
+				ldapUser = new LDAPUser();
+				ldapUser.setDn(member);
+				ldapUser.setCoach(syncedUser.isCoach());
+				ldapUser.setUnchanged(true);
+				ldapUser.setCachedIdentity(new IdentityRefImpl(syncedUser.getIdentityKey()));
+				dnToIdentityKeyMap.put(member, ldapUser);
+				return ldapUser;
+			}
+			
 			String userFilter = syncConfiguration.getLdapUserFilter();
 			
 			String userDN = member;
@@ -1620,4 +1860,13 @@ public class LDAPLoginManagerImpl implements LDAPLoginManager, GenericEventListe
 	public boolean isIdentityInLDAPSecGroup(Identity ident) {
 		return authenticationDao.hasAuthentication(ident, LDAPAuthenticationController.PROVIDER_LDAP);
 	}
-}
\ No newline at end of file
+	
+	private enum UserSyncStatus {
+		unchanged,
+		updated,
+		synced,
+		newUser,
+		ignored,
+		failed
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ldap.manager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.Encoder;
+
+/**
+ * Remember the hash of the attributes of every LDAP user which was successfully
+ * synchronized. If the LDAP server delivers the same attributes again, the
+ * batch synchronization can skip the user without loading it from the database.
+ * The hashes live in memory on the node which runs the synchronization and
+ * are discarded periodically to reconcile the database with the LDAP server.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LDAPSyncedUsers {
+	
+	private static final OLog log = Tracing.createLoggerFor(LDAPSyncedUsers.class);
+	
+	private final Map<String,SyncedUser> dnToSyncedUsers = new ConcurrentHashMap<>();
+	
+	public int size() {
+		return dnToSyncedUsers.size();
+	}
+	
+	/**
+	 * @param dn The distinguished name of the user
+	 * @param hash The hash of the current attributes of the user
+	 * @return The primary key of the identity if the user was already synchronized
+	 * 		with exactly the same attributes, or null
+	 */
+	public Long getUnchangedIdentityKey(String dn, String hash) {
+		if(dn == null || hash == null) return null;
+		
+		SyncedUser syncedUser = dnToSyncedUsers.get(dn);
+		if(syncedUser != null && hash.equals(syncedUser.getHash())) {
+			return syncedUser.getIdentityKey();
+		}
+		return null;
+	}
+	
+	/**
+	 * @param dn The distinguished name of the user
+	 * @return The last known synchronization of the user or null
+	 */
+	public SyncedUser getSyncedUser(String dn) {
+		return dn == null ? null : dnToSyncedUsers.get(dn);
+	}
+	
+	public void synced(String dn, Long identityKey, String hash, boolean coach) {
+		if(dn == null || identityKey == null || hash == null) return;
+		dnToSyncedUsers.put(dn, new SyncedUser(identityKey, hash, coach));
+	}
+	
+	public void remove(Collection<Long> identityKeys) {
+		if(identityKeys == null || identityKeys.isEmpty()) return;
+		
+		Set<Long> keys = new HashSet<>(identityKeys);
+		dnToSyncedUsers.values().removeIf(syncedUser -> keys.contains(syncedUser.getIdentityKey()));
+	}
+	
+	public void clear() {
+		dnToSyncedUsers.clear();
+	}
+	
+	/**
+	 * Calculate a SHA-256 hash of the attributes. The order of the attributes
+	 * and of the values of a multi-valued attribute doesn't change the hash.
+	 * 
+	 * @param attributes The attributes of the user
+	 * @return A base64 encoded hash or null if the attributes cannot be read
+	 */
+	public static String hash(Attributes attributes) {
+		if(attributes == null) return null;
+		
+		try {
+			List<String> ids = new ArrayList<>(attributes.size());
+			for(NamingEnumeration<String> idEnum=attributes.getIDs(); idEnum.hasMore(); ) {
+				ids.add(idEnum.next());
+			}
+			Collections.sort(ids, String.CASE_INSENSITIVE_ORDER);
+			
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			for(String id:ids) {
+				Attribute attribute = attributes.get(id);
+				digest.update(id.toLowerCase().getBytes(StandardCharsets.UTF_8));
+				digest.update((byte)0);
+				
+				List<String> values = new ArrayList<>(attribute.size());
+				for(NamingEnumeration<?> valueEnum=attribute.getAll(); valueEnum.hasMore(); ) {
+					Object value = valueEnum.next();
+					if(value instanceof byte[]) {
+						values.add(Encoder.byteToBase64((byte[])value));
+					} else if(value != null) {
+						values.add(value.toString());
+					}
+				}
+				Collections.sort(values);
+				for(String value:values) {
+					digest.update(value.getBytes(StandardCharsets.UTF_8));
+					digest.update((byte)0);
+				}
+				digest.update((byte)1);
+			}
+			return Encoder.byteToBase64(digest.digest());
+		} catch (NamingException | NoSuchAlgorithmException e) {
+			log.error("Cannot calculate the hash of the LDAP attributes", e);
+			return null;
+		}
+	}
+	
+	public static class SyncedUser {
+		
+		private final Long identityKey;
+		private final String hash;
+		private final boolean coach;
+		
+		public SyncedUser(Long identityKey, String hash, boolean coach) {
+			this.identityKey = identityKey;
+			this.hash = hash;
+			this.coach = coach;
+		}
+
+		public Long getIdentityKey() {
+			return identityKey;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+
+		public boolean isCoach() {
+			return coach;
+		}
+	}
+}
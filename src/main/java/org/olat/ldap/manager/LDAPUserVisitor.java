@@ -22,6 +22,7 @@ package org.olat.ldap.manager;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
@@ -48,13 +49,42 @@ public class LDAPUserVisitor implements LDAPVisitor {
 	private final LDAPSyncConfiguration syncConfiguration;
 	private final List<LDAPUser> ldapUserList = new ArrayList<>();
 	
+	private final int batchSize;
+	private final Consumer<List<LDAPUser>> batchConsumer;
+	private List<LDAPUser> batch;
+	
 	public LDAPUserVisitor(LDAPSyncConfiguration syncConfiguration) {
+		this(syncConfiguration, 0, null);
+	}
+	
+	/**
+	 * The users are handed to the consumer in batches while the
+	 * search is still running. Call {@link #flush()} at the end of
+	 * the search to hand the last incomplete batch.
+	 * 
+	 * @param syncConfiguration The configuration
+	 * @param batchSize The size of a batch
+	 * @param batchConsumer The consumer of the batches
+	 */
+	public LDAPUserVisitor(LDAPSyncConfiguration syncConfiguration, int batchSize, Consumer<List<LDAPUser>> batchConsumer) {
 		this.syncConfiguration = syncConfiguration;
+		this.batchSize = batchSize;
+		this.batchConsumer = batchConsumer;
+		if(batchConsumer != null) {
+			batch = new ArrayList<>(batchSize);
+		}
 	}
 	
 	public List<LDAPUser> getLdapUserList() {
 		return ldapUserList;
 	}
+	
+	public void flush() {
+		if(batchConsumer != null && !batch.isEmpty()) {
+			batchConsumer.accept(batch);
+			batch = new ArrayList<>(batchSize);
+		}
+	}
 
 	@Override
 	public void visit(SearchResult searchResult) throws NamingException {
@@ -78,6 +108,12 @@ public class LDAPUserVisitor implements LDAPVisitor {
 		ldapUser.setCoachedGroupIds(coachedGroupList);
 		
 		ldapUserList.add(ldapUser);
+		if(batchConsumer != null) {
+			batch.add(ldapUser);
+			if(batch.size() >= batchSize) {
+				flush();
+			}
+		}
 	}
 	
 	private List<String> parseGroupList(Attributes resAttribs, String attributeName, String attributeSeparator) {
@@ -0,0 +1,193 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ldap.model;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timings and counters of a batch synchronization. The counters
+ * are updated concurrently by the workers of the synchronization.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LDAPSyncStatistics {
+	
+	private final Date start;
+	private final boolean fullSync;
+	private final boolean reconciliation;
+	
+	private volatile long deletedUsersTime;
+	private volatile long usersTime;
+	private volatile long newUsersTime;
+	private volatile long groupsTime;
+	private volatile long rolesTime;
+	private volatile long totalTime;
+	
+	private final AtomicInteger users = new AtomicInteger();
+	private final AtomicInteger unchangedUsers = new AtomicInteger();
+	private final AtomicInteger updatedUsers = new AtomicInteger();
+	private final AtomicInteger newUsers = new AtomicInteger();
+	private final AtomicInteger failedUsers = new AtomicInteger();
+	private final AtomicInteger deletedUsers = new AtomicInteger();
+	
+	public LDAPSyncStatistics(boolean fullSync, boolean reconciliation) {
+		start = new Date();
+		this.fullSync = fullSync;
+		this.reconciliation = reconciliation;
+	}
+
+	public Date getStart() {
+		return start;
+	}
+
+	/**
+	 * @return true if all users were searched, false if only the users
+	 * 		modified since the last synchronization
+	 */
+	public boolean isFullSync() {
+		return fullSync;
+	}
+
+	/**
+	 * @return true if the hashes of the already synchronized users were
+	 * 		discarded and all users compared with the database
+	 */
+	public boolean isReconciliation() {
+		return reconciliation;
+	}
+
+	public long getDeletedUsersTime() {
+		return deletedUsersTime;
+	}
+
+	public void setDeletedUsersTime(long deletedUsersTime) {
+		this.deletedUsersTime = deletedUsersTime;
+	}
+
+	public long getUsersTime() {
+		return usersTime;
+	}
+
+	public void setUsersTime(long usersTime) {
+		this.usersTime = usersTime;
+	}
+
+	public long getNewUsersTime() {
+		return newUsersTime;
+	}
+
+	public void setNewUsersTime(long newUsersTime) {
+		this.newUsersTime = newUsersTime;
+	}
+
+	public long getGroupsTime() {
+		return groupsTime;
+	}
+
+	public void setGroupsTime(long groupsTime) {
+		this.groupsTime = groupsTime;
+	}
+
+	public long getRolesTime() {
+		return rolesTime;
+	}
+
+	public void setRolesTime(long rolesTime) {
+		this.rolesTime = rolesTime;
+	}
+
+	public long getTotalTime() {
+		return totalTime;
+	}
+
+	public void setTotalTime(long totalTime) {
+		this.totalTime = totalTime;
+	}
+
+	public int getUsers() {
+		return users.get();
+	}
+	
+	public int incrementUsers(int delta) {
+		return users.addAndGet(delta);
+	}
+
+	public int getUnchangedUsers() {
+		return unchangedUsers.get();
+	}
+	
+	public void incrementUnchangedUsers() {
+		unchangedUsers.incrementAndGet();
+	}
+
+	public int getUpdatedUsers() {
+		return updatedUsers.get();
+	}
+	
+	public void incrementUpdatedUsers() {
+		updatedUsers.incrementAndGet();
+	}
+
+	public int getNewUsers() {
+		return newUsers.get();
+	}
+	
+	public void incrementNewUsers() {
+		newUsers.incrementAndGet();
+	}
+
+	public int getFailedUsers() {
+		return failedUsers.get();
+	}
+	
+	public void incrementFailedUsers() {
+		failedUsers.incrementAndGet();
+	}
+
+	public int getDeletedUsers() {
+		return deletedUsers.get();
+	}
+	
+	public void setDeletedUsers(int count) {
+		deletedUsers.set(count);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("ldapSync[full=").append(fullSync)
+		  .append(":reconciliation=").append(reconciliation)
+		  .append(":users=").append(getUsers())
+		  .append(":unchanged=").append(getUnchangedUsers())
+		  .append(":updated=").append(getUpdatedUsers())
+		  .append(":new=").append(getNewUsers())
+		  .append(":failed=").append(getFailedUsers())
+		  .append(":deleted=").append(getDeletedUsers())
+		  .append(":deletedUsersTime=").append(deletedUsersTime).append("ms")
+		  .append(":usersTime=").append(usersTime).append("ms")
+		  .append(":newUsersTime=").append(newUsersTime).append("ms")
+		  .append(":groupsTime=").append(groupsTime).append("ms")
+		  .append(":rolesTime=").append(rolesTime).append("ms")
+		  .append(":totalTime=").append(totalTime).append("ms]");
+		return sb.toString();
+	}
+}
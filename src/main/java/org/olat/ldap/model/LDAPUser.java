@@ -45,6 +45,7 @@ public class LDAPUser {
 	private List<String> coachedGroupIds;
 	private Attributes attributes;
 	private IdentityRef cachedIdentity;
+	private boolean unchanged;
 	
 	public String getDn() {
 		return dn;
@@ -141,6 +142,18 @@ public class LDAPUser {
 	public void setCachedIdentity(IdentityRef cachedIdentity) {
 		this.cachedIdentity = cachedIdentity;
 	}
+
+	/**
+	 * @return true if the attributes didn't change since the last
+	 * 		synchronization of the user
+	 */
+	public boolean isUnchanged() {
+		return unchanged;
+	}
+
+	public void setUnchanged(boolean unchanged) {
+		this.unchanged = unchanged;
+	}
 	
 	@Override
 	public int hashCode() {
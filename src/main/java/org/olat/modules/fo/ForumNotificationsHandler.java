@@ -30,10 +30,11 @@ import java.util.List;
 import java.util.Locale;
 
 import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.services.notifications.LatestNewsNotificationsHandler;
 import org.olat.core.commons.services.notifications.NotificationHelper;
-import org.olat.core.commons.services.notifications.NotificationsHandler;
 import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.commons.services.notifications.Publisher;
+import org.olat.core.commons.services.notifications.SharedNewsNotificationsHandler;
 import org.olat.core.commons.services.notifications.Subscriber;
 import org.olat.core.commons.services.notifications.SubscriptionInfo;
 import org.olat.core.commons.services.notifications.manager.NotificationsUpgradeHelper;
@@ -60,7 +61,7 @@ import org.olat.repository.RepositoryManager;
  * 
  * @author Felix Jost
  */
-public class ForumNotificationsHandler extends LogDelegator implements NotificationsHandler {
+public class ForumNotificationsHandler extends LogDelegator implements SharedNewsNotificationsHandler, LatestNewsNotificationsHandler {
 	private static final OLog log = Tracing.createLoggerFor(ForumNotificationsHandler.class);
 
 	public ForumNotificationsHandler() {
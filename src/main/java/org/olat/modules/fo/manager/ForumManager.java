@@ -27,10 +27,10 @@ package org.olat.modules.fo.manager;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -73,11 +73,10 @@ import org.olat.modules.fo.model.ForumImpl;
 import org.olat.modules.fo.model.ForumThread;
 import org.olat.modules.fo.model.ForumUserStatistics;
 import org.olat.modules.fo.model.MessageImpl;
-import org.olat.modules.fo.model.MessageLightImpl;
 import org.olat.modules.fo.model.MessageStatistics;
 import org.olat.modules.fo.model.PseudonymImpl;
 import org.olat.modules.fo.model.PseudonymStatistics;
-import org.olat.modules.fo.model.ReadMessageImpl;
+import org.olat.modules.fo.model.ReadThreadImpl;
 import org.olat.modules.fo.ui.MessagePeekview;
 import org.olat.user.UserManager;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -101,6 +100,8 @@ public class ForumManager {
 	private UserManager userManager;
 	@Autowired
 	private MarkingService markingService;
+	@Autowired
+	private ForumReadThreadDAO readThreadDao;
 	
 	public int countThread(Long messageKey) {
 		String query = "select count(msg) from fomessage as msg where msg.key=:messageKey or msg.threadtop.key=:messageKey";
@@ -276,62 +277,222 @@ public class ForumManager {
 	}
 	
 	
+	/**
+	 * The number of messages and the last modification of the threads are
+	 * read from the summary saved on the top messages, the read messages from
+	 * the read states of the threads. The summaries not available yet (the
+	 * upgrade has not reached the forum) are calculated but not saved.
+	 * 
+	 * @param forum The forum
+	 * @param identity The identity to calculate the new and marked messages (optional)
+	 * @return The list of threads of the forum
+	 */
 	public List<ForumThread> getForumThreads(Forum forum, Identity identity) {
 		StringBuilder sb = new StringBuilder();
-		sb.append("select msg ")
-		  .append(" , (select count(replies.key) from fomessage as replies")
-		  .append("  where replies.threadtop.key=msg.key and replies.forum.key=:forumKey")
-		  .append(" ) as numOfMessages")
-		  .append(" , (select max(replies.lastModified) from fomessage as replies")
-		  .append("  where replies.threadtop.key=msg.key and replies.forum.key=:forumKey")
-		  .append(" ) as lastModified");
-
-		if(identity != null) {
-			sb.append(" , (select count(read.key) from foreadmessage as read, fomessage as posts")
-			  .append("  where (posts.threadtop.key=msg.key or posts.key=msg.key) and read.message.key=posts.key and read.identity.key=:identityKey")
-			  .append(" ) as numOfReadMessages")
-			  .append(" ,(select count(mark.key) from ").append(MarkImpl.class.getName()).append(" as mark, fomessage as mposts ")
-			  .append("   where mark.creator.key=:identityKey and mark.resId=:forumKey and (mposts.threadtop.key=msg.key or mposts.key=msg.key)")
-			  .append("    and mposts.key=cast(mark.resSubPath as long) and mark.resName='Forum'")
-			  .append(" ) as marks");
-		}
-		
-		sb.append(" from fomessage as msg ")
+		sb.append("select msg, msg.threadNumOfMessages, msg.threadLastModified from fomessage as msg ")
 		  .append(" left join fetch msg.creator as creator")
 		  .append(" where msg.forum.key=:forumKey and msg.threadtop is null");
 
-		TypedQuery<Object[]> objectsQuery = dbInstance.getCurrentEntityManager()
+		List<Object[]> objects = dbInstance.getCurrentEntityManager()
 				.createQuery(sb.toString(), Object[].class)
-				.setParameter("forumKey", forum.getKey());
+				.setParameter("forumKey", forum.getKey())
+				.getResultList();
+		
+		Map<Long,Integer> numOfReadMessages = Collections.emptyMap();
+		Map<Long,Integer> numOfMarkedMessages = Collections.emptyMap();
 		if(identity != null) {
-			objectsQuery.setParameter("identityKey", identity.getKey());
+			numOfReadMessages = new HashMap<>();
+			List<ReadThreadImpl> readThreads = readThreadDao.getReadThreads(identity, forum.getKey());
+			for(ReadThreadImpl readThread:readThreads) {
+				numOfReadMessages.merge(readThread.getThreadKey(), readThread.getNumOfRead(), Math::max);
+			}
+			numOfMarkedMessages = getNumOfMarkedMessagesByThread(forum, identity);
 		}
-
-		List<Object[]> objects = objectsQuery.getResultList();
+		
+		Map<Long,Object[]> calculatedSummaries = null;
 		List<ForumThread> threadList = new ArrayList<>(objects.size());
 		for(Object[] object:objects) {
 			Message msg = (Message)object[0];
 			Number numOfMessagesLong = (Number)object[1];
 			Date lastModified = (Date)object[2];
-			int numOfMessages = numOfMessagesLong == null ? 1 : numOfMessagesLong.intValue() + 1;
+			int numOfMessages;
+			if(numOfMessagesLong == null) {
+				// summary not calculated (e.g. thread created before the summaries)
+				if(calculatedSummaries == null) {
+					calculatedSummaries = calculateThreadSummaries(forum.getKey());
+				}
+				Object[] summary = calculatedSummaries.get(msg.getKey());
+				numOfMessages = getNumOfMessages(summary);
+				lastModified = getLastModified(summary, msg);
+			} else {
+				numOfMessages = numOfMessagesLong.intValue();
+			}
+
 			String creator = userManager.getUserDisplayName(msg.getCreator());
 			ForumThread thread = new ForumThread(msg, creator, lastModified, numOfMessages);
-			
 			if(identity != null) {
-				Number readMessages = (Number)object[3];
-				int numOfReadMessages = readMessages == null ? 0 : readMessages.intValue();
-				thread.setNewMessages(numOfMessages - numOfReadMessages);
-
-				Number numOfMarkedMessagesLong = (Number)object[4];
-				int numOfMarkedMessages = numOfMarkedMessagesLong == null ? 0 : numOfMarkedMessagesLong.intValue();
-				thread.setMarkedMessages(numOfMarkedMessages);
+				Integer numOfRead = numOfReadMessages.get(msg.getKey());
+				int newMessages = numOfMessages - (numOfRead == null ? 0 : numOfRead.intValue());
+				thread.setNewMessages(Math.max(0, newMessages));
+				Integer numOfMarked = numOfMarkedMessages.get(msg.getKey());
+				thread.setMarkedMessages(numOfMarked == null ? 0 : numOfMarked.intValue());
 			}
-			
 			threadList.add(thread);
 		}
 		return threadList;
 	}
 	
+	/**
+	 * @return A map thread key to number of marked messages
+	 */
+	private Map<Long,Integer> getNumOfMarkedMessagesByThread(Forum forum, IdentityRef identity) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("select msg.key, top.key from ").append(MarkImpl.class.getName()).append(" as mark, fomessage as msg")
+		  .append(" left join msg.threadtop as top")
+		  .append(" where mark.creator.key=:identityKey and mark.resId=:forumKey and mark.resName='Forum'")
+		  .append(" and msg.forum.key=:forumKey and msg.key=cast(mark.resSubPath as long)");
+		List<Object[]> markedMessages = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("forumKey", forum.getKey())
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+		
+		Map<Long,Integer> threadToMarks = new HashMap<>();
+		for(Object[] markedMessage:markedMessages) {
+			Long threadKey = markedMessage[1] == null ? (Long)markedMessage[0] : (Long)markedMessage[1];
+			threadToMarks.merge(threadKey, 1, Integer::sum);
+		}
+		return threadToMarks;
+	}
+	
+	/**
+	 * @return The keys of the forums with threads without summary
+	 */
+	public List<Long> getForumsWithoutThreadSummaries() {
+		String query = "select distinct msg.forum.key from fomessage as msg where msg.threadtop is null and msg.threadNumOfMessages is null";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(query, Long.class)
+				.getResultList();
+	}
+	
+	/**
+	 * Calculate and save the summaries of the threads of the forum which
+	 * don't have one, used by the upgrade.
+	 * 
+	 * @param forumKey The forum
+	 * @return The number of saved summaries
+	 */
+	public int saveMissingThreadSummaries(Long forumKey) {
+		String query = "select msg from fomessage as msg where msg.forum.key=:forumKey and msg.threadtop is null and msg.threadNumOfMessages is null";
+		List<Message> threads = dbInstance.getCurrentEntityManager()
+				.createQuery(query, Message.class)
+				.setParameter("forumKey", forumKey)
+				.getResultList();
+		if(threads.isEmpty()) return 0;
+		
+		Map<Long,Object[]> summaries = calculateThreadSummaries(forumKey);
+		for(Message thread:threads) {
+			Object[] summary = summaries.get(thread.getKey());
+			saveThreadSummary(thread.getKey(), getNumOfMessages(summary), getLastModified(summary, thread));
+		}
+		return threads.size();
+	}
+	
+	private int getNumOfMessages(Object[] summary) {
+		return summary == null ? 1 : ((Number)summary[1]).intValue() + 1;
+	}
+	
+	private Date getLastModified(Object[] summary, Message thread) {
+		Date lastModified = summary == null ? null : (Date)summary[2];
+		if(lastModified == null || lastModified.before(thread.getLastModified())) {
+			lastModified = thread.getLastModified();
+		}
+		return lastModified;
+	}
+	
+	/**
+	 * @return A map thread key to an array with the thread key, the number of replies
+	 * 		and the last modification of the replies
+	 */
+	private Map<Long,Object[]> calculateThreadSummaries(Long forumKey) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("select msg.threadtop.key, count(msg.key), max(msg.lastModified) from fomessage as msg")
+		  .append(" where msg.forum.key=:forumKey and msg.threadtop.key is not null")
+		  .append(" group by msg.threadtop.key");
+		List<Object[]> summaries = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("forumKey", forumKey)
+				.getResultList();
+		
+		Map<Long,Object[]> threadToSummary = new HashMap<>();
+		for(Object[] summary:summaries) {
+			threadToSummary.put((Long)summary[0], summary);
+		}
+		return threadToSummary;
+	}
+	
+	/**
+	 * Count the messages of the thread and save the summary on the
+	 * top message.
+	 * 
+	 * @param threadKey The key of the top message
+	 */
+	private void updateThreadSummary(Long threadKey) {
+		String query = "select count(msg.key), max(msg.lastModified) from fomessage as msg where msg.key=:threadKey or msg.threadtop.key=:threadKey";
+		List<Object[]> summaries = dbInstance.getCurrentEntityManager()
+				.createQuery(query, Object[].class)
+				.setParameter("threadKey", threadKey)
+				.getResultList();
+		if(summaries != null && summaries.size() == 1 && summaries.get(0)[1] != null) {
+			Object[] summary = summaries.get(0);
+			saveThreadSummary(threadKey, ((Number)summary[0]).intValue(), (Date)summary[1]);
+		}
+	}
+	
+	private void saveThreadSummary(Long threadKey, int numOfMessages, Date lastModified) {
+		String update = "update fomessage set threadNumOfMessages=:numOfMessages, threadLastModified=:lastModified where key=:threadKey";
+		dbInstance.getCurrentEntityManager().createQuery(update)
+			.setParameter("numOfMessages", Integer.valueOf(numOfMessages))
+			.setParameter("lastModified", lastModified, TemporalType.TIMESTAMP)
+			.setParameter("threadKey", threadKey)
+			.executeUpdate();
+	}
+	
+	/**
+	 * Add a message to the summary of the thread. The summaries not
+	 * calculated yet are left as is.
+	 */
+	private void incrementThreadSummary(Long threadKey, Date lastModified) {
+		String update = "update fomessage set threadNumOfMessages=threadNumOfMessages + 1, threadLastModified=:lastModified where key=:threadKey and threadNumOfMessages is not null";
+		dbInstance.getCurrentEntityManager().createQuery(update)
+			.setParameter("lastModified", lastModified, TemporalType.TIMESTAMP)
+			.setParameter("threadKey", threadKey)
+			.executeUpdate();
+	}
+	
+	private void touchThreadSummary(Long threadKey, Date lastModified) {
+		String update = "update fomessage set threadLastModified=:lastModified where key=:threadKey and threadNumOfMessages is not null";
+		dbInstance.getCurrentEntityManager().createQuery(update)
+			.setParameter("lastModified", lastModified, TemporalType.TIMESTAMP)
+			.setParameter("threadKey", threadKey)
+			.executeUpdate();
+	}
+	
+	/**
+	 * Update the summary and the read states of the thread after a
+	 * change of its structure.
+	 * 
+	 * @param threadKey The key of the top message
+	 */
+	private void updateThread(Long threadKey) {
+		updateThreadSummary(threadKey);
+		readThreadDao.updateReadThreads(threadKey);
+	}
+	
+	private Long getThreadKey(Message message) {
+		return message.getThreadtop() == null ? message.getKey() : message.getThreadtop().getKey();
+	}
+	
 	public boolean existsMessageById(Long messageKey) {
 		StringBuilder query = new StringBuilder();
 		query.append("select msg.key from fomessage as msg")
@@ -667,19 +828,13 @@ public class ForumManager {
 	}
 	
 	/**
-	 * Implementation with one entry per message.
+	 * Sum of the read messages of the threads.
 	 * @param identity
 	 * @param forumkey
 	 * @return number of read messages
 	 */
 	public int countReadMessagesByUserAndForum(IdentityRef identity, Long forumkey) {
-		String query = "select count(msg) from foreadmessage as msg where msg.identity.key=:identityKey and msg.forum.key=:forumKey";
-		List<Number> count = dbInstance.getCurrentEntityManager()
-				.createQuery(query, Number.class)
-				.setParameter("identityKey", identity.getKey())
-				.setParameter("forumKey", forumkey)
-				.getResultList();
-		return count == null || count.isEmpty() || count.get(0) == null ? 0 : count.get(0).intValue();
+		return readThreadDao.countReadMessages(identity, forumkey);
 	}
 
 	/**
@@ -745,6 +900,7 @@ public class ForumManager {
 	private void doDeleteForum(final Forum forum) {
 		final Long forumKey = forum.getKey();
 		//delete read messsages
+		readThreadDao.deleteReadThreadsByForum(forumKey);
 		String deleteReadMessages = "delete from foreadmessage as rmsg where rmsg.forum.key=:forumKey";
 		dbInstance.getCurrentEntityManager().createQuery(deleteReadMessages)
 			.setParameter("forumKey", forumKey)
@@ -784,6 +940,7 @@ public class ForumManager {
 		newMessage.setParent(replyToMessage);
 		
 		saveMessage(newMessage);
+		incrementThreadSummary(newMessage.getThreadtop().getKey(), newMessage.getLastModified());
 	}
 
 	/**
@@ -815,6 +972,11 @@ public class ForumManager {
 		updateCounters(m);
 		m.setLastModified(new Date());
 		if(m.getKey() == null) {
+			if(m.getThreadtop() == null && m instanceof MessageImpl) {
+				// a new thread
+				((MessageImpl)m).setThreadNumOfMessages(1);
+				((MessageImpl)m).setThreadLastModified(m.getLastModified());
+			}
 			dbInstance.getCurrentEntityManager().persist(m);
 		} else {
 			m = dbInstance.getCurrentEntityManager().merge(m);
@@ -857,6 +1019,7 @@ public class ForumManager {
 		// Don't update the last modified date for the operations close, hide, move and split.
 		if (updateLastModifiedDate) {
 			message.setLastModified(new Date());
+			touchThreadSummary(getThreadKey(message), message.getLastModified());
 		}
 		return dbInstance.getCurrentEntityManager().merge(message);
 	}
@@ -867,11 +1030,16 @@ public class ForumManager {
 	 */
 	public void deleteMessageTree(Long forumKey, Message m) {
 		deleteMessageRecursion(forumKey, m);
+		if(m.getThreadtop() != null) {
+			updateThread(m.getThreadtop().getKey());
+		}
 	}
 
 	private void deleteMessageRecursion(final Long forumKey, Message m) {
 		deleteMessageContainer(forumKey, m.getKey());
-		deleteReadMessages(m.getKey());
+		if(m.getThreadtop() == null) {
+			readThreadDao.deleteReadThreads(m.getKey());
+		}
 		
 		String query = "select msg from fomessage as msg where msg.parent.key=:parentKey";
 		List<Message> messages = dbInstance.getCurrentEntityManager().createQuery(query, Message.class)
@@ -928,16 +1096,6 @@ public class ForumManager {
 		}	
 	}
 
-	/**
-	 * deletes entry of one message
-	 */
-	private void deleteReadMessages(Long messageKey) {
-		String query = "delete from foreadmessage as rmsg where rmsg.message.key=:messageKey";
-		dbInstance.getCurrentEntityManager().createQuery(query)
-			.setParameter("messageKey", messageKey)
-			.executeUpdate();
-	}
-
 	/**
 	 * @param forumKey
 	 * @param messageKey
@@ -1018,7 +1176,8 @@ public class ForumManager {
 			newTopMessage = msg;
 		} else {	
 			//it only make sense to split a thread if the current message is not a threadtop message.	
-			List<Message> threadList = getThread(msg.getThreadtop().getKey());
+			Long threadKey = msg.getThreadtop().getKey();
+			List<Message> threadList = getThread(threadKey);
 			List<Message> subthreadList = new ArrayList<>();
 			getSubthread(msg, threadList, subthreadList);
 
@@ -1031,6 +1190,10 @@ public class ForumManager {
 				message.setThreadtop(newTopMessage);
 				message = dbInstance.getCurrentEntityManager().merge(message);
 			}
+			
+			updateThreadSummary(threadKey);
+			updateThreadSummary(newTopMessage.getKey());
+			readThreadDao.splitReadThreads(threadKey, newTopMessage.getKey());
 
 			dbInstance.commit();// before sending async event
 			ForumChangedEvent event = new ForumChangedEvent(ForumChangedEvent.SPLIT, newTopMessage.getKey(), null, null);
@@ -1071,6 +1234,11 @@ public class ForumManager {
 		
 		moveMessageContainer(oldMessage.getForum().getKey(), oldMessage.getKey(), message.getForum().getKey(), message.getKey());
 		deleteMessageRecursion(oldMessage.getForum().getKey(), oldMessage);
+		
+		updateThread(targetThread.getKey());
+		if(oldMessage.getThreadtop() != null) {
+			updateThread(oldMessage.getThreadtop().getKey());
+		}
 		return message;
 	}
 	
@@ -1178,6 +1346,10 @@ public class ForumManager {
 		// deletes all children of the old top message recursively
 		deleteMessageRecursion(oldMessage.getForum().getKey(), oldMessage);
 		
+		updateThread(getThreadKey(message));
+		if(oldMessage.getThreadtop() != null) {
+			updateThread(oldMessage.getThreadtop().getKey());
+		}
 		return message;
 	}	
 	
@@ -1207,6 +1379,11 @@ public class ForumManager {
 			moveThreadToAnotherForumRecursively(oldParent, newParent, targetThread);
 		}
 		deleteMessageRecursion(oldParent.getForum().getKey(), oldParent);
+		
+		updateThread(targetThread.getKey());
+		if(oldParent.getThreadtop() != null) {
+			updateThread(oldParent.getThreadtop().getKey());
+		}
 		return newParent;
 	}
 	
@@ -1260,16 +1437,7 @@ public class ForumManager {
 	 * @return a set with the read messages keys for the input identity and forum.  
 	 */
 	public Set<Long> getReadSet(IdentityRef identity, Forum forum) {	
-		StringBuilder query = new StringBuilder();
-		query.append("select rmsg.message.key from foreadmessage as rmsg")
-		     .append(" inner join rmsg.message as msg")
-		     .append(" where rmsg.forum.key=:forumKey and rmsg.identity.key=:identityKey");
-		List<Long> messageKeys = dbInstance.getCurrentEntityManager()
-			.createQuery(query.toString(), Long.class)
-			.setParameter("forumKey", forum.getKey())
-			.setParameter("identityKey", identity.getKey())
-			.getResultList();
-		return new HashSet<Long>(messageKeys);	
+		return readThreadDao.getReadSet(identity, forum.getKey());
 	}
 	
 	/**
@@ -1279,18 +1447,13 @@ public class ForumManager {
 	 * @param forum
 	 * @param msg
 	 */
-	public void markNewMessageAsRead(Identity identity, Forum forum, Message msg) {		
-		//Check if the message was not already deleted
-		ReadMessageImpl readMessage = new ReadMessageImpl();
-		readMessage.setIdentity(identity);
-		readMessage.setMessage(msg);
-		readMessage.setForum(forum);
-		dbInstance.getCurrentEntityManager().persist(readMessage);
+	public void markNewMessageAsRead(Identity identity, Forum forum, Message msg) {
+		Date creationDate = msg.getCreationDate() == null ? new Date() : msg.getCreationDate();
+		readThreadDao.markAsRead(identity, forum.getKey(), getThreadKey(msg), msg.getKey(), creationDate);
 	}
 	
 	/**
-	 * Implementation with one entry per forum message.
-	 * Adds a new entry into the ReadMessage for the input message and identity.
+	 * Adds the message to the read state of its thread for the input identity.
 	 * @param msg
 	 * @param identity
 	 */
@@ -1298,17 +1461,8 @@ public class ForumManager {
 		//Check if the message was not already deleted
 		Message retrievedMessage = loadMessage(msg.getKey());
 		if(retrievedMessage != null) {
-			ReadMessageImpl readMessage = new ReadMessageImpl();
-			readMessage.setIdentity(identity);
-			if(msg instanceof MessageLightImpl) {
-				readMessage.setMessage(msg);
-			} else {
-				msg = dbInstance.getCurrentEntityManager().getReference(MessageLightImpl.class, msg.getKey());
-				readMessage.setMessage(msg);
-			}
-			
-			readMessage.setForum(forum);
-			dbInstance.getCurrentEntityManager().persist(readMessage);
+			readThreadDao.markAsRead(identity, forum.getKey(), getThreadKey(retrievedMessage),
+					retrievedMessage.getKey(), retrievedMessage.getCreationDate());
 		}		
 	}
 	
@@ -1342,6 +1496,7 @@ public class ForumManager {
 					.setParameter("masterKey", masterForumKey)
 					.setParameter("mergerKey", forumToMerge)
 					.executeUpdate();
+				rows += readThreadDao.mergeForums(masterForumKey, forumToMerge);
 			}
 		}
 		return rows;
@@ -0,0 +1,598 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.fo.manager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
+
+import org.olat.basesecurity.IdentityRef;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.logging.DBRuntimeException;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.StringHelper;
+import org.olat.modules.fo.model.ReadThreadImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the compact read state of the forum threads: one row per
+ * identity and thread with a watermark (all messages created up to this
+ * date are read), the keys of the read messages created after the
+ * watermark and the number of read messages.<br>
+ * The list of keys is compacted, the watermark moved forward, every
+ * COMPACTION_INTERVAL new read messages and after every change of the
+ * structure of the thread (delete, move, split). If an old unread message
+ * holds the watermark back, the list is capped: the oldest keys are folded
+ * into the watermark and the unread messages between them are kept as
+ * exceptions below the watermark. The exceptions are bounded too, if there
+ * are too many the keys are not folded.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class ForumReadThreadDAO {
+	
+	private static final OLog log = Tracing.createLoggerFor(ForumReadThreadDAO.class);
+	
+	/**
+	 * The keys of the read messages are compacted every n new read messages.
+	 */
+	protected static final int COMPACTION_INTERVAL = 32;
+	/**
+	 * Max. number of keys after the watermark, over this number the oldest are
+	 * folded into the watermark until half of them remains.
+	 */
+	protected static final int MAX_READ_KEYS = 512;
+	/**
+	 * Max. number of unread messages before the watermark, the keys are not
+	 * folded if they need more exceptions.
+	 */
+	protected static final int MAX_UNREAD_KEYS = 64;
+	/**
+	 * The watermark stays behind the current time, a message created recently
+	 * can be part of a transaction not committed yet.
+	 */
+	protected static final long WATERMARK_DELAY = 5l * 60l * 1000l;
+	
+	@Autowired
+	private DB dbInstance;
+	
+	public ReadThreadImpl createReadThread(IdentityRef identity, Long forumKey, Long threadKey) {
+		return createReadThread(identity.getKey(), forumKey, threadKey);
+	}
+	
+	private ReadThreadImpl createReadThread(Long identityKey, Long forumKey, Long threadKey) {
+		ReadThreadImpl readThread = new ReadThreadImpl();
+		readThread.setCreationDate(new Date());
+		readThread.setLastModified(readThread.getCreationDate());
+		readThread.setIdentityKey(identityKey);
+		readThread.setForumKey(forumKey);
+		readThread.setThreadKey(threadKey);
+		readThread.setNumOfRead(0);
+		dbInstance.getCurrentEntityManager().persist(readThread);
+		return readThread;
+	}
+	
+	public ReadThreadImpl getReadThread(IdentityRef identity, Long threadKey) {
+		return getReadThread(identity.getKey(), threadKey);
+	}
+	
+	private ReadThreadImpl getReadThread(Long identityKey, Long threadKey) {
+		String q = "select rthread from foreadthread as rthread where rthread.identityKey=:identityKey and rthread.threadKey=:threadKey order by rthread.key asc";
+		List<ReadThreadImpl> readThreads = dbInstance.getCurrentEntityManager()
+				.createQuery(q, ReadThreadImpl.class)
+				.setParameter("identityKey", identityKey)
+				.setParameter("threadKey", threadKey)
+				.setFirstResult(0)
+				.setMaxResults(1)
+				.getResultList();
+		return readThreads == null || readThreads.isEmpty() ? null : readThreads.get(0);
+	}
+	
+	private ReadThreadImpl loadReadThreadForUpdate(Long identityKey, Long threadKey) {
+		String q = "select rthread from foreadthread as rthread where rthread.identityKey=:identityKey and rthread.threadKey=:threadKey";
+		List<ReadThreadImpl> readThreads = dbInstance.getCurrentEntityManager()
+				.createQuery(q, ReadThreadImpl.class)
+				.setParameter("identityKey", identityKey)
+				.setParameter("threadKey", threadKey)
+				.setLockMode(LockModeType.PESSIMISTIC_WRITE)
+				.getResultList();
+		return readThreads == null || readThreads.isEmpty() ? null : readThreads.get(0);
+	}
+	
+	/**
+	 * @param identity The identity
+	 * @param forumKey The forum
+	 * @return The read states of all the threads of the forum the identity has read
+	 */
+	public List<ReadThreadImpl> getReadThreads(IdentityRef identity, Long forumKey) {
+		String q = "select rthread from foreadthread as rthread where rthread.identityKey=:identityKey and rthread.forumKey=:forumKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q, ReadThreadImpl.class)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("forumKey", forumKey)
+				.getResultList();
+	}
+	
+	/**
+	 * @param threadKey The key of the top message of the thread
+	 * @return The read states of the thread of all identities
+	 */
+	public List<ReadThreadImpl> getReadThreads(Long threadKey) {
+		String q = "select rthread from foreadthread as rthread where rthread.threadKey=:threadKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q, ReadThreadImpl.class)
+				.setParameter("threadKey", threadKey)
+				.getResultList();
+	}
+	
+	/**
+	 * Mark the message as read. The message is added to the list of read keys,
+	 * the list is compacted every COMPACTION_INTERVAL messages.
+	 * 
+	 * @param identity The identity which read the message
+	 * @param forumKey The forum
+	 * @param threadKey The key of the top message of the thread
+	 * @param messageKey The key of the read message
+	 * @param messageCreationDate The creation date of the read message
+	 * @return true if the message was not already read
+	 */
+	public boolean markAsRead(IdentityRef identity, Long forumKey, Long threadKey, Long messageKey, Date messageCreationDate) {
+		ReadThreadImpl readThread = loadReadThreadForUpdate(identity.getKey(), threadKey);
+		if(readThread == null) {
+			readThread = createReadThreadForUpdate(identity.getKey(), forumKey, threadKey);
+		}
+		
+		Date watermark = readThread.getWatermark();
+		if(watermark != null && messageCreationDate != null && messageCreationDate.getTime() <= watermark.getTime()) {
+			// read unless it's an exception before the watermark
+			SortedSet<Long> unreadKeys = decodeKeys(readThread.getUnreadKeys());
+			if(!unreadKeys.remove(messageKey)) {
+				return false;
+			}
+			readThread.setUnreadKeys(encodeKeys(unreadKeys));
+			readThread.setNumOfRead(readThread.getNumOfRead() + 1);
+			readThread.setLastModified(new Date());
+			return true;
+		}
+		SortedSet<Long> readKeys = decodeKeys(readThread.getReadKeys());
+		if(!readKeys.add(messageKey)) {
+			return false;
+		}
+		
+		readThread.setReadKeys(encodeKeys(readKeys));
+		readThread.setNumOfRead(readThread.getNumOfRead() + 1);
+		if(readKeys.size() % COMPACTION_INTERVAL == 0) {
+			compact(readThread, getThreadMessages(threadKey), getWatermarkLimit());
+		}
+		readThread.setLastModified(new Date());
+		return true;
+	}
+	
+	/**
+	 * Create the read state and lock it. The unique index on the identity and
+	 * the thread rejects the row if a concurrent request of the same user was
+	 * faster, the row of the other request is used. The pending changes are
+	 * committed before, the rollback after a violation doesn't lose them.
+	 */
+	private ReadThreadImpl createReadThreadForUpdate(Long identityKey, Long forumKey, Long threadKey) {
+		dbInstance.commit();
+		try {
+			createReadThread(identityKey, forumKey, threadKey);
+			dbInstance.getCurrentEntityManager().flush();
+			dbInstance.commit();
+		} catch (PersistenceException | DBRuntimeException e) {
+			log.debug("Read state created concurrently, identity: " + identityKey + " thread: " + threadKey);
+			dbInstance.rollbackAndCloseSession();
+		}
+		return loadReadThreadForUpdate(identityKey, threadKey);
+	}
+	
+	/**
+	 * @param identity The identity
+	 * @param forumKey The forum
+	 * @return The keys of all the messages of the forum read by the identity
+	 */
+	public Set<Long> getReadSet(IdentityRef identity, Long forumKey) {
+		List<ReadThreadImpl> readThreads = getReadThreads(identity, forumKey);
+		
+		boolean withWatermark = false;
+		Set<Long> readSet = new HashSet<>();
+		Set<Long> unreadSet = new HashSet<>();
+		for(ReadThreadImpl readThread:readThreads) {
+			readSet.addAll(decodeKeys(readThread.getReadKeys()));
+			unreadSet.addAll(decodeKeys(readThread.getUnreadKeys()));
+			withWatermark |= readThread.getWatermark() != null;
+		}
+		
+		if(withWatermark) {
+			StringBuilder sb = new StringBuilder(256);
+			sb.append("select msg.key from fomessage as msg, foreadthread as rthread")
+			  .append(" where rthread.identityKey=:identityKey and rthread.forumKey=:forumKey")
+			  .append(" and (msg.key=rthread.threadKey or msg.threadtop.key=rthread.threadKey)")
+			  .append(" and msg.creationDate<=rthread.watermark");
+			List<Long> messageKeys = dbInstance.getCurrentEntityManager()
+					.createQuery(sb.toString(), Long.class)
+					.setParameter("identityKey", identity.getKey())
+					.setParameter("forumKey", forumKey)
+					.getResultList();
+			readSet.addAll(messageKeys);
+			readSet.removeAll(unreadSet);
+		}
+		return readSet;
+	}
+	
+	/**
+	 * @param identity The identity
+	 * @param forumKey The forum
+	 * @return The number of messages of the forum read by the identity
+	 */
+	public int countReadMessages(IdentityRef identity, Long forumKey) {
+		String q = "select sum(rthread.numOfRead) from foreadthread as rthread where rthread.identityKey=:identityKey and rthread.forumKey=:forumKey";
+		List<Number> count = dbInstance.getCurrentEntityManager()
+				.createQuery(q, Number.class)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("forumKey", forumKey)
+				.getResultList();
+		return count == null || count.isEmpty() || count.get(0) == null ? 0 : count.get(0).intValue();
+	}
+	
+	/**
+	 * Recalculate the read states of a thread after a change of its
+	 * structure: the keys of the messages which are no longer part of the thread
+	 * are removed and the number of read messages is counted again. A message
+	 * moved in the thread is read if it was created before the watermark and
+	 * it's not one of the unread exceptions.
+	 * 
+	 * @param threadKey The key of the top message of the thread
+	 */
+	public void updateReadThreads(Long threadKey) {
+		List<ReadThreadImpl> readThreads = getReadThreads(threadKey);
+		if(readThreads.isEmpty()) return;
+		
+		List<Object[]> messages = getThreadMessages(threadKey);
+		if(messages.isEmpty()) {
+			deleteReadThreads(threadKey);
+		} else {
+			Date now = new Date();
+			Date limit = getWatermarkLimit();
+			for(ReadThreadImpl readThread:readThreads) {
+				compact(readThread, messages, limit);
+				readThread.setLastModified(now);
+			}
+		}
+	}
+	
+	/**
+	 * A part of a thread was split in a new thread. The read states of the
+	 * messages are copied to the new thread.
+	 * 
+	 * @param threadKey The key of the top message of the original thread
+	 * @param newThreadKey The key of the top message of the new thread
+	 */
+	public void splitReadThreads(Long threadKey, Long newThreadKey) {
+		List<ReadThreadImpl> readThreads = getReadThreads(threadKey);
+		if(readThreads.isEmpty()) return;
+		
+		Date limit = getWatermarkLimit();
+		List<Object[]> newThreadMessages = getThreadMessages(newThreadKey);
+		for(ReadThreadImpl readThread:readThreads) {
+			Date watermark = readThread.getWatermark();
+			SortedSet<Long> readKeys = decodeKeys(readThread.getReadKeys());
+			SortedSet<Long> unreadKeys = decodeKeys(readThread.getUnreadKeys());
+			SortedSet<Long> splittedKeys = new TreeSet<>();
+			for(Object[] message:newThreadMessages) {
+				Long messageKey = (Long)message[0];
+				Date creationDate = (Date)message[1];
+				if(readKeys.contains(messageKey) || (watermark != null && creationDate.getTime() <= watermark.getTime()
+						&& !unreadKeys.contains(messageKey))) {
+					splittedKeys.add(messageKey);
+				}
+			}
+			
+			if(!splittedKeys.isEmpty()) {
+				ReadThreadImpl newReadThread = getReadThread(readThread.getIdentityKey(), newThreadKey);
+				if(newReadThread == null) {
+					newReadThread = createReadThread(readThread.getIdentityKey(), readThread.getForumKey(), newThreadKey);
+				} else {
+					splittedKeys.addAll(decodeKeys(newReadThread.getReadKeys()));
+				}
+				newReadThread.setReadKeys(encodeKeys(splittedKeys));
+				compact(newReadThread, newThreadMessages, limit);
+			}
+		}
+		updateReadThreads(threadKey);
+	}
+	
+	public int deleteReadThreads(Long threadKey) {
+		String q = "delete from foreadthread as rthread where rthread.threadKey=:threadKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q)
+				.setParameter("threadKey", threadKey)
+				.executeUpdate();
+	}
+	
+	public int deleteReadThreadsByForum(Long forumKey) {
+		String q = "delete from foreadthread as rthread where rthread.forumKey=:forumKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q)
+				.setParameter("forumKey", forumKey)
+				.executeUpdate();
+	}
+	
+	public int mergeForums(Long masterForumKey, Long forumKey) {
+		String q = "update foreadthread set forumKey=:masterKey where forumKey=:mergerKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q)
+				.setParameter("masterKey", masterForumKey)
+				.setParameter("mergerKey", forumKey)
+				.executeUpdate();
+	}
+	
+	/**
+	 * @return The keys of the forums with read messages in the legacy format
+	 */
+	public List<Long> getForumsWithReadMessages() {
+		String q = "select distinct rmsg.forum.key from foreadmessage as rmsg";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(q, Long.class)
+				.getResultList();
+	}
+	
+	/**
+	 * Convert the legacy read messages (one row per identity and message) of
+	 * a forum to read states of threads and delete them. The method commits
+	 * the transaction regularly and can be restarted, the keys are merged
+	 * with the existing read states.
+	 * 
+	 * @param forumKey The forum
+	 * @return The number of converted read messages
+	 */
+	public int migrateReadMessages(Long forumKey) {
+		String identitiesQuery = "select distinct rmsg.identity.key from foreadmessage as rmsg where rmsg.forum.key=:forumKey";
+		List<Long> identityKeys = dbInstance.getCurrentEntityManager()
+				.createQuery(identitiesQuery, Long.class)
+				.setParameter("forumKey", forumKey)
+				.getResultList();
+		
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select msg.key, top.key from fomessage as msg")
+		  .append(" left join msg.threadtop as top")
+		  .append(" where msg.forum.key=:forumKey and msg.key in (select rmsg.message.key from foreadmessage as rmsg")
+		  .append("  where rmsg.forum.key=:forumKey and rmsg.identity.key=:identityKey")
+		  .append(" )");
+		
+		int count = 0;
+		Date limit = getWatermarkLimit();
+		Map<Long,List<Object[]>> threadMessagesCache = new HashMap<>();
+		for(int i=0; i<identityKeys.size(); i++) {
+			Long identityKey = identityKeys.get(i);
+			List<Object[]> readMessages = dbInstance.getCurrentEntityManager()
+					.createQuery(sb.toString(), Object[].class)
+					.setParameter("forumKey", forumKey)
+					.setParameter("identityKey", identityKey)
+					.getResultList();
+			
+			Map<Long,SortedSet<Long>> threadToReadKeys = new HashMap<>();
+			for(Object[] readMessage:readMessages) {
+				Long messageKey = (Long)readMessage[0];
+				Long threadKey = readMessage[1] == null ? messageKey : (Long)readMessage[1];
+				threadToReadKeys.computeIfAbsent(threadKey, key -> new TreeSet<>()).add(messageKey);
+			}
+			
+			for(Map.Entry<Long,SortedSet<Long>> entry:threadToReadKeys.entrySet()) {
+				Long threadKey = entry.getKey();
+				SortedSet<Long> readKeys = entry.getValue();
+				ReadThreadImpl readThread = getReadThread(identityKey, threadKey);
+				if(readThread == null) {
+					readThread = createReadThread(identityKey, forumKey, threadKey);
+				} else {
+					readKeys.addAll(decodeKeys(readThread.getReadKeys()));
+				}
+				readThread.setReadKeys(encodeKeys(readKeys));
+				List<Object[]> threadMessages = threadMessagesCache
+						.computeIfAbsent(threadKey, key -> getThreadMessages(key));
+				compact(readThread, threadMessages, limit);
+			}
+			
+			count += readMessages.size();
+			if(i % 25 == 0) {
+				dbInstance.commitAndCloseSession();
+			}
+		}
+		dbInstance.commitAndCloseSession();
+		
+		String deleteQuery = "delete from foreadmessage as rmsg where rmsg.forum.key=:forumKey";
+		dbInstance.getCurrentEntityManager()
+				.createQuery(deleteQuery)
+				.setParameter("forumKey", forumKey)
+				.executeUpdate();
+		dbInstance.commitAndCloseSession();
+		log.info("Migrate " + count + " read messages of " + identityKeys.size() + " users in forum: " + forumKey);
+		return count;
+	}
+	
+	/**
+	 * @param threadKey The key of the top message of the thread
+	 * @return A list of key and creation date of the messages of the thread
+	 * 		ordered by creation date
+	 */
+	protected List<Object[]> getThreadMessages(Long threadKey) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select msg.key, msg.creationDate from fomessage as msg")
+		  .append(" where msg.key=:threadKey or msg.threadtop.key=:threadKey")
+		  .append(" order by msg.creationDate asc, msg.key asc");
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("threadKey", threadKey)
+				.getResultList();
+	}
+	
+	private Date getWatermarkLimit() {
+		return new Date(System.currentTimeMillis() - WATERMARK_DELAY);
+	}
+	
+	/**
+	 * Move the watermark as far as all the messages of the thread are read,
+	 * without overtaking the limit, remove the keys of the messages covered by
+	 * the watermark or not in the thread anymore and count the read messages.
+	 * The unread messages covered by the watermark are kept as exceptions.
+	 * 
+	 * @param readThread The read state to compact
+	 * @param messages The key and creation date of all the messages of the thread
+	 * 		ordered by creation date
+	 * @param limit The watermark cannot be after this date
+	 */
+	protected static void compact(ReadThreadImpl readThread, List<Object[]> messages, Date limit) {
+		SortedSet<Long> readKeys = decodeKeys(readThread.getReadKeys());
+		SortedSet<Long> unreadKeys = decodeKeys(readThread.getUnreadKeys());
+		long watermark = readThread.getWatermark() == null ? Long.MIN_VALUE : readThread.getWatermark().getTime();
+		long limitTime = limit.getTime();
+		
+		long newWatermark = watermark;
+		boolean contiguous = true;
+		for(int i=0; contiguous && i<messages.size(); ) {
+			// the messages created at the same time are read or unread together
+			long creationTime = getCreationTime(messages.get(i));
+			boolean allRead = true;
+			for( ; i<messages.size() && getCreationTime(messages.get(i)) == creationTime; i++) {
+				if(creationTime > watermark && !readKeys.contains(messages.get(i)[0])) {
+					allRead = false;
+				}
+			}
+			
+			if(allRead && creationTime <= limitTime) {
+				newWatermark = Math.max(newWatermark, creationTime);
+			} else {
+				contiguous = false;
+			}
+		}
+		newWatermark = foldWatermark(messages, readKeys, unreadKeys, watermark, newWatermark, limitTime);
+		
+		int numOfRead = 0;
+		List<Long> remainingKeys = new ArrayList<>();
+		List<Long> remainingUnreadKeys = new ArrayList<>();
+		for(Object[] message:messages) {
+			Long messageKey = (Long)message[0];
+			long creationTime = getCreationTime(message);
+			if(creationTime <= watermark && unreadKeys.contains(messageKey)) {
+				remainingUnreadKeys.add(messageKey);
+			} else if(creationTime <= newWatermark) {
+				if(creationTime > watermark && !readKeys.contains(messageKey)) {
+					// folded without being read
+					remainingUnreadKeys.add(messageKey);
+				} else {
+					numOfRead++;
+				}
+			} else if(readKeys.contains(messageKey)) {
+				numOfRead++;
+				remainingKeys.add(messageKey);
+			}
+		}
+		
+		readThread.setWatermark(newWatermark == Long.MIN_VALUE ? null : new Date(newWatermark));
+		readThread.setReadKeys(encodeKeys(remainingKeys));
+		readThread.setUnreadKeys(encodeKeys(remainingUnreadKeys));
+		readThread.setNumOfRead(numOfRead);
+	}
+	
+	/**
+	 * Cap the number of keys after the watermark: if there are more than
+	 * MAX_READ_KEYS, the watermark is moved forward until half of them
+	 * remains, without overtaking the limit. The unread messages between the
+	 * old and the new watermark become exceptions, the watermark is not moved
+	 * if the exceptions exceed MAX_UNREAD_KEYS.
+	 * 
+	 * @param previousWatermark The watermark before the compaction
+	 * @param watermark The watermark after the contiguous read messages
+	 * @return The new watermark
+	 */
+	private static long foldWatermark(List<Object[]> messages, Set<Long> readKeys, Set<Long> unreadKeys,
+			long previousWatermark, long watermark, long limitTime) {
+		List<Long> readTimes = new ArrayList<>();
+		for(Object[] message:messages) {
+			long creationTime = getCreationTime(message);
+			if(creationTime > watermark && readKeys.contains(message[0])) {
+				readTimes.add(Long.valueOf(creationTime));
+			}
+		}
+		if(readTimes.size() <= MAX_READ_KEYS) {
+			return watermark;
+		}
+		
+		long foldedTime = readTimes.get(readTimes.size() - (MAX_READ_KEYS / 2) - 1).longValue();
+		long foldedWatermark = Math.max(watermark, Math.min(foldedTime, limitTime));
+		
+		int numOfUnread = 0;
+		for(Object[] message:messages) {
+			long creationTime = getCreationTime(message);
+			if(creationTime <= previousWatermark) {
+				if(unreadKeys.contains(message[0])) {
+					numOfUnread++;
+				}
+			} else if(creationTime <= foldedWatermark && !readKeys.contains(message[0])) {
+				numOfUnread++;
+			}
+		}
+		return numOfUnread > MAX_UNREAD_KEYS ? watermark : foldedWatermark;
+	}
+	
+	private static long getCreationTime(Object[] message) {
+		return ((Date)message[1]).getTime();
+	}
+	
+	protected static SortedSet<Long> decodeKeys(String keys) {
+		SortedSet<Long> keySet = new TreeSet<>();
+		if(StringHelper.containsNonWhitespace(keys)) {
+			for(String key:keys.split(",")) {
+				if(StringHelper.isLong(key)) {
+					keySet.add(Long.valueOf(key));
+				}
+			}
+		}
+		return keySet;
+	}
+	
+	protected static String encodeKeys(Collection<Long> keys) {
+		if(keys == null || keys.isEmpty()) return null;
+		
+		List<Long> sortedKeys = new ArrayList<>(keys);
+		sortedKeys.sort(null);
+		StringBuilder sb = new StringBuilder(sortedKeys.size() * 12);
+		for(Long key:sortedKeys) {
+			if(sb.length() > 0) sb.append(',');
+			sb.append(key);
+		}
+		return sb.toString();
+	}
+}
@@ -89,6 +89,15 @@ public class MessageImpl implements CreateInfo, Persistable, Message {
 	private Integer numOfCharacters;
 	@Column(name="numofwords", nullable=true, insertable=true, updatable=true)
 	private Integer numOfWords;
+	/**
+	 * Summary of the thread, only set on the top message of the thread. The
+	 * columns are maintained by the ForumManager with update statements.
+	 */
+	@Column(name="thread_numofmessages", nullable=true, insertable=true, updatable=false)
+	private Integer threadNumOfMessages;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="thread_lastmodified", nullable=true, insertable=true, updatable=false)
+	private Date threadLastModified;
 	
 	@ManyToOne(targetEntity=MessageImpl.class,fetch=FetchType.LAZY,optional=true)
 	@JoinColumn(name="parent_id", nullable=true, insertable=true, updatable=true)
@@ -287,6 +296,30 @@ public class MessageImpl implements CreateInfo, Persistable, Message {
 		this.numOfWords = numOfWords;
 	}
 
+	/**
+	 * @return The number of messages of the thread (top message included), or
+	 * 		null if this message is not a top message or the summary not computed yet
+	 */
+	public Integer getThreadNumOfMessages() {
+		return threadNumOfMessages;
+	}
+
+	public void setThreadNumOfMessages(Integer threadNumOfMessages) {
+		this.threadNumOfMessages = threadNumOfMessages;
+	}
+
+	/**
+	 * @return The last modification of the messages of the thread, only on the
+	 * 		top message
+	 */
+	public Date getThreadLastModified() {
+		return threadLastModified;
+	}
+
+	public void setThreadLastModified(Date threadLastModified) {
+		this.threadLastModified = threadLastModified;
+	}
+
 	@Override
 	public int hashCode() {
 		return key == null ? 835245 : key.hashCode();
@@ -47,7 +47,12 @@ import org.olat.core.id.Persistable;
 import org.olat.modules.fo.Forum;
 import org.olat.modules.fo.MessageLight;
 
-
+/**
+ * Legacy read state of the messages, one row per identity and message. The
+ * rows are converted to read states of threads (ReadThreadImpl) by the
+ * upgrade to OpenOLAT 13.0.0.
+ * 
+ */
 @Entity(name="foreadmessage")
 @Table(name="o_readmessage")
 public class ReadMessageImpl implements CreateInfo, Persistable {
@@ -0,0 +1,199 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.fo.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.ModifiedInfo;
+import org.olat.core.id.Persistable;
+
+/**
+ * The read state of a thread for an identity: all the messages of the thread
+ * created before or at the watermark are read except the ones in the list of
+ * unread keys, the messages created after it are read if their keys are in
+ * the list of read keys. The number of read
+ * messages is maintained to show the number of new messages without looking
+ * at the messages. The rows are maintained by the ForumReadThreadDAO.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Entity(name="foreadthread")
+@Table(name="o_fo_read_thread")
+public class ReadThreadImpl implements Persistable, CreateInfo, ModifiedInfo {
+
+	private static final long serialVersionUID = 2862418379473286011L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="lastmodified", nullable=false, insertable=true, updatable=true)
+	private Date lastModified;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="r_watermark", nullable=true, insertable=true, updatable=true)
+	private Date watermark;
+	@Column(name="r_read_keys", nullable=true, insertable=true, updatable=true)
+	private String readKeys;
+	@Column(name="r_unread_keys", nullable=true, insertable=true, updatable=true)
+	private String unreadKeys;
+	@Column(name="r_num_of_read", nullable=false, insertable=true, updatable=true)
+	private int numOfRead;
+	
+	@Column(name="fk_identity_id", nullable=false, insertable=true, updatable=false)
+	private Long identityKey;
+	@Column(name="fk_forum_id", nullable=false, insertable=true, updatable=true)
+	private Long forumKey;
+	@Column(name="fk_thread_id", nullable=false, insertable=true, updatable=false)
+	private Long threadKey;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	@Override
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	/**
+	 * @return The creation date up to which all messages of the thread are read
+	 */
+	public Date getWatermark() {
+		return watermark;
+	}
+
+	public void setWatermark(Date watermark) {
+		this.watermark = watermark;
+	}
+
+	/**
+	 * @return The sorted, comma separated keys of the read messages created
+	 * 		after the watermark
+	 */
+	public String getReadKeys() {
+		return readKeys;
+	}
+
+	public void setReadKeys(String readKeys) {
+		this.readKeys = readKeys;
+	}
+
+	/**
+	 * @return The sorted, comma separated keys of the unread messages created
+	 * 		before the watermark
+	 */
+	public String getUnreadKeys() {
+		return unreadKeys;
+	}
+
+	public void setUnreadKeys(String unreadKeys) {
+		this.unreadKeys = unreadKeys;
+	}
+
+	public int getNumOfRead() {
+		return numOfRead;
+	}
+
+	public void setNumOfRead(int numOfRead) {
+		this.numOfRead = numOfRead;
+	}
+
+	public Long getIdentityKey() {
+		return identityKey;
+	}
+
+	public void setIdentityKey(Long identityKey) {
+		this.identityKey = identityKey;
+	}
+
+	public Long getForumKey() {
+		return forumKey;
+	}
+
+	public void setForumKey(Long forumKey) {
+		this.forumKey = forumKey;
+	}
+
+	public Long getThreadKey() {
+		return threadKey;
+	}
+
+	public void setThreadKey(Long threadKey) {
+		this.threadKey = threadKey;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 28631 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof ReadThreadImpl) {
+			ReadThreadImpl readThread = (ReadThreadImpl)obj;
+			return getKey() != null && getKey().equals(readThread.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
@@ -434,6 +434,7 @@ public class ForumCourseNodeWebService extends AbstractCourseNodeWebService {
 			
 			vo = new MessageVO(message);
 		}
+		notificationsManager.markPublisherNews("Forum", forum.getKey().toString(), identity, false);
 		
 		return Response.ok(vo).build();
 	}
@@ -60,6 +60,7 @@ import org.apache.commons.io.IOUtils;
 import org.olat.basesecurity.BaseSecurity;
 import org.olat.basesecurity.OrganisationRoles;
 import org.olat.basesecurity.model.IdentityRefImpl;
+import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.gui.media.ServletUtil;
 import org.olat.core.id.Identity;
 import org.olat.core.id.Roles;
@@ -109,6 +110,8 @@ public class ForumWebService {
 	private ForumManager fom;
 	@Autowired
 	private BaseSecurity securityManager;
+	@Autowired
+	private NotificationsManager notificationsManager;
 	
 	public ForumWebService(Forum forum) {
 		this.forum = forum;
@@ -233,6 +236,7 @@ public class ForumWebService {
 		newThread.setBody(body);
 		// open a new thread
 		fom.addTopMessage(newThread);
+		notificationsManager.markPublisherNews("Forum", forum.getKey().toString(), author, false);
 		
 		MessageVO vo = new MessageVO(newThread);
 		return Response.ok(vo).build();
@@ -392,6 +396,7 @@ public class ForumWebService {
 		newMessage.setTitle(reply.getTitle());
 		newMessage.setBody(reply.getBody());
 		fom.replyToMessage(newMessage, mess);
+		notificationsManager.markPublisherNews("Forum", forum.getKey().toString(), author, false);
 		if(reply.getAttachments() != null) {
 			for(File64VO attachment:reply.getAttachments()) {
 				byte[] fileAsBytes = Base64.decodeBase64(attachment.getFile());
@@ -32,10 +32,11 @@ import java.util.Locale;
 
 import org.olat.basesecurity.BaseSecurityManager;
 import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.services.notifications.LatestNewsNotificationsHandler;
 import org.olat.core.commons.services.notifications.NotificationHelper;
-import org.olat.core.commons.services.notifications.NotificationsHandler;
 import org.olat.core.commons.services.notifications.NotificationsManager;
 import org.olat.core.commons.services.notifications.Publisher;
+import org.olat.core.commons.services.notifications.SharedNewsNotificationsHandler;
 import org.olat.core.commons.services.notifications.Subscriber;
 import org.olat.core.commons.services.notifications.SubscriptionInfo;
 import org.olat.core.commons.services.notifications.manager.NotificationsUpgradeHelper;
@@ -75,7 +76,7 @@ import org.olat.repository.RepositoryManager;
  * 
  * @author guido
  */
-public class WikiPageChangeOrCreateNotificationHandler implements NotificationsHandler {
+public class WikiPageChangeOrCreateNotificationHandler implements SharedNewsNotificationsHandler, LatestNewsNotificationsHandler {
 	
 	private static final OLog log = Tracing.createLoggerFor(WikiPageChangeOrCreateNotificationHandler.class);
 
@@ -31,13 +31,13 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 
 import org.olat.NewControllerFactory;
 import org.olat.commons.calendar.CalendarManager;
 import org.olat.commons.calendar.PersonalCalendarManager;
 import org.olat.commons.calendar.model.KalendarEvent;
+import org.olat.commons.calendar.ui.components.KalendarEventRenderWrapper;
 import org.olat.commons.calendar.ui.components.KalendarRenderWrapper;
 import org.olat.core.gui.UserRequest;
 import org.olat.core.gui.components.Component;
@@ -134,17 +134,16 @@ public class CalendarPortletRunController extends BasicController {
 		Date endDate = cal.getTime();
 		List<KalendarEvent> events = new ArrayList<>();
 		List<KalendarRenderWrapper> calendars = personalCalendarManager.getListOfCalendarWrappers(ureq, wControl);
-		for (Iterator<KalendarRenderWrapper> iter = calendars.iterator(); iter.hasNext();) {
-			KalendarRenderWrapper calendarWrapper = iter.next();
+		List<KalendarEventRenderWrapper> eventsWithinPeriod = calendarManager.getEvents(calendars, startDate, endDate, true);
+		for (KalendarEventRenderWrapper eventWrapper : eventsWithinPeriod) {
+			KalendarRenderWrapper calendarWrapper = eventWrapper.getKalendarRenderWrapper();
+			KalendarEvent event = eventWrapper.getEvent();
 			boolean readOnly = (calendarWrapper.getAccess() == KalendarRenderWrapper.ACCESS_READ_ONLY) && !calendarWrapper.isImported();
-			List<KalendarEvent> eventsWithinPeriod = calendarManager.getEvents(calendarWrapper.getKalendar(), startDate, endDate, true);
-			for (KalendarEvent event : eventsWithinPeriod) {
-				// skip non-public events
-				if (readOnly && event.getClassification() != KalendarEvent.CLASS_PUBLIC) {
-					continue;
-				}
-				events.add(event);
+			// skip non-public events
+			if (readOnly && event.getClassification() != KalendarEvent.CLASS_PUBLIC) {
+				continue;
 			}
+			events.add(event);
 		}
 		// sort events
 		Collections.sort(events, new Comparator<KalendarEvent>() {
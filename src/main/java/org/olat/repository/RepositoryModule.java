@@ -79,6 +79,8 @@ public class RepositoryModule extends AbstractSpringModule {
 	private boolean myCoursesSearchEnabled;
 	@Value("${mycourses.all.resources.enabled:true}")
 	private boolean listAllResourceTypes;
+	@Value("${mycourses.projection.enabled:true}")
+	private boolean myCoursesProjectionEnabled;
 	@Value("${repo.comment.enabled:true}")
 	private boolean commentEnabled;
 	@Value("${repo.rating.enabled:true}")
@@ -263,6 +265,14 @@ public class RepositoryModule extends AbstractSpringModule {
 		setStringProperty(MYCOURSES_SEARCH_ENABLED, Boolean.toString(enabled), true);
 	}
 
+	/**
+	 * @return true if the my courses list is read from the projection
+	 * 		maintained per identity
+	 */
+	public boolean isMyCoursesProjectionEnabled() {
+		return myCoursesProjectionEnabled;
+	}
+
 	public boolean isCommentEnabled() {
 		return commentEnabled;
 	}
@@ -0,0 +1,591 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.manager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
+
+import org.olat.basesecurity.Group;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.basesecurity.IdentityImpl;
+import org.olat.basesecurity.IdentityRef;
+import org.olat.basesecurity.model.IdentityRefImpl;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.commentAndRating.UserRatingsListener;
+import org.olat.core.commons.services.commentAndRating.manager.UserRatingsDAO;
+import org.olat.core.commons.services.mark.MarkListener;
+import org.olat.core.commons.services.mark.MarkManager;
+import org.olat.core.commons.services.mark.impl.MarkImpl;
+import org.olat.core.id.Identity;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.course.assessment.model.UserEfficiencyStatementImpl;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryEntryRef;
+import org.olat.repository.model.RepositoryEntryMyCourseProjection;
+import org.olat.repository.model.RepositoryEntryMyCourseState;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the "My courses" projection, one row per identity and repository
+ * entry where the identity is owner, coach or participant. The changes of
+ * memberships only mark the projection of the concerned identities as stale,
+ * it will be rebuilt the next time the list is loaded. Marks, ratings and
+ * efficiency statements are updated in place.<br>
+ * Only the identities which have already loaded their list have a state and
+ * a projection. The projection is built by a small pool of threads, in their
+ * own transactions, while the requests use the memberships until it's ready.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Service
+public class RepositoryEntryMyCourseProjectionDAO implements MarkListener, UserRatingsListener, InitializingBean, DisposableBean {
+	
+	private static final OLog log = Tracing.createLoggerFor(RepositoryEntryMyCourseProjectionDAO.class);
+	
+	private static final String RES_NAME = "RepositoryEntry";
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private MarkManager markManager;
+	@Autowired
+	private UserRatingsDAO userRatingsDao;
+	
+	private ExecutorService rebuildExecutor;
+	private final Set<Long> pendingRebuilds = ConcurrentHashMap.newKeySet();
+	
+	@Override
+	public void afterPropertiesSet() throws Exception {
+		markManager.addListener(this);
+		userRatingsDao.addListener(this);
+		
+		final AtomicInteger threadNumber = new AtomicInteger();
+		rebuildExecutor = Executors.newFixedThreadPool(4, r -> {
+			Thread thread = new Thread(r, "my-courses-projection-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+	
+	@Override
+	public void destroy() throws Exception {
+		if(rebuildExecutor != null) {
+			rebuildExecutor.shutdownNow();
+		}
+	}
+	
+	public RepositoryEntryMyCourseState getState(IdentityRef identity) {
+		return dbInstance.getCurrentEntityManager()
+				.find(RepositoryEntryMyCourseState.class, identity.getKey());
+	}
+	
+	public List<RepositoryEntryMyCourseProjection> getProjection(IdentityRef identity) {
+		String query = "select p from remycourse as p where p.identity.key=:identityKey";
+		return dbInstance.getCurrentEntityManager()
+				.createQuery(query, RepositoryEntryMyCourseProjection.class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+	}
+	
+	/**
+	 * Check if the projection of the identity can be used. If it's missing or
+	 * stale, a rebuild is queued and the caller must query the memberships
+	 * for this request. The rebuild runs in its own transaction in an other
+	 * thread and the caller never waits for it.
+	 * 
+	 * @param identity The identity
+	 * @return true if the projection is up-to-date and can be used
+	 */
+	public boolean ensureUpToDate(IdentityRef identity) {
+		List<Object[]> versions = dbInstance.getCurrentEntityManager()
+				.createQuery("select st.version, st.builtVersion from remycoursestate as st where st.identityKey=:identityKey", Object[].class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+		if(!versions.isEmpty()) {
+			Object[] version = versions.get(0);
+			if(((Number)version[1]).longValue() >= ((Number)version[0]).longValue()) {
+				return true;
+			}
+		}
+		
+		final Long identityKey = identity.getKey();
+		if(pendingRebuilds.add(identityKey)) {
+			try {
+				rebuildExecutor.execute(() -> rebuildInOwnTransaction(identityKey));
+			} catch (RejectedExecutionException e) {
+				pendingRebuilds.remove(identityKey);
+				log.warn("Cannot queue the rebuild of my courses of identity: " + identityKey);
+			}
+		}
+		return false;
+	}
+	
+	private void rebuildInOwnTransaction(Long identityKey) {
+		IdentityRef identity = new IdentityRefImpl(identityKey);
+		try {
+			createState(identity);
+			dbInstance.commit();
+		} catch (PersistenceException e) {
+			// the state was created concurrently, by an other node for example
+			dbInstance.rollbackAndCloseSession();
+		}
+		
+		try {
+			rebuild(identity, false);
+			dbInstance.commitAndCloseSession();
+		} catch (Exception e) {
+			dbInstance.rollbackAndCloseSession();
+			log.error("Cannot rebuild my courses of identity: " + identityKey, e);
+		} finally {
+			pendingRebuilds.remove(identityKey);
+		}
+	}
+	
+	/**
+	 * Create the state of the identity if it doesn't exist and build the
+	 * projection in the current transaction. The changes are not committed.
+	 * 
+	 * @param identity The identity
+	 * @return The number of inserted, updated and deleted rows
+	 */
+	public int build(IdentityRef identity) {
+		createState(identity);
+		return rebuild(identity, false);
+	}
+	
+	/**
+	 * The state is only created if it's not already there, the primary key
+	 * on the identity prevents the duplicates.
+	 */
+	private void createState(IdentityRef identity) {
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		if(em.find(RepositoryEntryMyCourseState.class, identity.getKey()) == null) {
+			RepositoryEntryMyCourseState state = new RepositoryEntryMyCourseState();
+			state.setIdentityKey(identity.getKey());
+			state.setLastModified(new Date());
+			state.setVersion(1l);
+			state.setBuiltVersion(0l);
+			em.persist(state);
+			em.flush();
+		}
+	}
+	
+	/**
+	 * Rebuild the projection of the identity. The state of the identity
+	 * is locked during the rebuild, the changes are not committed.
+	 * 
+	 * @param identity The identity
+	 * @param force Rebuild the projection even if it's up-to-date
+	 * @return The number of inserted, updated and deleted rows
+	 */
+	public int rebuild(IdentityRef identity, boolean force) {
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		RepositoryEntryMyCourseState state = em.find(RepositoryEntryMyCourseState.class, identity.getKey());
+		if(state == null) {
+			return 0;
+		}
+		em.refresh(state, LockModeType.PESSIMISTIC_WRITE);
+		
+		int changes = 0;
+		if(force || !state.isUpToDate()) {
+			changes = rebuildProjection(identity);
+			state.setBuiltVersion(state.getVersion());
+			state.setLastModified(new Date());
+		}
+		return changes;
+	}
+	
+	private int rebuildProjection(IdentityRef identity) {
+		EntityManager em = dbInstance.getCurrentEntityManager();
+		
+		Map<Long,Membership> memberships = loadMemberships(identity);
+		Set<Long> marks = loadMarks(identity);
+		Map<Long,Integer> ratings = loadRatings(identity);
+		Map<Long,Object[]> statements = loadStatements(identity);
+		List<RepositoryEntryMyCourseProjection> projection = getProjection(identity);
+		
+		int changes = 0;
+		Date now = new Date();
+		for(RepositoryEntryMyCourseProjection row:projection) {
+			Membership membership = memberships.remove(row.getEntry().getKey());
+			if(membership == null) {
+				em.remove(row);
+				changes++;
+			} else if(fill(row, membership, marks, ratings, statements)) {
+				row.setLastModified(now);
+				changes++;
+			}
+		}
+		
+		for(Membership membership:memberships.values()) {
+			RepositoryEntryMyCourseProjection row = new RepositoryEntryMyCourseProjection();
+			row.setCreationDate(now);
+			row.setLastModified(now);
+			row.setIdentity(em.getReference(IdentityImpl.class, identity.getKey()));
+			row.setEntry(em.getReference(RepositoryEntry.class, membership.entryKey));
+			fill(row, membership, marks, ratings, statements);
+			em.persist(row);
+			changes++;
+		}
+		return changes;
+	}
+	
+	/**
+	 * @return true if a value of the row has changed
+	 */
+	private boolean fill(RepositoryEntryMyCourseProjection row, Membership membership,
+			Set<Long> marks, Map<Long,Integer> ratings, Map<Long,Object[]> statements) {
+		boolean marked = marks.contains(membership.entryKey);
+		Integer rating = ratings.get(membership.entryKey);
+		Object[] statement = statements.get(membership.resourceKey);
+		Long statementKey = statement == null ? null : (Long)statement[0];
+		Boolean passed = statement == null ? null : (Boolean)statement[2];
+		Float score = statement == null ? null : (Float)statement[3];
+		
+		boolean changed = row.isOwner() != membership.owner
+				|| row.isCoach() != membership.coach
+				|| row.isParticipant() != membership.participant
+				|| row.isMarked() != marked
+				|| !equals(row.getRating(), rating)
+				|| !equals(row.getStatementKey(), statementKey)
+				|| !equals(row.getPassed(), passed)
+				|| !equals(row.getScore(), score);
+		if(changed) {
+			row.setOwner(membership.owner);
+			row.setCoach(membership.coach);
+			row.setParticipant(membership.participant);
+			row.setMarked(marked);
+			row.setRating(rating);
+			row.setStatementKey(statementKey);
+			row.setPassed(passed);
+			row.setScore(score);
+		}
+		return changed;
+	}
+	
+	private static boolean equals(Object o1, Object o2) {
+		return o1 == null ? o2 == null : o1.equals(o2);
+	}
+	
+	private Map<Long,Membership> loadMemberships(IdentityRef identity) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("select v.key, v.olatResource.key, membership.role from repoentrytogroup as rel")
+		  .append(" inner join rel.entry as v")
+		  .append(" inner join bgroupmember as membership on (membership.group.key=rel.group.key)")
+		  .append(" where membership.identity.key=:identityKey and membership.role in (:roles)");
+		
+		List<String> roles = new ArrayList<>(3);
+		roles.add(GroupRoles.owner.name());
+		roles.add(GroupRoles.coach.name());
+		roles.add(GroupRoles.participant.name());
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("roles", roles)
+				.getResultList();
+		
+		Map<Long,Membership> memberships = new HashMap<>();
+		for(Object[] rawObject:rawObjects) {
+			Long entryKey = (Long)rawObject[0];
+			Membership membership = memberships
+					.computeIfAbsent(entryKey, key -> new Membership(key, (Long)rawObject[1]));
+			String role = (String)rawObject[2];
+			if(GroupRoles.owner.name().equals(role)) {
+				membership.owner = true;
+			} else if(GroupRoles.coach.name().equals(role)) {
+				membership.coach = true;
+			} else if(GroupRoles.participant.name().equals(role)) {
+				membership.participant = true;
+			}
+		}
+		return memberships;
+	}
+	
+	private Set<Long> loadMarks(IdentityRef identity) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("select mark.resId from ").append(MarkImpl.class.getName()).append(" as mark")
+		  .append(" where mark.creator.key=:identityKey and mark.resName='").append(RES_NAME).append("'");
+		List<Long> entryKeys = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+		return new HashSet<>(entryKeys);
+	}
+	
+	private Map<Long,Integer> loadRatings(IdentityRef identity) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("select rating.resId, rating.rating from userrating as rating")
+		  .append(" where rating.creator.key=:identityKey and rating.resName='").append(RES_NAME).append("'")
+		  .append(" and rating.resSubPath is null");
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+		Map<Long,Integer> ratings = new HashMap<>();
+		for(Object[] rawObject:rawObjects) {
+			ratings.put((Long)rawObject[0], (Integer)rawObject[1]);
+		}
+		return ratings;
+	}
+	
+	/**
+	 * @return A map resource key to key, resource key, passed and score of the statement
+	 */
+	private Map<Long,Object[]> loadStatements(IdentityRef identity) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("select eff.key, eff.resource.key, eff.passed, eff.score from ").append(UserEfficiencyStatementImpl.class.getName()).append(" as eff")
+		  .append(" where eff.identity.key=:identityKey");
+		List<Object[]> rawObjects = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Object[].class)
+				.setParameter("identityKey", identity.getKey())
+				.getResultList();
+		Map<Long,Object[]> statements = new HashMap<>();
+		for(Object[] rawObject:rawObjects) {
+			if(rawObject[1] != null) {
+				statements.put((Long)rawObject[1], rawObject);
+			}
+		}
+		return statements;
+	}
+	
+	/**
+	 * The memberships of the identity have changed.
+	 * 
+	 * @param identity The identity
+	 */
+	public void markStale(IdentityRef identity) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update remycoursestate st set st.version=st.version+1, st.lastModified=:now where st.identityKey=:identityKey")
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * The memberships of all the members of the group have changed, for
+	 * example if the group is linked to a repository entry.
+	 * 
+	 * @param group The group
+	 */
+	public void markStale(Group group) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("update remycoursestate st set st.version=st.version+1, st.lastModified=:now")
+		  .append(" where st.identityKey in (select membership.identity.key from bgroupmember as membership")
+		  .append("  where membership.group.key=:groupKey")
+		  .append(" )");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("groupKey", group.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * The memberships of all the members of the repository entry have changed.
+	 * 
+	 * @param entry The repository entry
+	 */
+	public void markStale(RepositoryEntryRef entry) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("update remycoursestate st set st.version=st.version+1, st.lastModified=:now")
+		  .append(" where st.identityKey in (select membership.identity.key from repoentrytogroup as rel, bgroupmember as membership")
+		  .append("  where rel.entry.key=:entryKey and rel.group.key=membership.group.key")
+		  .append(" )");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("entryKey", entry.getKey())
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	@Override
+	public void markChanged(Identity identity, OLATResourceable ores, String resSubPath, boolean marked) {
+		if(isRepositoryEntry(ores)) {
+			updateMark(identity, ores.getResourceableId(), marked);
+		}
+	}
+	
+	@Override
+	public void marksDeleted(OLATResourceable ores, String resSubPath) {
+		if(resSubPath == null && isRepositoryEntry(ores)) {
+			removeMarks(ores.getResourceableId());
+		}
+	}
+	
+	@Override
+	public void ratingChanged(Identity creator, OLATResourceable ores, String resSubPath, Integer rating) {
+		if(resSubPath == null && isRepositoryEntry(ores)) {
+			updateRating(creator, ores.getResourceableId(), rating);
+		}
+	}
+	
+	@Override
+	public void ratingsDeleted(OLATResourceable ores, String resSubPath) {
+		if(resSubPath == null && isRepositoryEntry(ores)) {
+			removeRatings(ores.getResourceableId());
+		}
+	}
+	
+	private boolean isRepositoryEntry(OLATResourceable ores) {
+		return RES_NAME.equals(ores.getResourceableTypeName());
+	}
+	
+	public void updateMark(IdentityRef identity, Long entryKey, boolean marked) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update remycourse p set p.marked=:marked, p.lastModified=:now where p.identity.key=:identityKey and p.entry.key=:entryKey")
+				.setParameter("marked", Boolean.valueOf(marked))
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("entryKey", entryKey)
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	public void removeMarks(Long entryKey) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update remycourse p set p.marked=false, p.lastModified=:now where p.entry.key=:entryKey and p.marked=true")
+				.setParameter("entryKey", entryKey)
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	public void updateRating(IdentityRef identity, Long entryKey, Integer rating) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update remycourse p set p.rating=:rating, p.lastModified=:now where p.identity.key=:identityKey and p.entry.key=:entryKey")
+				.setParameter("rating", rating)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("entryKey", entryKey)
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	public void removeRatings(Long entryKey) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update remycourse p set p.rating=null, p.lastModified=:now where p.entry.key=:entryKey and p.rating is not null")
+				.setParameter("entryKey", entryKey)
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * Update the passed and score of the efficiency statement of the
+	 * repository entry with the specified resource.
+	 * 
+	 * @param identity The assessed identity
+	 * @param resourceKey The resource of the course
+	 * @param statementKey The key of the statement or null if it was deleted
+	 * @param passed The passed
+	 * @param score The score
+	 */
+	public void updateStatement(IdentityRef identity, Long resourceKey, Long statementKey, Boolean passed, Float score) {
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("update remycourse p set p.statementKey=:statementKey, p.passed=:passed, p.score=:score, p.lastModified=:now")
+		  .append(" where p.identity.key=:identityKey and p.entry.key in (select v.key from repositoryentry as v")
+		  .append("  where v.olatResource.key=:resourceKey")
+		  .append(" )");
+		dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString())
+				.setParameter("statementKey", statementKey)
+				.setParameter("passed", passed)
+				.setParameter("score", score)
+				.setParameter("identityKey", identity.getKey())
+				.setParameter("resourceKey", resourceKey)
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	public void removeStatements(Long entryKey) {
+		dbInstance.getCurrentEntityManager()
+				.createQuery("update remycourse p set p.statementKey=null, p.passed=null, p.score=null, p.lastModified=:now where p.entry.key=:entryKey and p.statementKey is not null")
+				.setParameter("entryKey", entryKey)
+				.setParameter("now", new Date())
+				.executeUpdate();
+	}
+	
+	/**
+	 * Delete the rows of all the identities for the repository entry, to
+	 * call before the repository entry is deleted.
+	 * 
+	 * @param entry The repository entry
+	 * @return The number of deleted rows
+	 */
+	public int deleteProjection(RepositoryEntryRef entry) {
+		return dbInstance.getCurrentEntityManager()
+				.createQuery("delete from remycourse p where p.entry.key=:entryKey")
+				.setParameter("entryKey", entry.getKey())
+				.executeUpdate();
+	}
+	
+	/**
+	 * @param lastIdentityKey The last key of the previous batch or null
+	 * @param maxResults The size of the batch
+	 * @return A batch of keys of the identities with a projection, ordered by key
+	 */
+	public List<Long> getIdentityKeys(Long lastIdentityKey, int maxResults) {
+		StringBuilder sb = new StringBuilder(128);
+		sb.append("select st.identityKey from remycoursestate as st");
+		if(lastIdentityKey != null) {
+			sb.append(" where st.identityKey>:lastKey");
+		}
+		sb.append(" order by st.identityKey asc");
+		
+		TypedQuery<Long> query = dbInstance.getCurrentEntityManager()
+				.createQuery(sb.toString(), Long.class)
+				.setMaxResults(maxResults);
+		if(lastIdentityKey != null) {
+			query.setParameter("lastKey", lastIdentityKey);
+		}
+		return query.getResultList();
+	}
+	
+	private static class Membership {
+		
+		private final Long entryKey;
+		private final Long resourceKey;
+		private boolean owner;
+		private boolean coach;
+		private boolean participant;
+		
+		public Membership(Long entryKey, Long resourceKey) {
+			this.entryKey = entryKey;
+			this.resourceKey = resourceKey;
+		}
+	}
+}
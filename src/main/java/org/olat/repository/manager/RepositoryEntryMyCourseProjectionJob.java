@@ -0,0 +1,88 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.manager;
+
+import java.util.List;
+
+import org.olat.basesecurity.model.IdentityRefImpl;
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.scheduler.JobWithDB;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.repository.RepositoryModule;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+
+/**
+ * Rebuild the "My courses" projections of all identities and log
+ * the number of rows which were not up-to-date.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class RepositoryEntryMyCourseProjectionJob extends JobWithDB {
+	
+	private static final OLog log = Tracing.createLoggerFor(RepositoryEntryMyCourseProjectionJob.class);
+	
+	private static final int BATCH_SIZE = 100;
+
+	@Override
+	public void executeWithDB(JobExecutionContext context)
+	throws JobExecutionException {
+		try {
+			if(CoreSpringFactory.getImpl(RepositoryModule.class).isMyCoursesProjectionEnabled()) {
+				check();
+			}
+		} catch (Exception e) {
+			log.error("", e);
+		}
+	}
+	
+	private void check() {
+		DB dbInstance = CoreSpringFactory.getImpl(DB.class);
+		RepositoryEntryMyCourseProjectionDAO myCourseProjectionDao = CoreSpringFactory.getImpl(RepositoryEntryMyCourseProjectionDAO.class);
+		
+		long start = System.currentTimeMillis();
+		int numOfIdentities = 0;
+		int numOfFixedIdentities = 0;
+		int numOfFixedRows = 0;
+		
+		Long lastIdentityKey = null;
+		List<Long> identityKeys;
+		do {
+			identityKeys = myCourseProjectionDao.getIdentityKeys(lastIdentityKey, BATCH_SIZE);
+			dbInstance.commitAndCloseSession();
+			for(Long identityKey:identityKeys) {
+				int changes = myCourseProjectionDao.rebuild(new IdentityRefImpl(identityKey), true);
+				dbInstance.commitAndCloseSession();
+				if(changes > 0) {
+					numOfFixedIdentities++;
+					numOfFixedRows += changes;
+				}
+				lastIdentityKey = identityKey;
+			}
+			numOfIdentities += identityKeys.size();
+		} while(identityKeys.size() == BATCH_SIZE);
+		
+		log.info("My courses projections checked: " + numOfIdentities + " identities, " + numOfFixedRows
+				+ " rows of " + numOfFixedIdentities + " identities rebuilt in (ms): " + (System.currentTimeMillis() - start));
+	}
+}
@@ -61,7 +61,10 @@ import org.springframework.stereotype.Service;
 /**
  * 
  * Queries for the view "RepositoryEntryMyCourseView" dedicated to the "My course" feature.
- * The identity is a mandatory parameter.
+ * The identity is a mandatory parameter.<br>
+ * If the membership is mandatory, the query is made against the projection "remycourse"
+ * of the identity which holds the memberships, marks, ratings and efficiency statements
+ * instead of calculating them with sub-queries.
  * 
  * 
  * Initial date: 12.03.2014<br>
@@ -79,6 +82,8 @@ public class RepositoryEntryMyCourseQueries {
 	private RepositoryModule repositoryModule;
 	@Autowired
 	private EfficiencyStatementManager efficiencyStatementManager;
+	@Autowired
+	private RepositoryEntryMyCourseProjectionDAO myCourseProjectionDao;
 	
 	public int countViews(SearchMyRepositoryEntryViewParams params) {
 		if(params.getIdentity() == null) {
@@ -86,7 +91,10 @@ public class RepositoryEntryMyCourseQueries {
 			return 0;
 		}
 		
-		TypedQuery<Number> query = creatMyViewQuery(params, Number.class);
+		// without up-to-date projection, query the memberships
+		boolean projection = useProjection(params)
+				&& myCourseProjectionDao.ensureUpToDate(params.getIdentity());
+		TypedQuery<Number> query = creatMyViewQuery(params, Number.class, projection);
 		Number count = query.getSingleResult();
 		return count == null ? 0 : count.intValue();
 	}
@@ -97,7 +105,10 @@ public class RepositoryEntryMyCourseQueries {
 			return Collections.emptyList();
 		}
 
-		TypedQuery<Object[]> query = creatMyViewQuery(params, Object[].class);
+		// without up-to-date projection, query the memberships
+		boolean projection = useProjection(params)
+				&& myCourseProjectionDao.ensureUpToDate(params.getIdentity());
+		TypedQuery<Object[]> query = creatMyViewQuery(params, Object[].class, projection);
 		query.setFirstResult(firstResult);
 		if(maxResults > 0) {
 			query.setMaxResults(maxResults);
@@ -115,8 +126,13 @@ public class RepositoryEntryMyCourseQueries {
 		Map<OLATResource,RepositoryEntryMyCourseImpl> viewsMap = new HashMap<>();
 		for(Object[] object:objects) {
 			RepositoryEntry re = (RepositoryEntry)object[0];
-			Number numOfMarks = (Number)object[1];
-			boolean hasMarks = numOfMarks != null && numOfMarks.longValue() > 0;
+			boolean hasMarks;
+			if(object[1] instanceof Boolean) {
+				hasMarks = ((Boolean)object[1]).booleanValue();
+			} else {
+				Number numOfMarks = (Number)object[1];
+				hasMarks = numOfMarks != null && numOfMarks.longValue() > 0;
+			}
 			Number numOffers = (Number)object[2];
 			long offers = numOffers == null ? 0l : numOffers.longValue();
 			Integer myRating = (Integer)object[3];
@@ -129,11 +145,15 @@ public class RepositoryEntryMyCourseQueries {
 			}
 			RepositoryEntryMyCourseImpl view = new RepositoryEntryMyCourseImpl(re, stats, hasMarks, offers, myRating);
 			views.add(view);
-			viewsMap.put(re.getOlatResource(), view);
-
-			Long effKey = (Long)object[4];
-			if(effKey != null) {
-				effKeys.add(effKey);
+			
+			if(projection) {
+				view.setEfficiencyStatement((Boolean)object[4], (Float)object[5]);
+			} else {
+				viewsMap.put(re.getOlatResource(), view);
+				Long effKey = (Long)object[4];
+				if(effKey != null) {
+					effKeys.add(effKey);
+				}
 			}
 		}
 		
@@ -149,8 +169,27 @@ public class RepositoryEntryMyCourseQueries {
 		return views;
 	}
 
+	/**
+	 * The projection is used if the membership is mandatory, the lists which
+	 * show the repository entries open to all users (favorites...) cannot use it.
+	 * 
+	 * @param params The search parameters
+	 * @return true if the query can be made against the "My courses" projection
+	 */
+	protected boolean useProjection(SearchMyRepositoryEntryViewParams params) {
+		if(!repositoryModule.isMyCoursesProjectionEnabled() || params.getRoles().isGuestOnly()) {
+			return false;
+		}
+		return params.isMembershipMandatory() || !getMembershipRoles(params.getFilters()).isEmpty();
+	}
+
 	protected <T> TypedQuery<T> creatMyViewQuery(SearchMyRepositoryEntryViewParams params,
 			Class<T> type) {
+		return creatMyViewQuery(params, type, false);
+	}
+
+	protected <T> TypedQuery<T> creatMyViewQuery(SearchMyRepositoryEntryViewParams params,
+			Class<T> type, boolean projection) {
 
 		Roles roles = params.getRoles();
 		Identity identity = params.getIdentity();
@@ -161,11 +200,36 @@ public class RepositoryEntryMyCourseQueries {
 		boolean oracle = "oracle".equals(dbInstance.getDbVendor());
 		QueryBuilder sb = new QueryBuilder(2048);
 		
-		if(count) {
+		if(count && projection) {
+			sb.append("select count(v.key) ")
+			  .append(" from remycourse as mycourse")
+			  .append(" inner join mycourse.entry as v")
+			  .append(" inner join v.olatResource as res")
+			  .append(" left join v.lifecycle as lifecycle ");
+		} else if(count) {
 			sb.append("select count(v.key) ")
 			  .append(" from repositoryentry as v")
 			  .append(" inner join v.olatResource as res")
 			  .append(" left join v.lifecycle as lifecycle ");
+		} else if(projection) {
+			sb.append("select v, mycourse.marked as marks,")
+			  .append(" (select count(offer.key) from acoffer as offer ")
+			  .append("   where offer.resource=res and offer.valid=true")
+			  .append(" ) as offers, ");
+			if(repositoryModule.isRatingEnabled()) {
+				sb.append(" mycourse.rating as myrating");
+			} else {
+				sb.append(" 0 as myrating");
+			}
+			sb.append(" ,mycourse.passed as passed, mycourse.score as score");
+			needIdentityKey |= appendOrderByInSelect(params, sb, true);
+			sb.append(" from remycourse as mycourse")
+			  .append(" inner join mycourse.entry as v")
+			  .append(" inner join ").append(oracle ? "" : "fetch").append(" v.olatResource as res");
+			if(repositoryModule.isRatingEnabled() || repositoryModule.isCommentEnabled()) {
+				sb.append(" inner join fetch v.statistics as stats");
+			}
+			sb.append(" left join fetch v.lifecycle as lifecycle ");
 		} else {
 			sb.append("select v, ");
 			if(params.getMarked() != null && params.getMarked().booleanValue()) {
@@ -192,7 +256,7 @@ public class RepositoryEntryMyCourseQueries {
 			sb.append(" ,(select eff.key from ").append(UserEfficiencyStatementImpl.class.getName()).append(" as eff")
 			  .append("    where eff.resource=res and eff.identity.key=:identityKey")
 			  .append(" ) as effKey");
-			needIdentityKey |= appendOrderByInSelect(params, sb);
+			needIdentityKey |= appendOrderByInSelect(params, sb, false);
 			sb.append(" from repositoryentry as v")
 			  .append(" inner join ").append(oracle ? "" : "fetch").append(" v.olatResource as res");
 			if(repositoryModule.isRatingEnabled() || repositoryModule.isCommentEnabled()) {
@@ -204,12 +268,19 @@ public class RepositoryEntryMyCourseQueries {
 		//efficiency statements
 		
 		// join seems to be quicker
-		if(params.getMarked() != null && params.getMarked().booleanValue()) {
+		if(!projection && params.getMarked() != null && params.getMarked().booleanValue()) {
 			sb.append(" inner join ").append(MarkImpl.class.getName()).append(" as mark2 on (mark2.creator.key=:identityKey and mark2.resId=v.key and mark2.resName='RepositoryEntry')");
 		}
 
 		sb.append(" where ");
-		needIdentityKey |= appendMyViewAccessSubSelect(sb, roles, params.getFilters(), params.isMembershipMandatory());
+		if(projection) {
+			needIdentityKey |= appendMyViewProjection(sb, params.getFilters());
+			if(params.getMarked() != null && params.getMarked().booleanValue()) {
+				sb.append(" and mycourse.marked=true");
+			}
+		} else {
+			needIdentityKey |= appendMyViewAccessSubSelect(sb, roles, params.getFilters(), params.isMembershipMandatory());
+		}
 
 		if(params.getClosed() != null) {
 			if(params.getClosed().booleanValue()) {
@@ -221,7 +292,7 @@ public class RepositoryEntryMyCourseQueries {
 		
 		if(params.getFilters() != null) {
 			for(Filter filter:params.getFilters()) {
-				needIdentityKey |= appendFiltersInWhereClause(filter, sb);
+				needIdentityKey |= appendFiltersInWhereClause(filter, sb, projection);
 			}
 		}
 
@@ -362,12 +433,7 @@ public class RepositoryEntryMyCourseQueries {
 		return dbQuery;
 	}
 	
-	private boolean appendMyViewAccessSubSelect(QueryBuilder sb, Roles roles, List<Filter> filters, boolean membershipMandatory) {
-		if(roles.isGuestOnly()) {
-			sb.append(" v.allUsers=true and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed());//TODO repo access	
-			return false;
-		}
-
+	private List<GroupRoles> getMembershipRoles(List<Filter> filters) {
 		List<GroupRoles> inRoles = new ArrayList<>();
 		if(filters != null && !filters.isEmpty()) {
 			for(Filter filter: filters) {
@@ -380,6 +446,42 @@ public class RepositoryEntryMyCourseQueries {
 				}
 			}
 		}
+		return inRoles;
+	}
+	
+	/**
+	 * The status is a property of the repository entry and is not part of
+	 * the projection, every row of the projection is at least a membership
+	 * as owner, coach or participant.
+	 */
+	private boolean appendMyViewProjection(QueryBuilder sb, List<Filter> filters) {
+		sb.append(" mycourse.identity.key=:identityKey and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed());
+		
+		List<GroupRoles> inRoles = getMembershipRoles(filters);
+		if(!inRoles.isEmpty()) {
+			sb.append(" and (");
+			for(int i=0; i<inRoles.size(); i++) {
+				if(i > 0) {
+					sb.append(" or ");
+				}
+				switch(inRoles.get(i)) {
+					case owner: sb.append("mycourse.owner=true"); break;
+					case coach: sb.append("mycourse.coach=true"); break;
+					default: sb.append("mycourse.participant=true"); break;
+				}
+			}
+			sb.append(")");
+		}
+		return true;
+	}
+	
+	private boolean appendMyViewAccessSubSelect(QueryBuilder sb, Roles roles, List<Filter> filters, boolean membershipMandatory) {
+		if(roles.isGuestOnly()) {
+			sb.append(" v.allUsers=true and v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed());//TODO repo access	
+			return false;
+		}
+
+		List<GroupRoles> inRoles = getMembershipRoles(filters);
 		//+ membership
 		sb.append(" v.status ").in(RepositoryEntryStatusEnum.publishedAndClosed()).append(" and ");
 		if(inRoles.isEmpty() && !membershipMandatory) {
@@ -404,7 +506,22 @@ public class RepositoryEntryMyCourseQueries {
 		return true;
 	}
 	
-	private boolean appendFiltersInWhereClause(Filter filter, QueryBuilder sb) {
+	private boolean appendFiltersInWhereClause(Filter filter, QueryBuilder sb, boolean projection) {
+		if(projection) {
+			switch(filter) {
+				case passed:
+					sb.append(" and mycourse.passed=true");
+					return false;
+				case notPassed:
+					sb.append(" and mycourse.passed=false");
+					return false;
+				case withoutPassedInfos:
+					sb.append(" and mycourse.statementKey is not null and mycourse.passed is null");
+					return false;
+				default: //the other filters work on the repository entry
+			}
+		}
+		
 		boolean needIdentityKey = false;
 		switch(filter) {
 			case showAll: break;
@@ -446,9 +563,10 @@ public class RepositoryEntryMyCourseQueries {
 	 * 
 	 * @param params
 	 * @param sb
+	 * @param projection If true, passed and score are already selected from the projection
 	 * @return
 	 */
-	private boolean appendOrderByInSelect(SearchMyRepositoryEntryViewParams params, QueryBuilder sb) {
+	private boolean appendOrderByInSelect(SearchMyRepositoryEntryViewParams params, QueryBuilder sb, boolean projection) {
 		boolean needIdentityKey = false;
 		OrderBy orderBy = params.getOrderBy();
 		if(orderBy != null) {
@@ -461,16 +579,20 @@ public class RepositoryEntryMyCourseQueries {
 					  .append(" ) as recentLaunch");
 					break;
 				case passed:
-					needIdentityKey = true;
-					sb.append(" ,(select eff3.passed from ").append(UserEfficiencyStatementImpl.class.getName()).append(" as eff3")
-					  .append("    where eff3.resource=res and eff3.identity.key=:identityKey")
-					  .append(" ) as passed");
+					if(!projection) {
+						needIdentityKey = true;
+						sb.append(" ,(select eff3.passed from ").append(UserEfficiencyStatementImpl.class.getName()).append(" as eff3")
+						  .append("    where eff3.resource=res and eff3.identity.key=:identityKey")
+						  .append(" ) as passed");
+					}
 					break;
 				case score:
-					needIdentityKey = true;
-					sb.append(" ,(select eff4.score from ").append(UserEfficiencyStatementImpl.class.getName()).append(" as eff4")
-					  .append("    where eff4.resource=res and eff4.identity.key=:identityKey")
-					  .append(" ) as score");
+					if(!projection) {
+						needIdentityKey = true;
+						sb.append(" ,(select eff4.score from ").append(UserEfficiencyStatementImpl.class.getName()).append(" as eff4")
+						  .append("    where eff4.resource=res and eff4.identity.key=:identityKey")
+						  .append(" ) as score");
+					}
 					break;
 				default: //do nothing
 			}
@@ -65,6 +65,8 @@ public class RepositoryEntryRelationDAO {
 	private DB dbInstance;
 	@Autowired
 	private GroupDAO groupDao;
+	@Autowired
+	private RepositoryEntryMyCourseProjectionDAO myCourseProjectionDao;
 	
 	/**
 	 * Get roles in the repository entry, with business groups too but
@@ -552,6 +554,7 @@ public class RepositoryEntryRelationDAO {
 		rel.setGroup(group);
 		rel.setEntry(re);
 		dbInstance.getCurrentEntityManager().persist(rel);
+		myCourseProjectionDao.markStale(group);
 		return rel;
 	}
 	
@@ -565,17 +568,22 @@ public class RepositoryEntryRelationDAO {
 		for(RepositoryEntryToGroupRelation rel:rels) {
 			em.remove(rel);
 		}
+		if(!rels.isEmpty()) {
+			myCourseProjectionDao.markStale(group);
+		}
 		return rels.size();
 	}
 	
 	/**
 	 * This will remove all relations from the repository entry,
-	 * the default one too.
+	 * the default one too, and the rows of the "My courses" projection.
 	 * 
 	 * @param re
 	 * @return
 	 */
 	public int removeRelations(RepositoryEntryRef re) {
+		myCourseProjectionDao.markStale(re);
+		myCourseProjectionDao.deleteProjection(re);
 		EntityManager em = dbInstance.getCurrentEntityManager();
 		List<RepositoryEntryToGroupRelation> rels = em.createNamedQuery("relationByRepositoryEntry", RepositoryEntryToGroupRelation.class)
 			.setParameter("repoKey", re.getKey())
@@ -599,11 +607,15 @@ public class RepositoryEntryRelationDAO {
 				count++;
 			}
 		}
+		if(count > 0) {
+			myCourseProjectionDao.markStale(group);
+		}
 		return count;
 	}
 	
 	public void removeRelation(RepositoryEntryToGroupRelation rel) {
 		dbInstance.getCurrentEntityManager().remove(rel);
+		myCourseProjectionDao.markStale(rel.getGroup());
 	}
 	
 	/**
@@ -115,6 +115,11 @@ public class RepositoryEntryMyCourseImpl implements RepositoryEntryMyView, Creat
 			passed = efficiencyStatment.getPassed();
 		}
 	}
+	
+	public void setEfficiencyStatement(Boolean passed, Float score) {
+		this.passed = passed;
+		this.score = score;
+	}
 
 	@Override
 	public Long getKey() {
@@ -0,0 +1,223 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.basesecurity.IdentityImpl;
+import org.olat.core.id.CreateInfo;
+import org.olat.core.id.Identity;
+import org.olat.core.id.ModifiedInfo;
+import org.olat.core.id.Persistable;
+import org.olat.repository.RepositoryEntry;
+
+/**
+ * One row of the "My courses" projection: the memberships of an identity in
+ * a repository entry with its mark, its rating and the passed / score of its
+ * efficiency statement. The rows are maintained by the
+ * RepositoryEntryMyCourseProjectionDAO.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Entity(name="remycourse")
+@Table(name="o_re_my_course")
+public class RepositoryEntryMyCourseProjection implements Persistable, CreateInfo, ModifiedInfo {
+
+	private static final long serialVersionUID = -3371460624207616383L;
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name="id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long key;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="creationdate", nullable=false, insertable=true, updatable=false)
+	private Date creationDate;
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="lastmodified", nullable=false, insertable=true, updatable=true)
+	private Date lastModified;
+	
+	@Column(name="m_owner", nullable=false, insertable=true, updatable=true)
+	private boolean owner;
+	@Column(name="m_coach", nullable=false, insertable=true, updatable=true)
+	private boolean coach;
+	@Column(name="m_participant", nullable=false, insertable=true, updatable=true)
+	private boolean participant;
+	@Column(name="m_marked", nullable=false, insertable=true, updatable=true)
+	private boolean marked;
+	@Column(name="m_rating", nullable=true, insertable=true, updatable=true)
+	private Integer rating;
+	@Column(name="m_statement_key", nullable=true, insertable=true, updatable=true)
+	private Long statementKey;
+	@Column(name="m_passed", nullable=true, insertable=true, updatable=true)
+	private Boolean passed;
+	@Column(name="m_score", nullable=true, insertable=true, updatable=true)
+	private Float score;
+	
+	@ManyToOne(targetEntity=IdentityImpl.class,fetch=FetchType.LAZY,optional=false)
+	@JoinColumn(name="fk_identity_id", nullable=false, insertable=true, updatable=false)
+	private Identity identity;
+	@ManyToOne(targetEntity=RepositoryEntry.class,fetch=FetchType.LAZY,optional=false)
+	@JoinColumn(name="fk_entry_id", nullable=false, insertable=true, updatable=false)
+	private RepositoryEntry entry;
+
+	@Override
+	public Long getKey() {
+		return key;
+	}
+
+	public void setKey(Long key) {
+		this.key = key;
+	}
+
+	@Override
+	public Date getCreationDate() {
+		return creationDate;
+	}
+
+	public void setCreationDate(Date creationDate) {
+		this.creationDate = creationDate;
+	}
+
+	@Override
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public boolean isOwner() {
+		return owner;
+	}
+
+	public void setOwner(boolean owner) {
+		this.owner = owner;
+	}
+
+	public boolean isCoach() {
+		return coach;
+	}
+
+	public void setCoach(boolean coach) {
+		this.coach = coach;
+	}
+
+	public boolean isParticipant() {
+		return participant;
+	}
+
+	public void setParticipant(boolean participant) {
+		this.participant = participant;
+	}
+
+	public boolean isMarked() {
+		return marked;
+	}
+
+	public void setMarked(boolean marked) {
+		this.marked = marked;
+	}
+
+	public Integer getRating() {
+		return rating;
+	}
+
+	public void setRating(Integer rating) {
+		this.rating = rating;
+	}
+
+	public Long getStatementKey() {
+		return statementKey;
+	}
+
+	public void setStatementKey(Long statementKey) {
+		this.statementKey = statementKey;
+	}
+
+	public Boolean getPassed() {
+		return passed;
+	}
+
+	public void setPassed(Boolean passed) {
+		this.passed = passed;
+	}
+
+	public Float getScore() {
+		return score;
+	}
+
+	public void setScore(Float score) {
+		this.score = score;
+	}
+
+	public Identity getIdentity() {
+		return identity;
+	}
+
+	public void setIdentity(Identity identity) {
+		this.identity = identity;
+	}
+
+	public RepositoryEntry getEntry() {
+		return entry;
+	}
+
+	public void setEntry(RepositoryEntry entry) {
+		this.entry = entry;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 71863 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof RepositoryEntryMyCourseProjection) {
+			RepositoryEntryMyCourseProjection projection = (RepositoryEntryMyCourseProjection)obj;
+			return getKey() != null && getKey().equals(projection.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
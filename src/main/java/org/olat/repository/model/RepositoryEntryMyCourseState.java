@@ -0,0 +1,125 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.model;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import org.olat.core.id.ModifiedInfo;
+import org.olat.core.id.Persistable;
+
+/**
+ * The state of the "My courses" projection of an identity. Every change
+ * which can add or remove rows of the projection increments the version,
+ * the projection is up-to-date if it was built with the current version.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Entity(name="remycoursestate")
+@Table(name="o_re_my_course_state")
+public class RepositoryEntryMyCourseState implements Persistable, ModifiedInfo {
+
+	private static final long serialVersionUID = 5409218367150942447L;
+
+	@Id
+	@Column(name="fk_identity_id", nullable=false, unique=true, insertable=true, updatable=false)
+	private Long identityKey;
+	
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="lastmodified", nullable=false, insertable=true, updatable=true)
+	private Date lastModified;
+	
+	@Column(name="m_version", nullable=false, insertable=true, updatable=true)
+	private long version;
+	@Column(name="m_built_version", nullable=false, insertable=true, updatable=true)
+	private long builtVersion;
+
+	@Override
+	public Long getKey() {
+		return identityKey;
+	}
+
+	public Long getIdentityKey() {
+		return identityKey;
+	}
+
+	public void setIdentityKey(Long identityKey) {
+		this.identityKey = identityKey;
+	}
+
+	@Override
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	@Override
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public void setVersion(long version) {
+		this.version = version;
+	}
+
+	public long getBuiltVersion() {
+		return builtVersion;
+	}
+
+	public void setBuiltVersion(long builtVersion) {
+		this.builtVersion = builtVersion;
+	}
+	
+	public boolean isUpToDate() {
+		return builtVersion >= version;
+	}
+
+	@Override
+	public int hashCode() {
+		return getKey() == null ? 28691 : getKey().hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this == obj) {
+			return true;
+		}
+		if(obj instanceof RepositoryEntryMyCourseState) {
+			RepositoryEntryMyCourseState state = (RepositoryEntryMyCourseState)obj;
+			return getKey() != null && getKey().equals(state.getKey());
+		}
+		return false;
+	}
+
+	@Override
+	public boolean equalsByPersistableKey(Persistable persistable) {
+		return equals(persistable);
+	}
+}
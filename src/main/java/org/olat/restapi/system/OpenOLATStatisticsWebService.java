@@ -34,18 +34,23 @@ import org.olat.admin.sysinfo.model.SessionsStats;
 import org.olat.basesecurity.BaseSecurity;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.id.Identity;
+import org.olat.core.logging.activity.LoggingObjectWriter;
 import org.olat.core.util.SessionInfo;
 import org.olat.core.util.UserSession;
 import org.olat.core.util.WorkThreadInformations;
 import org.olat.core.util.session.UserSessionManager;
 import org.olat.course.CourseModule;
 import org.olat.group.BusinessGroupService;
+import org.olat.ims.qti21.manager.AssessmentTestLaunchThrottle;
+import org.olat.ims.qti21.model.AssessmentTestLaunchStatistics;
 import org.olat.portfolio.manager.InvitationDAO;
 import org.olat.repository.RepositoryManager;
+import org.olat.restapi.system.vo.ActivityLogVO;
 import org.olat.restapi.system.vo.OpenOLATStatisticsVO;
 import org.olat.restapi.system.vo.RepositoryStatisticsVO;
 import org.olat.restapi.system.vo.SessionsVO;
 import org.olat.restapi.system.vo.TasksVO;
+import org.olat.restapi.system.vo.TestLaunchesVO;
 import org.olat.restapi.system.vo.UserStatisticsVO;
 
 /**
@@ -164,6 +169,38 @@ public class OpenOLATStatisticsWebService implements Sampler {
 		return Response.ok(vo).build();
 	}
 
+	/**
+	 * Return the statistics of the admission control of the QTI 2.1 test launches.
+	 * @response.representation.200.qname {http://www.example.com}testLaunchesVO
+	 * @response.representation.200.mediaType application/xml, application/json
+	 * @response.representation.200.doc The queue length and the latencies of the launches
+	 * @response.representation.401.doc The roles of the authenticated user are not sufficient
+	 * @return The statistics about the test launches
+	 */
+	@GET
+	@Path("testlaunches")
+	@Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+	public Response getTestLaunches() {
+		TestLaunchesVO vo = getTestLaunchesVO();
+		return Response.ok(vo).build();
+	}
+
+	/**
+	 * Return the counters of the asynchronous writer of the user activity log.
+	 * @response.representation.200.qname {http://www.example.com}activityLogVO
+	 * @response.representation.200.mediaType application/xml, application/json
+	 * @response.representation.200.doc The queue size, the written logging objects, the overflows and the failures
+	 * @response.representation.401.doc The roles of the authenticated user are not sufficient
+	 * @return The statistics about the user activity log
+	 */
+	@GET
+	@Path("activitylog")
+	@Produces({MediaType.APPLICATION_XML, MediaType.APPLICATION_JSON})
+	public Response getActivityLog() {
+		ActivityLogVO vo = getActivityLogVO();
+		return Response.ok(vo).build();
+	}
+
 	private UserStatisticsVO getUserStatisticsVO() {
 		UserStatisticsVO stats = new UserStatisticsVO();
 		BaseSecurity securityManager = CoreSpringFactory.getImpl(BaseSecurity.class);
@@ -227,6 +264,34 @@ public class OpenOLATStatisticsWebService implements Sampler {
 		return stats;
 	}
 
+	private TestLaunchesVO getTestLaunchesVO() {
+		AssessmentTestLaunchStatistics statistics = CoreSpringFactory.getImpl(AssessmentTestLaunchThrottle.class).getStatistics();
+		TestLaunchesVO vo = new TestLaunchesVO();
+		vo.setQueueLength(statistics.getQueueLength());
+		vo.setMaxQueueLength(statistics.getMaxQueueLength());
+		vo.setAdmitted(statistics.getAdmitted());
+		vo.setDelayed(statistics.getDelayed());
+		vo.setOverflow(statistics.getOverflow());
+		vo.setAverageWaitTime(statistics.getAverageWaitTime());
+		vo.setMaxWaitTime(statistics.getMaxWaitTime());
+		vo.setLaunches(statistics.getLaunches());
+		vo.setAverageLaunchTime(statistics.getAverageLaunchTime());
+		vo.setMaxLaunchTime(statistics.getMaxLaunchTime());
+		return vo;
+	}
+
+	private ActivityLogVO getActivityLogVO() {
+		LoggingObjectWriter writer = CoreSpringFactory.getImpl(LoggingObjectWriter.class);
+		ActivityLogVO vo = new ActivityLogVO();
+		vo.setEnabled(writer.isEnabled());
+		vo.setQueueSize(writer.getQueueSize());
+		vo.setWritten(writer.getWritten());
+		vo.setBatches(writer.getBatches());
+		vo.setOverflows(writer.getOverflows());
+		vo.setFailures(writer.getFailures());
+		return vo;
+	}
+
 	private TasksVO getTasksVO() {
 		TasksVO tasks = new TasksVO();
 		List<String> longRunningTaskList = WorkThreadInformations.getLongRunningTasks();
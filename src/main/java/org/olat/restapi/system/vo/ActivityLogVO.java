@@ -0,0 +1,98 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.restapi.system.vo;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Counters of the asynchronous writer of the user activity log since the
+ * start of the node.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "activityLogVO")
+public class ActivityLogVO {
+
+	@XmlAttribute(name="enabled", required=true)
+	private boolean enabled;
+	@XmlAttribute(name="queueSize", required=true)
+	private int queueSize;
+	@XmlAttribute(name="written", required=true)
+	private long written;
+	@XmlAttribute(name="batches", required=true)
+	private long batches;
+	@XmlAttribute(name="overflows", required=true)
+	private long overflows;
+	@XmlAttribute(name="failures", required=true)
+	private long failures;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public void setQueueSize(int queueSize) {
+		this.queueSize = queueSize;
+	}
+
+	public long getWritten() {
+		return written;
+	}
+
+	public void setWritten(long written) {
+		this.written = written;
+	}
+
+	public long getBatches() {
+		return batches;
+	}
+
+	public void setBatches(long batches) {
+		this.batches = batches;
+	}
+
+	public long getOverflows() {
+		return overflows;
+	}
+
+	public void setOverflows(long overflows) {
+		this.overflows = overflows;
+	}
+
+	public long getFailures() {
+		return failures;
+	}
+
+	public void setFailures(long failures) {
+		this.failures = failures;
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.restapi.system.vo;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Admission control of the test launches, the times are in milliseconds.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlRootElement(name = "testLaunchesVO")
+public class TestLaunchesVO {
+
+	@XmlAttribute(name="queueLength", required=true)
+	private int queueLength;
+	@XmlAttribute(name="maxQueueLength", required=true)
+	private int maxQueueLength;
+	@XmlAttribute(name="admitted", required=true)
+	private long admitted;
+	@XmlAttribute(name="delayed", required=true)
+	private long delayed;
+	@XmlAttribute(name="overflow", required=true)
+	private long overflow;
+	@XmlAttribute(name="averageWaitTime", required=true)
+	private long averageWaitTime;
+	@XmlAttribute(name="maxWaitTime", required=true)
+	private long maxWaitTime;
+	@XmlAttribute(name="launches", required=true)
+	private long launches;
+	@XmlAttribute(name="averageLaunchTime", required=true)
+	private long averageLaunchTime;
+	@XmlAttribute(name="maxLaunchTime", required=true)
+	private long maxLaunchTime;
+
+	public int getQueueLength() {
+		return queueLength;
+	}
+
+	public void setQueueLength(int queueLength) {
+		this.queueLength = queueLength;
+	}
+
+	public int getMaxQueueLength() {
+		return maxQueueLength;
+	}
+
+	public void setMaxQueueLength(int maxQueueLength) {
+		this.maxQueueLength = maxQueueLength;
+	}
+
+	public long getAdmitted() {
+		return admitted;
+	}
+
+	public void setAdmitted(long admitted) {
+		this.admitted = admitted;
+	}
+
+	public long getDelayed() {
+		return delayed;
+	}
+
+	public void setDelayed(long delayed) {
+		this.delayed = delayed;
+	}
+
+	public long getOverflow() {
+		return overflow;
+	}
+
+	public void setOverflow(long overflow) {
+		this.overflow = overflow;
+	}
+
+	public long getAverageWaitTime() {
+		return averageWaitTime;
+	}
+
+	public void setAverageWaitTime(long averageWaitTime) {
+		this.averageWaitTime = averageWaitTime;
+	}
+
+	public long getMaxWaitTime() {
+		return maxWaitTime;
+	}
+
+	public void setMaxWaitTime(long maxWaitTime) {
+		this.maxWaitTime = maxWaitTime;
+	}
+
+	public long getLaunches() {
+		return launches;
+	}
+
+	public void setLaunches(long launches) {
+		this.launches = launches;
+	}
+
+	public long getAverageLaunchTime() {
+		return averageLaunchTime;
+	}
+
+	public void setAverageLaunchTime(long averageLaunchTime) {
+		this.averageLaunchTime = averageLaunchTime;
+	}
+
+	public long getMaxLaunchTime() {
+		return maxLaunchTime;
+	}
+
+	public void setMaxLaunchTime(long maxLaunchTime) {
+		this.maxLaunchTime = maxLaunchTime;
+	}
+}
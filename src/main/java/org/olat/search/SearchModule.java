@@ -80,6 +80,10 @@ public class SearchModule extends AbstractSpringModule {
 	private String tempSpellCheckPath;
 	@Value("${search.index.pdfBuffer:/tmp}")
 	private String tempPdfTextBufferPath;
+	@Value("${search.index.textCache:/tmp}")
+	private String textCachePath;
+	@Value("${search.index.textCache.size:512}")
+	private long textCacheSize;
 
 	@Value("${search.index.path:/tmp}")
 	private String indexPath;
@@ -101,6 +105,20 @@ public class SearchModule extends AbstractSpringModule {
 	private int searchTimeout;
 	@Value("${search.folder.pool.size:3}")
 	private int folderPoolSize;
+	@Value("${search.extractor.pool.size:4}")
+	private int extractorPoolSize;
+	@Value("${search.extractor.timeout:300}")
+	private int extractorTimeout;
+	@Value("${search.writer.batch.size:100}")
+	private int writerBatchSize;
+	@Value("${search.writer.queue.size:1000}")
+	private int writerQueueSize;
+	@Value("${search.indexing.incremental:enabled}")
+	private String incrementalIndexing;
+	@Value("${search.indexing.incremental.interval:60}")
+	private int incrementalInterval;
+	@Value("${search.indexing.incremental.batch.size:50}")
+	private int incrementalBatchSize;
 	@Value("${restart.window.start}")
 	private int restartWindowStart;
 	@Value("${restart.window.end}")
@@ -118,6 +136,7 @@ public class SearchModule extends AbstractSpringModule {
 	private String pdfExternalIndexerCmd;
 	private boolean isSpellCheckEnabled = true;
 	private String fullPdfTextBufferPath;
+	private String fullTextCachePath;
 
 	private long maxFileSize = 10485760;
 
@@ -156,6 +175,7 @@ public class SearchModule extends AbstractSpringModule {
 		fullTempIndexPath = buildPath(tempIndexPath);
 		fullTempSpellCheckPath = buildPath(tempSpellCheckPath);
 		fullPdfTextBufferPath = buildPath(tempPdfTextBufferPath);
+		fullTextCachePath = buildPath(textCachePath);
 	}
 	
 	private String buildPath(String path) {
@@ -313,6 +333,55 @@ public class SearchModule extends AbstractSpringModule {
 		return folderPoolSize;
 	}
 
+	/**
+	 * @return Number of threads which extract the text of the files
+	 */
+	public int getExtractorPoolSize() {
+		return extractorPoolSize;
+	}
+
+	/**
+	 * @return Max. time in seconds to extract the text of a file, 0 for no limit
+	 */
+	public int getExtractorTimeout() {
+		return extractorTimeout;
+	}
+
+	/**
+	 * @return Number of documents added to the index in one batch
+	 */
+	public int getWriterBatchSize() {
+		return writerBatchSize;
+	}
+
+	/**
+	 * @return Max. number of documents waiting for the index writer
+	 */
+	public int getWriterQueueSize() {
+		return writerQueueSize;
+	}
+
+	/**
+	 * @return TRUE: the changed resources update the current index
+	 */
+	public boolean isIncrementalIndexing() {
+		return "enabled".equals(incrementalIndexing);
+	}
+
+	/**
+	 * @return Time in seconds between two updates of the current index
+	 */
+	public int getIncrementalInterval() {
+		return incrementalInterval;
+	}
+
+	/**
+	 * @return Max. number of resources updated in one batch
+	 */
+	public int getIncrementalBatchSize() {
+		return incrementalBatchSize;
+	}
+
 	/**
 	 * @return Start hour for restart-window.
 	 */
@@ -410,6 +479,20 @@ public class SearchModule extends AbstractSpringModule {
 	public String getPdfTextBufferPath() {
 		return fullPdfTextBufferPath;
 	}
+	
+	/**
+	 * @return Absolute file path of the cache of the extracted texts
+	 */
+	public String getTextCachePath() {
+		return fullTextCachePath;
+	}
+	
+	/**
+	 * @return Max. size in MB of the cache of the extracted texts, 0 disable the cache
+	 */
+	public long getTextCacheSize() {
+		return textCacheSize;
+	}
 
 	public List<String> getFileSizeSuffixes() {
 		return fileSizeSuffixes;
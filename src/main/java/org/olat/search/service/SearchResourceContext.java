@@ -90,6 +90,24 @@ public class SearchResourceContext {
 	}
 
 	
+	/**
+	 * @return A copy of this context, for the work handed to an other thread
+	 */
+	public SearchResourceContext copy() {
+		SearchResourceContext copy = new SearchResourceContext();
+		copy.lastModified = lastModified;
+		copy.createdDate = createdDate;
+		copy.documentType = documentType;
+		copy.title = title;
+		copy.description = description;
+		copy.parentContextType = parentContextType;
+		copy.parentContextName = parentContextName;
+		copy.myBusinessControl = myBusinessControl;
+		copy.parentBusinessControl = parentBusinessControl;
+		copy.filePath = filePath;
+		return copy;
+	}
+	
 	public String getFilePath() {
 		return filePath;
 	}
@@ -0,0 +1,389 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.document.file;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.vfs.JavaIOItem;
+import org.olat.core.util.vfs.VFSLeaf;
+
+/**
+ * A cache on the local disk for the text extracted from the files. The
+ * entries are keyed by the SHA-1 of the content of the file and the
+ * type of document, the same file copied in several courses is only
+ * extracted once, a modified file gets a new key. An entry is a small
+ * GZIP compressed file with the title and the content.<br>
+ * To not read every file at every indexing run, the key of the content
+ * is referenced by the path, the size and the last modification of the
+ * file. The content is only hashed if one of them changed.<br>
+ * The cache is bounded by a size in bytes, the entries least recently
+ * used are evicted first.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ExtractedTextCache {
+	
+	private static final OLog log = Tracing.createLoggerFor(ExtractedTextCache.class);
+	
+	private static final int VERSION = 1;
+	private static final String SUFFIX = ".gz";
+	private static final String REF_SUFFIX = ".ref";
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final File directory;
+	private final long maxSize;
+	
+	private final AtomicLong size = new AtomicLong();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	
+	/**
+	 * @param directory The directory of the cache
+	 * @param maxSize The max. size of the cache on the disk in bytes
+	 */
+	public ExtractedTextCache(File directory, long maxSize) {
+		this.directory = directory;
+		this.maxSize = maxSize;
+		if(!directory.exists()) {
+			directory.mkdirs();
+		}
+		size.set(calculateSize());
+	}
+	
+	/**
+	 * Calculate the key of the leaf. The type of document is part of the
+	 * key, the same bytes can be extracted differently (e.g. IMS manifest).
+	 * The key is looked up by the path, the size and the last modification
+	 * of the file and the content is only read if they changed.
+	 * 
+	 * @param type The type of document
+	 * @param leaf The file
+	 * @return The key or null if the file cannot be read
+	 */
+	public String getKey(Class<?> type, VFSLeaf leaf) {
+		String refKey = getReferenceKey(type, leaf);
+		if(refKey != null) {
+			String key = readReference(refKey);
+			if(key != null) {
+				return key;
+			}
+		}
+		
+		String key = getContentKey(type, leaf);
+		if(refKey != null && key != null) {
+			writeReference(refKey, key);
+		}
+		return key;
+	}
+	
+	private String getContentKey(Class<?> type, VFSLeaf leaf) {
+		try(InputStream in = new BufferedInputStream(leaf.getInputStream())) {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+			byte[] buffer = new byte[8192];
+			int read;
+			while((read = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, read);
+			}
+			return toHex(digest.digest());
+		} catch(IOException | NoSuchAlgorithmException e) {
+			log.warn("Cannot calculate the key of: " + leaf, e);
+			return null;
+		}
+	}
+	
+	/**
+	 * @return The key of the path, size and last modification or null if the
+	 * 		leaf is not a file on the disk
+	 */
+	private String getReferenceKey(Class<?> type, VFSLeaf leaf) {
+		if(!(leaf instanceof JavaIOItem)) {
+			return null;
+		}
+		
+		File file = ((JavaIOItem)leaf).getBasefile();
+		long lastModified = file.lastModified();
+		if(lastModified <= 0l) {
+			return null;
+		}
+		
+		try {
+			String stat = type.getName() + "\n" + file.getAbsolutePath() + "\n" + file.length() + "\n" + lastModified;
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			return toHex(digest.digest(stat.getBytes(StandardCharsets.UTF_8)));
+		} catch(NoSuchAlgorithmException e) {
+			log.warn("", e);
+			return null;
+		}
+	}
+	
+	private String readReference(String refKey) {
+		File file = getFile(refKey, REF_SUFFIX);
+		if(!file.exists()) {
+			return null;
+		}
+		
+		try {
+			String key = new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim();
+			return key.length() == 40 ? key : null;
+		} catch(IOException e) {
+			log.warn("Cannot read the reference: " + file, e);
+			return null;
+		}
+	}
+	
+	private void writeReference(String refKey, String key) {
+		File file = getFile(refKey, REF_SUFFIX);
+		File tmpFile = new File(file.getParentFile(), refKey + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			if(!file.getParentFile().exists()) {
+				file.getParentFile().mkdirs();
+			}
+			Files.write(tmpFile.toPath(), key.getBytes(StandardCharsets.US_ASCII));
+			moveInPlace(tmpFile, file);
+		} catch(IOException e) {
+			log.warn("Cannot write the reference: " + file, e);
+			tmpFile.delete();
+		}
+	}
+	
+	private void moveInPlace(File tmpFile, File file) throws IOException {
+		long previousLength = file.length();
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		if(size.addAndGet(file.length() - previousLength) > maxSize) {
+			evict();
+		}
+	}
+	
+	/**
+	 * @param key The key
+	 * @return The cached content or null
+	 */
+	public FileContent get(String key) {
+		File file = getFile(key);
+		if(!file.exists()) {
+			misses.incrementAndGet();
+			return null;
+		}
+		
+		try(DataInputStream in = new DataInputStream(new GZIPInputStream(new FileInputStream(file), 8192))) {
+			if(in.readInt() != VERSION) {
+				misses.incrementAndGet();
+				return null;
+			}
+			String title = in.readBoolean() ? in.readUTF() : null;
+			byte[] content = new byte[in.readInt()];
+			in.readFully(content);
+			hits.incrementAndGet();
+			// least recently used
+			file.setLastModified(System.currentTimeMillis());
+			return new FileContent(title, new String(content, StandardCharsets.UTF_8));
+		} catch(IOException e) {
+			log.warn("Cannot read the extracted text: " + file, e);
+			misses.incrementAndGet();
+			return null;
+		}
+	}
+	
+	/**
+	 * Save the content in the cache and evict the oldest entries
+	 * if the cache is full.
+	 * 
+	 * @param key The key
+	 * @param content The extracted content
+	 */
+	public void put(String key, FileContent content) {
+		if(content == null || content.getContent() == null) return;
+		
+		File file = getFile(key);
+		File tmpFile = new File(file.getParentFile(), key + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			if(!file.getParentFile().exists()) {
+				file.getParentFile().mkdirs();
+			}
+			try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(tmpFile), 8192)))) {
+				out.writeInt(VERSION);
+				String title = content.getTitle();
+				out.writeBoolean(title != null);
+				if(title != null) {
+					out.writeUTF(title.length() > 4096 ? title.substring(0, 4096) : title);
+				}
+				byte[] bytes = content.getContent().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			
+			moveInPlace(tmpFile, file);
+		} catch(IOException e) {
+			log.warn("Cannot write the extracted text: " + file, e);
+			tmpFile.delete();
+		}
+	}
+	
+	/**
+	 * Delete the least recently used entries until the cache is
+	 * under 80% of its max. size.
+	 */
+	public synchronized void evict() {
+		if(size.get() <= maxSize) return;
+		
+		// read the last access once, concurrent hits touch the files
+		List<Entry> entries = new ArrayList<>();
+		long total = 0;
+		for(File file:listFiles()) {
+			total += file.length();
+			entries.add(new Entry(file, file.lastModified()));
+		}
+		entries.sort(Comparator.comparingLong(Entry::getLastModified));
+
+		long target = (maxSize / 10l) * 8l;
+		for(Entry entry:entries) {
+			if(total <= target) {
+				break;
+			}
+			long length = entry.getFile().length();
+			if(entry.getFile().delete()) {
+				total -= length;
+				evictions.incrementAndGet();
+			}
+		}
+		size.set(total);
+		log.info("Extracted text cache evicted, size: " + total + " bytes");
+	}
+	
+	public long getSize() {
+		return size.get();
+	}
+	
+	public long getHits() {
+		return hits.get();
+	}
+	
+	public long getMisses() {
+		return misses.get();
+	}
+	
+	public long getEvictions() {
+		return evictions.get();
+	}
+	
+	/**
+	 * @return The hit rate in percent
+	 */
+	public long getHitRate() {
+		long h = hits.get();
+		long total = h + misses.get();
+		return total == 0 ? 0 : (h * 100l) / total;
+	}
+	
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+		evictions.set(0);
+	}
+	
+	private File getFile(String key) {
+		return getFile(key, SUFFIX);
+	}
+	
+	private File getFile(String key, String suffix) {
+		return new File(new File(directory, key.substring(0, 2)), key + suffix);
+	}
+	
+	private long calculateSize() {
+		long total = 0;
+		for(File file:listFiles()) {
+			total += file.length();
+		}
+		return total;
+	}
+	
+	private List<File> listFiles() {
+		List<File> files = new ArrayList<>();
+		File[] dirs = directory.listFiles(File::isDirectory);
+		if(dirs != null) {
+			for(File dir:dirs) {
+				File[] entries = dir.listFiles((d, name) -> name.endsWith(SUFFIX) || name.endsWith(REF_SUFFIX));
+				if(entries != null) {
+					files.addAll(Arrays.asList(entries));
+				}
+			}
+		}
+		return files;
+	}
+	
+	private static String toHex(byte[] bytes) {
+		char[] chars = new char[bytes.length * 2];
+		for(int i=0; i<bytes.length; i++) {
+			int v = bytes[i] & 0xFF;
+			chars[i * 2] = HEX[v >>> 4];
+			chars[i * 2 + 1] = HEX[v & 0x0F];
+		}
+		return new String(chars);
+	}
+	
+	private static class Entry {
+		
+		private final File file;
+		private final long lastModified;
+		
+		public Entry(File file, long lastModified) {
+			this.file = file;
+			this.lastModified = lastModified;
+		}
+
+		public File getFile() {
+			return file;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+	}
+}
@@ -67,7 +67,7 @@ public abstract class FileDocument extends OlatDocument {
 			setDocumentType(TYPE);
 		}
 
-		FileContent content = readContent(leaf);
+		FileContent content = readCachedContent(leaf);
 		String metaTitle;
 		if(meta != null && StringHelper.containsNonWhitespace(meta.getTitle())) {
 			metaTitle = meta.getTitle();
@@ -166,6 +166,32 @@ public abstract class FileDocument extends OlatDocument {
 		}
 	}
 	
+	/**
+	 * Look in the cache of the extracted texts before extracting the
+	 * content of the file.
+	 */
+	private FileContent readCachedContent(VFSLeaf leaf) throws IOException, DocumentException, DocumentAccessException {
+		ExtractedTextCache cache = isExtractedTextCacheable() ? FileDocumentFactory.getExtractedTextCache() : null;
+		String key = cache == null ? null : cache.getKey(getClass(), leaf);
+		if(key == null) {
+			return readContent(leaf);
+		}
+		
+		FileContent content = cache.get(key);
+		if(content == null) {
+			content = readContent(leaf);
+			cache.put(key, content);
+		}
+		return content;
+	}
+	
+	/**
+	 * @return true if the extracted content is worth to be cached
+	 */
+	protected boolean isExtractedTextCacheable() {
+		return true;
+	}
+	
 	abstract protected FileContent readContent(VFSLeaf leaf) throws IOException, DocumentException, DocumentAccessException;
 
 }
@@ -25,6 +25,7 @@
 
 package org.olat.search.service.document.file;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Date;
 
@@ -88,6 +89,7 @@ public class FileDocumentFactory {
 
   
 	private static SearchModule searchModule;
+	private static ExtractedTextCache extractedTextCache;
   
 	/**
 	 * [used by spring]
@@ -101,6 +103,18 @@ public class FileDocumentFactory {
 		return searchModule == null ? 120000 : (int)searchModule.getMaxFileSize();
 	}
 	
+	/**
+	 * @return The cache of the extracted texts or null if disabled
+	 */
+	public static synchronized ExtractedTextCache getExtractedTextCache() {
+		if(extractedTextCache == null && searchModule != null && searchModule.getTextCacheSize() > 0
+				&& searchModule.getTextCachePath() != null) {
+			File directory = new File(searchModule.getTextCachePath());
+			extractedTextCache = new ExtractedTextCache(directory, searchModule.getTextCacheSize() * 1024l * 1024l);
+		}
+		return extractedTextCache;
+	}
+	
 	private Document getDocumentFromCurrentIndex(SearchResourceContext leafResourceContext, VFSLeaf leaf) {
 		try {
 			String resourceUrl = leafResourceContext.getResourceUrl();
@@ -66,6 +66,12 @@ public class TextDocument extends FileDocument {
 		return textDocument.getLuceneDocument();
 	}
 
+	@Override
+	protected boolean isExtractedTextCacheable() {
+		// reading the file is as fast as reading the cache
+		return false;
+	}
+
 	@Override
 	protected FileContent readContent(VFSLeaf leaf) throws IOException {
 		InputStreamReader in = new InputStreamReader(leaf.getInputStream());
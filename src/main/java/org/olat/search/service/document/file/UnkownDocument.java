@@ -49,6 +49,11 @@ public class UnkownDocument extends FileDocument {
 		return openDocument.getLuceneDocument();
 	}
 
+	@Override
+	protected boolean isExtractedTextCacheable() {
+		return false;
+	}
+
 	@Override
 	protected FileContent readContent(VFSLeaf leaf) {
 		return new FileContent("");
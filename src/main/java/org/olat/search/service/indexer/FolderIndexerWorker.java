@@ -29,7 +29,6 @@ package org.olat.search.service.indexer;
 import java.io.IOException;
 import java.util.concurrent.Callable;
 
-import org.apache.lucene.document.Document;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
 import org.olat.core.logging.OLog;
@@ -39,7 +38,6 @@ import org.olat.core.util.vfs.VFSItem;
 import org.olat.core.util.vfs.VFSLeaf;
 import org.olat.core.util.vfs.filters.SystemItemFilter;
 import org.olat.search.service.SearchResourceContext;
-import org.olat.search.service.document.file.DocumentAccessException;
 import org.olat.search.service.document.file.FileDocumentFactory;
 
 /**
@@ -111,19 +109,12 @@ public class FolderIndexerWorker implements Callable<Boolean> {
 			if (docFactory.isFileSupported(leaf)) {
 				String myFilePath = fPath + "/" + leaf.getName();
 				leafResourceContext.setFilePath(myFilePath);
-				Document document = docFactory.createDocument(leafResourceContext, leaf);
-				if(document != null) {//document which are disabled return null
-					writer.addDocument(document);
-				}
+				writer.submitFile(leafResourceContext, leaf);
 			} else {
 				if (log.isDebug()) log.debug("Documenttype not supported. file=" + leaf.getName());
 			}
-		} catch (DocumentAccessException e) {
-			if (log.isDebug()) log.debug("Can not access document." + e.getMessage());
 		} catch (InterruptedException e) {
 			if (log.isDebug()) log.debug("InterruptedException: Can not index leaf=" + leaf.getName() + ";" + e.getMessage());
-		} catch (IOException ioEx) {
-			log.warn("IOException: Can not index leaf=" + leaf.getName(), ioEx);
 		} catch (Exception ex) {
 			log.warn("Exception: Can not index leaf=" + leaf.getName(), ex);
 		}
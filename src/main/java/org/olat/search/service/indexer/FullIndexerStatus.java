@@ -28,8 +28,10 @@ package org.olat.search.service.indexer;
 import java.util.Date;
 import java.util.Hashtable;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.olat.core.CoreSpringFactory;
+import org.olat.search.service.document.file.ExtractedTextCache;
 import org.olat.search.service.document.file.FileDocumentFactory;
 
 /**
@@ -55,6 +57,22 @@ public class FullIndexerStatus {
 	private int documentQueueSize;
 	private int numberRunningFolderIndexer = 0;
 	private int numberAvailableFolderIndexer = 0;
+	private int numberRunningExtractors = 0;
+	
+	/** Throughput of the stages of the indexer */
+	private final AtomicLong filesQueued = new AtomicLong();
+	private final AtomicLong filesExtracted = new AtomicLong();
+	private final AtomicLong extractionTime = new AtomicLong();
+	private final AtomicLong extractionTimeouts = new AtomicLong();
+	private final AtomicLong extractionFailures = new AtomicLong();
+	private final AtomicLong writerBatches = new AtomicLong();
+	
+	/** Incremental updates of the current index */
+	private final AtomicLong incrementalRuns = new AtomicLong();
+	private final AtomicLong incrementalResources = new AtomicLong();
+	private volatile long lastIncrementalIndexTime = 0;
+	private volatile long lastIncrementalIndexingTime = 0;
+	private volatile int pendingResources = 0;
 	
 	/** Hashtable with document-type-names as key and Integer-object as counters. */
 	private Map<String,Integer> documentCounters;
@@ -131,6 +149,16 @@ public class FullIndexerStatus {
 		setStatus(STATUS_RUNNING);
 		setDocumentCount(0);//Reset FullIndex-DocumentCounter
 		resetAllDocumentCounters();
+		resetStageCounters();
+	}
+	
+	private void resetStageCounters() {
+		filesQueued.set(0);
+		filesExtracted.set(0);
+		extractionTime.set(0);
+		extractionTimeouts.set(0);
+		extractionFailures.set(0);
+		writerBatches.set(0);
 	}
 
   /**
@@ -143,6 +171,10 @@ public class FullIndexerStatus {
 		documentCounters = new Hashtable<String,Integer>();
 		fileTypeCounters = new Hashtable<String,Integer>();
 		CoreSpringFactory.getImpl(FileDocumentFactory.class).resetExcludedFileSizeCount();
+		ExtractedTextCache textCache = FileDocumentFactory.getExtractedTextCache();
+		if(textCache != null) {
+			textCache.resetStatistics();
+		}
 	}
 
   /**
@@ -211,6 +243,95 @@ public class FullIndexerStatus {
 	}
 
 
+	public int getNumberRunningExtractors() {
+		return numberRunningExtractors;
+	}
+
+	public void setNumberRunningExtractors(int numberRunningExtractors) {
+		this.numberRunningExtractors = numberRunningExtractors;
+	}
+	
+	/**
+	 * @return Number of files found by the folder walkers and handed to the extractors
+	 */
+	public long getFilesQueued() {
+		return filesQueued.get();
+	}
+	
+	public void incrementFilesQueued() {
+		filesQueued.incrementAndGet();
+	}
+	
+	/**
+	 * @return Number of files successfully extracted
+	 */
+	public long getFilesExtracted() {
+		return filesExtracted.get();
+	}
+	
+	/**
+	 * @param time The time in milliseconds spent to extract the file
+	 */
+	public void incrementFilesExtracted(long time) {
+		filesExtracted.incrementAndGet();
+		extractionTime.addAndGet(time);
+	}
+	
+	/**
+	 * @return Average time in milliseconds to extract a file
+	 */
+	public long getAverageExtractionTime() {
+		long extracted = filesExtracted.get();
+		return extracted == 0 ? 0 : extractionTime.get() / extracted;
+	}
+	
+	public long getExtractionTimeouts() {
+		return extractionTimeouts.get();
+	}
+	
+	public void incrementExtractionTimeouts() {
+		extractionTimeouts.incrementAndGet();
+	}
+	
+	public long getExtractionFailures() {
+		return extractionFailures.get();
+	}
+	
+	public void incrementExtractionFailures() {
+		extractionFailures.incrementAndGet();
+	}
+	
+	public long getWriterBatches() {
+		return writerBatches.get();
+	}
+	
+	public void incrementWriterBatches() {
+		writerBatches.incrementAndGet();
+	}
+	
+	/**
+	 * @return Number of files extracted per minute since the start of the indexer
+	 */
+	public long getExtractionPerMinute() {
+		return perMinute(filesExtracted.get());
+	}
+	
+	/**
+	 * @return Number of documents written per minute since the start of the indexer
+	 */
+	public long getWrittenPerMinute() {
+		return perMinute(documentCount);
+	}
+	
+	private long perMinute(long count) {
+		if(fullIndexStartedAt <= 0) {
+			return 0;
+		}
+		long end = STATUS_RUNNING.equals(status) ? System.currentTimeMillis() : fullIndexStartedAt + indexingTime;
+		long duration = end - fullIndexStartedAt;
+		return duration <= 0 ? 0 : (count * 60000l) / duration;
+	}
+
 	public void incrementPartDocumentCount(int id) {
 		partDocumentCounters[id]++;
 	}
@@ -296,8 +417,83 @@ public class FullIndexerStatus {
 		return buf.toString();
 	}
 
+	/**
+	 * An incremental update of the current index is done.
+	 * 
+	 * @param numOfResources The number of updated resources
+	 * @param time The time in milliseconds of the update
+	 */
+	public void incrementalIndexingDone(int numOfResources, long time) {
+		incrementalRuns.incrementAndGet();
+		incrementalResources.addAndGet(numOfResources);
+		lastIncrementalIndexTime = System.currentTimeMillis();
+		lastIncrementalIndexingTime = time;
+	}
+	
+	public long getIncrementalRuns() {
+		return incrementalRuns.get();
+	}
+	
+	/**
+	 * @return Number of resources updated by the incremental indexer since the start
+	 */
+	public long getIncrementalResources() {
+		return incrementalResources.get();
+	}
+	
+	public String getLastIncrementalIndexDateString() {
+		if (lastIncrementalIndexTime > 0) {
+			return new Date(lastIncrementalIndexTime).toString();
+		}
+		return "-";
+	}
+	
+	public long getLastIncrementalIndexingTime() {
+		return lastIncrementalIndexingTime;
+	}
+	
+	/**
+	 * @return Number of changed resources waiting for the incremental indexer
+	 */
+	public int getPendingResources() {
+		return pendingResources;
+	}
+	
+	public void setPendingResources(int pendingResources) {
+		this.pendingResources = pendingResources;
+	}
+	
 	public int getExcludedDocumentCount() {
 		return CoreSpringFactory.getImpl(FileDocumentFactory.class).getExcludedFileSizeCount();
 	}
+	
+	/**
+	 * @return Number of texts found in the cache of the extracted texts
+	 */
+	public long getTextCacheHits() {
+		ExtractedTextCache textCache = FileDocumentFactory.getExtractedTextCache();
+		return textCache == null ? 0 : textCache.getHits();
+	}
+	
+	public long getTextCacheMisses() {
+		ExtractedTextCache textCache = FileDocumentFactory.getExtractedTextCache();
+		return textCache == null ? 0 : textCache.getMisses();
+	}
+	
+	/**
+	 * @return The hit rate in percent of the cache of the extracted texts
+	 */
+	public long getTextCacheHitRate() {
+		ExtractedTextCache textCache = FileDocumentFactory.getExtractedTextCache();
+		return textCache == null ? 0 : textCache.getHitRate();
+	}
+	
+	/**
+	 * @return The size in MB of the cache of the extracted texts
+	 */
+	public long getTextCacheSize() {
+		ExtractedTextCache textCache = FileDocumentFactory.getExtractedTextCache();
+		return textCache == null ? 0 : textCache.getSize() / (1024l * 1024l);
+	}
 
 }
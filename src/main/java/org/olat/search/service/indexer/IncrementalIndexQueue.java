@@ -0,0 +1,276 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.olat.core.CoreSpringFactory;
+import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.logging.OLog;
+import org.olat.core.logging.Tracing;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.course.CourseModule;
+import org.olat.fileresource.types.SharedFolderFileResource;
+import org.olat.fileresource.types.WikiResource;
+import org.olat.group.BusinessGroup;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.RepositoryManager;
+import org.olat.search.SearchModule;
+import org.olat.search.service.document.RepositoryEntryDocument;
+
+/**
+ * Collect the resources which changed and let the full indexer update
+ * the current index with them in batches. The changes are sent with
+ * the JMS queue of the life indexer, only the indexing node receives
+ * them. A resource changed several times is indexed only once.
+ * <p>
+ * The types of changes:
+ * <ul>
+ * 	<li>a repository entry, key of the entry ({@link RepositoryEntryDocument#TYPE})</li>
+ * 	<li>a business group, key of the group</li>
+ * 	<li>a course, a wiki or a shared folder, id of the resource, updated
+ * 		with its repository entry</li>
+ * </ul>
+ * While a full index is running, the changes wait.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class IncrementalIndexQueue {
+	
+	private static final OLog log = Tracing.createLoggerFor(IncrementalIndexQueue.class);
+	
+	private static final String REPOSITORY_ENTRY_TYPE = OresHelper.calculateTypeName(RepositoryEntry.class);
+	private static final String BUSINESS_GROUP_TYPE = OresHelper.calculateTypeName(BusinessGroup.class);
+	private static final Set<String> REPOSITORY_RESOURCE_TYPES = new HashSet<>(Arrays.asList(
+			CourseModule.getCourseTypeName(), WikiResource.TYPE_NAME, SharedFolderFileResource.TYPE_NAME));
+	
+	private final int batchSize;
+	private final OlatFullIndexer fullIndexer;
+	private final Set<Change> changes = new LinkedHashSet<>();
+	private ScheduledExecutorService scheduler;
+	
+	public IncrementalIndexQueue(SearchModule searchModule, OlatFullIndexer fullIndexer, LifeFullIndexer lifeIndexer) {
+		this.fullIndexer = fullIndexer;
+		batchSize = Math.max(1, searchModule.getIncrementalBatchSize());
+		
+		if(searchModule.isIncrementalIndexing()) {
+			lifeIndexer.addIndexer(new ChangeReceiver(RepositoryEntryDocument.TYPE));
+			lifeIndexer.addIndexer(new ChangeReceiver(BUSINESS_GROUP_TYPE));
+			for(String type:REPOSITORY_RESOURCE_TYPES) {
+				lifeIndexer.addIndexer(new ChangeReceiver(type));
+			}
+			
+			long interval = Math.max(1, searchModule.getIncrementalInterval());
+			scheduler = Executors.newSingleThreadScheduledExecutor(new OlatFullIndexer.IndexerThreadFactory("incremental"));
+			scheduler.scheduleWithFixedDelay(new IndexChanges(), interval, interval, TimeUnit.SECONDS);
+		}
+	}
+	
+	/**
+	 * @param resName The type of resource
+	 * @return true if the changes of this type of resource update the index
+	 */
+	public static boolean isSupportedType(String resName) {
+		return BUSINESS_GROUP_TYPE.equals(resName) || REPOSITORY_RESOURCE_TYPES.contains(resName);
+	}
+	
+	public void stop() {
+		if(scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+	
+	public int size() {
+		synchronized(changes) {
+			return changes.size();
+		}
+	}
+	
+	protected void add(String type, Long key) {
+		if(key == null) return;
+		
+		synchronized(changes) {
+			changes.add(new Change(type, key));
+			fullIndexer.getStatus().setPendingResources(changes.size());
+		}
+	}
+	
+	private List<Change> nextBatch() {
+		synchronized(changes) {
+			List<Change> batch = new ArrayList<>(Math.min(batchSize, changes.size()));
+			for(Iterator<Change> it=changes.iterator(); it.hasNext() && batch.size() < batchSize; ) {
+				batch.add(it.next());
+				it.remove();
+			}
+			return batch;
+		}
+	}
+	
+	private void requeue(List<Change> batch) {
+		synchronized(changes) {
+			changes.addAll(batch);
+		}
+	}
+	
+	/**
+	 * Map the changes to the resources of the main indexer, the
+	 * course, wikis... are indexed with their repository entry.
+	 */
+	private List<OLATResourceable> toResources(List<Change> batch) {
+		Map<String,OLATResourceable> resources = new LinkedHashMap<>();
+		RepositoryManager repositoryManager = CoreSpringFactory.getImpl(RepositoryManager.class);
+		for(Change change:batch) {
+			OLATResourceable resource = null;
+			if(RepositoryEntryDocument.TYPE.equals(change.getType())) {
+				resource = OresHelper.createOLATResourceableInstance(REPOSITORY_ENTRY_TYPE, change.getKey());
+			} else if(BUSINESS_GROUP_TYPE.equals(change.getType())) {
+				resource = OresHelper.createOLATResourceableInstance(BUSINESS_GROUP_TYPE, change.getKey());
+			} else if(REPOSITORY_RESOURCE_TYPES.contains(change.getType())) {
+				OLATResourceable ores = OresHelper.createOLATResourceableInstance(change.getType(), change.getKey());
+				RepositoryEntry entry = repositoryManager.lookupRepositoryEntry(ores, false);
+				if(entry != null) {
+					resource = OresHelper.createOLATResourceableInstance(REPOSITORY_ENTRY_TYPE, entry.getKey());
+				}
+			}
+			
+			if(resource != null) {
+				resources.put(resource.getResourceableTypeName() + ":" + resource.getResourceableId(), resource);
+			}
+		}
+		DBFactory.getInstance().commitAndCloseSession();
+		return new ArrayList<>(resources.values());
+	}
+	
+	private class IndexChanges implements Runnable {
+
+		@Override
+		public void run() {
+			List<Change> batch = null;
+			try {
+				while(!(batch = nextBatch()).isEmpty()) {
+					List<OLATResourceable> resources = toResources(batch);
+					if(!fullIndexer.indexResources(resources)) {
+						// a full index is running or the batch was rolled back, try later
+						requeue(batch);
+						batch = null;
+						break;
+					}
+					batch = null;
+				}
+			} catch (InterruptedException e) {
+				log.info("Incremental indexer interrupted");
+				if(batch != null) {
+					requeue(batch);
+				}
+			} catch (Exception e) {
+				log.error("Error during incremental indexing", e);
+			} finally {
+				fullIndexer.getStatus().setPendingResources(size());
+				DBFactory.getInstance().commitAndCloseSession();
+			}
+		}
+	}
+	
+	/**
+	 * Receive the changes from the life indexer.
+	 */
+	private class ChangeReceiver implements LifeIndexer {
+		
+		private final String type;
+		
+		public ChangeReceiver(String type) {
+			this.type = type;
+		}
+
+		@Override
+		public String getSupportedTypeName() {
+			return type;
+		}
+
+		@Override
+		public void fullIndex(LifeFullIndexer indexWriter) {
+			// the full indexer does the work
+		}
+
+		@Override
+		public void indexDocument(List<Long> keyList, LifeFullIndexer indexWriter) {
+			if(keyList == null) return;
+			for(Long key:keyList) {
+				add(type, key);
+			}
+		}
+
+		@Override
+		public void deleteDocument(Long key, LifeFullIndexer indexWriter) {
+			indexDocument(Collections.singletonList(key), indexWriter);
+		}
+	}
+	
+	private static class Change {
+		
+		private final String type;
+		private final Long key;
+		
+		public Change(String type, Long key) {
+			this.type = type;
+			this.key = key;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public Long getKey() {
+			return key;
+		}
+
+		@Override
+		public int hashCode() {
+			return type.hashCode() + key.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if(this == obj) {
+				return true;
+			}
+			if(obj instanceof Change) {
+				Change change = (Change)obj;
+				return type.equals(change.type) && key.equals(change.key);
+			}
+			return false;
+		}
+	}
+}
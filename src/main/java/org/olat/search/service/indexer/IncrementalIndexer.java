@@ -0,0 +1,49 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.indexer;
+
+import java.io.IOException;
+
+import org.olat.search.service.SearchResourceContext;
+
+/**
+ * An indexer of the first level of the main indexer which can index
+ * a single resource of its type, the incremental indexer use it to
+ * update the current index after a resource was changed.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public interface IncrementalIndexer extends Indexer {
+	
+	/**
+	 * Index the resource and all its children. Nothing is indexed if the resource
+	 * doesn't exist anymore or must not be indexed.
+	 * 
+	 * @param parentResourceContext The context of the parent
+	 * @param key The primary key of the resource
+	 * @param indexWriter Callback object to add documents to the index
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public void indexResource(SearchResourceContext parentResourceContext, Long key, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException;
+
+}
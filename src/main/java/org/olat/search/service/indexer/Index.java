@@ -54,6 +54,7 @@ public class Index {
 	private String permanentIndexPath;
 	
 	private OlatFullIndexer fullIndexer;
+	private IncrementalIndexQueue incrementalQueue;
 	private SearchSpellChecker spellChecker;
 	private LifeFullIndexer lifeIndexer;
 
@@ -73,6 +74,7 @@ public class Index {
 		this.lifeIndexer = lifeIndexer;
 		
 		fullIndexer = new OlatFullIndexer(this, searchModule, searchService, mainIndexer, coordinatorManager);
+		incrementalQueue = new IncrementalIndexQueue(searchModule, fullIndexer, lifeIndexer);
 	}
 
 	/**
@@ -93,6 +95,13 @@ public class Index {
 	public void stopFullIndex() {
 		fullIndexer.stopIndexing();
 	}
+	
+	/**
+	 * Stop the incremental updates of the index.
+	 */
+	public void stop() {
+		incrementalQueue.stop();
+	}
 
 	/**
 	 * Check if index exist.
@@ -25,16 +25,11 @@
 
 package org.olat.search.service.indexer;
 
-
-import java.io.IOException;
-
-import org.apache.lucene.document.Document;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.modules.bc.vfs.OlatRootFolderImpl;
 import org.olat.core.util.vfs.VFSContainer;
 import org.olat.core.util.vfs.VFSLeaf;
 import org.olat.search.service.SearchResourceContext;
-import org.olat.search.service.document.file.DocumentAccessException;
 import org.olat.search.service.document.file.FileDocumentFactory;
 
 /**
@@ -55,16 +50,10 @@ public abstract class LeafIndexer extends AbstractHierarchicalIndexer {
 					myFilePath = filePath + "/" + leaf.getName();
 				}
 				leafResourceContext.setFilePath(myFilePath);
-
-				Document document = documentFactory.createDocument(leafResourceContext, leaf);
-				indexWriter.addDocument(document);
+				indexWriter.submitFile(leafResourceContext, leaf);
 			} else {
 				if (isLogDebugEnabled()) logDebug("Documenttype not supported. file=" + leaf.getName());
 			}
-		} catch (DocumentAccessException e) {
-			if (isLogDebugEnabled()) logDebug("Can not access document." + e.getMessage());
-		} catch (IOException ioEx) {
-			logWarn("IOException: Can not index leaf=" + leaf.getName(), ioEx);
 		} catch (InterruptedException iex) {
 			throw new InterruptedException(iex.getMessage());
 		} catch (Exception ex) {
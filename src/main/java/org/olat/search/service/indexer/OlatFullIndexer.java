@@ -33,45 +33,76 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.lucene.LucenePackage;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexWriterConfig.OpenMode;
 import org.apache.lucene.index.LogDocMergePolicy;
 import org.apache.lucene.index.LogMergePolicy;
+import org.apache.lucene.index.Term;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
+import org.olat.core.id.OLATResourceable;
 import org.olat.core.logging.OLog;
 import org.olat.core.logging.Tracing;
 import org.olat.core.util.coordinate.CoordinatorManager;
+import org.olat.core.util.vfs.VFSLeaf;
 import org.olat.search.QueryException;
 import org.olat.search.SearchModule;
 import org.olat.search.SearchService;
 import org.olat.search.ServiceNotAvailableException;
+import org.olat.search.model.AbstractOlatDocument;
 import org.olat.search.model.OlatDocument;
 import org.olat.search.service.SearchResourceContext;
+import org.olat.search.service.document.file.DocumentAccessException;
+import org.olat.search.service.document.file.FileDocumentFactory;
 
 /**
  * Controls the hole generation of a full-index. It run in its own thread the main index.
- * The sub-indexers can use a thread pool to parallelize the works.
+ * The work is done in three stages:
+ * <ul>
+ * 	<li>the main indexer walks the tree of resources, the folders are walked by a pool
+ * 		of folder workers. They produce the documents of the resources and the work
+ * 		items for the files.</li>
+ * 	<li>a pool of extractors read the text of the files, every extraction is watched
+ * 		and interrupted after a timeout.</li>
+ * 	<li>a single writer thread take the documents from a bounded queue and add them
+ * 		in batches to the Lucene index.</li>
+ * </ul>
+ * The queues between the stages are bounded, a full queue slows the previous stage down.
+ * <p>
+ * The same stages update the current index for a list of resources, see
+ * {@link #indexResources(Collection)}. Full and incremental runs exclude
+ * each other.
  * 
  * @author Christian Guretzki
  */
@@ -82,6 +113,7 @@ public class OlatFullIndexer {
 	private static final int MAX_WAITING_COUNT = 600;// = 10Min
 	private static final IndexerThreadFactory indexWriterThreadFactory = new IndexerThreadFactory("writer");
 	private static final IndexerThreadFactory indexWorkersThreadFactory = new IndexerThreadFactory("worker");
+	private static final IndexerThreadFactory indexExtractorsThreadFactory = new IndexerThreadFactory("extractor");
 
 	private String indexPath;
 	private String tempIndexPath;
@@ -93,13 +125,20 @@ public class OlatFullIndexer {
 	private IndexWriter indexWriter;
 
 	/** Flag to stop indexing. */
-	private boolean stopIndexing;
+	private volatile boolean stopIndexing;
+	/** An incremental run is updating the current index */
+	private volatile boolean incrementalIndexing;
+	private final ReentrantLock indexLock = new ReentrantLock();
   /** When restartIndexingWhenFinished is true, the restart interval in ms can be set. */
 	private long indexInterval = 500;
 
 	private double ramBufferSizeMB;
 	
 	private final int indexerPoolSize;
+	private final int extractorPoolSize;
+	private final long extractorTimeout;
+	private final int writerBatchSize;
+	private final int writerQueueSize;
 	
 	/** Current status of full-indexer. */
 	private FullIndexerStatus fullIndexerStatus;
@@ -120,9 +159,13 @@ public class OlatFullIndexer {
 	private final SearchService searchService;
 	private final CoordinatorManager coordinatorManager;
 
-	private static final Object indexerWriterBlock = new Object();
 	private ThreadPoolExecutor indexerExecutor;
-	private ThreadPoolExecutor indexerWriterExecutor;
+	private ThreadPoolExecutor extractorExecutor;
+	private ScheduledExecutorService extractorWatchdog;
+	private final Map<Thread,ExtractionTask> runningExtractions = new ConcurrentHashMap<>();
+	private BlockingQueue<Document> documentQueue;
+	private Thread writerThread;
+	private volatile boolean writerFinished;
 
 	/**
 	 * 
@@ -149,6 +192,10 @@ public class OlatFullIndexer {
 		indexInterval = searchModule.getIndexInterval();
 		documentsPerInterval = searchModule.getDocumentsPerInterval();
 		ramBufferSizeMB = searchModule.getRAMBufferSizeMB();
+		extractorPoolSize = Math.max(1, searchModule.getExtractorPoolSize());
+		extractorTimeout = searchModule.getExtractorTimeout() * 1000l;
+		writerBatchSize = Math.max(1, searchModule.getWriterBatchSize());
+		writerQueueSize = Math.max(writerBatchSize, searchModule.getWriterQueueSize());
 		fullIndexerStatus = new FullIndexerStatus(1);
 		stopIndexing = true;
 		initStatus();
@@ -200,6 +247,7 @@ public class OlatFullIndexer {
 	 */
 	public void stopIndexing() {
 		stopIndexing = true;
+		incrementalIndexing = false;
 		if (log.isDebug()) log.debug("stop current indexing when");
 	}
 	
@@ -230,60 +278,199 @@ public class OlatFullIndexer {
 	 */
 	private void doIndex() throws InterruptedException{
 		try {
-			if(indexerExecutor == null) {
-				BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>(2);
-				indexerExecutor = new ThreadPoolExecutor(indexerPoolSize, indexerPoolSize, 0L, TimeUnit.MILLISECONDS,
-						queue, indexWorkersThreadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
-			}
-			if(indexerWriterExecutor == null) {
-				BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>(2);
-				indexerWriterExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue, indexWriterThreadFactory);
-			}
-			
 			File tempIndexDir = new File(tempIndexPath);
 			Directory tmpIndexPath = FSDirectory.open(new File(tempIndexDir, "main"));
 			indexWriter = new IndexWriter(tmpIndexPath, newIndexWriterConfig());// analyzer, true, IndexWriter.MAX_TERM_LENGTH.UNLIMITED);
 			indexWriter.deleteAll();
+			startStages();
 			
 			SearchResourceContext searchResourceContext = new SearchResourceContext();
 			log.info("doIndex start. OlatFullIndexer with Debug output");
 			mainIndexer.doIndex(searchResourceContext, null /*no parent*/, this);
 			DBFactory.getInstance().commitAndCloseSession();
 	
-			log.info("Wait until every folder indexer is finished");
-			
-			indexerExecutor.shutdown();
-			indexerExecutor.awaitTermination(10, TimeUnit.MINUTES);
-			DBFactory.getInstance().commitAndCloseSession();
+			finishStages();
 			
-
-			log.info("Wait until index writer executor is finished");
-			int waitWriter = 0;
-			while (indexerWriterExecutor.getActiveCount() > 0 && (waitWriter++ < MAX_WAITING_COUNT)) { 
-				Thread.sleep(1000);
-			}
-			
-			log.info("Close index writer executor");
+			log.info("Close index writer");
 			fullIndexerStatus.setIndexSize(indexWriter.maxDoc());
-			//shutdown the index writer thread
-			indexerWriterExecutor.submit(new CloseIndexCallable());
-			indexerWriterExecutor.shutdown();
-			indexerWriterExecutor.awaitTermination(1, TimeUnit.MINUTES);
+			indexWriter.commit();
+			indexWriter.close();
+			indexWriter = null;
 		} catch (IOException e) {
 			log.warn("Can not create IndexWriter, indexname=" + tempIndexPath, e);
 		} finally {
 			DBFactory.getInstance().commitAndCloseSession();
 			log.debug("doIndex: commit & close session");
+			stopStages();
+		}
+	}
+	
+	/**
+	 * Update the current index with the documents of the specified resources.
+	 * The documents of every resource are deleted and the resource is indexed
+	 * again by the indexers of the main indexer which implement {@link IncrementalIndexer}.
+	 * The files which didn't change are taken from the current index.
+	 * 
+	 * @param resources The resources (repository entries, business groups...)
+	 * @return false if the run was skipped because a full index is running or
+	 * 		if it was interrupted and rolled back, the resources must be queued again
+	 * @throws InterruptedException
+	 */
+	public boolean indexResources(Collection<? extends OLATResourceable> resources) throws InterruptedException {
+		if(!indexLock.tryLock()) {
+			return false;
+		}
+		try {
+			if(!stopIndexing) {
+				// a full index is starting
+				return false;
+			}
+			return doIndexResources(resources);
+		} finally {
+			indexLock.unlock();
+		}
+	}
+	
+	/**
+	 * @return true if the changes are committed, false if the batch was interrupted
+	 * 		or failed and rolled back
+	 */
+	private boolean doIndexResources(Collection<? extends OLATResourceable> resources) throws InterruptedException {
+		long startTime = System.currentTimeMillis();
+		try {
+			Directory directory = FSDirectory.open(new File(indexPath));
+			if(!DirectoryReader.indexExists(directory)) {
+				// the next full index will add the resources
+				return true;
+			}
+			
+			incrementalIndexing = true;
+			indexWriter = new IndexWriter(directory, newIndexWriterConfig());
+			startStages();
+			for(OLATResourceable resource:resources) {
+				if(isInterupted()) {
+					break;
+				}
+				indexResource(resource);
+			}
+			finishStages();
+			
+			if(isInterupted()) {
+				// the documents of the resources are deleted but not all added again, rollback in finally
+				log.info("Incremental indexing of " + resources.size() + " resources interrupted, rollback");
+				return false;
+			}
 			
-			if(indexerExecutor != null) {
-				indexerExecutor.shutdownNow();
-				indexerExecutor = null;
+			indexWriter.commit();
+			indexWriter.close();
+			indexWriter = null;
+			fullIndexerStatus.incrementalIndexingDone(resources.size(), System.currentTimeMillis() - startTime);
+			log.info("Incremental indexing of " + resources.size() + " resources done in " + (System.currentTimeMillis() - startTime) + "ms");
+			return true;
+		} catch (IOException e) {
+			log.error("Cannot update the index: " + indexPath, e);
+			return false;
+		} finally {
+			DBFactory.getInstance().commitAndCloseSession();
+			stopStages();
+			if(indexWriter != null) {
+				try {
+					indexWriter.rollback();
+				} catch (IOException e) {
+					log.error("", e);
+				}
+				indexWriter = null;
 			}
-			if(indexerWriterExecutor != null) {
-				indexerWriterExecutor.shutdownNow();
-				indexerWriterExecutor = null;
+			incrementalIndexing = false;
+		}
+	}
+	
+	private void indexResource(OLATResourceable resource) throws IOException, InterruptedException {
+		SearchResourceContext resourceContext = new SearchResourceContext();
+		resourceContext.setBusinessControlFor(resource);
+		// the documents added after the delete are not affected
+		Term prefix = new Term(AbstractOlatDocument.RESOURCEURL_FIELD_NAME, resourceContext.getResourceUrl());
+		indexWriter.deleteDocuments(new PrefixQuery(prefix));
+		
+		for(Indexer indexer:mainIndexer.getIndexerByType(resource.getResourceableTypeName())) {
+			if(indexer instanceof IncrementalIndexer) {
+				try {
+					((IncrementalIndexer)indexer).indexResource(new SearchResourceContext(), resource.getResourceableId(), this);
+				} catch (InterruptedException e) {
+					throw e;
+				} catch (Exception e) {
+					log.warn("Cannot index the resource: " + resource.getResourceableTypeName() + ":" + resource.getResourceableId(), e);
+					DBFactory.getInstance().rollbackAndCloseSession();
+				}
 			}
 		}
+		DBFactory.getInstance().commitAndCloseSession();
+	}
+	
+	/**
+	 * Start the folder workers, the extractors and the writer.
+	 */
+	private void startStages() {
+		if(indexerExecutor == null) {
+			BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>(2);
+			indexerExecutor = new ThreadPoolExecutor(indexerPoolSize, indexerPoolSize, 0L, TimeUnit.MILLISECONDS,
+					queue, indexWorkersThreadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+		if(extractorExecutor == null) {
+			// a full queue let the folder workers extract the files themselves
+			BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>(extractorPoolSize * 4);
+			extractorExecutor = new ThreadPoolExecutor(extractorPoolSize, extractorPoolSize, 0L, TimeUnit.MILLISECONDS,
+					queue, indexExtractorsThreadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		}
+		if(extractorWatchdog == null && extractorTimeout > 0) {
+			extractorWatchdog = Executors.newSingleThreadScheduledExecutor(new IndexerThreadFactory("watchdog"));
+			extractorWatchdog.scheduleWithFixedDelay(new ExtractionWatchdog(), 1, 1, TimeUnit.SECONDS);
+		}
+		
+		documentQueue = new ArrayBlockingQueue<>(writerQueueSize);
+		writerFinished = false;
+		writerThread = indexWriterThreadFactory.newThread(new DocumentWriter());
+		writerThread.start();
+	}
+	
+	/**
+	 * Wait until the folder workers, the extractors and the writer
+	 * have done their work.
+	 */
+	private void finishStages() throws InterruptedException {
+		log.info("Wait until every folder indexer is finished");
+		indexerExecutor.shutdown();
+		indexerExecutor.awaitTermination(10, TimeUnit.MINUTES);
+		DBFactory.getInstance().commitAndCloseSession();
+		
+		log.info("Wait until every text extractor is finished");
+		extractorExecutor.shutdown();
+		extractorExecutor.awaitTermination(10, TimeUnit.MINUTES);
+
+		log.info("Wait until index writer is finished");
+		writerFinished = true;
+		writerThread.join(MAX_WAITING_COUNT * 1000l);
+	}
+	
+	private void stopStages() {
+		if(indexerExecutor != null) {
+			indexerExecutor.shutdownNow();
+			indexerExecutor = null;
+		}
+		if(extractorExecutor != null) {
+			extractorExecutor.shutdownNow();
+			extractorExecutor = null;
+		}
+		if(extractorWatchdog != null) {
+			extractorWatchdog.shutdownNow();
+			extractorWatchdog = null;
+		}
+		if(writerThread != null) {
+			writerFinished = true;
+			writerThread.interrupt();
+			writerThread = null;
+		}
+		runningExtractions.clear();
 	}
 	
 	public Future<Boolean> submit(Callable<Boolean> task) {
@@ -295,11 +482,36 @@ public class OlatFullIndexer {
 		}
 	}
 
+	/**
+	 * Hand a file to the text extractors. The resource context is copied, the caller
+	 * can reuse it.
+	 * 
+	 * @param leafResourceContext The context of the file with the file path set
+	 * @param leaf The file
+	 * @throws InterruptedException
+	 */
+	public void submitFile(SearchResourceContext leafResourceContext, VFSLeaf leaf) throws InterruptedException {
+		ExtractionTask task = new ExtractionTask(leafResourceContext.copy(), leaf);
+		fullIndexerStatus.incrementFilesQueued();
+		if(extractorExecutor != null && !extractorExecutor.isShutdown()) {
+			try {
+				extractorExecutor.execute(task);
+			} catch (RejectedExecutionException e) {
+				log.error("Try to submit a file to the extractors but they are closed.");
+			}
+		} else {
+			// not in a full index run, extract inline
+			task.run();
+		}
+	}
+
 	/**
 	 * 
 	 * @see java.lang.Runnable#run()
 	 */
 	public void run() {
+		// wait until a running incremental update is done
+		indexLock.lock();
 		try {
 			log.info("full indexing starts... Lucene-version:" + LucenePackage.get().getImplementationVersion());
 			fullIndexerStatus.indexingStarted();
@@ -324,6 +536,12 @@ public class OlatFullIndexer {
 			log.info("full indexing summary: document counters: "+status.getDocumentCounters());
 			log.info("full indexing summary: file type counters:"+status.getFileTypeCounters());
 			log.info("full indexing summary: excluded counter:  "+status.getExcludedDocumentCount());
+			log.info("full indexing summary: extracted files:   "+status.getFilesExtracted() + " of " + status.getFilesQueued()
+					+ " (timeouts: " + status.getExtractionTimeouts() + ", failures: " + status.getExtractionFailures()
+					+ ", avg: " + status.getAverageExtractionTime() + " ms)");
+			log.info("full indexing summary: writer batches:    "+status.getWriterBatches());
+			log.info("full indexing summary: text cache:        "+status.getTextCacheHits() + " hits, "
+					+ status.getTextCacheMisses() + " misses (" + status.getTextCacheHitRate() + "%)");
 
 		} catch(InterruptedException iex) {
 			log.info("FullIndexer was interrupted ;" + iex.getMessage());
@@ -333,11 +551,13 @@ public class OlatFullIndexer {
 			} catch (NullPointerException nex) {
 				// no logging available (shut down) => do nothing
 			}
+		} finally {
+			fullIndexerStatus.setStatus(FullIndexerStatus.STATUS_STOPPED);
+			stopIndexing = true;
+			// never let an error block the incremental updates
+			indexLock.unlock();
 		}
 		
-		fullIndexerStatus.setStatus(FullIndexerStatus.STATUS_STOPPED);
-		stopIndexing = true;
-		
 		try {
 			log.info("quit indexing run.");
 		} catch (NullPointerException nex) {
@@ -354,10 +574,10 @@ public class OlatFullIndexer {
 	}
 	
 	/**
-	 * Add a document to the index writer. The document is indexed by a single threaded executor,
-	 * Lucene want that write operations happen within a single thread. The access is synchronized
-	 * to block concurrent access to the executor. It blocks the text extractors and allow a
-	 * ridiculously small queue but memory efficient.
+	 * Add a document to the index writer. The document is put in the queue of the
+	 * writer thread, Lucene want that write operations happen within a single thread.
+	 * The call blocks if the queue is full, which slows the text extractors down
+	 * as long as the writer is behind.
 	 * 
 	 * @param document
 	 * @throws IOException
@@ -365,45 +585,37 @@ public class OlatFullIndexer {
 	public void addDocument(Document document) throws IOException,InterruptedException {
 		DBFactory.getInstance().commitAndCloseSession();
 		
-		if (!stopIndexing && indexerWriterExecutor != null && !indexerWriterExecutor.isShutdown()) {
-			synchronized(indexerWriterBlock) {//once at a time please, wait, you have enough time
-				Future<Boolean> future = indexerWriterExecutor.submit(new AddDocumentCallable(document));
-				try {
-					future.get();
-				} catch (ExecutionException e) {
-					log.error("", e);
-				}
+		BlockingQueue<Document> queue = documentQueue;
+		if (queue != null) {
+			while(!isInterupted() && !writerFinished && !queue.offer(document, 1, TimeUnit.SECONDS)) {
+				// the writer is behind, wait
 			}
 		}
 
-		incrementDocumentTypeCounter(document);
-		incrementFileTypeCounter(document);
-		fullIndexerStatus.setNumberAvailableFolderIndexer(indexerExecutor.getPoolSize());
-		fullIndexerStatus.setNumberRunningFolderIndexer(indexerExecutor.getActiveCount());
+		if(!incrementalIndexing) {
+			incrementDocumentTypeCounter(document);
+			incrementFileTypeCounter(document);
+		}
+		if(indexerExecutor != null) {
+			fullIndexerStatus.setNumberAvailableFolderIndexer(indexerExecutor.getPoolSize());
+			fullIndexerStatus.setNumberRunningFolderIndexer(indexerExecutor.getActiveCount());
+		}
+		if(extractorExecutor != null) {
+			fullIndexerStatus.setNumberRunningExtractors(extractorExecutor.getActiveCount());
+		}
 	}
 	
 	private void incrementFileTypeCounter(Document document) {
 		String fileType = document.get(OlatDocument.FILETYPE_FIELD_NAME);
 		if ( (fileType != null) && (!fileType.equals(""))) {
-			int intValue = 0;
-			if (fileTypeCounters.containsKey(fileType)) {
-			  Integer fileCounter = fileTypeCounters.get(fileType);
-			  intValue = fileCounter.intValue();
-			}
-			intValue++;
-			fileTypeCounters.put(fileType, new Integer(intValue));
+			// the extractors add documents concurrently, merge is atomic in Hashtable
+			fileTypeCounters.merge(fileType, Integer.valueOf(1), Integer::sum);
 		}
 	}
 
 	private void incrementDocumentTypeCounter(Document document) {
 		String documentType = document.get(OlatDocument.DOCUMENTTYPE_FIELD_NAME);
-		int intValue = 0;
-		if (documentCounters.containsKey(documentType)) {
-		  Integer docCounter = documentCounters.get(documentType);
-		  intValue = docCounter.intValue();
-		}
-		intValue++;
-		documentCounters.put(documentType, new Integer(intValue));
+		documentCounters.merge(documentType, Integer.valueOf(1), Integer::sum);
 	}
 
 	private void countIndexPerMinute() {
@@ -428,7 +640,8 @@ public class OlatFullIndexer {
 	public FullIndexerStatus getStatus() {
 		fullIndexerStatus.setDocumentCounters(documentCounters);
 		fullIndexerStatus.setFileTypeCounters(fileTypeCounters);
-		fullIndexerStatus.setDocumentQueueSize(0);
+		BlockingQueue<Document> queue = documentQueue;
+		fullIndexerStatus.setDocumentQueueSize(queue == null ? 0 : queue.size());
 		return fullIndexerStatus;
 	}
 	
@@ -448,7 +661,7 @@ public class OlatFullIndexer {
 	 * @return  TRUE: indexing process is interrupted.
 	 */
 	public boolean isInterupted() {
-		return stopIndexing;
+		return stopIndexing && !incrementalIndexing;
 	}
 	
 	private void resetDocumentCounters() {
@@ -456,40 +669,154 @@ public class OlatFullIndexer {
 		fileTypeCounters = new Hashtable<String,Integer>();		
 	}
 	
-	private class CloseIndexCallable implements Callable<Boolean> {
+	/**
+	 * The writer stage, take the documents from the queue and add them
+	 * by batches to the index.
+	 */
+	private class DocumentWriter implements Runnable {
 
 		@Override
-		public Boolean call() throws Exception {
-			indexWriter.commit();
-			indexWriter.close();
-			indexWriter = null;
-			return Boolean.TRUE;
+		public void run() {
+			List<Document> batch = new ArrayList<>(writerBatchSize);
+			try {
+				while(!isInterupted()) {
+					Document document = documentQueue.poll(250, TimeUnit.MILLISECONDS);
+					if(document == null) {
+						if(writerFinished) {
+							break;
+						}
+						continue;
+					}
+					batch.add(document);
+					documentQueue.drainTo(batch, writerBatchSize - 1);
+					writeBatch(batch);
+					batch.clear();
+				}
+			} catch (InterruptedException e) {
+				log.info("Index writer interrupted at element=" + fullIndexerStatus.getDocumentCount());
+			} catch (Exception e) {
+				log.error("Index writer stopped at element=" + fullIndexerStatus.getDocumentCount(), e);
+			} finally {
+				// release the extractors which wait on the queue
+				writerFinished = true;
+				documentQueue.clear();
+			}
+		}
+		
+		private void writeBatch(List<Document> batch) throws InterruptedException {
+			for(Document document:batch) {
+				try {
+					indexWriter.addDocument(document);
+					if(!incrementalIndexing) {
+						fullIndexerStatus.incrementDocumentCount();
+						countIndexPerMinute();
+					}
+				} catch (IOException e) {
+					log.error("Cannot add document to the index", e);
+				}
+			}
+			fullIndexerStatus.incrementWriterBatches();
+			
+			sleepDocumentCounter += batch.size();
+			if (indexInterval != 0 && sleepDocumentCounter >= documentsPerInterval) {
+				sleepDocumentCounter = 0;
+				Thread.sleep(indexInterval);
+			}
 		}
 	}
 	
-	private class AddDocumentCallable implements Callable<Boolean> {
-		private final Document document;
+	/**
+	 * The extraction stage, read the text of a file and hand the document
+	 * to the writer.
+	 */
+	private class ExtractionTask implements Runnable {
 		
-		public AddDocumentCallable(Document document) {
-			this.document = document;
+		private final VFSLeaf leaf;
+		private final SearchResourceContext leafResourceContext;
+		private volatile long startTime;
+		private volatile boolean timedOut;
+		
+		public ExtractionTask(SearchResourceContext leafResourceContext, VFSLeaf leaf) {
+			this.leaf = leaf;
+			this.leafResourceContext = leafResourceContext;
+		}
+		
+		public long getStartTime() {
+			return startTime;
+		}
+		
+		public void timeout() {
+			timedOut = true;
+		}
+		
+		@Override
+		public void run() {
+			if(isInterupted()) {
+				return;
+			}
+			
+			Thread currentThread = Thread.currentThread();
+			startTime = System.currentTimeMillis();
+			runningExtractions.put(currentThread, this);
+			boolean inTime = false;
+			try {
+				Document document = CoreSpringFactory.getImpl(FileDocumentFactory.class).createDocument(leafResourceContext, leaf);
+				inTime = runningExtractions.remove(currentThread, this);
+				if(!inTime) {
+					// the extractor ignored the interrupt
+					log.warn("Text extraction of " + leafResourceContext.getFilePath() + " ended after the timeout, document dropped");
+				} else if(document != null) {//document which are disabled return null
+					fullIndexerStatus.incrementFilesExtracted(System.currentTimeMillis() - startTime);
+					addDocument(document);
+				}
+			} catch (DocumentAccessException e) {
+				if (log.isDebug()) log.debug("Can not access document." + e.getMessage());
+			} catch (InterruptedException e) {
+				if(timedOut) {
+					log.warn("Text extraction of " + leafResourceContext.getFilePath() + " interrupted after " + extractorTimeout + "ms");
+				} else if (log.isDebug()) {
+					log.debug("InterruptedException: Can not index leaf=" + leaf.getName() + ";" + e.getMessage());
+				}
+			} catch (Exception e) {
+				fullIndexerStatus.incrementExtractionFailures();
+				log.warn("Exception: Can not index leaf=" + leaf.getName(), e);
+			} finally {
+				if(!inTime && !runningExtractions.remove(currentThread, this)) {
+					// the watchdog has interrupted this thread, clear the flag before
+					// the thread goes back to the pool or to the folder worker
+					synchronized(this) {
+						Thread.interrupted();
+					}
+				}
+				DBFactory.getInstance().commitAndCloseSession();
+			}
 		}
+	}
+	
+	/**
+	 * Interrupt the extractions which take longer than the timeout.
+	 */
+	private class ExtractionWatchdog implements Runnable {
 
 		@Override
-		public Boolean call() throws Exception {
-			indexWriter.addDocument(document);
-			fullIndexerStatus.incrementDocumentCount();
-			if (indexInterval != 0 && sleepDocumentCounter++ >= documentsPerInterval) {
-				sleepDocumentCounter = 0;
-				Thread.sleep(indexInterval);
-			} else if (stopIndexing) {
-				throw new InterruptedException("Do stop indexing at element=" + indexWriter.maxDoc());
+		public void run() {
+			long now = System.currentTimeMillis();
+			for(Map.Entry<Thread,ExtractionTask> entry:runningExtractions.entrySet()) {
+				ExtractionTask task = entry.getValue();
+				if(now - task.getStartTime() > extractorTimeout) {
+					synchronized(task) {
+						if(runningExtractions.remove(entry.getKey(), task)) {
+							task.timeout();
+							fullIndexerStatus.incrementExtractionTimeouts();
+							entry.getKey().interrupt();
+						}
+					}
+				}
 			}
-			countIndexPerMinute();
-			return Boolean.TRUE;
 		}
 	}
 	
-	private static class IndexerThreadFactory implements ThreadFactory {
+	static class IndexerThreadFactory implements ThreadFactory {
 
 		private static final AtomicInteger poolNumber = new AtomicInteger(1);
         private final ThreadGroup group;
@@ -46,13 +46,14 @@ import org.olat.resource.accesscontrol.AccessControlModule;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.document.GroupDocument;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
+import org.olat.search.service.indexer.IncrementalIndexer;
 import org.olat.search.service.indexer.OlatFullIndexer;
 
 /**
  * Index all business-groups. Includes group-forums and groups-folders. 
  * @author Christian Guretzki
  */
-public class GroupIndexer extends AbstractHierarchicalIndexer {
+public class GroupIndexer extends AbstractHierarchicalIndexer implements IncrementalIndexer {
 	
 	private BusinessGroupService businessGroupService;
 	
@@ -88,13 +89,7 @@ public class GroupIndexer extends AbstractHierarchicalIndexer {
 				}
 				businessGroup = reloadedBusinessGroup;
 				
-				if (isLogDebugEnabled()) logDebug("Index BusinessGroup=" + businessGroup);
-				SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
-				searchResourceContext.setBusinessControlFor(businessGroup);
-				Document document = GroupDocument.createDocument(searchResourceContext, businessGroup);
-				indexWriter.addDocument(document);
-		    // Do index child 
-			  super.doIndex(searchResourceContext, businessGroup, indexWriter);
+				doIndexBusinessGroup(parentResourceContext, businessGroup, indexWriter);
 			} catch(Exception ex) {
 				logError("Exception indexing group=" + businessGroup, ex);
 				DBFactory.getInstance().rollbackAndCloseSession();
@@ -108,6 +103,26 @@ public class GroupIndexer extends AbstractHierarchicalIndexer {
 		if (isLogDebugEnabled()) logDebug("GroupIndexer finished in " + indexTime + " ms");
 	}
 
+	@Override
+	public void indexResource(SearchResourceContext parentResourceContext, Long key, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		BusinessGroup businessGroup = businessGroupService.loadBusinessGroup(key);
+		if(businessGroup != null) {
+			doIndexBusinessGroup(parentResourceContext, businessGroup, indexWriter);
+		}
+	}
+	
+	private void doIndexBusinessGroup(SearchResourceContext parentResourceContext, BusinessGroup businessGroup, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		if (isLogDebugEnabled()) logDebug("Index BusinessGroup=" + businessGroup);
+		SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+		searchResourceContext.setBusinessControlFor(businessGroup);
+		Document document = GroupDocument.createDocument(searchResourceContext, businessGroup);
+		indexWriter.addDocument(document);
+		// Do index child 
+		super.doIndex(searchResourceContext, businessGroup, indexWriter);
+	}
+
 	@Override
 	public boolean checkAccess(ContextEntry contextEntry, BusinessControl businessControl, Identity identity, Roles roles) {
 		if(roles.isGuestOnly()) {
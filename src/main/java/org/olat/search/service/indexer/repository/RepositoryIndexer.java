@@ -54,6 +54,7 @@ import org.olat.resource.accesscontrol.provider.paypal.PaypalAccessHandler;
 import org.olat.search.SearchModule;
 import org.olat.search.service.SearchResourceContext;
 import org.olat.search.service.indexer.AbstractHierarchicalIndexer;
+import org.olat.search.service.indexer.IncrementalIndexer;
 import org.olat.search.service.indexer.Indexer;
 import org.olat.search.service.indexer.OlatFullIndexer;
 
@@ -62,7 +63,7 @@ import org.olat.search.service.indexer.OlatFullIndexer;
  * @author Christian Guretzki
  * 
  */
-public class RepositoryIndexer extends AbstractHierarchicalIndexer {
+public class RepositoryIndexer extends AbstractHierarchicalIndexer implements IncrementalIndexer {
 	
 	private static final int BATCH_SIZE = 100;
 	
@@ -147,35 +148,12 @@ public class RepositoryIndexer extends AbstractHierarchicalIndexer {
 						logInfo("doIndex: repositoryEntry was deleted while we were indexing. The deleted repositoryEntry was: "+repositoryEntry);
 						continue;
 					}
-					if(repositoryEntry.getEntryStatus() == RepositoryEntryStatusEnum.trash
-							|| repositoryEntry.getEntryStatus() == RepositoryEntryStatusEnum.deleted) {
-						continue;
-					}
 					
 					repositoryEntry = reloadedRepositoryEntry;
 					if (debug) {
 						logDebug("Index repositoryEntry=" + repositoryEntry + "  counter=" + counter++ + " with ResourceableId=" + repositoryEntry.getOlatResource().getResourceableId());
 					}
-					if (!isOnBlacklist(repositoryEntry.getOlatResource().getResourceableId()) ) {
-						SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
-						searchResourceContext.setBusinessControlFor(repositoryEntry);
-						searchResourceContext.setTitle(repositoryEntry.getDisplayname());
-						searchResourceContext.setDescription(repositoryEntry.getDescription());
-						Document document = documentFactory.createDocument(searchResourceContext, repositoryEntry);
-						indexWriter.addDocument(document);
-						// Pass created-date & modified-date in context to child indexer because the child have no dates
-						searchResourceContext.setLastModified(repositoryEntry.getLastModified());
-						searchResourceContext.setCreatedDate(repositoryEntry.getCreationDate());
-						// go further with resource
-						Indexer repositoryEntryIndexer = getRepositoryEntryIndexer(repositoryEntry);
-						if (repositoryEntryIndexer != null) {
-							repositoryEntryIndexer.doIndex(searchResourceContext, repositoryEntry, indexWriter);
-						} else if (debug) {
-							logDebug("No RepositoryEntryIndexer for " + repositoryEntry.getOlatResource()); // e.g. RepositoryEntry				
-						}
-					} else {
-						logWarn("RepositoryEntry is on black-list and excluded from search-index, repositoryEntry=" + repositoryEntry, null);
-					}
+					doIndexRepositoryEntry(parentResourceContext, repositoryEntry, indexWriter);
 				} catch (Throwable ex) {
 					// create meaninfull debugging output to find repo entry that is somehow broken
 					String entryDebug = "NULL";
@@ -195,6 +173,44 @@ public class RepositoryIndexer extends AbstractHierarchicalIndexer {
 		}
 	}
 
+	@Override
+	public void indexResource(SearchResourceContext parentResourceContext, Long key, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		RepositoryEntry repositoryEntry = repositoryManager.lookupRepositoryEntry(key);
+		if(repositoryEntry != null) {
+			doIndexRepositoryEntry(parentResourceContext, repositoryEntry, indexWriter);
+		}
+	}
+	
+	private void doIndexRepositoryEntry(SearchResourceContext parentResourceContext, RepositoryEntry repositoryEntry, OlatFullIndexer indexWriter)
+	throws IOException, InterruptedException {
+		if(repositoryEntry.getEntryStatus() == RepositoryEntryStatusEnum.trash
+				|| repositoryEntry.getEntryStatus() == RepositoryEntryStatusEnum.deleted) {
+			return;
+		}
+
+		if (!isOnBlacklist(repositoryEntry.getOlatResource().getResourceableId()) ) {
+			SearchResourceContext searchResourceContext = new SearchResourceContext(parentResourceContext);
+			searchResourceContext.setBusinessControlFor(repositoryEntry);
+			searchResourceContext.setTitle(repositoryEntry.getDisplayname());
+			searchResourceContext.setDescription(repositoryEntry.getDescription());
+			Document document = documentFactory.createDocument(searchResourceContext, repositoryEntry);
+			indexWriter.addDocument(document);
+			// Pass created-date & modified-date in context to child indexer because the child have no dates
+			searchResourceContext.setLastModified(repositoryEntry.getLastModified());
+			searchResourceContext.setCreatedDate(repositoryEntry.getCreationDate());
+			// go further with resource
+			Indexer repositoryEntryIndexer = getRepositoryEntryIndexer(repositoryEntry);
+			if (repositoryEntryIndexer != null) {
+				repositoryEntryIndexer.doIndex(searchResourceContext, repositoryEntry, indexWriter);
+			} else if (isLogDebugEnabled()) {
+				logDebug("No RepositoryEntryIndexer for " + repositoryEntry.getOlatResource()); // e.g. RepositoryEntry				
+			}
+		} else {
+			logWarn("RepositoryEntry is on black-list and excluded from search-index, repositoryEntry=" + repositoryEntry, null);
+		}
+	}
+
 	private boolean isOnBlacklist(Long key) {
 		return repositoryBlackList.contains(key);
 	}
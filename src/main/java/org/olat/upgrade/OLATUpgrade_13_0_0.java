@@ -33,6 +33,8 @@ import org.olat.core.gui.control.navigation.SiteConfiguration;
 import org.olat.core.gui.control.navigation.SiteDefinitions;
 import org.olat.core.id.Identity;
 import org.olat.core.id.Organisation;
+import org.olat.modules.fo.manager.ForumManager;
+import org.olat.modules.fo.manager.ForumReadThreadDAO;
 import org.olat.modules.forms.EvaluationFormManager;
 import org.olat.modules.forms.EvaluationFormParticipation;
 import org.olat.modules.forms.EvaluationFormParticipationStatus;
@@ -75,6 +77,8 @@ public class OLATUpgrade_13_0_0 extends OLATUpgrade {
 	private static final String MIGRATE_SEND_APPEAL_DATES = "LECTURES SEND APPEAL DATES";
 	private static final String MIGRATE_ADMIN_SITE_SEC = "MIGRATE ADMIN SITE SECURITY CALLBACK";
 	private static final String MIGRATE_REPO_ENTRY_ACCESS = "MIGRATE REPO ENTRY ACCESS";
+	private static final String MIGRATE_FORUM_READ_MESSAGES = "MIGRATE FORUM READ MESSAGES";
+	private static final String MIGRATE_FORUM_THREAD_SUMMARIES = "MIGRATE FORUM THREAD SUMMARIES";
 	
 	@Autowired
 	private DB dbInstance;
@@ -100,6 +104,10 @@ public class OLATUpgrade_13_0_0 extends OLATUpgrade {
 	private EvaluationFormManager evaManger;
 	@Autowired
 	private SiteDefinitions sitesModule;
+	@Autowired
+	private ForumManager forumManager;
+	@Autowired
+	private ForumReadThreadDAO forumReadThreadDao;
 	
 	public OLATUpgrade_13_0_0() {
 		super();
@@ -133,6 +141,8 @@ public class OLATUpgrade_13_0_0 extends OLATUpgrade {
 		allOk &= migrateLecturesSendAppealDates(upgradeManager, uhd);
 		allOk &= migrateAdminSiteSecurityCallback(upgradeManager, uhd);
 		allOk &= migrateRepositoryEntriesAccess(upgradeManager, uhd);
+		allOk &= migrateForumReadMessages(upgradeManager, uhd);
+		allOk &= migrateForumThreadSummaries(upgradeManager, uhd);
 		
 		uhd.setInstallationComplete(allOk);
 		upgradeManager.setUpgradesHistory(uhd, VERSION);
@@ -234,6 +244,58 @@ public class OLATUpgrade_13_0_0 extends OLATUpgrade {
 				.getResultList();
 	}
 	
+	private boolean migrateForumReadMessages(UpgradeManager upgradeManager, UpgradeHistoryData uhd) {
+		boolean allOk = true;
+		if (!uhd.getBooleanDataValue(MIGRATE_FORUM_READ_MESSAGES)) {
+			try {
+				List<Long> forumKeys = forumReadThreadDao.getForumsWithReadMessages();
+				dbInstance.commitAndCloseSession();
+				for(int i=0; i<forumKeys.size(); i++) {
+					forumReadThreadDao.migrateReadMessages(forumKeys.get(i));
+					if(i % 50 == 0) {
+						log.info("Migration forum read messages: " + i + " / " + forumKeys.size());
+					}
+				}
+				log.info("Migration forum read messages done: " + forumKeys.size());
+				dbInstance.commitAndCloseSession();
+			} catch (Exception e) {
+				log.error("", e);
+				dbInstance.rollbackAndCloseSession();
+				allOk &= false;
+			}
+
+			uhd.setBooleanDataValue(MIGRATE_FORUM_READ_MESSAGES, allOk);
+			upgradeManager.setUpgradesHistory(uhd, VERSION);
+		}
+		return allOk;
+	}
+	
+	private boolean migrateForumThreadSummaries(UpgradeManager upgradeManager, UpgradeHistoryData uhd) {
+		boolean allOk = true;
+		if (!uhd.getBooleanDataValue(MIGRATE_FORUM_THREAD_SUMMARIES)) {
+			try {
+				List<Long> forumKeys = forumManager.getForumsWithoutThreadSummaries();
+				dbInstance.commitAndCloseSession();
+				for(int i=0; i<forumKeys.size(); i++) {
+					forumManager.saveMissingThreadSummaries(forumKeys.get(i));
+					dbInstance.commitAndCloseSession();
+					if(i % 50 == 0) {
+						log.info("Migration forum thread summaries: " + i + " / " + forumKeys.size());
+					}
+				}
+				log.info("Migration forum thread summaries done: " + forumKeys.size());
+			} catch (Exception e) {
+				log.error("", e);
+				dbInstance.rollbackAndCloseSession();
+				allOk &= false;
+			}
+
+			uhd.setBooleanDataValue(MIGRATE_FORUM_THREAD_SUMMARIES, allOk);
+			upgradeManager.setUpgradesHistory(uhd, VERSION);
+		}
+		return allOk;
+	}
+	
 	private boolean migrateRepositoryEntriesAccess(UpgradeManager upgradeManager, UpgradeHistoryData uhd) {
 		boolean allOk = true;
 		if (!uhd.getBooleanDataValue(MIGRATE_REPO_ENTRY_ACCESS)) {
@@ -366,3 +366,62 @@ alter table o_lecture_block_roll_call add column l_appeal_reason mediumtext;
 alter table o_lecture_block_roll_call add column l_appeal_status mediumtext;
 alter table o_lecture_block_roll_call add column l_appeal_status_reason mediumtext;
 
+
+-- my courses
+create table o_re_my_course (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   m_owner bit default 0 not null,
+   m_coach bit default 0 not null,
+   m_participant bit default 0 not null,
+   m_marked bit default 0 not null,
+   m_rating integer,
+   m_statement_key bigint,
+   m_passed bit,
+   m_score float(65,30),
+   fk_identity_id bigint not null,
+   fk_entry_id bigint not null,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   fk_identity_id bigint not null,
+   lastmodified datetime not null,
+   m_version bigint not null,
+   m_built_version bigint not null,
+   primary key (fk_identity_id)
+);
+alter table o_re_my_course ENGINE = InnoDB;
+alter table o_re_my_course_state ENGINE = InnoDB;
+
+alter table o_re_my_course add constraint re_my_course_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+alter table o_re_my_course add constraint re_my_course_re_idx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
+create unique index idx_re_my_course_ident_re_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+alter table o_re_my_course_state add constraint re_my_course_state_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+
+-- statistics
+alter table o_stat_lastupdated add column lastlogkey bigint;
+
+-- forum
+alter table o_message add column thread_numofmessages integer;
+alter table o_message add column thread_lastmodified datetime;
+
+create table o_fo_read_thread (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   r_watermark datetime,
+   r_read_keys mediumtext,
+   r_unread_keys mediumtext,
+   r_num_of_read integer default 0 not null,
+   fk_identity_id bigint not null,
+   fk_forum_id bigint not null,
+   fk_thread_id bigint not null,
+   primary key (id)
+);
+alter table o_fo_read_thread ENGINE = InnoDB;
+
+alter table o_fo_read_thread add constraint fo_read_thread_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_fo_read_thread_ident_idx on o_fo_read_thread (fk_identity_id, fk_thread_id);
+alter table o_fo_read_thread add constraint fo_read_thread_forum_idx foreign key (fk_forum_id) references o_forum (forum_id);
+create index idx_fo_read_thread_thread_idx on o_fo_read_thread (fk_thread_id);
@@ -369,6 +369,8 @@ create table if not exists o_message (
    statuscode integer,
    numofwords integer,
    numofcharacters integer,
+   thread_numofmessages integer,
+   thread_lastmodified datetime,
    primary key (message_id)
 );
 
@@ -471,6 +473,29 @@ create table o_re_to_group (
    fk_entry_id bigint not null,
    primary key (id)
 );
+create table o_re_my_course (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   m_owner bit default 0 not null,
+   m_coach bit default 0 not null,
+   m_participant bit default 0 not null,
+   m_marked bit default 0 not null,
+   m_rating integer,
+   m_statement_key bigint,
+   m_passed bit,
+   m_score float(65,30),
+   fk_identity_id bigint not null,
+   fk_entry_id bigint not null,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   fk_identity_id bigint not null,
+   lastmodified datetime not null,
+   m_version bigint not null,
+   m_built_version bigint not null,
+   primary key (fk_identity_id)
+);
 create table o_re_to_tax_level (
   id bigint not null auto_increment,
   creationdate datetime not null,
@@ -545,6 +570,20 @@ create table if not exists oc_lock (
 	primary key (lock_id)
 );
 
+create table o_fo_read_thread (
+   id bigint not null auto_increment,
+   creationdate datetime not null,
+   lastmodified datetime not null,
+   r_watermark datetime,
+   r_read_keys mediumtext,
+   r_unread_keys mediumtext,
+   r_num_of_read integer default 0 not null,
+   fk_identity_id bigint not null,
+   fk_forum_id bigint not null,
+   fk_thread_id bigint not null,
+   primary key (id)
+);
+
 create table if not exists o_readmessage (
 	id bigint not null,
 	version mediumint unsigned not null,
@@ -685,11 +724,12 @@ create table o_co_db_entry (
 
 create table if not exists o_stat_lastupdated (
 
-	lastupdated datetime not null
+	lastupdated datetime not null,
+	lastlogkey bigint
 
 );
 -- important: initialize with old date!
-insert into o_stat_lastupdated values(date('1999-01-01'));
+insert into o_stat_lastupdated (lastupdated) values (date('1999-01-01'));
 
 
 -- insert into o_stat_dayofweek (businesspath,resid,day,value) select businesspath,substr(businesspath,locate(':',businesspath)+1,locate(']',businesspath)-locate(':',businesspath)-1) resid,dayofweek(creationdate) day,count(*) cnt from o_loggingtable where actionverb='launch' and actionobject='node' group by businesspath,day;
@@ -2753,6 +2793,8 @@ alter table o_bs_secgroup ENGINE = InnoDB;
 alter table o_bs_group ENGINE = InnoDB;
 alter table o_bs_group_member ENGINE = InnoDB;
 alter table o_re_to_group ENGINE = InnoDB;
+alter table o_re_my_course ENGINE = InnoDB;
+alter table o_re_my_course_state ENGINE = InnoDB;
 alter table o_re_to_tax_level ENGINE = InnoDB;
 alter table o_bs_grant ENGINE = InnoDB;
 alter table o_repositoryentry_cycle ENGINE = InnoDB;
@@ -2786,6 +2828,7 @@ alter table o_lifecycle ENGINE = InnoDB;
 alter table o_plock ENGINE = InnoDB;
 alter table oc_lock ENGINE = InnoDB;
 alter table o_readmessage ENGINE = InnoDB;
+alter table o_fo_read_thread ENGINE = InnoDB;
 alter table o_projectbroker ENGINE = InnoDB;
 alter table o_projectbroker_project ENGINE = InnoDB;
 alter table o_projectbroker_customfields ENGINE = InnoDB;
@@ -2957,6 +3000,11 @@ create index member_to_grp_role_idx on o_bs_group_member (g_role);
 alter table o_re_to_group add constraint re_to_group_group_ctx foreign key (fk_group_id) references o_bs_group (id);
 alter table o_re_to_group add constraint re_to_group_re_ctx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
 
+alter table o_re_my_course add constraint re_my_course_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+alter table o_re_my_course add constraint re_my_course_re_idx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
+create unique index idx_re_my_course_ident_re_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+alter table o_re_my_course_state add constraint re_my_course_state_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+
 alter table o_gp_business add constraint gp_to_group_business_ctx foreign key (fk_group_id) references o_bs_group (id);
 
 -- business group
@@ -3160,6 +3208,10 @@ create index forum_msg_pseudonym_idx on o_message (pseudonym);
 
 create index readmessage_forum_idx on o_readmessage (forum_id);
 create index readmessage_identity_idx on o_readmessage (identity_id);
+alter table o_fo_read_thread add constraint fo_read_thread_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_fo_read_thread_ident_idx on o_fo_read_thread (fk_identity_id, fk_thread_id);
+alter table o_fo_read_thread add constraint fo_read_thread_forum_idx foreign key (fk_forum_id) references o_forum (forum_id);
+create index idx_fo_read_thread_thread_idx on o_fo_read_thread (fk_thread_id);
 
 create index forum_pseudonym_idx on o_forum_pseudonym (p_pseudonym);
 
@@ -370,4 +370,60 @@ alter table o_lecture_block_roll_call add l_appeal_status CLOB;
 alter table o_lecture_block_roll_call add l_appeal_status_reason CLOB;
 
 
+-- my courses
+create table o_re_my_course (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   m_owner number default 0 not null,
+   m_coach number default 0 not null,
+   m_participant number default 0 not null,
+   m_marked number default 0 not null,
+   m_rating number(11),
+   m_statement_key number(20),
+   m_passed number,
+   m_score float,
+   fk_identity_id number(20) not null,
+   fk_entry_id number(20) not null,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   fk_identity_id number(20) not null,
+   lastmodified date not null,
+   m_version number(20) not null,
+   m_built_version number(20) not null,
+   primary key (fk_identity_id)
+);
+
+alter table o_re_my_course add constraint re_my_course_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_re_my_course_ident_re_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+alter table o_re_my_course add constraint re_my_course_re_idx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
+create index idx_re_my_course_re_idx on o_re_my_course (fk_entry_id);
+alter table o_re_my_course_state add constraint re_my_course_state_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+
+-- statistics
+alter table o_stat_lastupdated add lastlogkey number(20);
+
+-- forum
+alter table o_message add thread_numofmessages number(11);
+alter table o_message add thread_lastmodified date;
+
+create table o_fo_read_thread (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   r_watermark date,
+   r_read_keys CLOB,
+   r_unread_keys CLOB,
+   r_num_of_read number(11) default 0 not null,
+   fk_identity_id number(20) not null,
+   fk_forum_id number(20) not null,
+   fk_thread_id number(20) not null,
+   primary key (id)
+);
 
+alter table o_fo_read_thread add constraint fo_read_thread_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_fo_read_thread_ident_idx on o_fo_read_thread (fk_identity_id, fk_thread_id);
+alter table o_fo_read_thread add constraint fo_read_thread_forum_idx foreign key (fk_forum_id) references o_forum (forum_id);
+create index idx_fo_read_thread_forum_idx on o_fo_read_thread (fk_forum_id);
+create index idx_fo_read_thread_thread_idx on o_fo_read_thread (fk_thread_id);
@@ -404,6 +404,8 @@ CREATE TABLE o_message (
   statuscode number(11),
   numofwords number(11),
   numofcharacters number(11),
+  thread_numofmessages number(11),
+  thread_lastmodified date,
   PRIMARY KEY (message_id)
 );
 
@@ -524,6 +526,29 @@ CREATE TABLE o_re_to_group (
    fk_entry_id number(20) not null,
    PRIMARY KEY (id)
 );
+create table o_re_my_course (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   m_owner number default 0 not null,
+   m_coach number default 0 not null,
+   m_participant number default 0 not null,
+   m_marked number default 0 not null,
+   m_rating number(11),
+   m_statement_key number(20),
+   m_passed number,
+   m_score float,
+   fk_identity_id number(20) not null,
+   fk_entry_id number(20) not null,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   fk_identity_id number(20) not null,
+   lastmodified date not null,
+   m_version number(20) not null,
+   m_built_version number(20) not null,
+   primary key (fk_identity_id)
+);
 CREATE TABLE o_re_to_tax_level (
   id number(20) generated always as identity,
   creationdate date not null,
@@ -605,6 +630,20 @@ CREATE TABLE oc_lock (
 );
 
 
+create table o_fo_read_thread (
+   id number(20) generated always as identity,
+   creationdate date not null,
+   lastmodified date not null,
+   r_watermark date,
+   r_read_keys CLOB,
+   r_unread_keys CLOB,
+   r_num_of_read number(11) default 0 not null,
+   fk_identity_id number(20) not null,
+   fk_forum_id number(20) not null,
+   fk_thread_id number(20) not null,
+   primary key (id)
+);
+
 CREATE TABLE o_readmessage (
   id number(20) NOT NULL,
   version number(20) NOT NULL,
@@ -1081,7 +1120,8 @@ create table o_ac_auto_advance_order (
 CREATE TABLE o_stat_lastupdated (
   lastupdated date not null,
   from_datetime date not null,
-  until_datetime date not null
+  until_datetime date not null,
+  lastlogkey number(20)
 );
 
 
@@ -2930,6 +2970,12 @@ alter table o_re_to_group add constraint re_to_group_re_ctx foreign key (fk_entr
 create index re_to_group_group_idx on o_re_to_group (fk_group_id);
 create index re_to_group_re_idx on o_re_to_group (fk_entry_id);
 
+alter table o_re_my_course add constraint re_my_course_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_re_my_course_ident_re_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+alter table o_re_my_course add constraint re_my_course_re_idx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
+create index idx_re_my_course_re_idx on o_re_my_course (fk_entry_id);
+alter table o_re_my_course_state add constraint re_my_course_state_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+
 alter table o_gp_business add constraint gp_to_group_business_ctx foreign key (fk_group_id) references o_bs_group (id);
 -- create index gp_to_group_group_idx on o_gp_business (fk_group_id);
 
@@ -3199,6 +3245,11 @@ create index forum_pseudonym_idx on o_forum_pseudonym (p_pseudonym);
 
 create index readmessage_forum_idx on o_readmessage (forum_id);
 create index readmessage_identity_idx on o_readmessage (identity_id);
+alter table o_fo_read_thread add constraint fo_read_thread_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_fo_read_thread_ident_idx on o_fo_read_thread (fk_identity_id, fk_thread_id);
+alter table o_fo_read_thread add constraint fo_read_thread_forum_idx foreign key (fk_forum_id) references o_forum (forum_id);
+create index idx_fo_read_thread_forum_idx on o_fo_read_thread (fk_forum_id);
+create index idx_fo_read_thread_thread_idx on o_fo_read_thread (fk_thread_id);
 
 create index forum_msg_pseudonym_idx on o_message (pseudonym);
 
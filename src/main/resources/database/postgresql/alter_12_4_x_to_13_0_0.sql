@@ -375,6 +375,60 @@ alter table o_lecture_block_roll_call add column l_appeal_status text;
 alter table o_lecture_block_roll_call add column l_appeal_status_reason text;
 
 
+-- my courses
+create table o_re_my_course (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   m_owner bool default false not null,
+   m_coach bool default false not null,
+   m_participant bool default false not null,
+   m_marked bool default false not null,
+   m_rating int4,
+   m_statement_key int8,
+   m_passed bool,
+   m_score float(24),
+   fk_identity_id int8 not null,
+   fk_entry_id int8 not null,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   fk_identity_id int8 not null,
+   lastmodified timestamp not null,
+   m_version int8 not null,
+   m_built_version int8 not null,
+   primary key (fk_identity_id)
+);
 
+alter table o_re_my_course add constraint re_my_course_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_re_my_course_ident_re_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+alter table o_re_my_course add constraint re_my_course_re_idx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
+create index idx_re_my_course_re_idx on o_re_my_course (fk_entry_id);
+alter table o_re_my_course_state add constraint re_my_course_state_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
 
+-- statistics
+alter table o_stat_lastupdated add column lastlogkey int8;
+
+-- forum
+alter table o_message add column thread_numofmessages int4;
+alter table o_message add column thread_lastmodified timestamp;
+
+create table o_fo_read_thread (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   r_watermark timestamp,
+   r_read_keys text,
+   r_unread_keys text,
+   r_num_of_read int4 not null default 0,
+   fk_identity_id int8 not null,
+   fk_forum_id int8 not null,
+   fk_thread_id int8 not null,
+   primary key (id)
+);
 
+alter table o_fo_read_thread add constraint fo_read_thread_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_fo_read_thread_ident_idx on o_fo_read_thread (fk_identity_id, fk_thread_id);
+alter table o_fo_read_thread add constraint fo_read_thread_forum_idx foreign key (fk_forum_id) references o_forum (forum_id);
+create index idx_fo_read_thread_forum_idx on o_fo_read_thread (fk_forum_id);
+create index idx_fo_read_thread_thread_idx on o_fo_read_thread (fk_thread_id);
@@ -367,6 +367,8 @@ create table o_message (
    statuscode int4,
    numofwords int4,
    numofcharacters int4,
+   thread_numofmessages int4,
+   thread_lastmodified timestamp,
    primary key (message_id)
 );
 create table o_gp_bgtoarea_rel (
@@ -466,6 +468,29 @@ create table o_re_to_group (
    fk_entry_id int8 not null,
    primary key (id)
 );
+create table o_re_my_course (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   m_owner bool default false not null,
+   m_coach bool default false not null,
+   m_participant bool default false not null,
+   m_marked bool default false not null,
+   m_rating int4,
+   m_statement_key int8,
+   m_passed bool,
+   m_score float(24),
+   fk_identity_id int8 not null,
+   fk_entry_id int8 not null,
+   primary key (id)
+);
+create table o_re_my_course_state (
+   fk_identity_id int8 not null,
+   lastmodified timestamp not null,
+   m_version int8 not null,
+   m_built_version int8 not null,
+   primary key (fk_identity_id)
+);
 create table o_re_to_tax_level (
   id bigserial,
   creationdate timestamp not null,
@@ -541,6 +566,20 @@ create table oc_lock (
 );
 alter table oc_lock add constraint FK9E30F4B66115906D foreign key (identity_fk) references o_bs_identity;
 
+create table o_fo_read_thread (
+   id bigserial,
+   creationdate timestamp not null,
+   lastmodified timestamp not null,
+   r_watermark timestamp,
+   r_read_keys text,
+   r_unread_keys text,
+   r_num_of_read int4 not null default 0,
+   fk_identity_id int8 not null,
+   fk_forum_id int8 not null,
+   fk_thread_id int8 not null,
+   primary key (id)
+);
+
 create table o_readmessage (
 	id int8 not null,
 	version int4 not null,
@@ -1028,11 +1067,12 @@ create table o_ac_paypal_transaction (
 
 create table o_stat_lastupdated (
 
-	lastupdated timestamp not null
+	lastupdated timestamp not null,
+	lastlogkey int8
 
 );
 -- important: initialize with old date!
-insert into o_stat_lastupdated values(date('1999-01-01'));
+insert into o_stat_lastupdated (lastupdated) values (date('1999-01-01'));
 
 
 --insert into o_stat_dayofweek (businesspath,resid,day,value) select businesspath,substr(businesspath,locate(':',businesspath)+1,locate(']',businesspath)-locate(':',businesspath)-1) resid,dayofweek(creationdate) day,count(*) cnt from o_loggingtable where actionverb='launch' and actionobject='node' group by businesspath,day;
@@ -2822,6 +2862,12 @@ alter table o_re_to_group add constraint re_to_group_re_ctx foreign key (fk_entr
 create index re_to_group_group_idx on o_re_to_group (fk_group_id);
 create index re_to_group_re_idx on o_re_to_group (fk_entry_id);
 
+alter table o_re_my_course add constraint re_my_course_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_re_my_course_ident_re_idx on o_re_my_course (fk_identity_id, fk_entry_id);
+alter table o_re_my_course add constraint re_my_course_re_idx foreign key (fk_entry_id) references o_repositoryentry (repositoryentry_id);
+create index idx_re_my_course_re_idx on o_re_my_course (fk_entry_id);
+alter table o_re_my_course_state add constraint re_my_course_state_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+
 alter table o_gp_business add constraint gp_to_group_business_ctx foreign key (fk_group_id) references o_bs_group (id);
 create index gp_to_group_group_idx on o_gp_business (fk_group_id);
 
@@ -3092,6 +3138,11 @@ create index forum_msg_pseudonym_idx on o_message (pseudonym);
 
 create index readmessage_forum_idx on o_readmessage (forum_id);
 create index readmessage_identity_idx on o_readmessage (identity_id);
+alter table o_fo_read_thread add constraint fo_read_thread_ident_idx foreign key (fk_identity_id) references o_bs_identity (id);
+create unique index idx_fo_read_thread_ident_idx on o_fo_read_thread (fk_identity_id, fk_thread_id);
+alter table o_fo_read_thread add constraint fo_read_thread_forum_idx foreign key (fk_forum_id) references o_forum (forum_id);
+create index idx_fo_read_thread_forum_idx on o_fo_read_thread (fk_forum_id);
+create index idx_fo_read_thread_thread_idx on o_fo_read_thread (fk_thread_id);
 
 create index forum_pseudonym_idx on o_forum_pseudonym (p_pseudonym);
 
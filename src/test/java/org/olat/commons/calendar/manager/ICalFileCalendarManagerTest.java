@@ -59,6 +59,8 @@ import org.olat.commons.calendar.CalendarManager;
 import org.olat.commons.calendar.CalendarUtils;
 import org.olat.commons.calendar.model.Kalendar;
 import org.olat.commons.calendar.model.KalendarEvent;
+import org.olat.commons.calendar.model.KalendarRecurEvent;
+import org.olat.commons.calendar.ui.components.KalendarEventRenderWrapper;
 import org.olat.commons.calendar.ui.components.KalendarRenderWrapper;
 import org.olat.core.CoreSpringFactory;
 import org.olat.core.commons.persistence.DBFactory;
@@ -346,6 +348,112 @@ public class ICalFileCalendarManagerTest extends OlatTestCase {
 		Assert.assertTrue(allOk);
 	}
 	
+	/**
+	 * The events are rendered incrementally, the file must be the same
+	 * as the one written by the CalendarOutputter.
+	 */
+	@Test
+	public void testPersistCalendarIncrementally() throws IOException, ValidationException {
+		Identity test = JunitTestHelper.createAndPersistIdentityAsRndUser("cal-incr-");
+		Kalendar cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(Calendar.MILLISECOND, 0);
+		calendar.set(Calendar.SECOND, 0);
+		calendar.set(2026, Calendar.OCTOBER, 5, 10, 0);
+		Date start = calendar.getTime();
+		List<KalendarEvent> newEvents = new ArrayList<>();
+		for(int i=0; i<20; i++) {
+			KalendarEvent event = new KalendarEvent("incr-" + i, "Event " + i, start, 60 * 60 * 1000);
+			event.setDescription("A long description which will be folded by the iCal writer because it is longer than 75 characters " + i);
+			newEvents.add(event);
+		}
+		calendarManager.addEventTo(cal, newEvents);
+		
+		// move one event to the next week
+		cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		KalendarEvent movedEvent = cal.getEvent("incr-7", null);
+		calendar.add(Calendar.DATE, 7);
+		Date movedStart = calendar.getTime();
+		movedEvent.setBegin(movedStart);
+		movedEvent.setEnd(new Date(movedStart.getTime() + (60 * 60 * 1000)));
+		movedEvent.setSubject("Moved event");
+		calendarManager.updateEventFrom(cal, movedEvent);
+		
+		// compare with the standard output of ical4j
+		cal = calendarManager.getPersonalCalendar(test).getKalendar();
+		ByteArrayOutputStream os = new ByteArrayOutputStream();
+		new CalendarOutputter(false).output(calendarManager.buildCalendar(cal), os);
+		File calendarFile = calendarManager.getCalendarFile(CalendarManager.TYPE_USER, test.getName());
+		Assert.assertEquals(os.toString("UTF-8"), FileUtils.readFileToString(calendarFile, "UTF-8"));
+		
+		// the period index follows the change
+		calendar.add(Calendar.DATE, -1);
+		Date periodStart = calendar.getTime();
+		calendar.add(Calendar.DATE, 2);
+		Date periodEnd = calendar.getTime();
+		List<KalendarEvent> eventsInPeriod = calendarManager.getEvents(cal, periodStart, periodEnd, true);
+		Assert.assertEquals(1, eventsInPeriod.size());
+		Assert.assertEquals("Moved event", eventsInPeriod.get(0).getSubject());
+		
+		// reload from the file
+		emptyCalendarCache();
+		Kalendar reloadedCal = calendarManager.getPersonalCalendar(test).getKalendar();
+		Assert.assertEquals(20, reloadedCal.getEvents().size());
+		Assert.assertEquals(movedStart, reloadedCal.getEvent("incr-7", null).getBegin());
+	}
+	
+	@Test
+	public void testListEventsOfSeveralCalendars() {
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("cal-multi-1-");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("cal-multi-2-");
+		KalendarRenderWrapper calendar1 = calendarManager.getPersonalCalendar(id1);
+		KalendarRenderWrapper calendar2 = calendarManager.getPersonalCalendar(id2);
+		
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(Calendar.MILLISECOND, 0);
+		calendar.set(2026, Calendar.OCTOBER, 5, 10, 0, 0);
+		Date start = calendar.getTime();
+		KalendarEvent recurringEvent = new KalendarEvent("multi-recurring", "Daily", start, 60 * 60 * 1000);
+		recurringEvent.setRecurrenceRule("FREQ=DAILY;COUNT=10");
+		calendarManager.addEventTo(calendar1.getKalendar(), recurringEvent);
+		KalendarEvent singleEvent = new KalendarEvent("multi-single", "Single", start, 60 * 60 * 1000);
+		calendarManager.addEventTo(calendar2.getKalendar(), singleEvent);
+		
+		calendar.set(2026, Calendar.OCTOBER, 1, 0, 0, 0);
+		Date from = calendar.getTime();
+		calendar.set(2026, Calendar.OCTOBER, 31, 0, 0, 0);
+		Date to = calendar.getTime();
+		
+		List<KalendarRenderWrapper> calendars = new ArrayList<>();
+		calendars.add(calendarManager.getPersonalCalendar(id1));
+		calendars.add(calendarManager.getPersonalCalendar(id2));
+		List<KalendarEventRenderWrapper> events = calendarManager.getEvents(calendars, from, to, true);
+		Assert.assertEquals(11, events.size());
+		// second call served by the cached occurrences
+		events = calendarManager.getEvents(calendars, from, to, true);
+		Assert.assertEquals(11, events.size());
+		
+		// change the rule, persisting the calendar invalidates the occurrences
+		Kalendar kalendar1 = calendarManager.getPersonalCalendar(id1).getKalendar();
+		KalendarEvent reloadedEvent = kalendar1.getEvent("multi-recurring", null);
+		reloadedEvent.setRecurrenceRule("FREQ=DAILY;COUNT=5");
+		calendarManager.updateEventFrom(kalendar1, reloadedEvent);
+		
+		calendars.clear();
+		calendars.add(calendarManager.getPersonalCalendar(id1));
+		calendars.add(calendarManager.getPersonalCalendar(id2));
+		events = calendarManager.getEvents(calendars, from, to, true);
+		Assert.assertEquals(6, events.size());
+		for(KalendarEventRenderWrapper event:events) {
+			if(event.getEvent() instanceof KalendarRecurEvent) {
+				Assert.assertEquals(calendars.get(0), event.getKalendarRenderWrapper());
+			} else {
+				Assert.assertEquals(calendars.get(1), event.getKalendarRenderWrapper());
+			}
+		}
+	}
+	
 	@Test
 	public void testListEventsForPeriod() {
 		final int numEvents = 10000;
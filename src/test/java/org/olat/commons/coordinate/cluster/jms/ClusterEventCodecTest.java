@@ -0,0 +1,129 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.commons.coordinate.cluster.jms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.util.event.MultiUserEvent;
+import org.olat.core.util.resource.OresHelper;
+import org.olat.course.assessment.AssessmentChangedEvent;
+import org.olat.group.ui.edit.BusinessGroupModifiedEvent;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ClusterEventCodecTest {
+	
+	@Test
+	public void encodeDecode() throws IOException {
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(3, 10l, OresHelper.createOLATResourceableInstance("Codec", 27l), new MultiUserEvent("hello", 5)));
+		wrappers.add(new JMSWrapper(3, 11l, "CodecType", null,
+				new BusinessGroupModifiedEvent(BusinessGroupModifiedEvent.IDENTITY_ADDED_EVENT, 34l, 35l, true, 5)));
+		wrappers.add(new JMSWrapper(3, 12l, OresHelper.createOLATResourceableInstance("Codec", 28l),
+				new AssessmentChangedEvent(AssessmentChangedEvent.TYPE_SCORE_EVAL_CHANGED, 36l, null, 5)));
+		wrappers.add(new JMSWrapper(3, 13l, OresHelper.createOLATResourceableInstance("Codec", 29l), new SerializedEvent("serialized", "payload")));
+		
+		byte[] data = ClusterEventCodec.encode(3, wrappers);
+		List<JMSWrapper> decoded = ClusterEventCodec.decode(data);
+		Assert.assertEquals(4, decoded.size());
+		
+		JMSWrapper first = decoded.get(0);
+		Assert.assertEquals(Integer.valueOf(3), first.getNodeId());
+		Assert.assertEquals(10l, first.getMsgId());
+		Assert.assertEquals("Codec", first.getOres().getResourceableTypeName());
+		Assert.assertEquals(Long.valueOf(27l), first.getOres().getResourceableId());
+		Assert.assertEquals(MultiUserEvent.class, first.getMultiUserEvent().getClass());
+		Assert.assertEquals("hello", first.getMultiUserEvent().getCommand());
+		Assert.assertEquals(5, first.getMultiUserEvent().getOriginNodeId());
+		
+		JMSWrapper second = decoded.get(1);
+		Assert.assertNull(second.getOres().getResourceableId());
+		BusinessGroupModifiedEvent groupEvent = (BusinessGroupModifiedEvent)second.getMultiUserEvent();
+		Assert.assertEquals(BusinessGroupModifiedEvent.IDENTITY_ADDED_EVENT, groupEvent.getCommand());
+		Assert.assertEquals(Long.valueOf(34l), groupEvent.getModifiedGroupKey());
+		Assert.assertEquals(Long.valueOf(35l), groupEvent.getAffectedIdentityKey());
+		Assert.assertTrue(groupEvent.isAffectedIdentityTutor());
+		
+		AssessmentChangedEvent assessmentEvent = (AssessmentChangedEvent)decoded.get(2).getMultiUserEvent();
+		Assert.assertEquals(AssessmentChangedEvent.TYPE_SCORE_EVAL_CHANGED, assessmentEvent.getCommand());
+		Assert.assertEquals(Long.valueOf(36l), assessmentEvent.getIdentityKey());
+		Assert.assertNull(assessmentEvent.getCourseNodeIdent());
+		
+		SerializedEvent serializedEvent = (SerializedEvent)decoded.get(3).getMultiUserEvent();
+		Assert.assertEquals("serialized", serializedEvent.getCommand());
+		Assert.assertEquals("payload", serializedEvent.getPayload());
+	}
+	
+	@Test
+	public void encodeDecode_skipNotSerializable() throws IOException {
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(3, 10l, OresHelper.createOLATResourceableInstance("Codec", 27l), new MultiUserEvent("before", 5)));
+		wrappers.add(new JMSWrapper(3, 11l, OresHelper.createOLATResourceableInstance("Codec", 28l), new NotSerializableEvent("bad")));
+		wrappers.add(new JMSWrapper(3, 12l, OresHelper.createOLATResourceableInstance("Codec", 29l), new MultiUserEvent("after", 5)));
+		
+		// only the bad event is lost
+		List<JMSWrapper> decoded = ClusterEventCodec.decode(ClusterEventCodec.encode(3, wrappers));
+		Assert.assertEquals(2, decoded.size());
+		Assert.assertEquals("before", decoded.get(0).getMultiUserEvent().getCommand());
+		Assert.assertEquals("after", decoded.get(1).getMultiUserEvent().getCommand());
+	}
+	
+	@Test(expected=IOException.class)
+	public void decodeUnknownVersion() throws IOException {
+		List<JMSWrapper> wrappers = new ArrayList<>();
+		wrappers.add(new JMSWrapper(3, 10l, OresHelper.createOLATResourceableType("Codec"), new MultiUserEvent("hello")));
+		byte[] data = ClusterEventCodec.encode(3, wrappers);
+		data[0] = 99;
+		ClusterEventCodec.decode(data);
+	}
+	
+	public static class SerializedEvent extends MultiUserEvent {
+
+		private static final long serialVersionUID = -2193727271427236165L;
+		private final String payload;
+		
+		public SerializedEvent(String command, String payload) {
+			super(command);
+			this.payload = payload;
+		}
+		
+		public String getPayload() {
+			return payload;
+		}
+	}
+	
+	public static class NotSerializableEvent extends MultiUserEvent {
+
+		private static final long serialVersionUID = 2630413383391442751L;
+		@SuppressWarnings("unused")
+		private final Object payload = new Object();
+		
+		public NotSerializableEvent(String command) {
+			super(command);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.commons.services.notifications;
+
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.services.notifications.model.SubscriptionListItem;
+import org.olat.core.commons.services.notifications.model.TitleItem;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class SubscriptionInfoTest {
+	
+	@Test
+	public void filter() {
+		long now = System.currentTimeMillis();
+		SubscriptionInfo info = new SubscriptionInfo(1l, "Forum", new TitleItem("Forum", "o_icon"), null);
+		info.setCustomUrl("https://www.openolat.org");
+		info.addSubscriptionListItem(new SubscriptionListItem("Old", null, null, new Date(now - 60000), null));
+		info.addSubscriptionListItem(new SubscriptionListItem("New", null, null, new Date(now), null));
+		
+		SubscriptionInfo filtered = info.filter(2l, new Date(now - 30000));
+		Assert.assertEquals(Long.valueOf(2l), filtered.getKey());
+		Assert.assertEquals("Forum", filtered.getType());
+		Assert.assertEquals("https://www.openolat.org", filtered.getCustomUrl());
+		Assert.assertEquals(1, filtered.countSubscriptionListItems());
+		Assert.assertEquals("New", filtered.getSubscriptionListItems().get(0).getDescription());
+		// the original is unchanged
+		Assert.assertEquals(2, info.countSubscriptionListItems());
+		
+		SubscriptionInfo empty = info.filter(3l, new Date(now));
+		Assert.assertFalse(empty.hasNews());
+	}
+}
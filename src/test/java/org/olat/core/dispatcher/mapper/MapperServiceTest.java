@@ -30,6 +30,7 @@ import org.junit.Test;
 import org.olat.core.commons.persistence.DB;
 import org.olat.core.dispatcher.mapper.manager.MapperDAO;
 import org.olat.core.dispatcher.mapper.manager.MapperKey;
+import org.olat.core.dispatcher.mapper.model.MapperStatistics;
 import org.olat.core.gui.media.MediaResource;
 import org.olat.core.util.CodeHelper;
 import org.olat.core.util.SessionInfo;
@@ -215,6 +216,38 @@ public class MapperServiceTest extends OlatTestCase {
 		Assert.assertEquals(modKey, reloadedMapper2.getKey());
 	}
 	
+	@Test
+	public void testGetMapper_serializableOtherSession() {
+		UserSession session = createUserSession();
+		PersistentMapper mapper = new PersistentMapper(UUID.randomUUID().toString());
+		MapperKey mapperKey = mapperService.register(session, mapper);
+		dbInstance.commitAndCloseSession();
+
+		//retrieve the mapper without the session, written or waiting to be written
+		PersistentMapper reloadedMapper = (PersistentMapper)mapperService.getMapperById(null, mapperKey.getMapperId());
+		Assert.assertNotNull(reloadedMapper);
+		Assert.assertEquals(mapper.getKey(), reloadedMapper.getKey());
+		
+		//the session ends, the mapper is in the database
+		mapperService.cleanUp(session.getSessionInfo().getSession().getId());
+		Assert.assertNotNull(mapperDao.loadByMapperId(mapperKey.getMapperId()));
+	}
+	
+	@Test
+	public void testStatistics() {
+		UserSession session = createUserSession();
+		PersistentMapper mapper = new PersistentMapper(UUID.randomUUID().toString());
+		mapperService.register(session, mapper);
+		mapperService.cleanUp(session.getSessionInfo().getSession().getId());
+		dbInstance.commitAndCloseSession();
+		
+		MapperStatistics stats = mapperService.getStatistics().stream()
+				.filter(s -> PersistentMapper.class.getName().equals(s.getMapperType()))
+				.findFirst().orElse(null);
+		Assert.assertNotNull(stats);
+		Assert.assertTrue(stats.getDbWrites() > 0);
+	}
+	
 	private UserSession createUserSession() {
 		HttpSession httpSession = new MockHttpSession();
 		UserSession userSession = sessionManager.getUserSession(httpSession);
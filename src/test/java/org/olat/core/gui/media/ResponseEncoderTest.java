@@ -0,0 +1,142 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.gui.media.ResponseEncoder.RequestType;
+import org.olat.core.gui.media.ResponseEncoder.Statistics;
+import org.olat.core.gui.render.StringOutput;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ResponseEncoderTest {
+	
+	@Test
+	public void serve_gzip() throws Exception {
+		String page = createPage(50000);
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/1%3A1%3A0%3A0%3A0/");
+		request.addHeader("Accept-Encoding", "gzip, deflate, br");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ResponseEncoder.serve(request, response, output(page), RequestType.page);
+		
+		Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+		byte[] content = response.getContentAsByteArray();
+		Assert.assertEquals(content.length, response.getContentLength());
+		Assert.assertTrue(content.length < page.length());
+		
+		try(InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+			String decompressed = new String(IOUtils.toByteArray(in), StandardCharsets.UTF_8);
+			Assert.assertEquals(page, decompressed);
+		}
+	}
+	
+	@Test
+	public void serve_notAccepted() throws Exception {
+		String page = createPage(20000);
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/1%3A1%3A0%3A0%3A0/");
+		request.addHeader("Accept-Encoding", "gzip;q=0, identity");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ResponseEncoder.serve(request, response, output(page), RequestType.ajax);
+		
+		Assert.assertNull(response.getHeader("Content-Encoding"));
+		byte[] content = response.getContentAsByteArray();
+		Assert.assertEquals(content.length, response.getContentLength());
+		Assert.assertEquals(page, new String(content, StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void serve_belowThreshold() throws Exception {
+		String page = "<html><body>Hello \u00e9t\u00e9</body></html>";
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/1%3A1%3A0%3A0%3A0/");
+		request.addHeader("Accept-Encoding", "gzip");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ResponseEncoder.serve(request, response, output(page), RequestType.page);
+		
+		Assert.assertNull(response.getHeader("Content-Encoding"));
+		Assert.assertEquals(page.getBytes(StandardCharsets.UTF_8).length, response.getContentLength());
+		Assert.assertEquals(page, new String(response.getContentAsByteArray(), StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void serve_statistics() throws Exception {
+		Statistics statistics = ResponseEncoder.getStatistics(RequestType.ajax);
+		long responses = statistics.getResponses();
+		long compressedResponses = statistics.getCompressedResponses();
+		long saved = statistics.getBytesSaved();
+		
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/1%3A1%3A0%3A0%3A0/");
+		request.addHeader("Accept-Encoding", "gzip");
+		ResponseEncoder.serve(request, new MockHttpServletResponse(), output(createPage(10000)), RequestType.ajax);
+
+		Assert.assertEquals(responses + 1, statistics.getResponses());
+		Assert.assertEquals(compressedResponses + 1, statistics.getCompressedResponses());
+		Assert.assertTrue(statistics.getBytesSaved() > saved);
+	}
+	
+	@Test
+	public void acceptGzip() {
+		Assert.assertTrue(ResponseEncoder.acceptGzip(request("gzip, deflate")));
+		Assert.assertTrue(ResponseEncoder.acceptGzip(request("deflate, GZIP;q=0.5")));
+		Assert.assertTrue(ResponseEncoder.acceptGzip(request("*")));
+		Assert.assertFalse(ResponseEncoder.acceptGzip(request("gzip;q=0")));
+		Assert.assertFalse(ResponseEncoder.acceptGzip(request("identity")));
+		Assert.assertFalse(ResponseEncoder.acceptGzip(new MockHttpServletRequest()));
+		Assert.assertFalse(ResponseEncoder.acceptGzip(null));
+	}
+	
+	private StringOutput output(String page) {
+		StringOutput output = new StringOutput(page.length());
+		output.append(page);
+		return output;
+	}
+	
+	private MockHttpServletRequest request(String acceptEncoding) {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.addHeader("Accept-Encoding", acceptEncoding);
+		return request;
+	}
+	
+	/**
+	 * @return A page with accents and surrogate pairs at the limits of the chunks
+	 */
+	private String createPage(int length) {
+		StringBuilder sb = new StringBuilder(length + 64);
+		sb.append("<html><body>");
+		for(int i=0; sb.length() < length; i++) {
+			sb.append("<div class='o_block'>").append(i).append(" \u00e9l\u00e8ve \uD83D\uDE00</div>\n");
+		}
+		return sb.append("</body></html>").toString();
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.media;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ServletUtilTest {
+	
+	private File file;
+	
+	@Before
+	public void createFile() throws IOException {
+		file = File.createTempFile("servlet", ".txt");
+		Files.write(file.toPath(), "0123456789abcdefghij".getBytes(StandardCharsets.US_ASCII));
+	}
+	
+	@After
+	public void deleteFile() {
+		file.delete();
+	}
+	
+	@Test
+	public void serveResource_full() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new TextFileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		Assert.assertEquals(20, response.getContentLength());
+		Assert.assertEquals("0123456789abcdefghij", response.getContentAsString());
+	}
+	
+	@Test
+	public void serveResource_singleRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=5-9");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new TextFileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		Assert.assertEquals("bytes 5-9/20", response.getHeader("Content-Range"));
+		Assert.assertEquals("56789", response.getContentAsString());
+	}
+	
+	@Test
+	public void serveResource_multipleRanges() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file.txt");
+		request.addHeader("Range", "bytes=0-1,10-12");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		ServletUtil.serveResource(request, response, new TextFileMediaResource(file));
+		
+		Assert.assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		Assert.assertTrue(response.getContentType().startsWith("multipart/byteranges"));
+		String content = response.getContentAsString();
+		Assert.assertTrue(content.contains("Content-Range: bytes 0-1/20\r\n\r\n01\r\n"));
+		Assert.assertTrue(content.contains("Content-Range: bytes 10-12/20\r\n\r\nabc\r\n"));
+		Assert.assertTrue(content.trim().endsWith("--"));
+	}
+	
+	/**
+	 * The mime type is set to not depend on the servlet context.
+	 */
+	private static class TextFileMediaResource extends FileMediaResource {
+		
+		public TextFileMediaResource(File file) {
+			super(file);
+		}
+
+		@Override
+		public String getContentType() {
+			return "text/plain";
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the striped StringOutputPool with the previous implementation
+ * based on two synchronized lists under concurrent rendering. The sizes
+ * are the ones used by Window and the renderers (2K, 100K) and some random
+ * sizes in between.<br>
+ * Run it with the main method, it's not part of the unit tests.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StringOutputPoolBenchmark {
+	
+	private static final String FRAGMENT = "<div class='o_block'>Hello world</div>";
+	
+	@Benchmark
+	public int stripedPool() {
+		int size = nextSize();
+		StringOutput output = StringOutputPool.allocStringBuilder(size);
+		render(output);
+		return StringOutputPool.freePop(output).length();
+	}
+	
+	@Benchmark
+	public int synchronizedPool() {
+		int size = nextSize();
+		StringOutput output = SynchronizedStringOutputPool.allocStringBuilder(size);
+		render(output);
+		return SynchronizedStringOutputPool.freePop(output).length();
+	}
+	
+	private static int nextSize() {
+		int r = ThreadLocalRandom.current().nextInt(10);
+		if(r < 6) {
+			return 2048;
+		} else if(r < 8) {
+			return 100000;
+		}
+		return 512 + ThreadLocalRandom.current().nextInt(50000);
+	}
+	
+	private static void render(StringOutput output) {
+		for(int i=0; i<20; i++) {
+			output.append(FRAGMENT);
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(StringOutputPoolBenchmark.class.getSimpleName())
+				.build();
+		new Runner(opt).run();
+	}
+	
+	/**
+	 * The previous implementation of the pool as reference.
+	 */
+	private static class SynchronizedStringOutputPool {
+
+		private static final int MAX_STR_BUILDER_POOL_SIZE = 50;
+		private static final List<Reference<StringOutput>> stringBuilders = new ArrayList<>(MAX_STR_BUILDER_POOL_SIZE + 1);
+		private static final StringOutput auxStringBuilders[] = new StringOutput[10];
+
+		public static StringOutput allocStringBuilder(final int size) {
+			if (size < 4096) {
+				synchronized (auxStringBuilders) {
+					for (int index = 0; index < auxStringBuilders.length; index++) {
+						if ((auxStringBuilders[index] != null) && (auxStringBuilders[index].capacity() >= size)) {
+							StringOutput res = auxStringBuilders[index];
+							auxStringBuilders[index] = null;
+							return res;
+						}
+					}
+				}
+				return new StringOutput(size);
+			}
+			synchronized (stringBuilders) {
+				for (Iterator<Reference<StringOutput>> seq = stringBuilders.iterator(); seq.hasNext();) {
+					StringOutput res = seq.next().get();
+					if (res == null) {
+						seq.remove();
+					} else if (res.capacity() >= size) {
+						seq.remove();
+						return res;
+					}
+				}
+			}
+			return new StringOutput(size);
+		}
+
+		public static void free(final StringOutput obj) {
+			if (obj.capacity() < 4096) {
+				synchronized (auxStringBuilders) {
+					int minIndex = -1, minSize = Integer.MAX_VALUE, size = 0;
+					for (int index = 0; index < auxStringBuilders.length; index++) {
+						if (auxStringBuilders[index] == null) {
+							obj.setLength(0);
+							auxStringBuilders[index] = obj;
+							return;
+						}
+						if ((size = auxStringBuilders[index].capacity()) < minSize) {
+							minIndex = index;
+							minSize = size;
+						}
+					}
+					if (minSize < obj.capacity()) {
+						obj.setLength(0);
+						auxStringBuilders[minIndex] = obj;
+					}
+				}
+			} else if (obj.capacity() < 250000) {
+				synchronized (stringBuilders) {
+					obj.setLength(0);
+					stringBuilders.add(0, new SoftReference<>(obj));
+					if (stringBuilders.size() > MAX_STR_BUILDER_POOL_SIZE) {
+						stringBuilders.remove(MAX_STR_BUILDER_POOL_SIZE);
+					}
+				}
+			}
+		}
+
+		public static String freePop(final StringOutput obj) {
+			String res = obj.toString();
+			free(obj);
+			return res;
+		}
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.gui.render;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class StringOutputPoolTest {
+	
+	@Test
+	public void allocAndFree() {
+		StringOutput output = StringOutputPool.allocStringBuilder(100000);
+		Assert.assertTrue(output.capacity() >= 100000);
+		output.append("Hello");
+		Assert.assertEquals("Hello", StringOutputPool.freePop(output));
+		
+		StringOutput reused = StringOutputPool.allocStringBuilder(100000);
+		Assert.assertTrue(reused.capacity() >= 100000);
+		Assert.assertEquals(0, reused.length());
+		StringOutputPool.free(reused);
+	}
+	
+	@Test
+	public void allocSmallAndHuge() {
+		StringOutput small = StringOutputPool.allocStringBuilder(10);
+		Assert.assertTrue(small.capacity() >= 10);
+		StringOutput huge = StringOutputPool.allocStringBuilder(4 * StringOutputPool.MAX_POOLED_CAPACITY);
+		Assert.assertTrue(huge.capacity() >= 4 * StringOutputPool.MAX_POOLED_CAPACITY);
+		
+		long drops = StringOutputPool.getDrops();
+		StringOutputPool.free(huge);
+		Assert.assertEquals(drops + 1, StringOutputPool.getDrops());
+		StringOutputPool.free(small);
+		Assert.assertTrue(StringOutputPool.getRetainedBytes() <= StringOutputPool.MAX_RETAINED_BYTES);
+	}
+	
+	@Test
+	public void concurrentAllocAndFree() throws InterruptedException {
+		final int numOfThreads = 16;
+		final CountDownLatch latch = new CountDownLatch(numOfThreads);
+		final AtomicInteger errors = new AtomicInteger();
+		
+		List<Thread> threads = new ArrayList<>();
+		for(int i=0; i<numOfThreads; i++) {
+			final String marker = "T" + i;
+			threads.add(new Thread(() -> {
+				try {
+					for(int j=0; j<10000; j++) {
+						StringOutput output = StringOutputPool.allocStringBuilder(2048 << (j % 6));
+						if(output.length() != 0) {
+							errors.incrementAndGet();
+						}
+						output.append(marker);
+						if(!marker.equals(StringOutputPool.freePop(output))) {
+							errors.incrementAndGet();
+						}
+					}
+				} catch(Exception e) {
+					errors.incrementAndGet();
+				} finally {
+					latch.countDown();
+				}
+			}));
+		}
+		for(Thread thread:threads) {
+			thread.start();
+		}
+		latch.await();
+		Assert.assertEquals(0, errors.get());
+		Assert.assertTrue(StringOutputPool.getRetainedBytes() <= StringOutputPool.MAX_RETAINED_BYTES);
+	}
+}
@@ -0,0 +1,92 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.io.ParallelZipWriter;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ZipUtilTest {
+	
+	private File tmpDir;
+	
+	@Before
+	public void createDir() throws IOException {
+		tmpDir = Files.createTempDirectory("ziputil").toFile();
+	}
+	
+	@After
+	public void deleteDir() {
+		FileUtils.deleteDirsAndFiles(tmpDir, true, true);
+	}
+	
+	@Test
+	public void zipAndUnzip() throws IOException {
+		File zipFile = new File(tmpDir, "export.zip");
+		try(OutputStream out = Files.newOutputStream(zipFile.toPath());
+				ParallelZipWriter writer = ZipUtil.createZipWriter(out, true)) {
+			writer.addDirectory("export/empty", 0l);
+			for(int i=0; i<100; i++) {
+				byte[] content = ("File number " + i).getBytes(StandardCharsets.UTF_8);
+				writer.addEntry("export/dir_" + (i % 7) + "/file_" + i + ".txt", 0l, content.length, () -> new ByteArrayInputStream(content));
+			}
+		}
+		
+		File targetDir = new File(tmpDir, "target");
+		Assert.assertTrue(ZipUtil.unzip(zipFile, targetDir));
+		
+		Path exportDir = targetDir.toPath().resolve("export");
+		Assert.assertTrue(Files.isDirectory(exportDir.resolve("empty")));
+		for(int i=0; i<100; i++) {
+			Path file = exportDir.resolve("dir_" + (i % 7)).resolve("file_" + i + ".txt");
+			Assert.assertEquals("File number " + i, new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		}
+	}
+	
+	@Test
+	public void unzip_outsideTargetDirectory() throws IOException {
+		File zipFile = new File(tmpDir, "evil.zip");
+		try(ParallelZipWriter writer = ZipUtil.createZipWriter(Files.newOutputStream(zipFile.toPath()), true)) {
+			byte[] content = "Evil".getBytes(StandardCharsets.UTF_8);
+			writer.addEntry("../evil.txt", 0l, content.length, () -> new ByteArrayInputStream(content));
+			writer.addEntry("good.txt", 0l, content.length, () -> new ByteArrayInputStream(content));
+		}
+
+		File targetDir = new File(tmpDir, "target");
+		Assert.assertTrue(ZipUtil.unzip(zipFile, targetDir));
+		Assert.assertTrue(new File(targetDir, "good.txt").exists());
+		Assert.assertFalse(new File(tmpDir, "evil.txt").exists());
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.commons.coordinate.singlevm.SingleVMEventBus;
+import org.olat.core.gui.control.Event;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.resource.OresHelper;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class AbstractEventBusTest {
+	
+	@Test
+	public void registerFireDeregister() {
+		SingleVMEventBus bus = new SingleVMEventBus();
+		OLATResourceable ores = OresHelper.createOLATResourceableInstance("BusTest", 1l);
+		OLATResourceable typeOres = new TypeResourceable("BusTest");
+		
+		CountingListener listener = new CountingListener();
+		CountingListener typeListener = new CountingListener();
+		bus.registerFor(listener, null, ores);
+		bus.registerFor(listener, null, ores);// twice doesn't matter
+		bus.registerFor(typeListener, null, typeOres);
+		Assert.assertEquals(1, bus.getListeningIdentityCntFor(ores));
+		Assert.assertEquals(1, bus.getListeningIdentityCntFor(typeOres));
+		
+		bus.fireEventToListenersOf(new MultiUserEvent("hello"), ores);
+		Assert.assertEquals(1, listener.getCount());
+		Assert.assertEquals(1, typeListener.getCount());
+		
+		bus.deregisterFor(listener, ores);
+		bus.fireEventToListenersOf(new MultiUserEvent("hello"), ores);
+		Assert.assertEquals(1, listener.getCount());
+		Assert.assertEquals(2, typeListener.getCount());
+		Assert.assertEquals(0, bus.getListeningIdentityCntFor(ores));
+		
+		// register again after the agency was removed
+		bus.registerFor(listener, null, ores);
+		bus.fireEventToListenersOf(new MultiUserEvent("hello"), ores);
+		Assert.assertEquals(2, listener.getCount());
+		Assert.assertEquals(1, bus.getListeningIdentityCntFor(ores));
+	}
+	
+	@Test
+	public void concurrentRegistrations() throws InterruptedException {
+		final SingleVMEventBus bus = new SingleVMEventBus();
+		final OLATResourceable ores = OresHelper.createOLATResourceableInstance("BusTest", 2l);
+		final CountingListener stayingListener = new CountingListener();
+		bus.registerFor(stayingListener, null, ores);
+		
+		final int numOfThreads = 8;
+		final CountDownLatch finishCount = new CountDownLatch(numOfThreads);
+		final List<CountingListener> staying = new ArrayList<>();
+		for(int i=0; i<numOfThreads; i++) {
+			final CountingListener threadListener = new CountingListener();
+			staying.add(threadListener);
+			new Thread(() -> {
+				try {
+					for(int j=0; j<1000; j++) {
+						CountingListener tmpListener = new CountingListener();
+						bus.registerFor(tmpListener, null, ores);
+						bus.fireEventToListenersOf(new MultiUserEvent("hello"), ores);
+						bus.deregisterFor(tmpListener, ores);
+					}
+					bus.registerFor(threadListener, null, ores);
+				} finally {
+					finishCount.countDown();
+				}
+			}).start();
+		}
+		finishCount.await();
+		
+		Assert.assertEquals(numOfThreads + 1, bus.getListeningIdentityCntFor(ores));
+		Assert.assertEquals(numOfThreads * 1000, stayingListener.getCount());
+		bus.fireEventToListenersOf(new MultiUserEvent("hello"), ores);
+		for(CountingListener listener:staying) {
+			Assert.assertTrue(listener.getCount() >= 1);
+		}
+	}
+	
+	private static class CountingListener implements GenericEventListener {
+		
+		private final AtomicInteger count = new AtomicInteger();
+		
+		public int getCount() {
+			return count.get();
+		}
+
+		@Override
+		public void event(Event event) {
+			count.incrementAndGet();
+		}
+	}
+	
+	private static class TypeResourceable implements OLATResourceable {
+		
+		private final String type;
+		
+		public TypeResourceable(String type) {
+			this.type = type;
+		}
+
+		@Override
+		public String getResourceableTypeName() {
+			return type;
+		}
+
+		@Override
+		public Long getResourceableId() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.event;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.olat.commons.coordinate.singlevm.SingleVMEventBus;
+import org.olat.core.gui.control.Event;
+import org.olat.core.id.OLATResourceable;
+import org.olat.core.util.resource.OresHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the concurrent listener registry of the AbstractEventBus with
+ * the previous implementation synchronized on the infocenter. 10'000
+ * listeners are registered on 1'000 resources, the threads register and
+ * deregister listeners like controllers do on creation and dispose and
+ * fire events in between.<br>
+ * Run it with the main method, it's not part of the unit tests.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Fork(1)
+@Threads(32)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventBusRegistryBenchmark {
+	
+	private static final int NUM_OF_RESOURCES = 1000;
+	private static final int NUM_OF_LISTENERS = 10000;
+	
+	@State(Scope.Benchmark)
+	public static class Registries {
+		
+		final OLATResourceable[] resources = new OLATResourceable[NUM_OF_RESOURCES];
+		final GenericEventListener[] listeners = new GenericEventListener[NUM_OF_LISTENERS];
+		SingleVMEventBus concurrentBus;
+		SynchronizedRegistry synchronizedRegistry;
+		
+		@Setup(Level.Trial)
+		public void setup() {
+			concurrentBus = new SingleVMEventBus();
+			synchronizedRegistry = new SynchronizedRegistry();
+			for(int i=0; i<NUM_OF_RESOURCES; i++) {
+				resources[i] = OresHelper.createOLATResourceableInstance("Benchmark", Long.valueOf(i));
+			}
+			for(int i=0; i<NUM_OF_LISTENERS; i++) {
+				listeners[i] = new NoopListener();
+				concurrentBus.registerFor(listeners[i], null, resources[i % NUM_OF_RESOURCES]);
+				synchronizedRegistry.registerFor(listeners[i], resources[i % NUM_OF_RESOURCES]);
+			}
+		}
+	}
+	
+	@Benchmark
+	public void concurrentRegistry(Registries registries) {
+		OLATResourceable ores = registries.resources[ThreadLocalRandom.current().nextInt(NUM_OF_RESOURCES)];
+		GenericEventListener listener = new NoopListener();
+		registries.concurrentBus.registerFor(listener, null, ores);
+		registries.concurrentBus.fireEventToListenersOf(new MultiUserEvent("benchmark"), ores);
+		registries.concurrentBus.deregisterFor(listener, ores);
+	}
+	
+	@Benchmark
+	public void synchronizedRegistry(Registries registries) {
+		OLATResourceable ores = registries.resources[ThreadLocalRandom.current().nextInt(NUM_OF_RESOURCES)];
+		GenericEventListener listener = new NoopListener();
+		registries.synchronizedRegistry.registerFor(listener, ores);
+		registries.synchronizedRegistry.fireEventToListenersOf(new MultiUserEvent("benchmark"), ores);
+		registries.synchronizedRegistry.deregisterFor(listener, ores);
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(EventBusRegistryBenchmark.class.getSimpleName())
+				.build();
+		new Runner(opt).run();
+	}
+	
+	private static class NoopListener implements GenericEventListener {
+		@Override
+		public void event(Event event) {
+			//
+		}
+	}
+	
+	/**
+	 * The previous registry of the AbstractEventBus as reference, without
+	 * the user activity logger around the listeners.
+	 */
+	private static class SynchronizedRegistry {
+		
+		private final Map<String, WeakHashMap<GenericEventListener, Long>> infocenter = new HashMap<>();
+		
+		public void registerFor(GenericEventListener gel, OLATResourceable ores) {
+			String oresStr = ores.getResourceableTypeName() + "::" + ores.getResourceableId();
+			synchronized (infocenter) {
+				WeakHashMap<GenericEventListener, Long> ea = infocenter.get(oresStr);
+				if (ea == null) {
+					ea = new WeakHashMap<>();
+					infocenter.put(oresStr, ea);
+				}
+				if (!ea.containsKey(gel)) {
+					ea.put(gel, null);
+				}
+			}
+		}
+		
+		public void deregisterFor(GenericEventListener gel, OLATResourceable ores) {
+			String oresStr = ores.getResourceableTypeName() + "::" + ores.getResourceableId();
+			synchronized (infocenter) {
+				WeakHashMap<GenericEventListener, Long> ea = infocenter.get(oresStr);
+				if (ea != null) {
+					ea.remove(gel);
+				}
+			}
+		}
+		
+		public void fireEventToListenersOf(MultiUserEvent event, OLATResourceable ores) {
+			String oresStr = ores.getResourceableTypeName() + "::" + ores.getResourceableId();
+			GenericEventListener[] listenersArr = null;
+			synchronized (infocenter) {
+				WeakHashMap<GenericEventListener, Long> ea = infocenter.get(oresStr);
+				if (ea != null) {
+					listenersArr = ea.keySet().toArray(new GenericEventListener[ea.size()]);
+				}
+			}
+			if (listenersArr != null) {
+				for (GenericEventListener listener:listenersArr) {
+					listener.event(event);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ParallelZipWriterTest {
+	
+	private ExecutorService workers;
+	
+	@Before
+	public void startWorkers() {
+		workers = Executors.newFixedThreadPool(4);
+	}
+	
+	@After
+	public void stopWorkers() {
+		workers.shutdownNow();
+	}
+	
+	@Test
+	public void isCompressed() {
+		Assert.assertTrue(ParallelZipWriter.isCompressed("video.mp4"));
+		Assert.assertTrue(ParallelZipWriter.isCompressed("folder/image.JPG"));
+		Assert.assertTrue(ParallelZipWriter.isCompressed("export.zip"));
+		Assert.assertFalse(ParallelZipWriter.isCompressed("page.html"));
+		Assert.assertFalse(ParallelZipWriter.isCompressed("README"));
+		Assert.assertFalse(ParallelZipWriter.isCompressed("strange."));
+	}
+	
+	@Test
+	public void writeAndRead() throws IOException {
+		byte[] text = createText(200000);
+		byte[] largeText = createText(3 * ParallelZipWriter.MAX_BUFFERED_SIZE);
+		byte[] image = createRandom(2 * ParallelZipWriter.MAX_BUFFERED_SIZE);
+		byte[] small = "Hello".getBytes(StandardCharsets.UTF_8);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(ParallelZipWriter writer = new ParallelZipWriter(out, workers, Deflater.DEFAULT_COMPRESSION, 3)) {
+			writer.addDirectory("course", 0l);
+			writer.addEntry("course/page.html", System.currentTimeMillis(), text.length, () -> new ByteArrayInputStream(text));
+			writer.addEntry("course/large.xml", System.currentTimeMillis(), -1, () -> new ByteArrayInputStream(largeText));
+			writer.addEntry("course/image.jpg", System.currentTimeMillis(), image.length, () -> new ByteArrayInputStream(image));
+			writer.addEntry("course/\u00e9l\u00e8ve.txt", System.currentTimeMillis(), small.length, () -> new ByteArrayInputStream(small));
+		}
+		
+		byte[] archive = out.toByteArray();
+		Assert.assertTrue(archive.length < text.length + largeText.length + image.length);
+		
+		int count = 0;
+		try(ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive))) {
+			for(ZipEntry entry; (entry = in.getNextEntry()) != null; count++) {
+				byte[] content = IOUtils.toByteArray(in);
+				switch(entry.getName()) {
+					case "course/":
+						Assert.assertTrue(entry.isDirectory());
+						break;
+					case "course/page.html":
+						Assert.assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+						Assert.assertArrayEquals(text, content);
+						break;
+					case "course/large.xml":
+						Assert.assertArrayEquals(largeText, content);
+						break;
+					case "course/image.jpg":
+						Assert.assertEquals(ZipEntry.STORED, entry.getMethod());
+						Assert.assertArrayEquals(image, content);
+						break;
+					case "course/\u00e9l\u00e8ve.txt":
+						Assert.assertArrayEquals(small, content);
+						break;
+					default:
+						Assert.fail("Unexpected entry: " + entry.getName());
+				}
+			}
+		}
+		Assert.assertEquals(5, count);
+	}
+	
+	@Test
+	public void writeAndReadCentralDirectory() throws IOException {
+		File zipFile = File.createTempFile("parallel", ".zip");
+		try {
+			try(ParallelZipWriter writer = new ParallelZipWriter(Files.newOutputStream(zipFile.toPath()), workers, Deflater.NO_COMPRESSION, 2)) {
+				for(int i=0; i<50; i++) {
+					byte[] content = ("Entry " + i).getBytes(StandardCharsets.UTF_8);
+					writer.addEntry("entry_" + i + ".txt", System.currentTimeMillis(), content.length, () -> new ByteArrayInputStream(content));
+				}
+			}
+			
+			try(ZipFile zip = new ZipFile(zipFile)) {
+				Assert.assertEquals(50, zip.size());
+				ZipEntry entry = zip.getEntry("entry_42.txt");
+				Assert.assertEquals(ZipEntry.STORED, entry.getMethod());
+				try(InputStream in = zip.getInputStream(entry)) {
+					Assert.assertEquals("Entry 42", IOUtils.toString(in, StandardCharsets.UTF_8));
+				}
+			}
+		} finally {
+			Files.deleteIfExists(zipFile.toPath());
+		}
+	}
+	
+	@Test(expected = ZipException.class)
+	public void duplicateEntry() throws IOException {
+		try(ParallelZipWriter writer = new ParallelZipWriter(new ByteArrayOutputStream(), workers, Deflater.DEFAULT_COMPRESSION, 2)) {
+			writer.addEntry("hello.txt", 0l, 5, () -> new ByteArrayInputStream("Hello".getBytes(StandardCharsets.UTF_8)));
+			writer.addEntry("hello.txt", 0l, 5, () -> new ByteArrayInputStream("Hello".getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+	
+	@Test(expected = IOException.class)
+	public void failingEntry() throws IOException {
+		try(ParallelZipWriter writer = new ParallelZipWriter(new ByteArrayOutputStream(), workers, Deflater.DEFAULT_COMPRESSION, 2)) {
+			writer.addEntry("missing.txt", 0l, -1, () -> { throw new IOException("Not found"); });
+		}
+	}
+	
+	private byte[] createText(int length) {
+		StringBuilder sb = new StringBuilder(length + 64);
+		for(int i=0; sb.length() < length; i++) {
+			sb.append("<p>Line ").append(i).append(" of the text</p>\n");
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private byte[] createRandom(int length) {
+		byte[] bytes = new byte[length];
+		new Random(42).nextBytes(bytes);
+		return bytes;
+	}
+}
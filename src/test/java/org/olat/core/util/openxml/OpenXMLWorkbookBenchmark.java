@@ -0,0 +1,168 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.openxml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.olat.core.util.openxml.OpenXMLWorksheet.Row;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Throughput of the XLSX writer with workbooks of 1'000'000 cells (5000 rows
+ * and 200 columns like a results export of a big test), half strings and half
+ * numbers. The shared strings table is compared with the previous
+ * implementation based on List.indexOf().<br>
+ * Run it with the main method, it's not part of the unit tests.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class OpenXMLWorkbookBenchmark {
+	
+	private static final int ROWS = 5000;
+	private static final int COLUMNS = 200;
+	private static final int SHEETS = 4;
+	
+	private static final String LONG_ANSWER = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor"
+			+ " incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco"
+			+ " laboris nisi ut aliquip ex ea commodo consequat. Duis aute irure dolor in reprehenderit in voluptate.";
+	
+	@Benchmark
+	public int sharedStrings() {
+		OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings();
+		addStrings(sharedStrings::add);
+		sharedStrings.delete();
+		return sharedStrings.size();
+	}
+	
+	@Benchmark
+	public int sharedStringsIndexOf() {
+		List<String> sharedStrings = new ArrayList<>();
+		addStrings(string -> {
+			int index = sharedStrings.indexOf(string);
+			if(index < 0) {
+				sharedStrings.add(string);
+				index = sharedStrings.size() - 1;
+			}
+			return index;
+		});
+		return sharedStrings.size();
+	}
+	
+	/**
+	 * 100'000 strings with 10'000 distinct values. 
+	 */
+	private void addStrings(StringTable table) {
+		for(int i=0; i<100000; i++) {
+			table.add("User " + (i % 10000));
+		}
+	}
+	
+	@Benchmark
+	public void workbook() throws IOException {
+		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(NullOutputStream.NULL_OUTPUT_STREAM, 1)) {
+			OpenXMLWorksheet sheet = workbook.nextWorksheet();
+			writeRows(sheet, 0, ROWS);
+		}
+	}
+	
+	@Benchmark
+	public void workbookInlineStrings() throws IOException {
+		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(NullOutputStream.NULL_OUTPUT_STREAM, 1)) {
+			workbook.setInlineStringLength(128);
+			OpenXMLWorksheet sheet = workbook.nextWorksheet();
+			writeRows(sheet, 0, ROWS);
+		}
+	}
+	
+	@Benchmark
+	public void workbookParallelWorksheets() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(SHEETS);
+		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(NullOutputStream.NULL_OUTPUT_STREAM, SHEETS)) {
+			List<Future<?>> futures = new ArrayList<>(SHEETS);
+			for(int i=0; i<SHEETS; i++) {
+				final int index = i;
+				futures.add(executor.submit(() -> {
+					OpenXMLWorksheet sheet = workbook.getBufferedWorksheet(index);
+					writeRows(sheet, index * (ROWS / SHEETS), ROWS / SHEETS);
+				}));
+			}
+			for(Future<?> future:futures) {
+				future.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
+	private static void writeRows(OpenXMLWorksheet sheet, int start, int numOfRows) {
+		for(int r=start; r<start + numOfRows; r++) {
+			Row row = sheet.newRow();
+			row.addCell(0, "User " + r, null);
+			row.addCell(1, LONG_ANSWER + r, null);
+			for(int c=2; c<COLUMNS; c++) {
+				if(c % 2 == 0) {
+					// typical answers of single / multiple choice
+					row.addCell(c, "Choice " + (c % 5), null);
+				} else {
+					row.addCell(c, Double.valueOf(r * c / 10.0d), null);
+				}
+			}
+		}
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(OpenXMLWorkbookBenchmark.class.getSimpleName())
+				.build();
+		new Runner(opt).run();
+	}
+	
+	@FunctionalInterface
+	private interface StringTable {
+		
+		public int add(String string);
+	}
+}
@@ -19,10 +19,20 @@
  */
 package org.olat.core.util.openxml;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
@@ -74,6 +84,113 @@ public class OpenXmlWorkbookTest {
 		file.delete();
 	}
 	
+	@Test
+	public void sharedStrings() throws IOException {
+		OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings();
+		int helloIndex = sharedStrings.add("Hello");
+		int worldIndex = sharedStrings.add("World");
+		Assert.assertEquals(helloIndex, sharedStrings.add("Hello"));
+		Assert.assertNotEquals(helloIndex, worldIndex);
+		Assert.assertEquals(3, sharedStrings.size());
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sharedStrings.writeTo(out);
+		String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertTrue(xml.contains("uniqueCount=\"3\""));
+		Assert.assertTrue(xml.contains("<si><t>Hello</t></si>"));
+		sharedStrings.delete();
+	}
+	
+	@Test
+	public void sharedStrings_spill() throws IOException {
+		OpenXMLWorkbookSharedStrings sharedStrings = new OpenXMLWorkbookSharedStrings(10, 5);
+		for(int i=0; i<30; i++) {
+			sharedStrings.add("String " + (i % 15) + " <&>");
+		}
+		Assert.assertTrue(sharedStrings.isSpilled());
+		// the interned strings are limited to 10, some strings are added twice
+		Assert.assertEquals(31, sharedStrings.size());
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		sharedStrings.writeTo(out);
+		String xml = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		Assert.assertTrue(xml.startsWith("<?xml"));
+		Assert.assertTrue(xml.endsWith("</sst>"));
+		Assert.assertTrue(xml.contains("<si><t>String 14 &lt;&amp;&gt;</t></si>"));
+		Assert.assertEquals(31, xml.split("<si>", -1).length - 1);
+		sharedStrings.delete();
+	}
+	
+	@Test
+	public void inlineStrings() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(out, 1)) {
+			workbook.setInlineStringLength(10);
+			OpenXMLWorksheet sheet = workbook.nextWorksheet();
+			Row row = sheet.newRow();
+			row.addCell(0, "Short", null);
+			row.addCell(1, "A very long text & more", null);
+		}
+		
+		String sheet = getEntry(out.toByteArray(), "xl/worksheets/sheet1.xml");
+		Assert.assertTrue(sheet.contains("t=\"s\""));
+		Assert.assertTrue(sheet.contains("<is><t>A very long text &amp; more</t></is>"));
+		String sharedStrings = getEntry(out.toByteArray(), "xl/sharedStrings.xml");
+		Assert.assertTrue(sharedStrings.contains("Short"));
+		Assert.assertFalse(sharedStrings.contains("A very long text"));
+	}
+	
+	@Test
+	public void bufferedWorksheetsInParallel() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try(OpenXMLWorkbook workbook = new OpenXMLWorkbook(out, 3)) {
+			ExecutorService executor = Executors.newFixedThreadPool(2);
+			List<Future<?>> futures = new ArrayList<>();
+			// the third worksheet stays empty
+			for(int i=0; i<2; i++) {
+				final int index = i;
+				futures.add(executor.submit(() -> {
+					OpenXMLWorksheet sheet = workbook.getBufferedWorksheet(index);
+					for(int r=0; r<500; r++) {
+						Row row = sheet.newRow();
+						row.addCell(0, "Sheet " + index, null);
+						row.addCell(1, "Row " + r, null);
+						row.addCell(2, Integer.valueOf(r), null);
+					}
+				}));
+			}
+			for(Future<?> future:futures) {
+				future.get();
+			}
+			executor.shutdown();
+		}
+		
+		byte[] xlsx = out.toByteArray();
+		String sheet1 = getEntry(xlsx, "xl/worksheets/sheet1.xml");
+		Assert.assertTrue(sheet1.contains("<row r=\"500\">"));
+		Assert.assertTrue(sheet1.endsWith("</worksheet>"));
+		String sheet2 = getEntry(xlsx, "xl/worksheets/sheet2.xml");
+		Assert.assertTrue(sheet2.contains("<row r=\"500\">"));
+		String sheet3 = getEntry(xlsx, "xl/worksheets/sheet3.xml");
+		Assert.assertTrue(sheet3.contains("<sheetData"));
+		Assert.assertFalse(sheet3.contains("<row"));
+		// the 2 sheet names, 500 rows and OpenOLAT
+		String sharedStrings = getEntry(xlsx, "xl/sharedStrings.xml");
+		Assert.assertTrue(sharedStrings.contains("uniqueCount=\"503\""));
+	}
+	
+	private String getEntry(byte[] xlsx, String name) throws IOException {
+		try(ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(xlsx))) {
+			ZipEntry entry;
+			while((entry = in.getNextEntry()) != null) {
+				if(name.equals(entry.getName())) {
+					return IOUtils.toString(in, StandardCharsets.UTF_8);
+				}
+			}
+		}
+		return null;
+	}
+	
 	/**
 	 * Don't forget that the argument of getColumn is zero based
 	 * @throws IOException
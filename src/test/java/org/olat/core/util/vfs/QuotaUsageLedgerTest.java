@@ -0,0 +1,154 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.core.util.vfs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class QuotaUsageLedgerTest {
+	
+	private File root;
+	
+	@Before
+	public void createRoot() throws IOException {
+		root = Files.createTempDirectory("ledger").toFile();
+	}
+	
+	@After
+	public void deleteRoot() {
+		FileUtils.deleteDirsAndFiles(root, true, true);
+	}
+	
+	@Test
+	public void getUsage_scanOnce() throws IOException {
+		File folder = new File(root, "folder");
+		writeFile(new File(folder, "a.txt"), 1000);
+		writeFile(new File(folder, "sub/b.txt"), 500);
+		
+		QuotaUsageLedger ledger = new QuotaUsageLedger();
+		Assert.assertEquals(1500l, ledger.getUsage(folder));
+		
+		// a file written outside of the VFS is not seen
+		writeFile(new File(folder, "c.txt"), 200);
+		Assert.assertEquals(1500l, ledger.getUsage(folder));
+		Assert.assertEquals(1, ledger.size());
+	}
+	
+	@Test
+	public void addUsage() throws IOException {
+		File folder = new File(root, "folder");
+		File subFolder = new File(folder, "sub");
+		writeFile(new File(subFolder, "a.txt"), 1000);
+		
+		QuotaUsageLedger ledger = new QuotaUsageLedger();
+		Assert.assertEquals(1000l, ledger.getUsage(folder));
+		Assert.assertEquals(1000l, ledger.getUsage(subFolder));
+		
+		// the usage of all the folders containing the file are updated
+		ledger.addUsage(new File(subFolder, "b.txt"), 300);
+		Assert.assertEquals(1300l, ledger.getUsage(folder));
+		Assert.assertEquals(1300l, ledger.getUsage(subFolder));
+		
+		ledger.addUsage(new File(folder, "c.txt"), 200);
+		Assert.assertEquals(1500l, ledger.getUsage(folder));
+		Assert.assertEquals(1300l, ledger.getUsage(subFolder));
+		
+		ledger.addUsage(new File(subFolder, "a.txt"), -1000);
+		Assert.assertEquals(500l, ledger.getUsage(folder));
+		Assert.assertEquals(300l, ledger.getUsage(subFolder));
+		
+		// files outside the folders change nothing
+		ledger.addUsage(new File(root, "d.txt"), 5000);
+		Assert.assertEquals(500l, ledger.getUsage(folder));
+	}
+	
+	@Test
+	public void renamedAndDeleted() throws IOException {
+		File folder = new File(root, "folder");
+		File subFolder = new File(folder, "sub");
+		writeFile(new File(subFolder, "a.txt"), 1000);
+		
+		QuotaUsageLedger ledger = new QuotaUsageLedger();
+		ledger.getUsage(subFolder);
+		
+		File renamedFolder = new File(root, "renamed");
+		Assert.assertTrue(folder.renameTo(renamedFolder));
+		ledger.renamed(folder, renamedFolder);
+		
+		File renamedSubFolder = new File(renamedFolder, "sub");
+		ledger.addUsage(new File(renamedSubFolder, "b.txt"), 100);
+		Assert.assertEquals(1100l, ledger.getUsage(renamedSubFolder));
+		Assert.assertEquals(1, ledger.size());
+		
+		ledger.deleted(renamedFolder);
+		Assert.assertEquals(0, ledger.size());
+	}
+	
+	@Test
+	public void reconcile() throws IOException {
+		File folder = new File(root, "folder");
+		writeFile(new File(folder, "a.txt"), 1000);
+		
+		QuotaUsageLedger ledger = new QuotaUsageLedger();
+		ledger.setReconcileAgeHours(0);
+		ledger.setStorage(new File(root, "ledger.properties"));
+		Assert.assertEquals(1000l, ledger.getUsage(folder));
+		
+		writeFile(new File(folder, "b.txt"), 250);
+		Assert.assertEquals(1, ledger.reconcile());
+		Assert.assertEquals(1250l, ledger.getUsage(folder));
+	}
+	
+	@Test
+	public void saveAndLoad() throws IOException {
+		File folder = new File(root, "folder");
+		writeFile(new File(folder, "a.txt"), 1000);
+		File storage = new File(root, "ledger.properties");
+		
+		QuotaUsageLedger ledger = new QuotaUsageLedger();
+		ledger.setStorage(storage);
+		ledger.getUsage(folder);
+		ledger.addUsage(new File(folder, "b.txt"), 24);
+		ledger.save(true);
+		
+		QuotaUsageLedger reloadedLedger = new QuotaUsageLedger();
+		reloadedLedger.setStorage(storage);
+		reloadedLedger.load();
+		Assert.assertEquals(1, reloadedLedger.size());
+		Assert.assertEquals(1024l, reloadedLedger.getUsage(folder));
+	}
+	
+	private void writeFile(File file, int size) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), new byte[size]);
+	}
+}
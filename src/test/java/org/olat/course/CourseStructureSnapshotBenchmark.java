@@ -0,0 +1,148 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.olat.core.util.FileUtils;
+import org.olat.course.nodes.SPCourseNode;
+import org.olat.course.nodes.STCourseNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * Compare the loading and the copy of the run structure of synthetic
+ * courses with 100, 1000 and 5000 nodes from the XML file and from the
+ * binary snapshot.<br>
+ * Run it with the main method, it's not part of the unit tests.
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CourseStructureSnapshotBenchmark {
+	
+	@Param({ "100", "1000", "5000" })
+	private int numOfNodes;
+	
+	private File tmpDir;
+	private File xmlFile;
+	private File snapshotFile;
+	private Structure structure;
+	private byte[] xml;
+	
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		structure = createStructure(numOfNodes);
+		
+		tmpDir = Files.createTempDirectory("course-snapshot").toFile();
+		xmlFile = new File(tmpDir, "runstructure.xml");
+		snapshotFile = new File(tmpDir, "runstructure.bin");
+		XStream xstream = CourseXStreamAliases.getWriteCourseXStream();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		xstream.toXML(structure, out);
+		xml = out.toByteArray();
+		Files.write(xmlFile.toPath(), xml);
+		CourseStructureSnapshot.write(xmlFile, snapshotFile, structure);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		FileUtils.deleteDirsAndFiles(tmpDir, true, true);
+	}
+	
+	@Benchmark
+	public Object loadXml() throws IOException {
+		XStream xstream = CourseXStreamAliases.getReadCourseXStream();
+		return xstream.fromXML(new ByteArrayInputStream(Files.readAllBytes(xmlFile.toPath())));
+	}
+	
+	@Benchmark
+	public Object loadSnapshot() {
+		return CourseStructureSnapshot.read(xmlFile, snapshotFile);
+	}
+	
+	@Benchmark
+	public Object copyXml() {
+		XStream xstream = CourseXStreamAliases.getWriteCourseXStream();
+		return xstream.fromXML(xstream.toXML(structure));
+	}
+	
+	@Benchmark
+	public Object copySnapshot() {
+		return CourseStructureSnapshot.copy(structure);
+	}
+	
+	private static Structure createStructure(int numOfNodes) {
+		Structure runStructure = new Structure();
+		STCourseNode root = new STCourseNode();
+		root.setShortTitle("Root");
+		runStructure.setRootNode(root);
+		
+		STCourseNode chapter = null;
+		for(int i=1; i<numOfNodes; i++) {
+			if(chapter == null || i % 20 == 0) {
+				chapter = new STCourseNode();
+				chapter.setShortTitle("Chapter " + i);
+				root.addChild(chapter);
+			} else {
+				SPCourseNode page = new SPCourseNode();
+				page.setShortTitle("Page " + i);
+				page.setLongTitle("A single page with a long title " + i);
+				chapter.addChild(page);
+			}
+		}
+		return runStructure;
+	}
+	
+	public static void main(String[] args) throws RunnerException {
+		Options opt = new OptionsBuilder()
+				.include(CourseStructureSnapshotBenchmark.class.getSimpleName())
+				.build();
+		new Runner(opt).run();
+	}
+}
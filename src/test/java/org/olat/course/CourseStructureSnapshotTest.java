@@ -0,0 +1,117 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.course;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class CourseStructureSnapshotTest {
+	
+	private File tmpDir;
+	
+	@Before
+	public void createTmpDir() throws IOException {
+		tmpDir = Files.createTempDirectory("snapshot").toFile();
+	}
+	
+	@After
+	public void deleteTmpDir() {
+		FileUtils.deleteDirsAndFiles(tmpDir, true, true);
+	}
+	
+	@Test
+	public void writeAndRead() throws IOException {
+		File xmlFile = new File(tmpDir, "runstructure.xml");
+		Files.write(xmlFile.toPath(), "<structure />".getBytes(StandardCharsets.UTF_8));
+		File snapshotFile = new File(tmpDir, "runstructure.bin");
+		
+		List<String> structure = new ArrayList<>();
+		structure.add("root");
+		structure.add("child");
+		CourseStructureSnapshot.write(xmlFile, snapshotFile, structure);
+		Assert.assertTrue(snapshotFile.exists());
+		
+		Object reloaded = CourseStructureSnapshot.read(xmlFile, snapshotFile);
+		Assert.assertEquals(structure, reloaded);
+	}
+	
+	@Test
+	public void readOutdated() throws IOException {
+		File xmlFile = new File(tmpDir, "runstructure.xml");
+		Files.write(xmlFile.toPath(), "<structure />".getBytes(StandardCharsets.UTF_8));
+		File snapshotFile = new File(tmpDir, "runstructure.bin");
+		
+		List<String> structure = new ArrayList<>();
+		structure.add("root");
+		CourseStructureSnapshot.write(xmlFile, snapshotFile, structure);
+		
+		// the XML was changed, by an import for example
+		Files.write(xmlFile.toPath(), "<structure><root /></structure>".getBytes(StandardCharsets.UTF_8));
+		Assert.assertNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+	}
+	
+	@Test
+	public void readForged() throws IOException {
+		File xmlFile = new File(tmpDir, "runstructure.xml");
+		Files.write(xmlFile.toPath(), "<structure />".getBytes(StandardCharsets.UTF_8));
+		File snapshotFile = new File(tmpDir, "runstructure.bin");
+		
+		List<String> structure = new ArrayList<>();
+		structure.add("root");
+		CourseStructureSnapshot.write(xmlFile, snapshotFile, structure);
+		
+		// a snapshot not written by this installation, within an archive for example
+		byte[] content = Files.readAllBytes(snapshotFile.toPath());
+		content[content.length - 1] ^= 0x01;
+		Files.write(snapshotFile.toPath(), content);
+		Assert.assertNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+	}
+	
+	@Test
+	public void readMissing() {
+		File xmlFile = new File(tmpDir, "runstructure.xml");
+		File snapshotFile = new File(tmpDir, "runstructure.bin");
+		Assert.assertNull(CourseStructureSnapshot.read(xmlFile, snapshotFile));
+	}
+	
+	@Test
+	public void copy() {
+		ArrayList<String> structure = new ArrayList<>();
+		structure.add("root");
+		ArrayList<String> copy = CourseStructureSnapshot.copy(structure);
+		Assert.assertEquals(structure, copy);
+		Assert.assertNotSame(structure, copy);
+	}
+}
@@ -272,6 +272,43 @@ public class AssessmentModeManagerTest extends OlatTestCase {
 		Assert.assertTrue(currentModes.contains(mode));
 	}
 	
+	@Test
+	public void loadUpcomingAssessmentModes() {
+		RepositoryEntry entry = JunitTestHelper.createAndPersistRepositoryEntry();
+		
+		//begin in 30 minutes with 10 minutes lead time
+		AssessmentMode mode = assessmentModeMgr.createAssessmentMode(entry);
+		mode.setName("Assessment to warm up");
+		Calendar cal = Calendar.getInstance();
+		cal.set(Calendar.SECOND, 0);
+		cal.set(Calendar.MILLISECOND, 0);
+		cal.add(Calendar.MINUTE, 30);
+		mode.setBegin(cal.getTime());
+		cal.add(Calendar.HOUR_OF_DAY, 2);
+		mode.setEnd(cal.getTime());
+		mode.setTargetAudience(Target.course);
+		mode.setLeadTime(10);
+		mode = assessmentModeMgr.persist(mode);
+		dbInstance.commitAndCloseSession();
+		
+		//check
+		Calendar now = Calendar.getInstance();
+		now.set(Calendar.SECOND, 0);
+		now.set(Calendar.MILLISECOND, 0);
+		now.add(Calendar.MINUTE, 1);
+		Date from = now.getTime();
+		now.add(Calendar.MINUTE, 25);
+		Date until = now.getTime();
+		List<AssessmentMode> upcomingModes = assessmentModeMgr.getUpcomingAssessmentModes(from, until);
+		Assert.assertNotNull(upcomingModes);
+		Assert.assertTrue(upcomingModes.contains(mode));
+		
+		//too early
+		now.add(Calendar.MINUTE, -15);
+		List<AssessmentMode> notYetModes = assessmentModeMgr.getUpcomingAssessmentModes(from, now.getTime());
+		Assert.assertFalse(notYetModes.contains(mode));
+	}
+	
 	/**
 	 * Manual without lead time -> not in the current list
 	 */
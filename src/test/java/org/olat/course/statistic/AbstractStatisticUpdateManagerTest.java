@@ -116,7 +116,17 @@ abstract class AbstractStatisticUpdateManagerTest extends OlatTestCase {
 		countDown.waitStatistics();
 	}
 	
+	protected void rebuildStatistics(RepositoryEntry courseEntry) {
+		StatisticsWait countDown = new StatisticsWait();
+		statisticUpdateManager.rebuildStatistics(courseEntry, countDown);
+		countDown.waitStatistics();
+	}
+	
 	protected Calendar addLog(Long repositoryEntryKey, String courseNodeIdent, Calendar start, int dayInPast, int hour, int minute, int second) {
+		return addLog(repositoryEntryKey, null, courseNodeIdent, start, dayInPast, hour, minute, second);
+	}
+	
+	protected Calendar addLog(Long repositoryEntryKey, Long courseResId, String courseNodeIdent, Calendar start, int dayInPast, int hour, int minute, int second) {
 		String sessionId = "session-" + CodeHelper.getGlobalForeverUniqueID();
 		LoggingObject logObj = new LoggingObject(sessionId, 123l, "u", "launch", "node");
 
@@ -133,6 +143,9 @@ abstract class AbstractStatisticUpdateManagerTest extends OlatTestCase {
 		logObj.setCreationDate(cal.getTime());
 		logObj.setResourceAdminAction(Boolean.FALSE);
 		logObj.setBusinessPath("[RepositoryEntry:" + repositoryEntryKey + "][CourseNode:" + courseNodeIdent + "]");
+		if(courseResId != null) {
+			logObj.setParentResId(courseResId.toString());
+		}
 		dbInstance.saveObject(logObj);
 		return cal;
 	}
@@ -118,6 +118,43 @@ public class DailyStatisticUpdateManagerTest extends AbstractStatisticUpdateMana
 		checkStatistics(course2, rootNode2, date2);
 	}
 	
+	@Test
+	public void statistics_daily_rebuildCourse() {
+		statisticUpdateManager.setEnabled(true);
+		cleanUpLog();
+		
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("log-5");
+		RepositoryEntry re = JunitTestHelper.deployBasicCourse(id);
+		ICourse course = CourseFactory.loadCourse(re);
+		CourseNode rootNode = course.getRunStructure().getRootNode();
+		CourseNode firstNode = (CourseNode)course.getRunStructure().getRootNode().getChildAt(0);
+		
+		Calendar ref = Calendar.getInstance();
+		String date1 = null;
+		String date2 = null;
+		for(int i=0; i<6; i++) {
+			date1 = addLogEntry(re, rootNode, ref, 1, i, 1, 1, true);
+			date2 = addLogEntry(re, firstNode, ref, 2, i, 1, 1, true);
+		}
+		
+		setLastUpdate(ref, 2);
+		dbInstance.commitAndCloseSession();
+		updateStatistics();
+		checkStatistics(course, rootNode, date1);
+		checkStatistics(course, firstNode, date2);
+		
+		// lose the statistics of the course
+		dbInstance.getCurrentEntityManager()
+			.createQuery("delete from dailystat stat where stat.resId=:resId")
+			.setParameter("resId", re.getKey())
+			.executeUpdate();
+		dbInstance.commitAndCloseSession();
+		
+		rebuildStatistics(re);
+		checkStatistics(course, rootNode, date1);
+		checkStatistics(course, firstNode, date2);
+	}
+	
 	private void checkStatistics(ICourse course, CourseNode node, String date) {
 		RepositoryEntry re = course.getCourseEnvironment().getCourseGroupManager().getCourseEntry();
 		StatisticResult updatedResult = dailyStatisticManager.generateStatisticResult(new SyntheticUserRequest(null, Locale.ENGLISH), course, re.getKey());
@@ -141,7 +178,13 @@ public class DailyStatisticUpdateManagerTest extends AbstractStatisticUpdateMana
 	
 	protected String addLogEntry(RepositoryEntry repositoryEntry, CourseNode courseNode, Calendar start,
 			int dayInPast, int hour, int minute, int second) {
-		Calendar cal = addLog(repositoryEntry.getKey(), courseNode.getIdent(), start, dayInPast, hour, minute, second);
+		return addLogEntry(repositoryEntry, courseNode, start, dayInPast, hour, minute, second, false);
+	}
+	
+	protected String addLogEntry(RepositoryEntry repositoryEntry, CourseNode courseNode, Calendar start,
+			int dayInPast, int hour, int minute, int second, boolean withCourse) {
+		Long courseResId = withCourse ? repositoryEntry.getOlatResource().getResourceableId() : null;
+		Calendar cal = addLog(repositoryEntry.getKey(), courseResId, courseNode.getIdent(), start, dayInPast, hour, minute, second);
 		String day = getDayString(cal, cal.get(Calendar.DATE));
 		incrementInMemoryStatistics(repositoryEntry.getKey(), courseNode.getIdent(), day);
 		return day;
@@ -0,0 +1,149 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import uk.ac.ed.ph.jqtiplus.xmlutils.XmlFactories;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class AssessmentSessionStateStoreTest {
+	
+	private File storage;
+	private final AssessmentSessionStateStore stateStore = new AssessmentSessionStateStore();
+	
+	@Before
+	public void createStorage() throws IOException {
+		storage = Files.createTempDirectory("qti21state").toFile();
+		stateStore.setSnapshotInterval(3);
+		stateStore.setFsyncPolicy(AssessmentSessionStateStore.FsyncPolicy.none);
+	}
+	
+	@After
+	public void deleteStorage() {
+		FileUtils.deleteDirsAndFiles(storage, true, true);
+	}
+	
+	@Test
+	public void appendAndLoad() throws Exception {
+		File logFile = new File(storage, "testSessionState.log");
+		stateStore.appendState(logFile, state("0", "a", null));
+		long snapshotLength = logFile.length();
+		stateStore.appendState(logFile, state("10", "b", null));
+		stateStore.appendState(logFile, state("20", "b", "c"));
+		// only the deltas are appended
+		Assert.assertTrue(logFile.length() > snapshotLength);
+		Assert.assertTrue(logFile.length() < 3 * snapshotLength);
+		
+		// load without the cache
+		stateStore.close(logFile);
+		Document document = stateStore.loadState(logFile);
+		assertState(document, "20", "b", "c");
+		
+		// continue after the load
+		stateStore.appendState(logFile, state("30", "d", null));
+		stateStore.close(logFile);
+		assertState(stateStore.loadState(logFile), "30", "d", null);
+	}
+	
+	@Test
+	public void snapshot() throws Exception {
+		File logFile = new File(storage, "testSessionState.log");
+		stateStore.appendState(logFile, state("0", "a", null));
+		long snapshotLength = logFile.length();
+		for(int i=1; i<=4; i++) {
+			stateStore.appendState(logFile, state(Integer.toString(i), "r" + i, null));
+		}
+		// the fourth record replaced the log with a snapshot
+		Assert.assertTrue(logFile.length() < 2 * snapshotLength);
+		
+		stateStore.close(logFile);
+		assertState(stateStore.loadState(logFile), "4", "r4", null);
+	}
+	
+	@Test
+	public void tornRecord() throws Exception {
+		File logFile = new File(storage, "testSessionState.log");
+		stateStore.appendState(logFile, state("0", "a", null));
+		stateStore.appendState(logFile, state("10", "b", null));
+		try(OutputStream out = new FileOutputStream(logFile, true)) {
+			out.write(new byte[] { 2, 0, 0, 1, 0, 12, 13 });
+		}
+		
+		stateStore.close(logFile);
+		assertState(stateStore.loadState(logFile), "10", "b", null);
+		// the next write is a snapshot
+		stateStore.appendState(logFile, state("20", "c", null));
+		stateStore.close(logFile);
+		assertState(stateStore.loadState(logFile), "20", "c", null);
+	}
+	
+	@Test
+	public void noLog() {
+		File logFile = new File(storage, "testSessionState.log");
+		Assert.assertNull(stateStore.loadState(logFile));
+	}
+	
+	private void assertState(Document document, String duration, String firstResponse, String secondResponse) {
+		Assert.assertNotNull(document);
+		Element root = document.getDocumentElement();
+		Assert.assertEquals("testSessionState", root.getLocalName());
+		Assert.assertEquals(duration, root.getAttribute("duration"));
+		
+		NodeList items = root.getElementsByTagNameNS(root.getNamespaceURI(), "item");
+		Assert.assertEquals(secondResponse == null ? 1 : 2, items.getLength());
+		Assert.assertEquals(firstResponse, ((Element)items.item(0)).getAttribute("response"));
+		if(secondResponse != null) {
+			Assert.assertEquals(secondResponse, ((Element)items.item(1)).getAttribute("response"));
+		}
+		Assert.assertEquals(1, root.getElementsByTagNameNS(root.getNamespaceURI(), "testPlan").getLength());
+	}
+	
+	private Document state(String duration, String firstResponse, String secondResponse) throws Exception {
+		StringBuilder sb = new StringBuilder();
+		sb.append("<testSessionState xmlns='http://www.ph.ed.ac.uk/qtiworks' duration='").append(duration).append("'>")
+		  .append("<testPlan><node key='1'/><node key='2'/></testPlan>")
+		  .append("<item key='1' response='").append(firstResponse).append("'/>");
+		if(secondResponse != null) {
+			sb.append("<item key='2' response='").append(secondResponse).append("'/>");
+		}
+		sb.append("</testSessionState>");
+		return XmlFactories.newDocumentBuilder().parse(new InputSource(new StringReader(sb.toString())));
+	}
+}
@@ -0,0 +1,138 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ims.qti21.manager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.ims.qti21.manager.AssessmentTestLaunchThrottle.Ticket;
+import org.olat.ims.qti21.model.AssessmentTestLaunchStatistics;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class AssessmentTestLaunchThrottleTest {
+	
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+	
+	@Test
+	public void burstThenRate() {
+		AssessmentTestLaunchThrottle throttle = createThrottle(2.0d, 3, 60);
+		
+		long now = 1000l * SECOND;
+		// the burst is admitted at once
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(0l, throttle.reserve(now));
+		// next ones are spaced by the rate
+		Assert.assertEquals(SECOND / 2, throttle.reserve(now));
+		Assert.assertEquals(SECOND, throttle.reserve(now));
+		Assert.assertEquals(3 * SECOND / 2, throttle.reserve(now));
+	}
+	
+	@Test
+	public void refill() {
+		AssessmentTestLaunchThrottle throttle = createThrottle(1.0d, 2, 60);
+		
+		long now = 1000l * SECOND;
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(SECOND, throttle.reserve(now));
+		
+		// after a long pause, the bucket is full again but not more
+		now += 100l * SECOND;
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(SECOND, throttle.reserve(now));
+	}
+	
+	@Test
+	public void overflow() {
+		AssessmentTestLaunchThrottle throttle = createThrottle(1.0d, 1, 2);
+		
+		long now = 1000l * SECOND;
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(SECOND, throttle.reserve(now));
+		Assert.assertEquals(2 * SECOND, throttle.reserve(now));
+		// would wait 3 seconds, admitted without token
+		Assert.assertEquals(0l, throttle.reserve(now));
+		Assert.assertEquals(1l, throttle.getStatistics().getOverflow());
+		
+		// the slots reserved are not changed by the overflow
+		now += SECOND;
+		Assert.assertEquals(2 * SECOND, throttle.reserve(now));
+	}
+	
+	@Test
+	public void disabled() {
+		AssessmentTestLaunchThrottle throttle = createThrottle(0.0d, 1, 60);
+		
+		long now = 1000l * SECOND;
+		for(int i=0; i<100; i++) {
+			Assert.assertEquals(0l, throttle.reserve(now));
+		}
+	}
+	
+	@Test
+	public void admitAndLaunch() {
+		AssessmentTestLaunchThrottle throttle = createThrottle(10.0d, 1, 60);
+		
+		Ticket ticket = throttle.reserveTicket();
+		Assert.assertTrue(throttle.isAdmitted(ticket));
+		throttle.launched(throttle.admitted(ticket));
+		
+		// the second waits its slot, the caller is not blocked
+		Ticket secondTicket = throttle.reserveTicket();
+		Assert.assertFalse(throttle.isAdmitted(secondTicket));
+		Assert.assertTrue(throttle.getRemainingWait(secondTicket) > 0l);
+		Assert.assertEquals(1, throttle.getStatistics().getQueueLength());
+		throttle.launched(throttle.admitted(secondTicket));
+		
+		AssessmentTestLaunchStatistics statistics = throttle.getStatistics();
+		Assert.assertEquals(0, statistics.getQueueLength());
+		Assert.assertEquals(1, statistics.getMaxQueueLength());
+		Assert.assertEquals(2l, statistics.getAdmitted());
+		Assert.assertEquals(2l, statistics.getLaunches());
+		Assert.assertEquals(0l, statistics.getOverflow());
+	}
+	
+	@Test
+	public void cancel() {
+		AssessmentTestLaunchThrottle throttle = createThrottle(1.0d, 1, 60);
+		
+		throttle.admitted(throttle.reserveTicket());
+		Ticket ticket = throttle.reserveTicket();
+		Assert.assertEquals(1, throttle.getStatistics().getQueueLength());
+		throttle.cancel(ticket);
+		throttle.cancel(ticket);
+		Assert.assertEquals(0, throttle.getStatistics().getQueueLength());
+	}
+	
+	private AssessmentTestLaunchThrottle createThrottle(double rate, int burst, int maxWait) {
+		AssessmentTestLaunchThrottle throttle = new AssessmentTestLaunchThrottle();
+		throttle.setRate(rate);
+		throttle.setBurst(burst);
+		throttle.setMaxWait(maxWait);
+		return throttle;
+	}
+}
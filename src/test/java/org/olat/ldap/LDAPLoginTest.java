@@ -27,6 +27,7 @@ import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Rule;
 import org.junit.Test;
+import org.olat.ldap.model.LDAPSyncStatistics;
 import org.olat.test.OlatTestCase;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.zapodot.junit.ldap.EmbeddedLdapRule;
@@ -100,4 +101,26 @@ public class LDAPLoginTest extends OlatTestCase {
 		Assert.assertNull(attrs);
 		Assert.assertEquals("Username and password must be selected", errors.get());
 	}
+	
+	@Test
+	public void batchSync_unchangedUsers() {
+		Assume.assumeTrue(ldapLoginModule.isLDAPEnabled());
+		
+		LDAPError errors = new LDAPError();
+		boolean firstSync = ldapManager.doBatchSync(errors);
+		Assert.assertTrue(firstSync);
+		LDAPSyncStatistics firstStatistics = ldapManager.getLastSyncStatistics();
+		Assert.assertNotNull(firstStatistics);
+		Assert.assertTrue(firstStatistics.getUsers() > 0);
+		
+		// nothing changed on the LDAP server, the second sync skips all the users
+		boolean secondSync = ldapManager.doBatchSync(errors);
+		Assert.assertTrue(secondSync);
+		LDAPSyncStatistics secondStatistics = ldapManager.getLastSyncStatistics();
+		Assume.assumeFalse(secondStatistics.isReconciliation());
+		Assert.assertEquals(firstStatistics.getUsers(), secondStatistics.getUsers());
+		Assert.assertEquals(0, secondStatistics.getUpdatedUsers());
+		Assert.assertEquals(0, secondStatistics.getNewUsers());
+		Assert.assertTrue(secondStatistics.getUnchangedUsers() > 0);
+	}
 }
@@ -0,0 +1,92 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.ldap.manager;
+
+import java.util.Collections;
+
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.BasicAttribute;
+import javax.naming.directory.BasicAttributes;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class LDAPSyncedUsersTest {
+	
+	@Test
+	public void hash_order() {
+		Attributes attrs1 = new BasicAttributes(true);
+		attrs1.put("uid", "jdoe");
+		attrs1.put("mail", "jdoe@openolat.org");
+		Attribute groups1 = new BasicAttribute("memberOf");
+		groups1.add("cn=students");
+		groups1.add("cn=coaches");
+		attrs1.put(groups1);
+		
+		Attributes attrs2 = new BasicAttributes(true);
+		Attribute groups2 = new BasicAttribute("memberOf");
+		groups2.add("cn=coaches");
+		groups2.add("cn=students");
+		attrs2.put(groups2);
+		attrs2.put("mail", "jdoe@openolat.org");
+		attrs2.put("uid", "jdoe");
+		
+		String hash1 = LDAPSyncedUsers.hash(attrs1);
+		String hash2 = LDAPSyncedUsers.hash(attrs2);
+		Assert.assertNotNull(hash1);
+		Assert.assertEquals(hash1, hash2);
+	}
+	
+	@Test
+	public void hash_changed() {
+		Attributes attrs1 = new BasicAttributes(true);
+		attrs1.put("uid", "jdoe");
+		attrs1.put("mail", "jdoe@openolat.org");
+		
+		Attributes attrs2 = new BasicAttributes(true);
+		attrs2.put("uid", "jdoe");
+		attrs2.put("mail", "john.doe@openolat.org");
+		
+		Assert.assertNotEquals(LDAPSyncedUsers.hash(attrs1), LDAPSyncedUsers.hash(attrs2));
+	}
+	
+	@Test
+	public void unchangedIdentityKey() {
+		Attributes attrs = new BasicAttributes(true);
+		attrs.put("uid", "jdoe");
+		String hash = LDAPSyncedUsers.hash(attrs);
+		
+		LDAPSyncedUsers syncedUsers = new LDAPSyncedUsers();
+		syncedUsers.synced("uid=jdoe,ou=person", 42l, hash, false);
+		Assert.assertEquals(Long.valueOf(42l), syncedUsers.getUnchangedIdentityKey("uid=jdoe,ou=person", hash));
+		Assert.assertNull(syncedUsers.getUnchangedIdentityKey("uid=jdoe,ou=person", "other"));
+		Assert.assertNull(syncedUsers.getUnchangedIdentityKey("uid=other,ou=person", hash));
+		
+		syncedUsers.remove(Collections.singletonList(42l));
+		Assert.assertNull(syncedUsers.getUnchangedIdentityKey("uid=jdoe,ou=person", hash));
+		Assert.assertEquals(0, syncedUsers.size());
+	}
+}
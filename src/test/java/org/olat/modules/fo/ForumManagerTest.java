@@ -159,6 +159,79 @@ public class ForumManagerTest extends OlatTestCase {
 		
 		Assert.assertNotNull(forumThread1);
 		Assert.assertNotNull(forumThread2);
+		Assert.assertEquals(2, forumThread1.getNumOfPosts());
+		Assert.assertEquals(2, forumThread1.getNewMessages());
+		Assert.assertEquals(1, forumThread2.getNumOfPosts());
+		Assert.assertEquals(1, forumThread2.getNewMessages());
+	}
+	
+	@Test
+	public void getForumThreads_summaryAndReadState() {
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-1");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-2");
+		Forum forum = forumManager.addAForum();
+		dbInstance.commit();
+		
+		Message thread = forumManager.createMessage(forum, id1, false);
+		thread.setTitle("Thread summary");
+		thread.setBody("Thread summary");
+		forumManager.addTopMessage(thread);
+		forumManager.markNewMessageAsRead(id1, forum, thread);
+		dbInstance.commit();
+
+		Message reply = forumManager.createMessage(forum, id2, false);
+		reply.setTitle("Re: Thread summary");
+		reply.setBody("Thread summary");
+		forumManager.replyToMessage(reply, thread);
+		dbInstance.commit();
+		
+		Message subReply = forumManager.createMessage(forum, id2, false);
+		subReply.setTitle("Re: Re: Thread summary");
+		subReply.setBody("Thread summary");
+		forumManager.replyToMessage(subReply, reply);
+		dbInstance.commitAndCloseSession();
+		
+		List<ForumThread> forumThreads = forumManager.getForumThreads(forum, id1);
+		Assert.assertEquals(1, forumThreads.size());
+		Assert.assertEquals(3, forumThreads.get(0).getNumOfPosts());
+		Assert.assertEquals(2, forumThreads.get(0).getNewMessages());
+		
+		// read a reply
+		forumManager.markAsRead(id1, forum, reply);
+		dbInstance.commitAndCloseSession();
+		forumThreads = forumManager.getForumThreads(forum, id1);
+		Assert.assertEquals(1, forumThreads.get(0).getNewMessages());
+		
+		// split the thread at the read reply
+		Message newThread = forumManager.splitThread(forumManager.loadMessage(reply.getKey()));
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(reply.getKey(), newThread.getKey());
+		
+		forumThreads = forumManager.getForumThreads(forum, id1);
+		Assert.assertEquals(2, forumThreads.size());
+		for(ForumThread forumThread:forumThreads) {
+			if(forumThread.getKey().equals(thread.getKey())) {
+				Assert.assertEquals(1, forumThread.getNumOfPosts());
+				Assert.assertEquals(0, forumThread.getNewMessages());
+			} else if(forumThread.getKey().equals(reply.getKey())) {
+				Assert.assertEquals(2, forumThread.getNumOfPosts());
+				Assert.assertEquals(1, forumThread.getNewMessages());
+			} else {
+				Assert.fail();
+			}
+		}
+		
+		// delete the last reply
+		forumManager.deleteMessageTree(forum.getKey(), forumManager.loadMessage(subReply.getKey()));
+		dbInstance.commitAndCloseSession();
+		
+		forumThreads = forumManager.getForumThreads(forum, id1);
+		for(ForumThread forumThread:forumThreads) {
+			if(forumThread.getKey().equals(reply.getKey())) {
+				Assert.assertEquals(1, forumThread.getNumOfPosts());
+				Assert.assertEquals(0, forumThread.getNewMessages());
+			}
+		}
 	}
 	
 	@Test
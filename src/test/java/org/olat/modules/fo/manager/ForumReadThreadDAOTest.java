@@ -0,0 +1,269 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.modules.fo.manager;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.id.Identity;
+import org.olat.modules.fo.Forum;
+import org.olat.modules.fo.Message;
+import org.olat.modules.fo.model.ReadMessageImpl;
+import org.olat.modules.fo.model.ReadThreadImpl;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ForumReadThreadDAOTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private ForumManager forumManager;
+	@Autowired
+	private ForumReadThreadDAO readThreadDao;
+	
+	@Test
+	public void markAsRead() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-read-1");
+		Forum forum = forumManager.addAForum();
+		Message thread = createThread(forum, id, 2);
+		
+		Message reply = forumManager.getTopMessageChildren(thread).get(0);
+		boolean read = readThreadDao.markAsRead(id, forum.getKey(), thread.getKey(), reply.getKey(), reply.getCreationDate());
+		dbInstance.commitAndCloseSession();
+		Assert.assertTrue(read);
+		
+		// mark a second time
+		boolean readAgain = readThreadDao.markAsRead(id, forum.getKey(), thread.getKey(), reply.getKey(), reply.getCreationDate());
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(readAgain);
+		
+		ReadThreadImpl readThread = readThreadDao.getReadThread(id, thread.getKey());
+		Assert.assertNotNull(readThread);
+		Assert.assertEquals(forum.getKey(), readThread.getForumKey());
+		Assert.assertEquals(1, readThread.getNumOfRead());
+		Assert.assertEquals(reply.getKey().toString(), readThread.getReadKeys());
+		Assert.assertNull(readThread.getWatermark());
+		
+		Set<Long> readSet = readThreadDao.getReadSet(id, forum.getKey());
+		Assert.assertEquals(1, readSet.size());
+		Assert.assertTrue(readSet.contains(reply.getKey()));
+		Assert.assertEquals(1, readThreadDao.countReadMessages(id, forum.getKey()));
+	}
+	
+	@Test
+	public void compact() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-read-2");
+		Forum forum = forumManager.addAForum();
+		Message thread = createThread(forum, id, 4);
+		
+		List<Message> messages = forumManager.getThread(thread.getKey());
+		for(Message message:messages) {
+			forumManager.markAsRead(id, forum, message);
+		}
+		dbInstance.commitAndCloseSession();
+		
+		// compact without the delay of the watermark
+		ReadThreadImpl readThread = readThreadDao.getReadThread(id, thread.getKey());
+		List<Object[]> threadMessages = readThreadDao.getThreadMessages(thread.getKey());
+		Assert.assertEquals(5, threadMessages.size());
+		ForumReadThreadDAO.compact(readThread, threadMessages, new Date(System.currentTimeMillis() + 60000));
+		dbInstance.commitAndCloseSession();
+		
+		ReadThreadImpl compactedThread = readThreadDao.getReadThread(id, thread.getKey());
+		Assert.assertNotNull(compactedThread.getWatermark());
+		Assert.assertNull(compactedThread.getReadKeys());
+		Assert.assertEquals(5, compactedThread.getNumOfRead());
+		
+		// the read set is calculated with the watermark
+		Set<Long> readSet = readThreadDao.getReadSet(id, forum.getKey());
+		Assert.assertEquals(5, readSet.size());
+		for(Message message:messages) {
+			Assert.assertTrue(readSet.contains(message.getKey()));
+		}
+		
+		// a message covered by the watermark is already read
+		Message reply = messages.get(2);
+		boolean read = readThreadDao.markAsRead(id, forum.getKey(), thread.getKey(), reply.getKey(), reply.getCreationDate());
+		Assert.assertFalse(read);
+	}
+	
+	@Test
+	public void compact_foldReadKeys() {
+		// an unread message at the beginning holds the watermark back
+		long start = System.currentTimeMillis() - (24l * 60l * 60l * 1000l);
+		List<Object[]> messages = new ArrayList<>();
+		SortedSet<Long> readKeys = new TreeSet<>();
+		for(int i=0; i<=ForumReadThreadDAO.MAX_READ_KEYS + 10; i++) {
+			Long key = Long.valueOf(i + 1);
+			messages.add(new Object[] { key, new Date(start + (i * 1000l)) });
+			if(i > 0) {
+				readKeys.add(key);
+			}
+		}
+		
+		ReadThreadImpl readThread = new ReadThreadImpl();
+		readThread.setReadKeys(ForumReadThreadDAO.encodeKeys(readKeys));
+		ForumReadThreadDAO.compact(readThread, messages, new Date());
+		
+		// the oldest keys are folded in the watermark, the unread message stays unread
+		Assert.assertNotNull(readThread.getWatermark());
+		Assert.assertEquals(ForumReadThreadDAO.MAX_READ_KEYS / 2, ForumReadThreadDAO.decodeKeys(readThread.getReadKeys()).size());
+		Assert.assertEquals(messages.size() - 1, readThread.getNumOfRead());
+		SortedSet<Long> unreadKeys = ForumReadThreadDAO.decodeKeys(readThread.getUnreadKeys());
+		Assert.assertEquals(1, unreadKeys.size());
+		Assert.assertTrue(unreadKeys.contains(Long.valueOf(1)));
+		
+		// compact again, the exception is kept
+		ForumReadThreadDAO.compact(readThread, messages, new Date());
+		Assert.assertEquals(messages.size() - 1, readThread.getNumOfRead());
+		Assert.assertTrue(ForumReadThreadDAO.decodeKeys(readThread.getUnreadKeys()).contains(Long.valueOf(1)));
+	}
+	
+	@Test
+	public void compact_foldReadKeys_tooManyUnread() {
+		// too many unread messages at the beginning, the keys are not folded
+		long start = System.currentTimeMillis() - (24l * 60l * 60l * 1000l);
+		int numOfUnread = ForumReadThreadDAO.MAX_UNREAD_KEYS + 1;
+		List<Object[]> messages = new ArrayList<>();
+		SortedSet<Long> readKeys = new TreeSet<>();
+		for(int i=0; i<=ForumReadThreadDAO.MAX_READ_KEYS + numOfUnread; i++) {
+			Long key = Long.valueOf(i + 1);
+			messages.add(new Object[] { key, new Date(start + (i * 1000l)) });
+			if(i >= numOfUnread) {
+				readKeys.add(key);
+			}
+		}
+		
+		ReadThreadImpl readThread = new ReadThreadImpl();
+		readThread.setReadKeys(ForumReadThreadDAO.encodeKeys(readKeys));
+		ForumReadThreadDAO.compact(readThread, messages, new Date());
+		
+		Assert.assertNull(readThread.getWatermark());
+		Assert.assertNull(readThread.getUnreadKeys());
+		Assert.assertEquals(readKeys.size(), ForumReadThreadDAO.decodeKeys(readThread.getReadKeys()).size());
+		Assert.assertEquals(readKeys.size(), readThread.getNumOfRead());
+	}
+	
+	@Test
+	public void updateReadThreads_deletedMessage() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-read-3");
+		Forum forum = forumManager.addAForum();
+		Message thread = createThread(forum, id, 3);
+		
+		List<Message> messages = forumManager.getThread(thread.getKey());
+		for(Message message:messages) {
+			forumManager.markAsRead(id, forum, message);
+		}
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(4, readThreadDao.countReadMessages(id, forum.getKey()));
+		
+		// delete a reply, the read state is updated
+		Message reply = forumManager.getTopMessageChildren(thread).get(0);
+		forumManager.deleteMessageTree(forum.getKey(), reply);
+		dbInstance.commitAndCloseSession();
+		
+		ReadThreadImpl readThread = readThreadDao.getReadThread(id, thread.getKey());
+		Assert.assertEquals(3, readThread.getNumOfRead());
+		Assert.assertFalse(ForumReadThreadDAO.decodeKeys(readThread.getReadKeys()).contains(reply.getKey()));
+		
+		// delete the thread, the read state is deleted
+		forumManager.deleteMessageTree(forum.getKey(), thread);
+		dbInstance.commitAndCloseSession();
+		Assert.assertNull(readThreadDao.getReadThread(id, thread.getKey()));
+	}
+	
+	@Test
+	public void migrateReadMessages() {
+		Identity id1 = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-read-4");
+		Identity id2 = JunitTestHelper.createAndPersistIdentityAsRndUser("fo-read-5");
+		Forum forum = forumManager.addAForum();
+		Message thread1 = createThread(forum, id1, 2);
+		Message thread2 = createThread(forum, id1, 1);
+		
+		List<Message> replies1 = forumManager.getTopMessageChildren(thread1);
+		List<Message> replies2 = forumManager.getTopMessageChildren(thread2);
+		createLegacyReadMessage(id1, forum, thread1);
+		createLegacyReadMessage(id1, forum, replies1.get(1));
+		createLegacyReadMessage(id1, forum, replies2.get(0));
+		createLegacyReadMessage(id2, forum, replies1.get(0));
+		dbInstance.commitAndCloseSession();
+		
+		List<Long> forumKeys = readThreadDao.getForumsWithReadMessages();
+		Assert.assertTrue(forumKeys.contains(forum.getKey()));
+		
+		int migrated = readThreadDao.migrateReadMessages(forum.getKey());
+		Assert.assertEquals(4, migrated);
+		
+		Set<Long> readSet1 = readThreadDao.getReadSet(id1, forum.getKey());
+		Assert.assertEquals(3, readSet1.size());
+		Assert.assertTrue(readSet1.contains(thread1.getKey()));
+		Assert.assertTrue(readSet1.contains(replies1.get(1).getKey()));
+		Assert.assertTrue(readSet1.contains(replies2.get(0).getKey()));
+		Assert.assertEquals(2, readThreadDao.getReadThread(id1, thread1.getKey()).getNumOfRead());
+		Assert.assertEquals(1, readThreadDao.getReadThread(id1, thread2.getKey()).getNumOfRead());
+		
+		Set<Long> readSet2 = readThreadDao.getReadSet(id2, forum.getKey());
+		Assert.assertEquals(1, readSet2.size());
+		Assert.assertTrue(readSet2.contains(replies1.get(0).getKey()));
+		
+		// the legacy rows are deleted
+		Assert.assertFalse(readThreadDao.getForumsWithReadMessages().contains(forum.getKey()));
+	}
+	
+	private void createLegacyReadMessage(Identity identity, Forum forum, Message message) {
+		ReadMessageImpl readMessage = new ReadMessageImpl();
+		readMessage.setIdentity(identity);
+		readMessage.setMessage(message);
+		readMessage.setForum(forum);
+		dbInstance.getCurrentEntityManager().persist(readMessage);
+	}
+	
+	private Message createThread(Forum forum, Identity author, int numOfReplies) {
+		Message thread = forumManager.createMessage(forum, author, false);
+		thread.setTitle("Read thread");
+		thread.setBody("Read thread");
+		forumManager.addTopMessage(thread);
+		dbInstance.commit();
+		
+		for(int i=0; i<numOfReplies; i++) {
+			Message reply = forumManager.createMessage(forum, author, false);
+			reply.setTitle("Re: Read thread " + i);
+			reply.setBody("Read thread " + i);
+			forumManager.replyToMessage(reply, thread);
+			dbInstance.commit();
+		}
+		dbInstance.commitAndCloseSession();
+		return thread;
+	}
+}
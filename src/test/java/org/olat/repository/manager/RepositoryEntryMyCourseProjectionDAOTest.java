@@ -0,0 +1,198 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.repository.manager;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.olat.basesecurity.GroupRoles;
+import org.olat.core.commons.persistence.DB;
+import org.olat.core.commons.services.commentAndRating.manager.UserRatingsDAO;
+import org.olat.core.commons.services.mark.MarkManager;
+import org.olat.core.id.Identity;
+import org.olat.repository.RepositoryEntry;
+import org.olat.repository.model.RepositoryEntryMyCourseProjection;
+import org.olat.repository.model.RepositoryEntryMyCourseState;
+import org.olat.test.JunitTestHelper;
+import org.olat.test.OlatTestCase;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class RepositoryEntryMyCourseProjectionDAOTest extends OlatTestCase {
+	
+	@Autowired
+	private DB dbInstance;
+	@Autowired
+	private MarkManager markManager;
+	@Autowired
+	private UserRatingsDAO userRatingsDao;
+	@Autowired
+	private RepositoryEntryRelationDAO repositoryEntryRelationDao;
+	@Autowired
+	private RepositoryEntryMyCourseProjectionDAO myCourseProjectionDao;
+	
+	@Test
+	public void ensureUpToDate() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-proj-1-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.participant.name());
+		markManager.setMark(re, id, null, "[RepositoryEntry:" + re.getKey() + "]");
+		userRatingsDao.createRating(id, re, null, 4);
+		dbInstance.commitAndCloseSession();
+		
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		
+		RepositoryEntryMyCourseState state = myCourseProjectionDao.getState(id);
+		Assert.assertNotNull(state);
+		Assert.assertTrue(state.isUpToDate());
+		
+		List<RepositoryEntryMyCourseProjection> projection = myCourseProjectionDao.getProjection(id);
+		Assert.assertEquals(1, projection.size());
+		RepositoryEntryMyCourseProjection row = projection.get(0);
+		Assert.assertEquals(re, row.getEntry());
+		Assert.assertTrue(row.isParticipant());
+		Assert.assertFalse(row.isOwner());
+		Assert.assertFalse(row.isCoach());
+		Assert.assertTrue(row.isMarked());
+		Assert.assertEquals(Integer.valueOf(4), row.getRating());
+		Assert.assertNull(row.getPassed());
+		Assert.assertNull(row.getScore());
+	}
+	
+	@Test
+	public void ensureUpToDate_async() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-proj-6-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		// no projection, the request must use the memberships
+		boolean upToDate = myCourseProjectionDao.ensureUpToDate(id);
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(upToDate);
+		
+		// the projection is built in the background
+		boolean built = waitForCondition(() -> {
+			boolean ready = myCourseProjectionDao.ensureUpToDate(id);
+			dbInstance.commitAndCloseSession();
+			return ready;
+		}, 10000);
+		Assert.assertTrue(built);
+		Assert.assertEquals(1, myCourseProjectionDao.getProjection(id).size());
+	}
+	
+	@Test
+	public void membershipChanges() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-proj-2-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		
+		// add a role
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.coach.name());
+		dbInstance.commitAndCloseSession();
+		Assert.assertFalse(myCourseProjectionDao.getState(id).isUpToDate());
+		
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		List<RepositoryEntryMyCourseProjection> projection = myCourseProjectionDao.getProjection(id);
+		Assert.assertEquals(1, projection.size());
+		Assert.assertTrue(projection.get(0).isCoach());
+		Assert.assertTrue(projection.get(0).isParticipant());
+		
+		// remove all roles
+		repositoryEntryRelationDao.removeRole(id, re, GroupRoles.coach.name());
+		repositoryEntryRelationDao.removeRole(id, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		Assert.assertTrue(myCourseProjectionDao.getProjection(id).isEmpty());
+	}
+	
+	@Test
+	public void markAndRatingChanges() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-proj-3-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.owner.name());
+		dbInstance.commitAndCloseSession();
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		
+		markManager.setMark(re, id, null, "[RepositoryEntry:" + re.getKey() + "]");
+		userRatingsDao.createRating(id, re, null, 2);
+		dbInstance.commitAndCloseSession();
+		
+		// updated in place, no rebuild needed
+		Assert.assertTrue(myCourseProjectionDao.getState(id).isUpToDate());
+		RepositoryEntryMyCourseProjection row = myCourseProjectionDao.getProjection(id).get(0);
+		Assert.assertTrue(row.isOwner());
+		Assert.assertTrue(row.isMarked());
+		Assert.assertEquals(Integer.valueOf(2), row.getRating());
+		dbInstance.commitAndCloseSession();
+		
+		markManager.removeMark(re, id, null);
+		dbInstance.commitAndCloseSession();
+		row = myCourseProjectionDao.getProjection(id).get(0);
+		Assert.assertFalse(row.isMarked());
+	}
+	
+	@Test
+	public void rebuild_consistent() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-proj-4-");
+		RepositoryEntry re1 = JunitTestHelper.createAndPersistRepositoryEntry();
+		RepositoryEntry re2 = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, re1, GroupRoles.participant.name());
+		repositoryEntryRelationDao.addRole(id, re2, GroupRoles.owner.name());
+		markManager.setMark(re2, id, null, "[RepositoryEntry:" + re2.getKey() + "]");
+		dbInstance.commitAndCloseSession();
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(2, myCourseProjectionDao.getProjection(id).size());
+		
+		// the projection is up-to-date, nothing to fix
+		int changes = myCourseProjectionDao.rebuild(id, true);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(0, changes);
+	}
+	
+	@Test
+	public void deleteProjection() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-proj-5-");
+		RepositoryEntry re = JunitTestHelper.createAndPersistRepositoryEntry();
+		repositoryEntryRelationDao.addRole(id, re, GroupRoles.participant.name());
+		dbInstance.commitAndCloseSession();
+		myCourseProjectionDao.build(id);
+		dbInstance.commitAndCloseSession();
+		
+		int deleted = myCourseProjectionDao.deleteProjection(re);
+		dbInstance.commitAndCloseSession();
+		Assert.assertEquals(1, deleted);
+		Assert.assertTrue(myCourseProjectionDao.getProjection(id).isEmpty());
+	}
+}
@@ -19,6 +19,7 @@
  */
 package org.olat.repository.manager;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Assert;
@@ -29,6 +30,7 @@ import org.olat.core.id.Identity;
 import org.olat.core.id.Roles;
 import org.olat.repository.RepositoryEntryMyView;
 import org.olat.repository.model.SearchMyRepositoryEntryViewParams;
+import org.olat.repository.model.SearchMyRepositoryEntryViewParams.Filter;
 import org.olat.repository.model.SearchMyRepositoryEntryViewParams.OrderBy;
 import org.olat.test.JunitTestHelper;
 import org.olat.test.OlatTestCase;
@@ -86,4 +88,29 @@ public class RepositoryEntryMyCourseQueriesTest extends OlatTestCase {
 			Assert.assertNotNull(viewDesc);
 		}
 	}
+	
+	@Test
+	public void searchViews_membershipMandatory_orderBy() {
+		Identity id = JunitTestHelper.createAndPersistIdentityAsRndUser("mycourses-view-3-");
+		dbInstance.commit();
+		Roles roles = securityManager.getRoles(id);
+		
+		SearchMyRepositoryEntryViewParams params
+			= new SearchMyRepositoryEntryViewParams(id, roles);
+		params.setMembershipMandatory(true);
+		params.setFilters(Arrays.asList(Filter.passed, Filter.asParticipant));
+		Assert.assertTrue(repositoryEntryMyCourseViewQueries.useProjection(params));
+		
+		int count = repositoryEntryMyCourseViewQueries.countViews(params);
+		Assert.assertEquals(0, count);
+		for(OrderBy orderBy:OrderBy.values()) {
+			params.setOrderBy(orderBy);
+			params.setOrderByAsc(true);
+			List<RepositoryEntryMyView> viewAsc = repositoryEntryMyCourseViewQueries.searchViews(params, 0, 10);
+			Assert.assertNotNull(viewAsc);
+			params.setOrderByAsc(false);
+			List<RepositoryEntryMyView> viewDesc = repositoryEntryMyCourseViewQueries.searchViews(params, 0, 10);
+			Assert.assertNotNull(viewDesc);
+		}
+	}
 }
@@ -0,0 +1,148 @@
+/**
+ * <a href="http://www.openolat.org">
+ * OpenOLAT - Online Learning and Training</a><br>
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License"); <br>
+ * you may not use this file except in compliance with the License.<br>
+ * You may obtain a copy of the License at the
+ * <a href="http://www.apache.org/licenses/LICENSE-2.0">Apache homepage</a>
+ * <p>
+ * Unless required by applicable law or agreed to in writing,<br>
+ * software distributed under the License is distributed on an "AS IS" BASIS, <br>
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. <br>
+ * See the License for the specific language governing permissions and <br>
+ * limitations under the License.
+ * <p>
+ * Initial code contributed and copyrighted by<br>
+ * frentix GmbH, http://www.frentix.com
+ * <p>
+ */
+package org.olat.search.service.document.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.olat.core.util.FileUtils;
+import org.olat.core.util.vfs.VFSLeaf;
+import org.olat.test.VFSJavaIOFile;
+
+/**
+ * 
+ * Initial date: 18 oct. 2026<br>
+ *
+ */
+public class ExtractedTextCacheTest {
+	
+	private File directory;
+	
+	@Before
+	public void createDirectory() {
+		directory = new File(System.getProperty("java.io.tmpdir"), "textcache-" + UUID.randomUUID());
+	}
+	
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteDirsAndFiles(directory, true, true);
+	}
+	
+	@Test
+	public void putAndGet() throws URISyntaxException {
+		ExtractedTextCache cache = new ExtractedTextCache(directory, 1024l * 1024l);
+		VFSLeaf leaf = getLeaf();
+		
+		String key = cache.getKey(PdfDocument.class, leaf);
+		Assert.assertNotNull(key);
+		Assert.assertNull(cache.get(key));
+		
+		cache.put(key, new FileContent("Test pdf indexing", "Un petit texte en français"));
+		FileContent content = cache.get(key);
+		Assert.assertNotNull(content);
+		Assert.assertEquals("Test pdf indexing", content.getTitle());
+		Assert.assertEquals("Un petit texte en français", content.getContent());
+		
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+		Assert.assertEquals(50, cache.getHitRate());
+		Assert.assertTrue(cache.getSize() > 0);
+	}
+	
+	@Test
+	public void keyOfContent() throws URISyntaxException {
+		ExtractedTextCache cache = new ExtractedTextCache(directory, 1024l * 1024l);
+		
+		// same content under an other name has the same key
+		String key = cache.getKey(PdfDocument.class, getLeaf());
+		String copyKey = cache.getKey(PdfDocument.class, getLeaf());
+		Assert.assertEquals(key, copyKey);
+		// but not for an other type of document
+		String otherKey = cache.getKey(HtmlDocument.class, getLeaf());
+		Assert.assertNotEquals(key, otherKey);
+	}
+	
+	@Test
+	public void keyOfUnchangedFile() throws URISyntaxException, IOException {
+		ExtractedTextCache cache = new ExtractedTextCache(directory, 1024l * 1024l);
+		File pdfFile = new File(directory, "indexed.pdf");
+		Files.copy(new File(ExtractedTextCacheTest.class.getResource("Test_pdf_indexing.pdf").toURI()).toPath(), pdfFile.toPath());
+		
+		AtomicInteger reads = new AtomicInteger();
+		VFSLeaf leaf = new VFSJavaIOFile(pdfFile) {
+			@Override
+			public InputStream getInputStream() {
+				reads.incrementAndGet();
+				return super.getInputStream();
+			}
+		};
+		
+		String key = cache.getKey(PdfDocument.class, leaf);
+		Assert.assertEquals(1, reads.get());
+		// same path, size and last modification, the file is not read
+		String sameKey = cache.getKey(PdfDocument.class, leaf);
+		Assert.assertEquals(key, sameKey);
+		Assert.assertEquals(1, reads.get());
+		
+		// modified, the content is hashed again
+		pdfFile.setLastModified(pdfFile.lastModified() - 60000l);
+		String touchedKey = cache.getKey(PdfDocument.class, leaf);
+		Assert.assertEquals(key, touchedKey);
+		Assert.assertEquals(2, reads.get());
+	}
+	
+	@Test
+	public void evict() {
+		ExtractedTextCache cache = new ExtractedTextCache(directory, 4096l);
+		StringBuilder sb = new StringBuilder();
+		for(int i=0; i<2048; i++) {
+			// random content doesn't compress well
+			sb.append(UUID.randomUUID().toString().charAt(0));
+		}
+
+		String firstKey = "aa" + UUID.randomUUID().toString().replace("-", "");
+		cache.put(firstKey, new FileContent(null, sb.toString()));
+		new File(new File(directory, "aa"), firstKey + ".gz").setLastModified(System.currentTimeMillis() - 60000l);
+		for(int i=0; i<8; i++) {
+			String key = "b" + i + UUID.randomUUID().toString().replace("-", "");
+			cache.put(key, new FileContent(null, sb.toString() + i));
+		}
+		
+		Assert.assertTrue(cache.getEvictions() > 0);
+		Assert.assertTrue(cache.getSize() <= 4096l);
+		// the oldest entry is evicted first
+		Assert.assertNull(cache.get(firstKey));
+	}
+	
+	private VFSLeaf getLeaf() throws URISyntaxException {
+		URL pdfUrl = ExtractedTextCacheTest.class.getResource("Test_pdf_indexing.pdf");
+		return new VFSJavaIOFile(UUID.randomUUID() + ".pdf", new File(pdfUrl.toURI()));
+	}
+}
@@ -49,8 +49,11 @@ import org.junit.runners.Suite;
 	org.olat.core.gui.components.table.TableEventTest.class,
 	org.olat.core.gui.components.table.TableMultiSelectEventTest.class,
 	org.olat.core.gui.components.table.SorterTest.class,
+	org.olat.core.gui.media.ServletUtilTest.class,
+	org.olat.core.gui.media.ResponseEncoderTest.class,
 	org.olat.core.commons.chiefcontrollers.ChiefControllerMessageEventTest.class,
 	org.olat.core.util.vfs.VFSManagerTest.class,
+	org.olat.core.util.vfs.QuotaUsageLedgerTest.class,
 	org.olat.core.util.filter.impl.XSSFilterTest.class,
 	org.olat.core.util.filter.impl.AddBaseURLToMediaRelativeURLFilterTest.class,
 	org.olat.core.util.filter.impl.SimpleHTMLTagsFilterTest.class,
@@ -60,9 +63,12 @@ import org.junit.runners.Suite;
 	org.olat.core.util.filter.impl.XMLValidEntityFilterTest.class,
 	org.olat.core.helpers.SettingsTest.class,
 	org.olat.core.util.coordinate.LockEntryTest.class,
+	org.olat.core.util.event.AbstractEventBusTest.class,
 	org.olat.core.util.coordinate.DBPersistentLockManagerTest.class,
 	org.olat.core.util.StringHelperTest.class,
 	org.olat.core.util.FileUtilsTest.class,
+	org.olat.core.util.ZipUtilTest.class,
+	org.olat.core.util.io.ParallelZipWriterTest.class,
 	org.olat.core.util.FileNameSuffixFilterTest.class,
 	org.olat.core.util.FormatterTest.class,
 	org.olat.core.util.FormatLatexFormulasTest.class,
@@ -81,6 +87,7 @@ import org.junit.runners.Suite;
 	org.olat.core.id.context.HistoryManagerTest.class,
 	org.olat.core.id.IdentityEnvironmentTest.class,
 	org.olat.core.gui.render.VelocityTemplateTest.class,
+	org.olat.core.gui.render.StringOutputPoolTest.class,
 	org.olat.core.gui.control.generic.iframe.IFrameDeliveryMapperTest.class,
 	org.olat.note.NoteTest.class,
 	org.olat.user.UserTest.class,
@@ -92,6 +99,7 @@ import org.junit.runners.Suite;
 	org.olat.commons.calendar.manager.CalendarUserConfigurationDAOTest.class,
 	org.olat.commons.lifecycle.LifeCycleManagerTest.class,
 	org.olat.commons.coordinate.cluster.jms.JMSTest.class,
+	org.olat.commons.coordinate.cluster.jms.ClusterEventCodecTest.class,
 	org.olat.commons.coordinate.cluster.lock.LockTest.class,
 	org.olat.commons.coordinate.CoordinatorTest.class,
 	org.olat.core.commons.modules.bc.meta.MetaInfoFactoryTest.class,
@@ -143,6 +151,7 @@ import org.junit.runners.Suite;
 	org.olat.repository.manager.RepositoryEntryStatisticsDAOTest.class,
 	org.olat.repository.manager.RepositoryEntryAuthorQueriesTest.class,
 	org.olat.repository.manager.RepositoryEntryMyCourseQueriesTest.class,
+	org.olat.repository.manager.RepositoryEntryMyCourseProjectionDAOTest.class,
 	org.olat.repository.manager.RepositoryEntryMembershipProcessorTest.class,
 	org.olat.repository.manager.RepositoryEntryToOrganisationDAOTest.class,
 	org.olat.repository.manager.RepositoryEntryToTaxonomyLevelDAOTest.class,
@@ -176,8 +185,10 @@ import org.junit.runners.Suite;
 	org.olat.course.groupsandrights.CourseGroupManagementTest.class,
 	org.olat.course.editor.PublishProcessTest.class,
 	org.olat.course.CourseXStreamAliasesTest.class,
+	org.olat.course.CourseStructureSnapshotTest.class,
 	org.olat.modules.iq.IQManagerTest.class,
 	org.olat.modules.fo.ForumManagerTest.class,//fail
+	org.olat.modules.fo.manager.ForumReadThreadDAOTest.class,
 	org.olat.modules.wiki.WikiUnitTest.class,
 	org.olat.modules.wiki.versioning.diff.CookbookDiffTest.class,
 	org.olat.modules.wiki.gui.components.wikiToHtml.FilterUtilTest.class,
@@ -254,7 +265,9 @@ import org.junit.runners.Suite;
 	org.olat.search.service.indexer.repository.course.SPCourseNodeIndexerTest.class,
 	org.olat.search.service.document.file.PDFDocumentTest.class,
 	org.olat.search.service.document.file.OfficeDocumentTest.class,
+	org.olat.search.service.document.file.ExtractedTextCacheTest.class,
 	org.olat.core.commons.services.notifications.manager.NotificationsManagerTest.class,
+	org.olat.core.commons.services.notifications.SubscriptionInfoTest.class,
 	org.olat.registration.RegistrationManagerTest.class,
 	org.olat.course.nodes.projectbroker.ProjectBrokerManagerTest.class,
 	org.olat.core.commons.persistence.DBTest.class,
@@ -272,6 +285,8 @@ import org.junit.runners.Suite;
 	org.olat.ims.qti21.manager.AssessmentItemSessionDAOTest.class,
 	org.olat.ims.qti21.manager.AssessmentResponseDAOTest.class,
 	org.olat.ims.qti21.manager.CorrectResponsesUtilTest.class,
+	org.olat.ims.qti21.manager.AssessmentSessionStateStoreTest.class,
+	org.olat.ims.qti21.manager.AssessmentTestLaunchThrottleTest.class,
 	org.olat.ims.qti21.model.xml.AssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.MultipleChoiceAssessmentItemBuilderTest.class,
 	org.olat.ims.qti21.model.xml.SingleChoiceAssessmentItemBuilderTest.class,
@@ -303,6 +318,7 @@ import org.junit.runners.Suite;
 	org.olat.modules.qpool.manager.QuestionItemAuditLogDAOTest.class,
 	org.olat.login.oauth.OAuthDispatcherTest.class,
 	org.olat.ldap.LDAPLoginTest.class,
+	org.olat.ldap.manager.LDAPSyncedUsersTest.class,
 	org.olat.core.commons.services.mark.MarksTest.class,
 	org.olat.test.SpringInitDestroyVerficationTest.class,
 	//org.olat.course.statistic.weekly.TestWeeklyStatisticManager_fillGaps.class, don't know what it tests